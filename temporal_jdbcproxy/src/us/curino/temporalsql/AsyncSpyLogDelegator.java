@@ -0,0 +1,446 @@
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A SpyLogDelegator that moves the formatting and writing of log events off
+ * the threads making the JDBC calls.
+ *
+ * Each event is copied into a preallocated slot of a bounded, lock free ring
+ * buffer that any number of threads publish to, and a single background
+ * thread takes the events out in order and hands them to the real delegator
+ * (normally the Slf4jSpyLogDelegator).  The JDBC thread only pays for claiming
+ * a slot; processSql, the debug info and the appender I/O happen on the
+ * background thread.  When debug info is wanted it is captured on the JDBC
+ * thread though, since it describes that thread's stack.
+ *
+ * When the buffer is full, the <b>log4jdbc.async.overflow</b> policy decides:
+ * <code>drop</code> (the default) throws the event away, <code>block</code>
+ * waits for room, and <code>sample</code> starts keeping only one event out of
+ * <b>log4jdbc.async.sample.rate</b> once the buffer is half full, and drops
+ * the event when it is full.  The number of events thrown away is logged to
+ * the log4jdbc.debug logger.  The buffer is enabled by setting
+ * <b>log4jdbc.async.buffer.size</b> (rounded up to a power of two).
+ */
+public class AsyncSpyLogDelegator implements SpyLogDelegator
+{
+  /**
+   * Overflow policies.
+   */
+  static final int DROP = 0;
+  static final int SAMPLE = 1;
+  static final int BLOCK = 2;
+
+  // event types
+  private static final byte EXCEPTION = 1;
+  private static final byte METHOD_RETURNED = 2;
+  private static final byte CONSTRUCTOR_RETURNED = 3;
+  private static final byte SQL = 4;
+  private static final byte SQL_TIMING = 5;
+  private static final byte CONNECTION_OPENED = 6;
+  private static final byte CONNECTION_CLOSED = 7;
+  private static final byte DEBUG = 8;
+
+  /**
+   * One slot of the ring buffer.  The fields are written by the thread that
+   * claimed the slot before it is published, and read by the log thread.
+   */
+  private static class Event
+  {
+    byte type;
+    Spy spy;
+    String methodCall;
+    String text;
+    Exception exception;
+    long time;
+    String debugInfo;
+
+    void clear()
+    {
+      spy = null;
+      methodCall = null;
+      text = null;
+      exception = null;
+      debugInfo = null;
+    }
+  }
+
+  private final Slf4jSpyLogDelegator delegate;
+
+  private final int policy;
+
+  private final int sampleRate;
+
+  private final int mask;
+
+  private final Event[] slots;
+
+  /**
+   * sequences[i] is the position slot i can be claimed at, or that position
+   * plus one once the event in it is published.
+   */
+  private final AtomicLongArray sequences;
+
+  /**
+   * next position to claim
+   */
+  private final AtomicLong tail = new AtomicLong();
+
+  /**
+   * next position to take out, only used by the log thread
+   */
+  private volatile long head;
+
+  private final AtomicLong dropped = new AtomicLong();
+
+  private final AtomicLong offered = new AtomicLong();
+
+  private final Thread thread;
+
+  /**
+   * Create an AsyncSpyLogDelegator and start its log thread.
+   *
+   * @param delegate   the delegator that formats and writes the events.
+   * @param size       number of events the buffer can hold, rounded up to a power of two.
+   * @param policy     what to do when the buffer is full: DROP, SAMPLE or BLOCK.
+   * @param sampleRate with the SAMPLE policy, keep one event out of this many under pressure.
+   */
+  public AsyncSpyLogDelegator(Slf4jSpyLogDelegator delegate, int size, int policy, int sampleRate)
+  {
+    int capacity = 2;
+    while (capacity < size && capacity < (1 << 30))
+    {
+      capacity <<= 1;
+    }
+    this.delegate = delegate;
+    this.policy = policy;
+    this.sampleRate = Math.max(1, sampleRate);
+    mask = capacity - 1;
+    slots = new Event[capacity];
+    sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++)
+    {
+      slots[i] = new Event();
+      sequences.set(i, i);
+    }
+
+    thread = new Thread("log4jdbc async log")
+    {
+      public void run()
+      {
+        drain();
+      }
+    };
+    thread.setDaemon(true);
+    thread.start();
+
+    Runtime.getRuntime().addShutdownHook(new Thread("log4jdbc async log flush")
+    {
+      public void run()
+      {
+        flush(1000);
+      }
+    });
+  }
+
+  /**
+   * Get an overflow policy by name.
+   *
+   * @param name drop, sample or block.
+   * @return the policy, DROP if the name is not known.
+   */
+  static int getPolicy(String name)
+  {
+    if ("block".equalsIgnoreCase(name))
+    {
+      return BLOCK;
+    }
+    if ("sample".equalsIgnoreCase(name))
+    {
+      return SAMPLE;
+    }
+    return DROP;
+  }
+
+  /**
+   * Claim a slot for an event, applying the overflow policy.
+   *
+   * @return the position of the claimed slot, or -1 if the event is dropped.
+   */
+  private long claim()
+  {
+    if (policy == SAMPLE && tail.get() - head > mask / 2 &&
+        offered.incrementAndGet() % sampleRate != 0)
+    {
+      dropped.incrementAndGet();
+      return -1;
+    }
+    for (;;)
+    {
+      long t = tail.get();
+      long seq = sequences.get((int) t & mask);
+      if (seq == t)
+      {
+        if (tail.compareAndSet(t, t + 1))
+        {
+          return t;
+        }
+      }
+      else if (seq < t)
+      {
+        // full
+        if (policy != BLOCK)
+        {
+          dropped.incrementAndGet();
+          return -1;
+        }
+        LockSupport.parkNanos(50000);
+      }
+    }
+  }
+
+  /**
+   * Publish the event in a claimed slot to the log thread.
+   */
+  private void publish(long position)
+  {
+    sequences.set((int) position & mask, position + 1);
+  }
+
+  private void offer(byte type, Spy spy, String methodCall, String text, Exception exception,
+    long time, boolean withDebugInfo)
+  {
+    long position = claim();
+    if (position < 0)
+    {
+      return;
+    }
+    Event event = slots[(int) position & mask];
+    event.type = type;
+    event.spy = spy;
+    event.methodCall = methodCall;
+    event.text = text;
+    event.exception = exception;
+    event.time = time;
+    event.debugInfo = withDebugInfo && delegate.isDebugInfoEnabled() ?
+      Slf4jSpyLogDelegator.getDebugInfo() : null;
+    publish(position);
+  }
+
+  /**
+   * The loop of the log thread.
+   */
+  private void drain()
+  {
+    int idle = 0;
+    for (;;)
+    {
+      long h = head;
+      int i = (int) h & mask;
+      if (sequences.get(i) != h + 1)
+      {
+        reportDropped();
+        if (++idle < 100)
+        {
+          Thread.yield();
+        }
+        else
+        {
+          LockSupport.parkNanos(idle < 1000 ? 100000 : 1000000);
+        }
+        continue;
+      }
+      idle = 0;
+      Event event = slots[i];
+      try
+      {
+        deliver(event);
+      }
+      catch (Throwable t)
+      {
+        // a failing appender must not stop the log thread
+      }
+      event.clear();
+      head = h + 1;
+      sequences.set(i, h + slots.length);
+    }
+  }
+
+  private void reportDropped()
+  {
+    long d = dropped.get();
+    if (d > 0 && dropped.compareAndSet(d, 0))
+    {
+      delegate.debug("async log buffer full, " + d + " log events were dropped");
+    }
+  }
+
+  private void deliver(Event event)
+  {
+    Slf4jSpyLogDelegator.setCapturedDebugInfo(event.debugInfo);
+    try
+    {
+      switch (event.type)
+      {
+        case EXCEPTION:
+          delegate.exceptionOccured(event.spy, event.methodCall, event.exception, event.text, event.time);
+          break;
+        case METHOD_RETURNED:
+          delegate.methodReturned(event.spy, event.methodCall, event.text);
+          break;
+        case CONSTRUCTOR_RETURNED:
+          delegate.constructorReturned(event.spy, event.text);
+          break;
+        case SQL:
+          delegate.sqlOccured(event.spy, event.methodCall, event.text);
+          break;
+        case SQL_TIMING:
+          delegate.sqlTimingOccured(event.spy, event.time, event.methodCall, event.text);
+          break;
+        case CONNECTION_OPENED:
+          delegate.connectionOpened(event.spy);
+          break;
+        case CONNECTION_CLOSED:
+          delegate.connectionClosed(event.spy);
+          break;
+        case DEBUG:
+          delegate.debug(event.text);
+          break;
+        default:
+          break;
+      }
+    }
+    finally
+    {
+      Slf4jSpyLogDelegator.setCapturedDebugInfo(null);
+    }
+  }
+
+  /**
+   * Wait until the log thread has handed out every event published so far.
+   *
+   * @param timeoutMillis maximum time to wait.
+   * @return true if the buffer was drained in time.
+   */
+  public boolean flush(long timeoutMillis)
+  {
+    long target = tail.get();
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    while (head < target)
+    {
+      if (System.currentTimeMillis() > deadline || !thread.isAlive())
+      {
+        return false;
+      }
+      LockSupport.parkNanos(1000000);
+    }
+    return true;
+  }
+
+  /**
+   * @return the number of events dropped since the count was last logged.
+   */
+  public long getDropped()
+  {
+    return dropped.get();
+  }
+
+  public boolean isJdbcLoggingEnabled()
+  {
+    return delegate.isJdbcLoggingEnabled();
+  }
+
+  public boolean isResultSetLoggingEnabled()
+  {
+    return delegate.isResultSetLoggingEnabled();
+  }
+
+  public boolean isMethodReturnedEnabled(Spy spy)
+  {
+    return delegate.isMethodReturnedEnabled(spy);
+  }
+
+  public void exceptionOccured(Spy spy, String methodCall, Exception e, String sql, long execTime)
+  {
+    offer(EXCEPTION, spy, methodCall, sql, e, execTime, true);
+  }
+
+  public void methodReturned(Spy spy, String methodCall, String returnMsg)
+  {
+    if (delegate.isMethodReturnedEnabled(spy))
+    {
+      offer(METHOD_RETURNED, spy, methodCall, returnMsg, null, 0, true);
+    }
+  }
+
+  public void constructorReturned(Spy spy, String constructionInfo)
+  {
+    // every Statement and ResultSet is constructed: only take a slot when
+    // the delegate logs their calls
+    if (delegate.isMethodReturnedEnabled(spy))
+    {
+      offer(CONSTRUCTOR_RETURNED, spy, null, constructionInfo, null, 0, false);
+    }
+  }
+
+  public void sqlOccured(Spy spy, String methodCall, String sql)
+  {
+    if (delegate.isSqlEnabled())
+    {
+      offer(SQL, spy, methodCall, sql, null, 0, true);
+    }
+  }
+
+  public void sqlTimingOccured(Spy spy, long execTime, String methodCall, String sql)
+  {
+    if (delegate.isSqlTimingEnabled())
+    {
+      offer(SQL_TIMING, spy, methodCall, sql, null, execTime, true);
+    }
+  }
+
+  public void connectionOpened(Spy spy)
+  {
+    if (delegate.isConnectionEnabled())
+    {
+      offer(CONNECTION_OPENED, spy, null, null, null, 0, true);
+    }
+  }
+
+  public void connectionClosed(Spy spy)
+  {
+    if (delegate.isConnectionEnabled())
+    {
+      offer(CONNECTION_CLOSED, spy, null, null, null, 0, true);
+    }
+  }
+
+  public void debug(String msg)
+  {
+    if (delegate.isDebugEnabled())
+    {
+      offer(DEBUG, null, null, msg, null, 0, false);
+    }
+  }
+}
@@ -0,0 +1,537 @@
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The set based form of a temporal UPDATE, used to run a batch of it in a few
+ * statements instead of one round of rewritten statements per row.
+ *
+ * A temporal UPDATE is rewritten to an UPDATE closing the current version of
+ * the row, followed by INSERTs of the new version.  When the closing UPDATE
+ * only takes parameters in <code>column = ?</code> conditions, the closing
+ * UPDATEs of many rows become one UPDATE with those columns in an IN list,
+ * and the INSERTs of many rows one multi row <code>INSERT ... VALUES</code>
+ * or <code>INSERT ... SELECT ... UNION ALL SELECT ...</code>.  All the rows
+ * are closed before any new version is inserted, so this is only the same as
+ * running the rows one after the other when no two rows touch the same
+ * database row: PreparedStatementSpy checks that the rows bind different
+ * values to the key columns, and the key columns must not be assigned by the
+ * original UPDATE.
+ *
+ * The closing UPDATE sets the tend of each version to now_usec(), which the
+ * database evaluates for each row it changes, and the INSERTs find the
+ * closed versions by that tend: a set based UPDATE would give its rows
+ * different tends that no INSERT matches.  So a rewrite that calls
+ * now_usec() is only collapsed when the proxy takes the time (see
+ * TransactionClock) and puts one timestamp in place of the calls.
+ *
+ * The rewritten SQL is only recognized by its shape, anything else (an
+ * OR in the condition, a LIMIT, ON DUPLICATE KEY, ...) is not collapsed and
+ * its batch runs row by row.  Collapsing is enabled by setting
+ * <b>log4jdbc.temporal.batch.collapse.rows</b>, the maximum number of rows
+ * per set based statement.
+ */
+public class BatchCollapse
+{
+  /**
+   * Maximum number of parameters in one set based statement (the limit of
+   * the PostgreSQL protocol, MySQL allows more).
+   */
+  static final int MAX_PARAMETERS = 32767;
+
+  private static final Pattern KEY_CONDITION = Pattern.compile(
+    "((?:[A-Za-z_][\\w$]*|`[^`]+`|\"[^\"]+\")(?:\\s*\\.\\s*(?:[A-Za-z_][\\w$]*|`[^`]+`|\"[^\"]+\"))*)\\s*=\\s*\\?");
+
+  /**
+   * Keywords that make the condition of the closing UPDATE unsafe to split.
+   */
+  private static final String[] UPDATE_STOP_WORDS = {"OR", "ORDER", "LIMIT", "RETURNING"};
+
+  /**
+   * Keywords that make an INSERT ... SELECT unsafe to repeat with UNION ALL.
+   */
+  private static final String[] SELECT_STOP_WORDS = {"UNION", "INTERSECT", "EXCEPT", "ORDER",
+    "LIMIT", "FOR", "DUPLICATE", "CONFLICT", "RETURNING"};
+
+  // the set based form of statement s is prefixes[s], then items[s] once for
+  // each row with separators[s] in between, then suffixes[s]
+  private final String[] prefixes;
+  private final String[] items;
+  private final String[] separators;
+  private final String[] suffixes;
+
+  /**
+   * number of parameters one row binds to each statement
+   */
+  private final int[] counts;
+
+  private BatchCollapse(int statements)
+  {
+    prefixes = new String[statements];
+    items = new String[statements];
+    separators = new String[statements];
+    suffixes = new String[statements];
+    counts = new int[statements];
+  }
+
+  /**
+   * Work out the set based form of a temporal rewrite.
+   *
+   * @param sql         the SQL the application prepared.
+   * @param sqls        the statements it was rewritten to.
+   * @param clientClock true if the now_usec() calls of the statements are
+   *                    replaced by one timestamp taken by the proxy.
+   * @return the set based form, or null if the rewrite cannot be collapsed.
+   */
+  public static BatchCollapse compile(String sql, List<String> sqls, boolean clientClock)
+  {
+    if (sqls.size() < 2)
+    {
+      return null;
+    }
+    for (int s = 0; !clientClock && s < sqls.size(); s++)
+    {
+      if (TransactionClock.findCalls(sqls.get(s)).length > 0)
+      {
+        return null;
+      }
+    }
+    BatchCollapse collapse = new BatchCollapse(sqls.size());
+    List<String> keys = collapse.compileUpdate(strip(sqls.get(0)));
+    if (keys == null || assignsKey(strip(sql), keys))
+    {
+      return null;
+    }
+    for (int s = 1; s < sqls.size(); s++)
+    {
+      String statement = strip(sqls.get(s));
+      if (HistoryTables.isSweep(statement))
+      {
+        collapse.compileOnce(s, statement);
+      }
+      else if (!collapse.compileInsert(s, statement))
+      {
+        return null;
+      }
+    }
+    return collapse;
+  }
+
+  /**
+   * Compile the closing UPDATE into an UPDATE over an IN list of keys.
+   *
+   * @return the normalized names of the key columns, or null if the UPDATE
+   *         does not have the right shape.
+   */
+  private List<String> compileUpdate(String sql)
+  {
+    if (!startsWithKeyword(sql, "UPDATE"))
+    {
+      return null;
+    }
+    int set = indexOfKeyword(sql, "SET", 0);
+    int where = set < 0 ? -1 : indexOfKeyword(sql, "WHERE", set);
+    if (where < 0)
+    {
+      return null;
+    }
+    String head = sql.substring(0, where).trim();
+    String condition = sql.substring(where + "WHERE".length());
+    if (ParameterRouting.countParameters(head) > 0)
+    {
+      return null;
+    }
+    for (int i = 0; i < UPDATE_STOP_WORDS.length; i++)
+    {
+      if (indexOfKeyword(condition, UPDATE_STOP_WORDS[i], 0) >= 0)
+      {
+        return null;
+      }
+    }
+
+    StringBuffer others = new StringBuffer();
+    List<String> columns = new ArrayList<String>();
+    List<String> keys = new ArrayList<String>();
+    List<String> conjuncts = split(condition, "AND");
+    for (int i = 0; i < conjuncts.size(); i++)
+    {
+      String conjunct = conjuncts.get(i).trim();
+      if (ParameterRouting.countParameters(conjunct) == 0)
+      {
+        if (others.length() > 0)
+        {
+          others.append(" AND ");
+        }
+        others.append(conjunct);
+        continue;
+      }
+      Matcher m = KEY_CONDITION.matcher(unwrap(conjunct));
+      if (!m.matches())
+      {
+        return null;
+      }
+      columns.add(m.group(1));
+      keys.add(RewrittenSql.normalizeTableName(m.group(1)));
+    }
+    if (columns.isEmpty())
+    {
+      return null;
+    }
+
+    StringBuffer prefix = new StringBuffer(head);
+    prefix.append(" WHERE ");
+    if (others.length() > 0)
+    {
+      prefix.append(others).append(" AND ");
+    }
+    StringBuffer item = new StringBuffer();
+    if (columns.size() == 1)
+    {
+      prefix.append(columns.get(0));
+      item.append('?');
+    }
+    else
+    {
+      prefix.append('(');
+      item.append('(');
+      for (int i = 0; i < columns.size(); i++)
+      {
+        if (i > 0)
+        {
+          prefix.append(", ");
+          item.append(", ");
+        }
+        prefix.append(columns.get(i));
+        item.append('?');
+      }
+      prefix.append(')');
+      item.append(')');
+    }
+    prefix.append(" IN (");
+    prefixes[0] = prefix.toString();
+    items[0] = item.toString();
+    separators[0] = ", ";
+    suffixes[0] = ")";
+    counts[0] = columns.size();
+    return keys;
+  }
+
+  /**
+   * Compile an INSERT of the new version into a multi row INSERT.
+   *
+   * @return false if the INSERT does not have the right shape.
+   */
+  private boolean compileInsert(int s, String sql)
+  {
+    int count = ParameterRouting.countParameters(sql);
+    if (!startsWithKeyword(sql, "INSERT") || count == 0)
+    {
+      return false;
+    }
+    int values = indexOfKeyword(sql, "VALUES", 0);
+    int select = indexOfKeyword(sql, "SELECT", 0);
+    if (values >= 0 && (select < 0 || values < select))
+    {
+      int open = sql.indexOf('(', values);
+      int close = open < 0 ? -1 : matchingParenthesis(sql, open);
+      if (close < 0 || sql.substring(values + "VALUES".length(), open).trim().length() > 0 ||
+          sql.substring(close + 1).trim().length() > 0)
+      {
+        return false;
+      }
+      prefixes[s] = sql.substring(0, open);
+      items[s] = sql.substring(open, close + 1);
+      separators[s] = ", ";
+    }
+    else if (select >= 0)
+    {
+      prefixes[s] = sql.substring(0, select);
+      items[s] = sql.substring(select);
+      separators[s] = " UNION ALL ";
+      for (int i = 0; i < SELECT_STOP_WORDS.length; i++)
+      {
+        if (indexOfKeyword(items[s], SELECT_STOP_WORDS[i], 0) >= 0)
+        {
+          return false;
+        }
+      }
+    }
+    else
+    {
+      return false;
+    }
+    suffixes[s] = "";
+    counts[s] = count;
+    return ParameterRouting.countParameters(prefixes[s]) == 0;
+  }
+
+  /**
+   * Compile a statement that takes no parameters, a sweep of closed versions
+   * to a history table (see HistoryTables.)  It does not depend on the rows,
+   * so it runs once for all of them.
+   */
+  private void compileOnce(int s, String sql)
+  {
+    prefixes[s] = sql;
+    items[s] = "";
+    separators[s] = "";
+    suffixes[s] = "";
+    counts[s] = 0;
+  }
+
+  /**
+   * Determine if the original UPDATE assigns one of the key columns, or is not
+   * an UPDATE we can tell about.  A row moving to another key could be the
+   * row another batch entry updates.
+   */
+  private static boolean assignsKey(String sql, List<String> keys)
+  {
+    if (!startsWithKeyword(sql, "UPDATE"))
+    {
+      return true;
+    }
+    int set = indexOfKeyword(sql, "SET", 0);
+    if (set < 0)
+    {
+      return true;
+    }
+    int where = indexOfKeyword(sql, "WHERE", set);
+    List<String> assignments = split(sql.substring(set + "SET".length(),
+      where < 0 ? sql.length() : where), ",");
+    for (int i = 0; i < assignments.size(); i++)
+    {
+      String assignment = assignments.get(i);
+      int eq = assignment.indexOf('=');
+      if (eq < 0 || keys.contains(RewrittenSql.normalizeTableName(assignment.substring(0, eq))))
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the number of rewritten statements.
+   */
+  public int getStatementCount()
+  {
+    return counts.length;
+  }
+
+  /**
+   * @param statement position of the statement in the rewritten statement list.
+   * @return the number of parameters each row binds to the statement.
+   */
+  public int getParameterCount(int statement)
+  {
+    return counts[statement];
+  }
+
+  /**
+   * Get the number of rows to put in one set based statement.
+   *
+   * @param statement position of the statement in the rewritten statement list.
+   * @param max       the maximum number of rows wanted.
+   * @return the number of rows, at least 1, unlimited for a statement that
+   *         takes no parameters.
+   */
+  public int getRowsPerStatement(int statement, int max)
+  {
+    if (counts[statement] == 0)
+    {
+      return Integer.MAX_VALUE;
+    }
+    return Math.max(1, Math.min(max, MAX_PARAMETERS / counts[statement]));
+  }
+
+  /**
+   * Get the set based form of a statement for a number of rows.  The
+   * parameters of row r (0 based) follow those of the rows before it, so they
+   * are shifted by r times the parameter count of the statement.
+   *
+   * @param statement position of the statement in the rewritten statement list.
+   * @param rows      number of rows.
+   * @return the set based SQL.
+   */
+  public String getSql(int statement, int rows)
+  {
+    String item = items[statement];
+    StringBuffer sql = new StringBuffer(prefixes[statement].length() +
+      rows * (item.length() + separators[statement].length()) + 1);
+    sql.append(prefixes[statement]);
+    for (int r = 0; r < rows; r++)
+    {
+      if (r > 0)
+      {
+        sql.append(separators[statement]);
+      }
+      sql.append(item);
+    }
+    sql.append(suffixes[statement]);
+    return sql.toString();
+  }
+
+  /**
+   * Trim a statement and drop any trailing semicolons.
+   */
+  private static String strip(String sql)
+  {
+    String s = sql.trim();
+    while (s.endsWith(";"))
+    {
+      s = s.substring(0, s.length() - 1).trim();
+    }
+    return s;
+  }
+
+  /**
+   * Remove parentheses around a whole expression.
+   */
+  private static String unwrap(String expression)
+  {
+    String e = expression.trim();
+    while (e.length() > 1 && e.charAt(0) == '(' && matchingParenthesis(e, 0) == e.length() - 1)
+    {
+      e = e.substring(1, e.length() - 1).trim();
+    }
+    return e;
+  }
+
+  private static boolean isWordChar(char c)
+  {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+  }
+
+  private static boolean startsWithKeyword(String sql, String keyword)
+  {
+    return sql.regionMatches(true, 0, keyword, 0, keyword.length()) &&
+      (sql.length() == keyword.length() || !isWordChar(sql.charAt(keyword.length())));
+  }
+
+  /**
+   * Find a keyword (or punctuation) outside of quotes and parentheses.
+   *
+   * @param sql     the SQL to search.
+   * @param keyword the keyword, matched without case as a whole word.
+   * @param from    the position to start from.
+   * @return the position of the keyword, or -1 if it does not occur.
+   */
+  static int indexOfKeyword(String sql, String keyword, int from)
+  {
+    boolean word = isWordChar(keyword.charAt(0));
+    int k = keyword.length();
+    int depth = 0;
+    char quote = 0;
+    for (int i = from, len = sql.length(); i < len; i++)
+    {
+      char c = sql.charAt(i);
+      if (quote != 0)
+      {
+        if (c == '\\' && quote != '`')
+        {
+          i++;
+        }
+        else if (c == quote)
+        {
+          quote = 0;
+        }
+      }
+      else if (c == '\'' || c == '"' || c == '`')
+      {
+        quote = c;
+      }
+      else if (c == '(')
+      {
+        depth++;
+      }
+      else if (c == ')')
+      {
+        depth--;
+      }
+      else if (depth == 0 && sql.regionMatches(true, i, keyword, 0, k) &&
+               (!word || ((i == 0 || !isWordChar(sql.charAt(i - 1))) &&
+                          (i + k == len || !isWordChar(sql.charAt(i + k))))))
+      {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Split SQL at a keyword (or punctuation) outside of quotes and parentheses.
+   */
+  private static List<String> split(String sql, String keyword)
+  {
+    List<String> parts = new ArrayList<String>();
+    int start = 0;
+    for (int at = indexOfKeyword(sql, keyword, 0); at >= 0; at = indexOfKeyword(sql, keyword, start))
+    {
+      parts.add(sql.substring(start, at));
+      start = at + keyword.length();
+    }
+    parts.add(sql.substring(start));
+    return parts;
+  }
+
+  /**
+   * Find the parenthesis closing the one at a given position.
+   *
+   * @return the position of the closing parenthesis, or -1 if there is none.
+   */
+  private static int matchingParenthesis(String sql, int open)
+  {
+    int depth = 0;
+    char quote = 0;
+    for (int i = open, len = sql.length(); i < len; i++)
+    {
+      char c = sql.charAt(i);
+      if (quote != 0)
+      {
+        if (c == '\\' && quote != '`')
+        {
+          i++;
+        }
+        else if (c == quote)
+        {
+          quote = 0;
+        }
+      }
+      else if (c == '\'' || c == '"' || c == '`')
+      {
+        quote = c;
+      }
+      else if (c == '(')
+      {
+        depth++;
+      }
+      else if (c == ')' && --depth == 0)
+      {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
@@ -98,70 +98,70 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public Date getDate(int parameterIndex) throws SQLException
   {
-    String methodCall = "getDate(" + parameterIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getDate(" + parameterIndex + ")" : "getDate";
     try
     {
       return (Date) reportReturn(methodCall, realCallableStatement.getDate(parameterIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getDate(" + parameterIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Date getDate(int parameterIndex, Calendar cal) throws SQLException
   {
-    String methodCall = "getDate(" + parameterIndex + ", " + cal + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getDate(" + parameterIndex + ", " + cal + ")" : "getDate";
     try
     {
       return (Date) reportReturn(methodCall, realCallableStatement.getDate(parameterIndex, cal));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getDate(" + parameterIndex + ", " + cal + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Ref getRef(String parameterName) throws SQLException
   {
-    String methodCall = "getRef(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getRef(" + parameterName + ")" : "getRef";
     try
     {
       return (Ref) reportReturn(methodCall, realCallableStatement.getRef(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getRef(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Time getTime(String parameterName) throws SQLException
   {
-    String methodCall = "getTime(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getTime(" + parameterName + ")" : "getTime";
     try
     {
       return (Time) reportReturn(methodCall, realCallableStatement.getTime(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getTime(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void setTime(String parameterName, Time x) throws SQLException
   {
-    String methodCall = "setTime(" + parameterName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setTime(" + parameterName + ", " + x + ")" : "setTime";
     try
     {
       realCallableStatement.setTime(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setTime(" + parameterName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -169,84 +169,84 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public Blob getBlob(int i) throws SQLException
   {
-    String methodCall = "getBlob(" + i + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getBlob(" + i + ")" : "getBlob";
     try
     {
       return (Blob) reportReturn(methodCall, realCallableStatement.getBlob(i));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getBlob(" + i + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Clob getClob(int i) throws SQLException
   {
-    String methodCall = "getClob(" + i + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getClob(" + i + ")" : "getClob";
     try
     {
       return (Clob) reportReturn(methodCall, realCallableStatement.getClob(i));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getClob(" + i + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Array getArray(int i) throws SQLException
   {
-    String methodCall = "getArray(" + i + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getArray(" + i + ")" : "getArray";
     try
     {
       return (Array) reportReturn(methodCall, realCallableStatement.getArray(i));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getArray(" + i + ")" : methodCall, s);
       throw s;
     }
   }
 
   public byte[] getBytes(int parameterIndex) throws SQLException
   {
-    String methodCall = "getBytes(" + parameterIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getBytes(" + parameterIndex + ")" : "getBytes";
     try
     {
       return (byte[]) reportReturn(methodCall, realCallableStatement.getBytes(parameterIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getBytes(" + parameterIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public double getDouble(int parameterIndex) throws SQLException
   {
-    String methodCall = "getDouble(" + parameterIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getDouble(" + parameterIndex + ")" : "getDouble";
     try
     {
       return reportReturn(methodCall, realCallableStatement.getDouble(parameterIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getDouble(" + parameterIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public int getInt(int parameterIndex) throws SQLException
   {
-    String methodCall = "getInt(" + parameterIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getInt(" + parameterIndex + ")" : "getInt";
     try
     {
       return reportReturn(methodCall, realCallableStatement.getInt(parameterIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getInt(" + parameterIndex + ")" : methodCall, s);
       throw s;
     }
   }
@@ -267,56 +267,56 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public Time getTime(int parameterIndex) throws SQLException
   {
-    String methodCall = "getTime(" + parameterIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getTime(" + parameterIndex + ")" : "getTime";
     try
     {
       return (Time) reportReturn(methodCall, realCallableStatement.getTime(parameterIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getTime(" + parameterIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Time getTime(int parameterIndex, Calendar cal) throws SQLException
   {
-    String methodCall = "getTime(" + parameterIndex + ", " + cal + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getTime(" + parameterIndex + ", " + cal + ")" : "getTime";
     try
     {
       return (Time) reportReturn(methodCall, realCallableStatement.getTime(parameterIndex, cal));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getTime(" + parameterIndex + ", " + cal + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Timestamp getTimestamp(String parameterName) throws SQLException
   {
-    String methodCall = "getTimestamp(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getTimestamp(" + parameterName + ")" : "getTimestamp";
     try
     {
       return (Timestamp) reportReturn(methodCall, realCallableStatement.getTimestamp(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getTimestamp(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void setTimestamp(String parameterName, Timestamp x) throws SQLException
   {
-    String methodCall = "setTimestamp(" + parameterName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setTimestamp(" + parameterName + ", " + x + ")" : "setTimestamp";
     try
     {
       realCallableStatement.setTimestamp(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setTimestamp(" + parameterName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -324,21 +324,21 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public String getString(int parameterIndex) throws SQLException
   {
-    String methodCall = "getString(" + parameterIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getString(" + parameterIndex + ")" : "getString";
     try
     {
       return (String) reportReturn(methodCall, realCallableStatement.getString(parameterIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getString(" + parameterIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void registerOutParameter(int parameterIndex, int sqlType) throws SQLException
   {
-    String methodCall = "registerOutParameter(" + parameterIndex + ", " + sqlType + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "registerOutParameter(" + parameterIndex + ", " + sqlType + ")" : "registerOutParameter";
     argTraceSet(parameterIndex, null, "<OUT>");
     try
     {
@@ -346,7 +346,7 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "registerOutParameter(" + parameterIndex + ", " + sqlType + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -354,7 +354,7 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public void registerOutParameter(int parameterIndex, int sqlType, int scale) throws SQLException
   {
-    String methodCall = "registerOutParameter(" + parameterIndex + ", " + sqlType + ", " + scale + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "registerOutParameter(" + parameterIndex + ", " + sqlType + ", " + scale + ")" : "registerOutParameter";
     argTraceSet(parameterIndex, null, "<OUT>");
     try
     {
@@ -362,7 +362,7 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "registerOutParameter(" + parameterIndex + ", " + sqlType + ", " + scale + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -370,7 +370,7 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public void registerOutParameter(int paramIndex, int sqlType, String typeName) throws SQLException
   {
-    String methodCall = "registerOutParameter(" + paramIndex + ", " + sqlType + ", " + typeName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "registerOutParameter(" + paramIndex + ", " + sqlType + ", " + typeName + ")" : "registerOutParameter";
     argTraceSet(paramIndex, null, "<OUT>");
     try
     {
@@ -378,7 +378,7 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "registerOutParameter(" + paramIndex + ", " + sqlType + ", " + typeName + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -386,126 +386,126 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public byte getByte(String parameterName) throws SQLException
   {
-    String methodCall = "getByte(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getByte(" + parameterName + ")" : "getByte";
     try
     {
       return reportReturn(methodCall, realCallableStatement.getByte(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getByte(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public double getDouble(String parameterName) throws SQLException
   {
-    String methodCall = "getDouble(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getDouble(" + parameterName + ")" : "getDouble";
     try
     {
       return reportReturn(methodCall, realCallableStatement.getDouble(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getDouble(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public float getFloat(String parameterName) throws SQLException
   {
-    String methodCall = "getFloat(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getFloat(" + parameterName + ")" : "getFloat";
     try
     {
       return reportReturn(methodCall, realCallableStatement.getFloat(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getFloat(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public int getInt(String parameterName) throws SQLException
   {
-    String methodCall = "getInt(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getInt(" + parameterName + ")" : "getInt";
     try
     {
       return reportReturn(methodCall, realCallableStatement.getInt(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getInt(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public long getLong(String parameterName) throws SQLException
   {
-    String methodCall = "getLong(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getLong(" + parameterName + ")" : "getLong";
     try
     {
       return reportReturn(methodCall, realCallableStatement.getLong(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getLong(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public short getShort(String parameterName) throws SQLException
   {
-    String methodCall = "getShort(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getShort(" + parameterName + ")" : "getShort";
     try
     {
       return reportReturn(methodCall, realCallableStatement.getShort(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getShort(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public boolean getBoolean(String parameterName) throws SQLException
   {
-    String methodCall = "getBoolean(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getBoolean(" + parameterName + ")" : "getBoolean";
     try
     {
       return reportReturn(methodCall, realCallableStatement.getBoolean(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getBoolean(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public byte[] getBytes(String parameterName) throws SQLException
   {
-    String methodCall = "getBytes(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getBytes(" + parameterName + ")" : "getBytes";
     try
     {
       return (byte[]) reportReturn(methodCall, realCallableStatement.getBytes(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getBytes(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void setByte(String parameterName, byte x) throws SQLException
   {
-    String methodCall = "setByte(" + parameterName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setByte(" + parameterName + ", " + x + ")" : "setByte";
     try
     {
       realCallableStatement.setByte(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setByte(" + parameterName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -513,14 +513,14 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public void setDouble(String parameterName, double x) throws SQLException
   {
-    String methodCall = "setDouble(" + parameterName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setDouble(" + parameterName + ", " + x + ")" : "setDouble";
     try
     {
       realCallableStatement.setDouble(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setDouble(" + parameterName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -528,14 +528,14 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public void setFloat(String parameterName, float x) throws SQLException
   {
-    String methodCall = "setFloat(" + parameterName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setFloat(" + parameterName + ", " + x + ")" : "setFloat";
     try
     {
       realCallableStatement.setFloat(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setFloat(" + parameterName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -543,14 +543,14 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public void registerOutParameter(String parameterName, int sqlType) throws SQLException
   {
-    String methodCall = "registerOutParameter(" + parameterName + ", " + sqlType + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "registerOutParameter(" + parameterName + ", " + sqlType + ")" : "registerOutParameter";
     try
     {
       realCallableStatement.registerOutParameter(parameterName, sqlType);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "registerOutParameter(" + parameterName + ", " + sqlType + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -558,14 +558,14 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public void setInt(String parameterName, int x) throws SQLException
   {
-    String methodCall = "setInt(" + parameterName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setInt(" + parameterName + ", " + x + ")" : "setInt";
     try
     {
       realCallableStatement.setInt(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setInt(" + parameterName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -573,14 +573,14 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public void setNull(String parameterName, int sqlType) throws SQLException
   {
-    String methodCall = "setNull(" + parameterName + ", " + sqlType + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setNull(" + parameterName + ", " + sqlType + ")" : "setNull";
     try
     {
       realCallableStatement.setNull(parameterName, sqlType);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setNull(" + parameterName + ", " + sqlType + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -588,14 +588,14 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public void registerOutParameter(String parameterName, int sqlType, int scale) throws SQLException
   {
-    String methodCall = "registerOutParameter(" + parameterName + ", " + sqlType + ", " + scale + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "registerOutParameter(" + parameterName + ", " + sqlType + ", " + scale + ")" : "registerOutParameter";
     try
     {
       realCallableStatement.registerOutParameter(parameterName, sqlType, scale);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "registerOutParameter(" + parameterName + ", " + sqlType + ", " + scale + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -603,14 +603,14 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public void setLong(String parameterName, long x) throws SQLException
   {
-    String methodCall = "setLong(" + parameterName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setLong(" + parameterName + ", " + x + ")" : "setLong";
     try
     {
       realCallableStatement.setLong(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setLong(" + parameterName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -618,14 +618,14 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public void setShort(String parameterName, short x) throws SQLException
   {
-    String methodCall = "setShort(" + parameterName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setShort(" + parameterName + ", " + x + ")" : "setShort";
     try
     {
       realCallableStatement.setShort(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setShort(" + parameterName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -633,14 +633,14 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public void setBoolean(String parameterName, boolean x) throws SQLException
   {
-    String methodCall = "setBoolean(" + parameterName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setBoolean(" + parameterName + ", " + x + ")" : "setBoolean";
     try
     {
       realCallableStatement.setBoolean(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setBoolean(" + parameterName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -649,14 +649,14 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
   public void setBytes(String parameterName, byte[] x) throws SQLException
   {
     //todo: dump byte array?
-    String methodCall = "setBytes(" + parameterName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setBytes(" + parameterName + ", " + x + ")" : "setBytes";
     try
     {
       realCallableStatement.setBytes(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setBytes(" + parameterName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -664,42 +664,42 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public boolean getBoolean(int parameterIndex) throws SQLException
   {
-    String methodCall = "getBoolean(" + parameterIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getBoolean(" + parameterIndex + ")" : "getBoolean";
     try
     {
       return reportReturn(methodCall, realCallableStatement.getBoolean(parameterIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getBoolean(" + parameterIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Timestamp getTimestamp(int parameterIndex) throws SQLException
   {
-    String methodCall = "getTimestamp(" + parameterIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getTimestamp(" + parameterIndex + ")" : "getTimestamp";
     try
     {
       return (Timestamp) reportReturn(methodCall, realCallableStatement.getTimestamp(parameterIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getTimestamp(" + parameterIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void setAsciiStream(String parameterName, InputStream x, int length) throws SQLException
   {
-    String methodCall = "setAsciiStream(" + parameterName + ", " + x + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setAsciiStream(" + parameterName + ", " + x + ", " + length + ")" : "setAsciiStream";
     try
     {
       realCallableStatement.setAsciiStream(parameterName, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setAsciiStream(" + parameterName + ", " + x + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -707,14 +707,14 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public void setBinaryStream(String parameterName, InputStream x, int length) throws SQLException
   {
-    String methodCall = "setBinaryStream(" + parameterName + ", " + x + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setBinaryStream(" + parameterName + ", " + x + ", " + length + ")" : "setBinaryStream";
     try
     {
       realCallableStatement.setBinaryStream(parameterName, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setBinaryStream(" + parameterName + ", " + x + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -722,14 +722,14 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public void setCharacterStream(String parameterName, Reader reader, int length) throws SQLException
   {
-    String methodCall = "setCharacterStream(" + parameterName + ", " + reader + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setCharacterStream(" + parameterName + ", " + reader + ", " + length + ")" : "setCharacterStream";
     try
     {
       realCallableStatement.setCharacterStream(parameterName, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setCharacterStream(" + parameterName + ", " + reader + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -737,28 +737,28 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public Object getObject(String parameterName) throws SQLException
   {
-    String methodCall = "getObject(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getObject(" + parameterName + ")" : "getObject";
     try
     {
       return reportReturn(methodCall, realCallableStatement.getObject(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getObject(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void setObject(String parameterName, Object x) throws SQLException
   {
-    String methodCall = "setObject(" + parameterName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setObject(" + parameterName + ", " + x + ")" : "setObject";
     try
     {
       realCallableStatement.setObject(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setObject(" + parameterName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -766,14 +766,14 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public void setObject(String parameterName, Object x, int targetSqlType) throws SQLException
   {
-    String methodCall = "setObject(" + parameterName + ", " + x + ", " + targetSqlType + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setObject(" + parameterName + ", " + x + ", " + targetSqlType + ")" : "setObject";
     try
     {
       realCallableStatement.setObject(parameterName, x, targetSqlType);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setObject(" + parameterName + ", " + x + ", " + targetSqlType + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -781,14 +781,14 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public void setObject(String parameterName, Object x, int targetSqlType, int scale) throws SQLException
   {
-    String methodCall = "setObject(" + parameterName + ", " + x + ", " + targetSqlType + ", " + scale + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setObject(" + parameterName + ", " + x + ", " + targetSqlType + ", " + scale + ")" : "setObject";
     try
     {
       realCallableStatement.setObject(parameterName, x, targetSqlType, scale);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setObject(" + parameterName + ", " + x + ", " + targetSqlType + ", " + scale + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -796,70 +796,70 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public Timestamp getTimestamp(int parameterIndex, Calendar cal) throws SQLException
   {
-    String methodCall = "getTimestamp(" + parameterIndex + ", " + cal + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getTimestamp(" + parameterIndex + ", " + cal + ")" : "getTimestamp";
     try
     {
       return (Timestamp) reportReturn(methodCall, realCallableStatement.getTimestamp(parameterIndex, cal));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getTimestamp(" + parameterIndex + ", " + cal + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Date getDate(String parameterName, Calendar cal) throws SQLException
   {
-    String methodCall = "getDate(" + parameterName + ", " + cal + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getDate(" + parameterName + ", " + cal + ")" : "getDate";
     try
     {
       return (Date) reportReturn(methodCall, realCallableStatement.getDate(parameterName, cal));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getDate(" + parameterName + ", " + cal + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Time getTime(String parameterName, Calendar cal) throws SQLException
   {
-    String methodCall = "getTime(" + parameterName + ", " + cal + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getTime(" + parameterName + ", " + cal + ")" : "getTime";
     try
     {
       return (Time) reportReturn(methodCall, realCallableStatement.getTime(parameterName, cal));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getTime(" + parameterName + ", " + cal + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Timestamp getTimestamp(String parameterName, Calendar cal) throws SQLException
   {
-    String methodCall = "getTimestamp(" + parameterName + ", " + cal + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getTimestamp(" + parameterName + ", " + cal + ")" : "getTimestamp";
     try
     {
       return (Timestamp) reportReturn(methodCall, realCallableStatement.getTimestamp(parameterName, cal));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getTimestamp(" + parameterName + ", " + cal + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void setDate(String parameterName, Date x, Calendar cal) throws SQLException
   {
-    String methodCall = "setDate(" + parameterName + ", " + x + ", " + cal + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setDate(" + parameterName + ", " + x + ", " + cal + ")" : "setDate";
     try
     {
       realCallableStatement.setDate(parameterName, x, cal);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setDate(" + parameterName + ", " + x + ", " + cal + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -867,14 +867,14 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public void setTime(String parameterName, Time x, Calendar cal) throws SQLException
   {
-    String methodCall = "setTime(" + parameterName + ", " + x + ", " + cal + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setTime(" + parameterName + ", " + x + ", " + cal + ")" : "setTime";
     try
     {
       realCallableStatement.setTime(parameterName, x, cal);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setTime(" + parameterName + ", " + x + ", " + cal + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -882,14 +882,14 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public void setTimestamp(String parameterName, Timestamp x, Calendar cal) throws SQLException
   {
-    String methodCall = "setTimestamp(" + parameterName + ", " + x + ", " + cal + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setTimestamp(" + parameterName + ", " + x + ", " + cal + ")" : "setTimestamp";
     try
     {
       realCallableStatement.setTimestamp(parameterName, x, cal);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setTimestamp(" + parameterName + ", " + x + ", " + cal + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -897,56 +897,56 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public short getShort(int parameterIndex) throws SQLException
   {
-    String methodCall = "getShort(" + parameterIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getShort(" + parameterIndex + ")" : "getShort";
     try
     {
       return reportReturn(methodCall, realCallableStatement.getShort(parameterIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getShort(" + parameterIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public long getLong(int parameterIndex) throws SQLException
   {
-    String methodCall = "getLong(" + parameterIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getLong(" + parameterIndex + ")" : "getLong";
     try
     {
       return reportReturn(methodCall, realCallableStatement.getLong(parameterIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getLong(" + parameterIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public float getFloat(int parameterIndex) throws SQLException
   {
-    String methodCall = "getFloat(" + parameterIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getFloat(" + parameterIndex + ")" : "getFloat";
     try
     {
       return reportReturn(methodCall, realCallableStatement.getFloat(parameterIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getFloat(" + parameterIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Ref getRef(int i) throws SQLException
   {
-    String methodCall = "getRef(" + i + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getRef(" + i + ")" : "getRef";
     try
     {
       return (Ref) reportReturn(methodCall, realCallableStatement.getRef(i));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getRef(" + i + ")" : methodCall, s);
       throw s;
     }
   }
@@ -956,28 +956,28 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
    */
   public BigDecimal getBigDecimal(int parameterIndex, int scale) throws SQLException
   {
-    String methodCall = "getBigDecimal(" + parameterIndex + ", " + scale + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getBigDecimal(" + parameterIndex + ", " + scale + ")" : "getBigDecimal";
     try
     {
       return (BigDecimal) reportReturn(methodCall, realCallableStatement.getBigDecimal(parameterIndex, scale));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getBigDecimal(" + parameterIndex + ", " + scale + ")" : methodCall, s);
       throw s;
     }
   }
 
   public URL getURL(int parameterIndex) throws SQLException
   {
-    String methodCall = "getURL(" + parameterIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getURL(" + parameterIndex + ")" : "getURL";
     try
     {
       return (URL) reportReturn(methodCall, realCallableStatement.getURL(parameterIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getURL(" + parameterIndex + ")" : methodCall, s);
       throw s;
     }
 
@@ -985,84 +985,84 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public BigDecimal getBigDecimal(int parameterIndex) throws SQLException
   {
-    String methodCall = "getBigDecimal(" + parameterIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getBigDecimal(" + parameterIndex + ")" : "getBigDecimal";
     try
     {
       return (BigDecimal) reportReturn(methodCall, realCallableStatement.getBigDecimal(parameterIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getBigDecimal(" + parameterIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public byte getByte(int parameterIndex) throws SQLException
   {
-    String methodCall = "getByte(" + parameterIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getByte(" + parameterIndex + ")" : "getByte";
     try
     {
       return reportReturn(methodCall, realCallableStatement.getByte(parameterIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getByte(" + parameterIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Object getObject(int parameterIndex) throws SQLException
   {
-    String methodCall = "getObject(" + parameterIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getObject(" + parameterIndex + ")" : "getObject";
     try
     {
       return reportReturn(methodCall, realCallableStatement.getObject(parameterIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getObject(" + parameterIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Object getObject(int i, Map map) throws SQLException
   {
-    String methodCall = "getObject(" + i + ", " + map + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getObject(" + i + ", " + map + ")" : "getObject";
     try
     {
       return reportReturn(methodCall, realCallableStatement.getObject(i, map));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getObject(" + i + ", " + map + ")" : methodCall, s);
       throw s;
     }
   }
 
   public String getString(String parameterName) throws SQLException
   {
-    String methodCall = "getString(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getString(" + parameterName + ")" : "getString";
     try
     {
       return (String) reportReturn(methodCall, realCallableStatement.getString(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getString(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void registerOutParameter(String parameterName, int sqlType, String typeName) throws SQLException
   {
-    String methodCall = "registerOutParameter(" + parameterName + ", " + sqlType + ", " + typeName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "registerOutParameter(" + parameterName + ", " + sqlType + ", " + typeName + ")" : "registerOutParameter";
     try
     {
       realCallableStatement.registerOutParameter(parameterName, sqlType, typeName);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "registerOutParameter(" + parameterName + ", " + sqlType + ", " + typeName + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1070,14 +1070,14 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public void setNull(String parameterName, int sqlType, String typeName) throws SQLException
   {
-    String methodCall = "setNull(" + parameterName + ", " + sqlType + ", " + typeName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setNull(" + parameterName + ", " + sqlType + ", " + typeName + ")" : "setNull";
     try
     {
       realCallableStatement.setNull(parameterName, sqlType, typeName);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setNull(" + parameterName + ", " + sqlType + ", " + typeName + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1085,7 +1085,7 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public void setString(String parameterName, String x) throws SQLException
   {
-    String methodCall = "setString(" + parameterName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setString(" + parameterName + ", " + x + ")" : "setString";
 
     try
     {
@@ -1093,7 +1093,7 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setString(" + parameterName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1101,41 +1101,41 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public BigDecimal getBigDecimal(String parameterName) throws SQLException
   {
-    String methodCall = "getBigDecimal(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getBigDecimal(" + parameterName + ")" : "getBigDecimal";
     try
     {
       return (BigDecimal) reportReturn(methodCall, realCallableStatement.getBigDecimal(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getBigDecimal(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Object getObject(String parameterName, Map<String, Class<?>> map) throws SQLException {
-    String methodCall = "getObject(" + parameterName + ", " + map + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getObject(" + parameterName + ", " + map + ")" : "getObject";
     try
     {
       return reportReturn(methodCall, realCallableStatement.getObject(parameterName, map));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getObject(" + parameterName + ", " + map + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void setBigDecimal(String parameterName, BigDecimal x) throws SQLException
   {
-    String methodCall = "setBigDecimal(" + parameterName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setBigDecimal(" + parameterName + ", " + x + ")" : "setBigDecimal";
     try
     {
       realCallableStatement.setBigDecimal(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setBigDecimal(" + parameterName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1143,450 +1143,450 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public URL getURL(String parameterName) throws SQLException
   {
-    String methodCall = "getURL(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getURL(" + parameterName + ")" : "getURL";
     try
     {
       return (URL) reportReturn(methodCall, realCallableStatement.getURL(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getURL(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public RowId getRowId(int parameterIndex) throws SQLException {
-    String methodCall = "getRowId(" + parameterIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getRowId(" + parameterIndex + ")" : "getRowId";
     try
     {
       return (RowId) reportReturn(methodCall, realCallableStatement.getRowId(parameterIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getRowId(" + parameterIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public RowId getRowId(String parameterName) throws SQLException {
-    String methodCall = "getRowId(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getRowId(" + parameterName + ")" : "getRowId";
     try
     {
       return (RowId) reportReturn(methodCall, realCallableStatement.getRowId(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getRowId(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void setRowId(String parameterName, RowId x) throws SQLException {
-    String methodCall = "setRowId(" + parameterName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setRowId(" + parameterName + ", " + x + ")" : "setRowId";
     try
     {
       realCallableStatement.setRowId(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setRowId(" + parameterName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void setNString(String parameterName, String value) throws SQLException {
-    String methodCall = "setNString(" + parameterName + ", " + value + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setNString(" + parameterName + ", " + value + ")" : "setNString";
     try
     {
       realCallableStatement.setNString(parameterName, value);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setNString(" + parameterName + ", " + value + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void setNCharacterStream(String parameterName, Reader reader, long length) throws SQLException {
-    String methodCall = "setNCharacterStream(" + parameterName + ", " + reader + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setNCharacterStream(" + parameterName + ", " + reader + ", " + length + ")" : "setNCharacterStream";
     try
     {
       realCallableStatement.setNCharacterStream(parameterName, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setNCharacterStream(" + parameterName + ", " + reader + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void setNClob(String parameterName, NClob value) throws SQLException {
-    String methodCall = "setNClob(" + parameterName + ", " + value + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setNClob(" + parameterName + ", " + value + ")" : "setNClob";
     try
     {
       realCallableStatement.setNClob(parameterName, value);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setNClob(" + parameterName + ", " + value + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void setClob(String parameterName, Reader reader, long length) throws SQLException {
-    String methodCall = "setClob(" + parameterName + ", " + reader + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setClob(" + parameterName + ", " + reader + ", " + length + ")" : "setClob";
     try
     {
       realCallableStatement.setClob(parameterName, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setClob(" + parameterName + ", " + reader + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void setBlob(String parameterName, InputStream inputStream, long length) throws SQLException {
-    String methodCall = "setBlob(" + parameterName + ", " + inputStream + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setBlob(" + parameterName + ", " + inputStream + ", " + length + ")" : "setBlob";
     try
     {
       realCallableStatement.setBlob(parameterName, inputStream, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setBlob(" + parameterName + ", " + inputStream + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void setNClob(String parameterName, Reader reader, long length) throws SQLException {
-    String methodCall = "setNClob(" + parameterName + ", " + reader + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setNClob(" + parameterName + ", " + reader + ", " + length + ")" : "setNClob";
     try
     {
       realCallableStatement.setNClob(parameterName, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setNClob(" + parameterName + ", " + reader + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public NClob getNClob(int parameterIndex) throws SQLException {
-    String methodCall = "getNClob(" + parameterIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getNClob(" + parameterIndex + ")" : "getNClob";
     try
     {
       return (NClob) reportReturn(methodCall, realCallableStatement.getNClob(parameterIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getNClob(" + parameterIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public NClob getNClob(String parameterName) throws SQLException {
-    String methodCall = "getNClob(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getNClob(" + parameterName + ")" : "getNClob";
     try
     {
       return (NClob) reportReturn(methodCall, realCallableStatement.getNClob(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getNClob(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void setSQLXML(String parameterName, SQLXML xmlObject) throws SQLException {
-    String methodCall = "setSQLXML(" + parameterName + ", " + xmlObject + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setSQLXML(" + parameterName + ", " + xmlObject + ")" : "setSQLXML";
     try
     {
       realCallableStatement.setSQLXML(parameterName, xmlObject);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setSQLXML(" + parameterName + ", " + xmlObject + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public SQLXML getSQLXML(int parameterIndex) throws SQLException {
-    String methodCall = "getSQLXML(" + parameterIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getSQLXML(" + parameterIndex + ")" : "getSQLXML";
     try
     {
       return (SQLXML) reportReturn(methodCall, realCallableStatement.getSQLXML(parameterIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getSQLXML(" + parameterIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public SQLXML getSQLXML(String parameterName) throws SQLException {
-    String methodCall = "getSQLXML(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getSQLXML(" + parameterName + ")" : "getSQLXML";
     try
     {
       return (SQLXML) reportReturn(methodCall, realCallableStatement.getSQLXML(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getSQLXML(" + parameterName + ")" : methodCall, s);
       throw s;
     }
 
   }
 
   public String getNString(int parameterIndex) throws SQLException {
-    String methodCall = "getNString(" + parameterIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getNString(" + parameterIndex + ")" : "getNString";
     try
     {
       return (String) reportReturn(methodCall, realCallableStatement.getNString(parameterIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getNString(" + parameterIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public String getNString(String parameterName) throws SQLException {
-    String methodCall = "getNString(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getNString(" + parameterName + ")" : "getNString";
     try
     {
       return (String) reportReturn(methodCall, realCallableStatement.getNString(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getNString(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Reader getNCharacterStream(int parameterIndex) throws SQLException {
-    String methodCall = "getNCharacterStream(" + parameterIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getNCharacterStream(" + parameterIndex + ")" : "getNCharacterStream";
     try
     {
       return (Reader) reportReturn(methodCall, realCallableStatement.getNCharacterStream(parameterIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getNCharacterStream(" + parameterIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Reader getNCharacterStream(String parameterName) throws SQLException {
-    String methodCall = "getNCharacterStream(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getNCharacterStream(" + parameterName + ")" : "getNCharacterStream";
     try
     {
       return (Reader) reportReturn(methodCall, realCallableStatement.getNCharacterStream(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getNCharacterStream(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Reader getCharacterStream(int parameterIndex) throws SQLException {
-    String methodCall = "getCharacterStream(" + parameterIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getCharacterStream(" + parameterIndex + ")" : "getCharacterStream";
     try
     {
       return (Reader) reportReturn(methodCall, realCallableStatement.getCharacterStream(parameterIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getCharacterStream(" + parameterIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Reader getCharacterStream(String parameterName) throws SQLException {
-    String methodCall = "getCharacterStream(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getCharacterStream(" + parameterName + ")" : "getCharacterStream";
     try
     {
       return (Reader) reportReturn(methodCall, realCallableStatement.getCharacterStream(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getCharacterStream(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void setBlob(String parameterName, Blob x) throws SQLException {
-    String methodCall = "setBlob(" + parameterName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setBlob(" + parameterName + ", " + x + ")" : "setBlob";
     try
     {
       realCallableStatement.setBlob(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setBlob(" + parameterName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void setClob(String parameterName, Clob x) throws SQLException {
-    String methodCall = "setClob(" + parameterName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setClob(" + parameterName + ", " + x + ")" : "setClob";
     try
     {
       realCallableStatement.setClob(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setClob(" + parameterName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void setAsciiStream(String parameterName, InputStream x, long length) throws SQLException {
-    String methodCall = "setAsciiStream(" + parameterName + ", " + x + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setAsciiStream(" + parameterName + ", " + x + ", " + length + ")" : "setAsciiStream";
     try
     {
       realCallableStatement.setAsciiStream(parameterName, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setAsciiStream(" + parameterName + ", " + x + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void setBinaryStream(String parameterName, InputStream x, long length) throws SQLException {
-    String methodCall = "setBinaryStream(" + parameterName + ", " + x + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setBinaryStream(" + parameterName + ", " + x + ", " + length + ")" : "setBinaryStream";
     try
     {
       realCallableStatement.setBinaryStream(parameterName, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setBinaryStream(" + parameterName + ", " + x + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void setCharacterStream(String parameterName, Reader reader, long length) throws SQLException {
-    String methodCall = "setCharacterStream(" + parameterName + ", " + reader + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setCharacterStream(" + parameterName + ", " + reader + ", " + length + ")" : "setCharacterStream";
     try
     {
       realCallableStatement.setCharacterStream(parameterName, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setCharacterStream(" + parameterName + ", " + reader + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void setAsciiStream(String parameterName, InputStream x) throws SQLException {
-    String methodCall = "setAsciiStream(" + parameterName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setAsciiStream(" + parameterName + ", " + x + ")" : "setAsciiStream";
     try
     {
       realCallableStatement.setAsciiStream(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setAsciiStream(" + parameterName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void setBinaryStream(String parameterName, InputStream x) throws SQLException {
-    String methodCall = "setBinaryStream(" + parameterName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setBinaryStream(" + parameterName + ", " + x + ")" : "setBinaryStream";
     try
     {
       realCallableStatement.setBinaryStream(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setBinaryStream(" + parameterName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void setCharacterStream(String parameterName, Reader reader) throws SQLException {
-    String methodCall = "setCharacterStream(" + parameterName + ", " + reader + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setCharacterStream(" + parameterName + ", " + reader + ")" : "setCharacterStream";
     try
     {
       realCallableStatement.setCharacterStream(parameterName, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setCharacterStream(" + parameterName + ", " + reader + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void setNCharacterStream(String parameterName, Reader reader) throws SQLException {
-    String methodCall = "setNCharacterStream(" + parameterName + ", " + reader + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setNCharacterStream(" + parameterName + ", " + reader + ")" : "setNCharacterStream";
     try
     {
       realCallableStatement.setNCharacterStream(parameterName, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setNCharacterStream(" + parameterName + ", " + reader + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void setClob(String parameterName, Reader reader) throws SQLException {
-    String methodCall = "setClob(" + parameterName + ", " + reader + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setClob(" + parameterName + ", " + reader + ")" : "setClob";
     try
     {
       realCallableStatement.setClob(parameterName, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setClob(" + parameterName + ", " + reader + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void setBlob(String parameterName, InputStream inputStream) throws SQLException {
-    String methodCall = "setBlob(" + parameterName + ", " + inputStream + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setBlob(" + parameterName + ", " + inputStream + ")" : "setBlob";
     try
     {
       realCallableStatement.setBlob(parameterName, inputStream);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setBlob(" + parameterName + ", " + inputStream + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void setNClob(String parameterName, Reader reader) throws SQLException {
-    String methodCall = "setNClob(" + parameterName + ", " + reader + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setNClob(" + parameterName + ", " + reader + ")" : "setNClob";
     try
     {
       realCallableStatement.setNClob(parameterName, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setNClob(" + parameterName + ", " + reader + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1594,14 +1594,14 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public void setURL(String parameterName, URL val) throws SQLException
   {
-    String methodCall = "setURL(" + parameterName + ", " + val + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setURL(" + parameterName + ", " + val + ")" : "setURL";
     try
     {
       realCallableStatement.setURL(parameterName, val);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setURL(" + parameterName + ", " + val + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1609,77 +1609,77 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
 
   public Array getArray(String parameterName) throws SQLException
   {
-    String methodCall = "getURL(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getURL(" + parameterName + ")" : "getURL";
     try
     {
       return (Array) reportReturn(methodCall, realCallableStatement.getArray(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getURL(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Blob getBlob(String parameterName) throws SQLException
   {
-    String methodCall = "getBlob(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getBlob(" + parameterName + ")" : "getBlob";
     try
     {
       return (Blob) reportReturn(methodCall, realCallableStatement.getBlob(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getBlob(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Clob getClob(String parameterName) throws SQLException
   {
-    String methodCall = "getClob(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getClob(" + parameterName + ")" : "getClob";
     try
     {
       return (Clob) reportReturn(methodCall, realCallableStatement.getClob(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getClob(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Date getDate(String parameterName) throws SQLException
   {
-    String methodCall = "getDate(" + parameterName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getDate(" + parameterName + ")" : "getDate";
     try
     {
       return (Date) reportReturn(methodCall, realCallableStatement.getDate(parameterName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getDate(" + parameterName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void setDate(String parameterName, Date x) throws SQLException
   {
-    String methodCall = "setDate(" + parameterName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setDate(" + parameterName + ", " + x + ")" : "setDate";
     try
     {
       realCallableStatement.setDate(parameterName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setDate(" + parameterName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public <T> T unwrap(Class<T> iface) throws SQLException {
-    String methodCall = "unwrap(" + (iface==null?"null":iface.getName()) + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "unwrap(" + (iface==null?"null":iface.getName()) + ")" : "unwrap";
     try
     {
       //todo: double check this logic
@@ -1693,14 +1693,14 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(log.isJdbcLoggingEnabled() ? "unwrap(" + (iface==null?"null":iface.getName()) + ")" : methodCall,s);
       throw s;
     }
   }
 
   public boolean isWrapperFor(Class<?> iface) throws SQLException
   {
-    String methodCall = "isWrapperFor(" + (iface==null?"null":iface.getName()) + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "isWrapperFor(" + (iface==null?"null":iface.getName()) + ")" : "isWrapperFor";
     try
     {
       //NOTE: could call super.isWrapperFor to simplify this logic, but it would result in extra log output
@@ -1711,7 +1711,7 @@ public class CallableStatementSpy extends PreparedStatementSpy implements Callab
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(log.isJdbcLoggingEnabled() ? "isWrapperFor(" + (iface==null?"null":iface.getName()) + ")" : methodCall,s);
       throw s;
     }
   }
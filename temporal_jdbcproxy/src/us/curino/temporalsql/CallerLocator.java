@@ -0,0 +1,281 @@
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds the caller of the JDBC method being logged, for the debug info of the
+ * spy logs.
+ *
+ * Filling in a Throwable captures and resolves the whole stack, which made
+ * debug level logging too slow to leave on under load.  On a Java 9 or later
+ * runtime the stack is walked lazily with java.lang.StackWalker instead, and
+ * only as deep as needed to get past the proxy (or down to the first frame
+ * under log4jdbc.debug.stack.prefix.)  The proxy is built for Java 6, so
+ * StackWalker is only reached through reflection.
+ *
+ * Resolving the file and line number of a frame is the expensive part of a
+ * walk, so the formatted location is cached by class, method and bytecode
+ * index: a call site that logs over and over is only resolved once.
+ */
+final class CallerLocator
+{
+  /**
+   * Do not allow instantiation.  Access is through static methods.
+   */
+  private CallerLocator() {}
+
+  /**
+   * Prefix of the classes of the proxy itself.
+   */
+  static final String PACKAGE_PREFIX = "us.curino.temporalsql.";
+
+  /**
+   * Maximum number of call sites kept in the cache.  Past it, new call sites
+   * are still found but no longer cached.
+   */
+  private static final int MAX_CALL_SITES = 4096;
+
+  private static final ConcurrentHashMap<CallSite, String> callSites =
+    new ConcurrentHashMap<CallSite, String>();
+
+  private static final Object walker;
+  private static final Method walk;
+  private static final Method iterator;
+  private static final Method getClassName;
+  private static final Method getMethodName;
+  private static final Method getByteCodeIndex;
+  private static final Method getFileName;
+  private static final Method getLineNumber;
+  private static final Object function;
+
+  static
+  {
+    Object w = null;
+    Method wk = null, it = null, cn = null, mn = null, bci = null, fn = null, ln = null;
+    Object f = null;
+    try
+    {
+      Class<?> walkerClass = Class.forName("java.lang.StackWalker");
+      Class<?> frameClass = Class.forName("java.lang.StackWalker$StackFrame");
+      Class<?> functionClass = Class.forName("java.util.function.Function");
+      w = walkerClass.getMethod("getInstance").invoke(null);
+      wk = walkerClass.getMethod("walk", functionClass);
+      it = Class.forName("java.util.stream.BaseStream").getMethod("iterator");
+      cn = frameClass.getMethod("getClassName");
+      mn = frameClass.getMethod("getMethodName");
+      bci = frameClass.getMethod("getByteCodeIndex");
+      fn = frameClass.getMethod("getFileName");
+      ln = frameClass.getMethod("getLineNumber");
+      f = Proxy.newProxyInstance(CallerLocator.class.getClassLoader(), new Class[] {functionClass},
+        new InvocationHandler()
+        {
+          public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+          {
+            if ("apply".equals(method.getName()))
+            {
+              return find((Iterator<?>) iterator.invoke(args[0]));
+            }
+            return method.invoke(this, args);
+          }
+        });
+    }
+    catch (Exception e)
+    {
+      // before Java 9, or StackWalker is not accessible: fill in a Throwable
+      w = null;
+    }
+    walker = w;
+    walk = wk;
+    iterator = it;
+    getClassName = cn;
+    getMethodName = mn;
+    getByteCodeIndex = bci;
+    getFileName = fn;
+    getLineNumber = ln;
+    function = f;
+  }
+
+  /**
+   * @return true if the stack is walked with StackWalker.
+   */
+  static boolean isStackWalkerAvailable()
+  {
+    return walker != null;
+  }
+
+  /**
+   * Get the location of the caller of the proxy, in the usual
+   * class.method(file:line) form.
+   *
+   * @return the location of the caller, or null if it cannot be found.
+   */
+  static String getCallerLocation()
+  {
+    if (walker != null)
+    {
+      try
+      {
+        return (String) walk.invoke(walker, function);
+      }
+      catch (Exception e)
+      {
+        // fall through to the Throwable
+      }
+    }
+    return getCallerLocation(new Throwable().getStackTrace());
+  }
+
+  /**
+   * Find the caller of the proxy in a filled in stack trace.  This is the
+   * frame under the deepest frame of the proxy, unless an application frame
+   * (see log4jdbc.debug.stack.prefix) is found first.
+   */
+  static String getCallerLocation(StackTraceElement[] stackTrace)
+  {
+    if (stackTrace == null || stackTrace.length == 0)
+    {
+      return null;
+    }
+    int lastProxyCall = 0;
+    int applicationCall = 0;
+    for (int i = 0; i < stackTrace.length; i++)
+    {
+      String className = stackTrace[i].getClassName();
+      if (className.startsWith(PACKAGE_PREFIX))
+      {
+        lastProxyCall = i;
+      }
+      else if (DriverSpy.TraceFromApplication && className.startsWith(DriverSpy.DebugStackPrefix))
+      {
+        applicationCall = i;
+        break;
+      }
+    }
+    int j = applicationCall;
+    if (j == 0)  // if app not found, then use whoever was the last guy that called a proxy class.
+    {
+      j = Math.min(1 + lastProxyCall, stackTrace.length - 1);
+    }
+    return format(stackTrace[j].getClassName(), stackTrace[j].getMethodName(),
+      stackTrace[j].getFileName(), stackTrace[j].getLineNumber());
+  }
+
+  /**
+   * Walk the stack frames StackWalker hands out, top down, to the caller of
+   * the proxy.  Only the frames up to it are ever materialized.
+   */
+  private static String find(Iterator<?> frames) throws Exception
+  {
+    boolean inProxy = false;
+    Object caller = null;
+    String callerClass = null;
+    while (frames.hasNext())
+    {
+      Object frame = frames.next();
+      String className = (String) getClassName.invoke(frame);
+      if (className.startsWith(PACKAGE_PREFIX))
+      {
+        inProxy = true;
+      }
+      else if (DriverSpy.TraceFromApplication && className.startsWith(DriverSpy.DebugStackPrefix))
+      {
+        return resolve(frame, className);
+      }
+      else if (inProxy && caller == null)
+      {
+        caller = frame;
+        callerClass = className;
+        if (!DriverSpy.TraceFromApplication)
+        {
+          break;
+        }
+      }
+    }
+    return caller == null ? null : resolve(caller, callerClass);
+  }
+
+  /**
+   * Get the formatted location of a frame, from the cache if the call site
+   * was seen before.
+   */
+  private static String resolve(Object frame, String className) throws Exception
+  {
+    String methodName = (String) getMethodName.invoke(frame);
+    int bci = ((Integer) getByteCodeIndex.invoke(frame)).intValue();
+    CallSite site = new CallSite(className, methodName, bci);
+    String location = callSites.get(site);
+    if (location == null)
+    {
+      location = format(className, methodName, (String) getFileName.invoke(frame),
+        ((Integer) getLineNumber.invoke(frame)).intValue());
+      if (callSites.size() < MAX_CALL_SITES)
+      {
+        callSites.put(site, location);
+      }
+    }
+    return location;
+  }
+
+  private static String format(String className, String methodName, String fileName, int lineNumber)
+  {
+    StringBuffer location = new StringBuffer();
+    location.append(className).append(".").append(methodName).append("(").
+      append(fileName).append(":").append(lineNumber).append(")");
+    return location.toString();
+  }
+
+  /**
+   * Cache key: a method and a bytecode index in it.
+   */
+  private static class CallSite
+  {
+    private final String className;
+    private final String methodName;
+    private final int bci;
+
+    CallSite(String className, String methodName, int bci)
+    {
+      this.className = className;
+      this.methodName = methodName;
+      this.bci = bci;
+    }
+
+    public int hashCode()
+    {
+      return (31 * className.hashCode() + methodName.hashCode()) * 31 + bci;
+    }
+
+    public boolean equals(Object o)
+    {
+      if (!(o instanceof CallSite))
+      {
+        return false;
+      }
+      CallSite c = (CallSite) o;
+      return bci == c.bci && className.equals(c.className) && methodName.equals(c.methodName);
+    }
+  }
+}
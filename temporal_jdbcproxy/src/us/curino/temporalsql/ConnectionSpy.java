@@ -19,6 +19,7 @@
 
 package us.curino.temporalsql;
 
+import java.math.BigDecimal;
 import java.sql.Array;
 import java.sql.CallableStatement;
 import java.sql.Blob;
@@ -27,6 +28,7 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.NClob;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLWarning;
 import java.sql.Savepoint;
@@ -35,16 +37,20 @@ import java.sql.Struct;
 import java.sql.SQLClientInfoException;
 import java.sql.SQLXML;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 import com.relationalcloud.tsqlparser.loader.Schema;
-import com.relationalcloud.tsqlparser.loader.SchemaLoader;
 
 /**
  * Wraps a JDBC Connection and reports method calls, returns and exceptions.
@@ -56,13 +62,409 @@ import com.relationalcloud.tsqlparser.loader.SchemaLoader;
 public class ConnectionSpy implements Connection, Spy
 {
 
-	/** 
-	 * needed to manage temporal rewriting
+	/**
+	 * needed to manage temporal rewriting, the schema is shared with every
+	 * other connection to the same database through the SchemaRegistry
 	 */
-	  public Schema schema;
-	  public boolean rewriteTemporal; 
+	  private SchemaRegistry.Entry schemaEntry;
+	  public boolean rewriteTemporal;
+
+	/**
+	 * Get the schema used for temporal rewriting on this connection.
+	 *
+	 * @return the current registered Schema.
+	 */
+	public Schema getTemporalSchema()
+	{
+	  return schemaEntry.getSchema();
+	}
+
+	/**
+	 * Reload the schema from the database, for every connection sharing it.
+	 *
+	 * @throws SQLException if the schema cannot be loaded.
+	 */
+	public void refreshSchema() throws SQLException
+	{
+	  schemaEntry.refresh(realConnection);
+	}
+
+	/**
+	 * closed prepared statements kept for reuse, or null if statement caching
+	 * is disabled
+	 */
+	private StatementCache statementCache;
+
+	/**
+	 * Get the cache of closed prepared statements of this connection.
+	 *
+	 * @return the StatementCache, or null if statement caching is disabled.
+	 */
+	StatementCache getStatementCache()
+	{
+	  return statementCache;
+	}
+
+	/**
+	 * clock of the timestamps of temporal rewrites, or null if they come from
+	 * the now_usec() UDF
+	 */
+	private TransactionClock clock;
+
+	/**
+	 * the timestamp of the current transaction, or null if it has not taken one yet
+	 */
+	private BigDecimal transactionTimestamp;
+
+	/**
+	 * Get the timestamp temporal rewrites record changes with.  Outside of
+	 * auto commit mode all the statements of a transaction get the same
+	 * timestamp, until commit or rollback (unless the clock hands out one
+	 * timestamp per statement.)  A transaction ended by executing COMMIT or
+	 * ROLLBACK as SQL is not noticed.
+	 *
+	 * @return the timestamp, in the format of now_usec().
+	 * @throws SQLException if the auto commit mode cannot be read.
+	 */
+	BigDecimal getTransactionTimestamp() throws SQLException
+	{
+	  if (transactionTimestamp != null)
+	  {
+	    return transactionTimestamp;
+	  }
+	  BigDecimal timestamp = clock.nextTimestamp();
+	  if (!DriverSpy.TemporalClockPerStatement && !realConnection.getAutoCommit())
+	  {
+	    transactionTimestamp = timestamp;
+	  }
+	  return timestamp;
+	}
+
+	/**
+	 * tend of the current version of a row
+	 */
+	private static final String CURRENT_END = "20371231235959.000000";
+
+	/**
+	 * the temporalized tables the current transaction closed versions of at
+	 * transactionTimestamp
+	 */
+	private final Set<String> closedTables = new HashSet<String>();
+
+	/**
+	 * Get the tables whose closed versions must be set aside while a temporal
+	 * UPDATE or DELETE runs.  All the statements of a transaction close
+	 * versions at the same timestamp T, so when a transaction changes a row
+	 * twice, the second change closes the version the first one made (whose
+	 * tstart is T) at T as well.  It would take the (key, tend) of the version
+	 * the first change closed, and the INSERT ... SELECT of the new version,
+	 * which finds the version it copies by tend = T, would copy both.  So the
+	 * versions of the table already closed at T are parked at tend = -T while
+	 * the statement runs (see park), and afterwards the version that only
+	 * lived inside the transaction is deleted and the parked versions get T
+	 * back (see unpark).  T is unique to the transaction, and so is -T: the
+	 * statements only ever match (and lock) rows the transaction closed
+	 * itself.  They find them by tend, through the <table>_closed index
+	 * TemporalizeSchema creates.
+	 *
+	 * Only the statements after the first one that closes versions of a table
+	 * in the transaction pay for it.  Split tables need nothing: the sweep
+	 * after each statement moves the versions it closed at T to history, and
+	 * deletes the ones that started at T (see HistoryTables.)
+	 *
+	 * @param rewritten the rewrite about to run, or null if the SQL is not rewritten.
+	 * @param sql       the SQL the application ran.
+	 * @return the normalized names of the tables, empty unless the clock hands
+	 *         out one timestamp per transaction and this transaction already
+	 *         closed versions of them.
+	 */
+	List<String> getRevisitedTables(RewrittenSql rewritten, String sql)
+	{
+	  if (transactionTimestamp == null)
+	  {
+	    return Collections.emptyList();
+	  }
+	  TemporalTables temporal = schemaEntry.getTemporalTables();
+	  List<String> revisited = null;
+	  for (String table : getClosedTables(rewritten, sql))
+	  {
+	    if (!temporal.isSplit(table) && !closedTables.add(table))
+	    {
+	      if (revisited == null)
+	      {
+	        revisited = new ArrayList<String>();
+	      }
+	      revisited.add(table);
+	    }
+	  }
+	  return revisited == null ? Collections.<String>emptyList() : revisited;
+	}
+
+	/**
+	 * Get the temporalized tables a temporal UPDATE or DELETE closes versions
+	 * of at a timestamp of the clock.
+	 *
+	 * @param rewritten the rewrite about to run, or null if the SQL is not rewritten.
+	 * @param sql       the SQL the application ran.
+	 * @return the normalized names of the tables, empty unless the proxy
+	 *         takes the time of the rewrite.
+	 */
+	List<String> getClosedTables(RewrittenSql rewritten, String sql)
+	{
+	  if (clock == null || rewritten == null || rewritten.getTables() == null)
+	  {
+	    return Collections.emptyList();
+	  }
+	  String type = RewriteMetrics.getStatementType(sql);
+	  if (!type.equals("UPDATE") && !type.equals("DELETE"))
+	  {
+	    return Collections.emptyList();
+	  }
+	  TemporalTables temporal = schemaEntry.getTemporalTables();
+	  List<String> closed = new ArrayList<String>();
+	  for (String table : rewritten.getTables())
+	  {
+	    if (temporal.contains(table))
+	    {
+	      closed.add(table);
+	    }
+	  }
+	  return closed;
+	}
+
+	/**
+	 * Check that the versions a temporal UPDATE or DELETE just closed did not
+	 * start after the timestamp they were closed at.  The timestamp is taken
+	 * when the transaction (or statement) starts, before the statement waits
+	 * for the locks of its rows, so a version another transaction wrote and
+	 * committed in the meantime can carry a later tstart; closing it would
+	 * leave it ending before it starts.  The clock is then moved past that
+	 * tstart and the statement fails, for the application to roll back and
+	 * retry the transaction with a new timestamp.
+	 *
+	 * @param tables tables from getClosedTables.
+	 * @param from   the first timestamp the versions were closed at, or null
+	 *               if the proxy did not take it.
+	 * @throws SQLException with SQLState 40001 if a version started after it
+	 *         was closed, or if the check fails.
+	 */
+	void checkClosed(List<String> tables, BigDecimal from) throws SQLException
+	{
+	  TemporalTables temporal = schemaEntry.getTemporalTables();
+	  if (from == null || tables.isEmpty() || !temporal.isNumericTime())
+	  {
+	    return;
+	  }
+	  Statement st = realConnection.createStatement();
+	  try
+	  {
+	    for (String table : tables)
+	    {
+	      // a split table has swept the versions to history already
+	      String versions = temporal.isSplit(table) ? table + HistoryTables.SUFFIX : table;
+	      ResultSet rs = st.executeQuery("SELECT MAX(tstart) FROM " + versions + " WHERE tend >= " +
+	        from.toPlainString() + " AND tend < " + CURRENT_END + " AND tstart > tend");
+	      BigDecimal started = rs.next() ? rs.getBigDecimal(1) : null;
+	      rs.close();
+	      if (started != null)
+	      {
+	        clock.advance(started);
+	        throw new SQLException("A version of " + table + " started at " + started.toPlainString() +
+	          ", after the timestamp " + from.toPlainString() + " it was closed at, roll back and retry" +
+	          " the transaction", "40001");
+	      }
+	    }
+	  }
+	  finally
+	  {
+	    st.close();
+	  }
+	}
+
+	/**
+	 * @param tables tables from getRevisitedTables.
+	 * @return the statements that park the versions the transaction closed.
+	 */
+	List<String> getParkSql(List<String> tables)
+	{
+	  List<String> sqls = new ArrayList<String>(tables.size());
+	  for (String table : tables)
+	  {
+	    sqls.add("UPDATE " + table + " SET tend = " + getParkedEnd() + " WHERE tend = " +
+	      transactionTimestamp.toPlainString());
+	  }
+	  return sqls;
+	}
+
+	/**
+	 * @return the tend the versions closed by the current transaction are
+	 *         parked at, -T.
+	 */
+	private String getParkedEnd()
+	{
+	  return transactionTimestamp.negate().toPlainString();
+	}
+
+	/**
+	 * @param tables tables from getRevisitedTables.
+	 * @return the statements that delete the versions that started and ended
+	 *         in the transaction, and give the parked versions their tend back.
+	 */
+	List<String> getUnparkSql(List<String> tables)
+	{
+	  List<String> sqls = new ArrayList<String>(2 * tables.size());
+	  for (String table : tables)
+	  {
+	    String t = transactionTimestamp.toPlainString();
+	    sqls.add("DELETE FROM " + table + " WHERE tend = " + t + " AND tstart = " + t);
+	    sqls.add("UPDATE " + table + " SET tend = " + t + " WHERE tend = " + getParkedEnd());
+	  }
+	  return sqls;
+	}
+
+	/**
+	 * Park the versions the transaction closed in the given tables, before a
+	 * temporal UPDATE or DELETE.
+	 *
+	 * @param tables tables from getRevisitedTables.
+	 * @throws SQLException if a statement fails.
+	 */
+	void park(List<String> tables) throws SQLException
+	{
+	  executeAll(getParkSql(tables));
+	}
+
+	/**
+	 * Undo park, after the temporal UPDATE or DELETE ran (or failed.)
+	 *
+	 * @param tables tables from getRevisitedTables.
+	 * @throws SQLException if a statement fails.
+	 */
+	void unpark(List<String> tables) throws SQLException
+	{
+	  executeAll(getUnparkSql(tables));
+	}
+
+	private void executeAll(List<String> sqls) throws SQLException
+	{
+	  if (sqls.isEmpty())
+	  {
+	    return;
+	  }
+	  Statement st = realConnection.createStatement();
+	  try
+	  {
+	    for (String sql : sqls)
+	    {
+	      st.executeUpdate(sql);
+	    }
+	  }
+	  finally
+	  {
+	    st.close();
+	  }
+	}
+
+	/**
+	 * Get the schema registry entry used for temporal rewriting on this connection.
+	 *
+	 * @return the SchemaRegistry entry of the schema.
+	 */
+	SchemaRegistry.Entry getSchemaEntry()
+	{
+	  return schemaEntry;
+	}
+
+	/**
+	 * true if DDL takes part in transactions on this database (PostgreSQL),
+	 * so that its effect is only seen by other connections after commit
+	 */
+	private boolean transactionalDdl;
+
+	/**
+	 * DDL executed in the current transaction, whose schema reload waits for
+	 * commit when DDL is transactional
+	 */
+	private final List<String> pendingDdl = new ArrayList<String>();
+
+	/**
+	 * Called after a statement ran successfully on this connection.  If it was
+	 * DDL, reload the metadata of the tables it changed (or of the whole schema
+	 * if they can't be told) so that later rewrites see the new schema.  Where
+	 * DDL is transactional, the reload waits until the transaction commits, and
+	 * is dropped if it rolls back, so the other connections sharing the schema
+	 * never see uncommitted DDL.
+	 *
+	 * The statement has already succeeded, so a failed reload is only logged.
+	 * The idle statements of the StatementCache are closed right away: the
+	 * server may refuse to run a statement prepared before the DDL (PostgreSQL
+	 * fails with "cached plan must not change result type".)
+	 *
+	 * @param sql the SQL that was executed.
+	 */
+	void schemaChanged(String sql)
+	{
+	  if (!DdlDetector.isDdl(sql))
+	  {
+	    return;
+	  }
+	  if (statementCache != null)
+	  {
+	    statementCache.clear();
+	  }
+	  try
+	  {
+	    if (transactionalDdl && !realConnection.getAutoCommit())
+	    {
+	      pendingDdl.add(sql);
+	      return;
+	    }
+	    reloadSchema(sql);
+	  }
+	  catch (SQLException s)
+	  {
+	    reportException("schemaChanged(" + sql + ")", s);
+	  }
+	}
+
+	/**
+	 * Reload the schema for the DDL the committed transaction executed.
+	 */
+	private void reloadPendingDdl()
+	{
+	  if (pendingDdl.isEmpty())
+	  {
+	    return;
+	  }
+	  String[] sqls = pendingDdl.toArray(new String[pendingDdl.size()]);
+	  pendingDdl.clear();
+	  for (int i = 0; i < sqls.length; i++)
+	  {
+	    try
+	    {
+	      reloadSchema(sqls[i]);
+	    }
+	    catch (SQLException s)
+	    {
+	      reportException("schemaChanged(" + sqls[i] + ")", s);
+	    }
+	  }
+	}
+
+	private void reloadSchema(String sql) throws SQLException
+	{
+	  List<String> tables = DdlDetector.getAffectedTables(schemaEntry.getSchema(), sql);
+	  if (tables == null)
+	  {
+	    schemaEntry.refresh(realConnection);
+	    return;
+	  }
+	  for (String table : tables)
+	  {
+	    schemaEntry.reloadTable(realConnection, table);
+	  }
+	}
 
-	
 	
 	public Connection realConnection;
   
@@ -81,13 +483,17 @@ public class ConnectionSpy implements Connection, Spy
   private SpyLogDelegator log;
 
   private final Integer connectionNumber;
-  private static int lastConnectionNumber = 0;
+  private static final AtomicInteger lastConnectionNumber = new AtomicInteger();
 
   /**
    * Contains a Mapping of connectionNumber to currently open ConnectionSpy
-   * objects.
+   * objects.  Connections are numbered and tracked without taking a lock, so
+   * that opening and closing connections from many threads (a busy pool)
+   * does not serialize on one monitor.  A connection that is never closed
+   * stays tracked, so leaks still show up in the open connections dump.
    */
-  private static final Map connectionTracker = new HashMap();
+  private static final ConcurrentHashMap<Integer, ConnectionSpy> connectionTracker =
+    new ConcurrentHashMap<Integer, ConnectionSpy>();
 
   /**
    * Get a dump of how many connections are open, and which connection numbers
@@ -98,17 +504,11 @@ public class ConnectionSpy implements Connection, Spy
   public static String getOpenConnectionsDump()
   {
     StringBuffer dump = new StringBuffer();
-    int size;
-    Integer[] keysArr;
-    synchronized (connectionTracker)
+    Integer[] keysArr = connectionTracker.keySet().toArray(new Integer[0]);
+    int size = keysArr.length;
+    if (size==0)
     {
-      size = connectionTracker.size();
-      if (size==0)
-      {
-        return "open connections:  none";
-      }
-      Set keys = connectionTracker.keySet();
-      keysArr = (Integer[]) keys.toArray(new Integer[keys.size()]);
+      return "open connections:  none";
     }
 
     Arrays.sort(keysArr);
@@ -148,10 +548,23 @@ public class ConnectionSpy implements Connection, Spy
   
   {
   
-	this.schema = SchemaLoader.loadSchemaFromDB(realConnection,schemaname);
-	this.schema.setSchemaName(schemaname);
-	
+	this.schemaEntry = SchemaRegistry.getEntry(realConnection,schemaname);
+
 	this.rewriteTemporal = rewriteTemporal;
+
+	if (DriverSpy.StatementCacheSize > 0)
+	{
+	  statementCache = new StatementCache(DriverSpy.StatementCacheSize, DriverSpy.StatementCacheBytes);
+	}
+
+	if (DriverSpy.TemporalClientClock)
+	{
+	  clock = TransactionClock.getClock(realConnection);
+	}
+
+	DatabaseMetaData meta = realConnection.getMetaData();
+	transactionalDdl = meta.supportsDataDefinitionAndDataManipulationTransactions() &&
+	  !meta.dataDefinitionCausesTransactionCommit();
 	  
 	if (rdbmsSpecifics == null)
     {
@@ -165,11 +578,8 @@ public class ConnectionSpy implements Connection, Spy
     this.realConnection = realConnection;
     log = SpyLogFactory.getSpyLogDelegator();
 
-    synchronized (connectionTracker)
-    {
-      connectionNumber = new Integer(++lastConnectionNumber);
-      connectionTracker.put(connectionNumber, this);
-    }
+    connectionNumber = Integer.valueOf(lastConnectionNumber.incrementAndGet());
+    connectionTracker.put(connectionNumber, this);
     log.connectionOpened(this);
     reportReturn("new Connection");
   }
@@ -223,19 +633,28 @@ public class ConnectionSpy implements Connection, Spy
 
   private boolean reportReturn(String methodCall, boolean value)
   {
-    reportAllReturns(methodCall, "" + value);
+    if (log.isMethodReturnedEnabled(this))
+    {
+      reportAllReturns(methodCall, "" + value);
+    }
     return value;
   }
 
   private int reportReturn(String methodCall, int value)
   {
-    reportAllReturns(methodCall, "" + value);
+    if (log.isMethodReturnedEnabled(this))
+    {
+      reportAllReturns(methodCall, "" + value);
+    }
     return value;
   }
 
   private Object reportReturn(String methodCall, Object value)
   {
-    reportAllReturns(methodCall, "" + value);
+    if (log.isMethodReturnedEnabled(this))
+    {
+      reportAllReturns(methodCall, "" + value);
+    }
     return value;
   }
 
@@ -290,14 +709,14 @@ public class ConnectionSpy implements Connection, Spy
 
   public void releaseSavepoint(Savepoint savepoint) throws SQLException
   {
-    String methodCall = "releaseSavepoint(" + savepoint + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "releaseSavepoint(" + savepoint + ")" : "releaseSavepoint";
     try
     {
       realConnection.releaseSavepoint(savepoint);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "releaseSavepoint(" + savepoint + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -305,14 +724,14 @@ public class ConnectionSpy implements Connection, Spy
 
   public void rollback(Savepoint savepoint) throws SQLException
   {
-    String methodCall = "rollback(" + savepoint + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "rollback(" + savepoint + ")" : "rollback";
     try
     {
       realConnection.rollback(savepoint);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "rollback(" + savepoint + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -364,7 +783,7 @@ public class ConnectionSpy implements Connection, Spy
 
   public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException
   {
-    String methodCall = "createStatement(" + resultSetType + ", " + resultSetConcurrency + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "createStatement(" + resultSetType + ", " + resultSetConcurrency + ")" : "createStatement";
     try
     {
       Statement statement = realConnection.createStatement(resultSetType, resultSetConcurrency);
@@ -372,14 +791,14 @@ public class ConnectionSpy implements Connection, Spy
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "createStatement(" + resultSetType + ", " + resultSetConcurrency + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException
   {
-    String methodCall = "createStatement(" + resultSetType + ", " + resultSetConcurrency + ", " + resultSetHoldability + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "createStatement(" + resultSetType + ", " + resultSetConcurrency + ", " + resultSetHoldability + ")" : "createStatement";
     try
     {
       Statement statement = realConnection.createStatement(resultSetType, resultSetConcurrency,
@@ -388,21 +807,21 @@ public class ConnectionSpy implements Connection, Spy
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "createStatement(" + resultSetType + ", " + resultSetConcurrency + ", " + resultSetHoldability + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void setReadOnly(boolean readOnly) throws SQLException
   {
-    String methodCall = "setReadOnly(" + readOnly + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setReadOnly(" + readOnly + ")" : "setReadOnly";
     try
     {
       realConnection.setReadOnly(readOnly);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setReadOnly(" + readOnly + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -410,7 +829,7 @@ public class ConnectionSpy implements Connection, Spy
 
   public PreparedStatement prepareStatement(String sql) throws SQLException
   {
-    String methodCall = "prepareStatement(" + sql + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "prepareStatement(" + sql + ")" : "prepareStatement";
     try
     {
     	//rewrite
@@ -427,35 +846,35 @@ public class ConnectionSpy implements Connection, Spy
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql);
+      reportException(log.isJdbcLoggingEnabled() ? "prepareStatement(" + sql + ")" : methodCall, s, sql);
       throw s;
     }
   }
 
   public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException
   {
-    String methodCall = "prepareStatement(" + sql + ", " + autoGeneratedKeys + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "prepareStatement(" + sql + ", " + autoGeneratedKeys + ")" : "prepareStatement";
     try
     {
       return (PreparedStatement) reportReturn(methodCall, new PreparedStatementSpy(sql, this,autoGeneratedKeys));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql);
+      reportException(log.isJdbcLoggingEnabled() ? "prepareStatement(" + sql + ", " + autoGeneratedKeys + ")" : methodCall, s, sql);
       throw s;
     }
   }
 
   public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException
   {
-    String methodCall = "prepareStatement(" + sql + ", " + resultSetType + ", " + resultSetConcurrency + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "prepareStatement(" + sql + ", " + resultSetType + ", " + resultSetConcurrency + ")" : "prepareStatement";
     try
     {
       return (PreparedStatement) reportReturn(methodCall, new PreparedStatementSpy(sql, this, resultSetType, resultSetConcurrency));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql);
+      reportException(log.isJdbcLoggingEnabled() ? "prepareStatement(" + sql + ", " + resultSetType + ", " + resultSetConcurrency + ")" : methodCall, s, sql);
       throw s;
     }
   }
@@ -463,7 +882,7 @@ public class ConnectionSpy implements Connection, Spy
   public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency,
                                             int resultSetHoldability) throws SQLException
   {
-    String methodCall = "prepareStatement(" + sql + ", " + resultSetType + ", " + resultSetConcurrency + ", " + resultSetHoldability + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "prepareStatement(" + sql + ", " + resultSetType + ", " + resultSetConcurrency + ", " + resultSetHoldability + ")" : "prepareStatement";
     try
     {
     	
@@ -474,7 +893,7 @@ public class ConnectionSpy implements Connection, Spy
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql);
+      reportException(log.isJdbcLoggingEnabled() ? "prepareStatement(" + sql + ", " + resultSetType + ", " + resultSetConcurrency + ", " + resultSetHoldability + ")" : methodCall, s, sql);
       throw s;
     }
   }
@@ -482,28 +901,28 @@ public class ConnectionSpy implements Connection, Spy
   public PreparedStatement prepareStatement(String sql, int columnIndexes[]) throws SQLException
   {
     //todo: dump the array here?
-    String methodCall = "prepareStatement(" + sql + ", " + columnIndexes + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "prepareStatement(" + sql + ", " + columnIndexes + ")" : "prepareStatement";
     try
     {
       return (PreparedStatement) reportReturn(methodCall, new PreparedStatementSpy(sql, this, columnIndexes));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql);
+      reportException(log.isJdbcLoggingEnabled() ? "prepareStatement(" + sql + ", " + columnIndexes + ")" : methodCall, s, sql);
       throw s;
     }
   }
 
   public Savepoint setSavepoint(String name) throws SQLException
   {
-    String methodCall = "setSavepoint(" + name + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setSavepoint(" + name + ")" : "setSavepoint";
     try
     {
       return (Savepoint) reportReturn(methodCall, realConnection.setSavepoint(name));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setSavepoint(" + name + ")" : methodCall, s);
       throw s;
     }
   }
@@ -511,14 +930,14 @@ public class ConnectionSpy implements Connection, Spy
   public PreparedStatement prepareStatement(String sql, String columnNames[]) throws SQLException
   {
     //todo: dump the array here?
-    String methodCall = "prepareStatement(" + sql + ", " + columnNames + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "prepareStatement(" + sql + ", " + columnNames + ")" : "prepareStatement";
     try
     {
       return (PreparedStatement) reportReturn(methodCall, new PreparedStatementSpy(sql, this, columnNames));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql);
+      reportException(log.isJdbcLoggingEnabled() ? "prepareStatement(" + sql + ", " + columnNames + ")" : methodCall, s, sql);
       throw s;
     }
   }
@@ -576,27 +995,27 @@ public class ConnectionSpy implements Connection, Spy
   }
 
   public boolean isValid(int timeout) throws SQLException {
-    String methodCall = "isValid(" + timeout + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "isValid(" + timeout + ")" : "isValid";
     try
     {
       return reportReturn(methodCall,realConnection.isValid(timeout));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "isValid(" + timeout + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void setClientInfo(String name, String value) throws SQLClientInfoException {
-    String methodCall = "setClientInfo(" + name + ", " + value + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setClientInfo(" + name + ", " + value + ")" : "setClientInfo";
     try
     {
       realConnection.setClientInfo(name,value);
     }
     catch (SQLClientInfoException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setClientInfo(" + name + ", " + value + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -604,28 +1023,28 @@ public class ConnectionSpy implements Connection, Spy
 
   public void setClientInfo(Properties properties) throws SQLClientInfoException {
     // todo: dump properties?
-    String methodCall = "setClientInfo(" + properties + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setClientInfo(" + properties + ")" : "setClientInfo";
     try
     {
       realConnection.setClientInfo(properties);
     }
     catch (SQLClientInfoException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setClientInfo(" + properties + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public String getClientInfo(String name) throws SQLException {
-    String methodCall = "getClientInfo(" + name + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getClientInfo(" + name + ")" : "getClientInfo";
     try
     {
       return (String) reportReturn(methodCall,realConnection.getClientInfo(name));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getClientInfo(" + name + ")" : methodCall, s);
       throw s;
     }
   }
@@ -645,28 +1064,28 @@ public class ConnectionSpy implements Connection, Spy
 
   public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
     //todo: dump elements?
-    String methodCall = "createArrayOf(" + typeName + ", " + elements +")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "createArrayOf(" + typeName + ", " + elements +")" : "createArrayOf";
     try
     {
       return (Array) reportReturn(methodCall,realConnection.createArrayOf(typeName,elements));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "createArrayOf(" + typeName + ", " + elements +")" : methodCall, s);
       throw s;
     }
   }
 
   public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
     //todo: dump attributes?
-    String methodCall = "createStruct(" + typeName + ", " + attributes +")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "createStruct(" + typeName + ", " + attributes +")" : "createStruct";
     try
     {
       return (Struct) reportReturn(methodCall,realConnection.createStruct(typeName, attributes));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "createStruct(" + typeName + ", " + attributes +")" : methodCall, s);
       throw s;
     }
   }
@@ -687,14 +1106,14 @@ public class ConnectionSpy implements Connection, Spy
 
   public void setHoldability(int holdability) throws SQLException
   {
-    String methodCall = "setHoldability(" + holdability + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setHoldability(" + holdability + ")" : "setHoldability";
     try
     {
       realConnection.setHoldability(holdability);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setHoldability(" + holdability + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -702,14 +1121,14 @@ public class ConnectionSpy implements Connection, Spy
 
   public CallableStatement prepareCall(String sql) throws SQLException
   {
-    String methodCall = "prepareCall(" + sql + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "prepareCall(" + sql + ")" : "prepareCall";
     // CallableStatement statement = realConnection.prepareCall(sql);
       return (CallableStatement) reportReturn(sql,methodCall);
   }
 
   public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException
   {
-    String methodCall = "prepareCall(" + sql + ", " + resultSetType + ", " + resultSetConcurrency + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "prepareCall(" + sql + ", " + resultSetType + ", " + resultSetConcurrency + ")" : "prepareCall";
     try
     {
       CallableStatement statement = realConnection.prepareCall(sql, resultSetType, resultSetConcurrency);
@@ -717,7 +1136,7 @@ public class ConnectionSpy implements Connection, Spy
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql);
+      reportException(log.isJdbcLoggingEnabled() ? "prepareCall(" + sql + ", " + resultSetType + ", " + resultSetConcurrency + ")" : methodCall, s, sql);
       throw s;
     }
   }
@@ -725,7 +1144,7 @@ public class ConnectionSpy implements Connection, Spy
   public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency,
                                        int resultSetHoldability) throws SQLException
   {
-    String methodCall = "prepareCall(" + sql + ", " + resultSetType + ", " + resultSetConcurrency + ", " + resultSetHoldability + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "prepareCall(" + sql + ", " + resultSetType + ", " + resultSetConcurrency + ", " + resultSetHoldability + ")" : "prepareCall";
     try
     {
     //  CallableStatement statement = realConnection.prepareCall(sql, resultSetType, resultSetConcurrency,
@@ -735,21 +1154,21 @@ public class ConnectionSpy implements Connection, Spy
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql);
+      reportException(log.isJdbcLoggingEnabled() ? "prepareCall(" + sql + ", " + resultSetType + ", " + resultSetConcurrency + ", " + resultSetHoldability + ")" : methodCall, s, sql);
       throw s;
     }
   }
 
   public void setCatalog(String catalog) throws SQLException
   {
-    String methodCall = "setCatalog(" + catalog + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setCatalog(" + catalog + ")" : "setCatalog";
     try
     {
       realConnection.setCatalog(catalog);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setCatalog(" + catalog + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -757,14 +1176,14 @@ public class ConnectionSpy implements Connection, Spy
 
   public String nativeSQL(String sql) throws SQLException
   {
-    String methodCall = "nativeSQL(" + sql + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "nativeSQL(" + sql + ")" : "nativeSQL";
     try
     {
       return (String) reportReturn(methodCall, realConnection.nativeSQL(sql));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql);
+      reportException(log.isJdbcLoggingEnabled() ? "nativeSQL(" + sql + ")" : methodCall, s, sql);
       throw s;
     }
   }
@@ -785,16 +1204,23 @@ public class ConnectionSpy implements Connection, Spy
 
   public void setAutoCommit(boolean autoCommit) throws SQLException
   {
-    String methodCall = "setAutoCommit(" + autoCommit + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setAutoCommit(" + autoCommit + ")" : "setAutoCommit";
     try
     {
+      transactionTimestamp = null;
+      closedTables.clear();
       realConnection.setAutoCommit(autoCommit);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setAutoCommit(" + autoCommit + ")" : methodCall, s);
       throw s;
     }
+    if (autoCommit)
+    {
+      // switching auto commit on commits the transaction
+      reloadPendingDdl();
+    }
     reportReturn(methodCall);
   }
 
@@ -815,14 +1241,14 @@ public class ConnectionSpy implements Connection, Spy
   public void setTypeMap(java.util.Map<String,Class<?>> map) throws SQLException
   {
     //todo: dump map??
-    String methodCall = "setTypeMap(" + map + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setTypeMap(" + map + ")" : "setTypeMap";
     try
     {
       realConnection.setTypeMap(map);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setTypeMap(" + map + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -830,14 +1256,14 @@ public class ConnectionSpy implements Connection, Spy
 
   public void setTransactionIsolation(int level) throws SQLException
   {
-    String methodCall = "setTransactionIsolation(" + level + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setTransactionIsolation(" + level + ")" : "setTransactionIsolation";
     try
     {
       realConnection.setTransactionIsolation(level);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setTransactionIsolation(" + level + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -890,6 +1316,8 @@ public class ConnectionSpy implements Connection, Spy
     String methodCall = "commit()";
     try
     {
+      transactionTimestamp = null;
+      closedTables.clear();
       realConnection.commit();
     }
     catch (SQLException s)
@@ -897,6 +1325,7 @@ public class ConnectionSpy implements Connection, Spy
       reportException(methodCall, s);
       throw s;
     }
+    reloadPendingDdl();
     reportReturn(methodCall);
   }
 
@@ -905,7 +1334,10 @@ public class ConnectionSpy implements Connection, Spy
     String methodCall = "rollback()";
     try
     {
+      transactionTimestamp = null;
+      closedTables.clear();
       realConnection.rollback();
+      pendingDdl.clear();
     }
     catch (SQLException s)
     {
@@ -920,6 +1352,10 @@ public class ConnectionSpy implements Connection, Spy
     String methodCall = "close()";
     try
     {
+      if (statementCache != null)
+      {
+        statementCache.clear();
+      }
       realConnection.close();
     }
     catch (SQLException s)
@@ -929,17 +1365,14 @@ public class ConnectionSpy implements Connection, Spy
     }
     finally
     {
-      synchronized (connectionTracker)
-      {
-        connectionTracker.remove(connectionNumber);
-      }
+      connectionTracker.remove(connectionNumber);
       log.connectionClosed(this);
     }
     reportReturn(methodCall);
   }
 
   public <T> T unwrap(Class<T> iface) throws SQLException {
-    String methodCall = "unwrap(" + (iface==null?"null":iface.getName()) + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "unwrap(" + (iface==null?"null":iface.getName()) + ")" : "unwrap";
     try
     {
       //todo: double check this logic
@@ -947,14 +1380,14 @@ public class ConnectionSpy implements Connection, Spy
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(log.isJdbcLoggingEnabled() ? "unwrap(" + (iface==null?"null":iface.getName()) + ")" : methodCall,s);
       throw s;
     }
   }
 
   public boolean isWrapperFor(Class<?> iface) throws SQLException
   {
-    String methodCall = "isWrapperFor(" + (iface==null?"null":iface.getName()) + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "isWrapperFor(" + (iface==null?"null":iface.getName()) + ")" : "isWrapperFor";
     try
     {
       return reportReturn(methodCall, (iface != null && (iface == Connection.class || iface == Spy.class)) ||
@@ -962,7 +1395,7 @@ public class ConnectionSpy implements Connection, Spy
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(log.isJdbcLoggingEnabled() ? "isWrapperFor(" + (iface==null?"null":iface.getName()) + ")" : methodCall,s);
       throw s;
     }
   }
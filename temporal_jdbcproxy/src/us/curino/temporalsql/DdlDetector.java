@@ -0,0 +1,227 @@
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.relationalcloud.tsqlparser.Parser;
+import com.relationalcloud.tsqlparser.loader.Schema;
+
+/**
+ * Recognizes DDL statements and the tables they change, so that only the
+ * metadata of those tables needs to be reloaded after the statement ran.
+ *
+ * The check for DDL only looks at the first keyword of the statement, so it is
+ * cheap enough to run on every statement executed through the proxy.
+ */
+public class DdlDetector
+{
+  /**
+   * Do not allow instantiation.  Access is through static methods.
+   */
+  private DdlDetector() {}
+
+  private static final String[] DDL_KEYWORDS = {"ALTER", "CREATE", "DROP", "RENAME"};
+
+  /**
+   * Determine if the given SQL is a DDL statement.
+   *
+   * @param sql the SQL to check.
+   * @return true if the SQL starts with a DDL keyword.
+   */
+  public static boolean isDdl(String sql)
+  {
+    if (sql == null)
+    {
+      return false;
+    }
+    int start = skipWhitespace(sql, 0);
+    for (int i = 0; i < DDL_KEYWORDS.length; i++)
+    {
+      String k = DDL_KEYWORDS[i];
+      if (sql.regionMatches(true, start, k, 0, k.length()) &&
+          (start + k.length() == sql.length() || !isNameChar(sql.charAt(start + k.length()))))
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get the tables a DDL statement changes.  The tables the Parser finds (with
+   * its TablesForStatementVisitor) are combined with the table names picked
+   * out of the SQL text, since the parser does not know about renames.
+   *
+   * @param schema the schema the statement ran against.
+   * @param sql    the DDL statement.
+   * @return the names of the changed tables, or null if they can't be determined.
+   */
+  public static List<String> getAffectedTables(Schema schema, String sql)
+  {
+    List<String> tables = scanTables(sql);
+    try
+    {
+      List<String> parsed = RewriteCache.getTables(new Parser(schema.getSchemaName(), schema, sql));
+      if (parsed != null && parsed.size() > 0)
+      {
+        if (tables == null)
+        {
+          return parsed;
+        }
+        tables.addAll(parsed);
+      }
+    }
+    catch (Exception e)
+    {
+      // the parser does not understand every kind of DDL
+    }
+    return tables;
+  }
+
+  /**
+   * Pick the table names out of the text of a DDL statement.  Understands
+   * <code>{ALTER|CREATE|DROP} [TEMPORARY] TABLE [IF [NOT] EXISTS] t [, t2 ...]</code>,
+   * <code>ALTER TABLE a RENAME [TO|AS] b</code>,
+   * <code>RENAME TABLE a TO b [, c TO d ...]</code> and
+   * <code>CREATE [UNIQUE] INDEX ... ON t</code>.
+   *
+   * @param sql the DDL statement.
+   * @return the names of the changed tables, or null if they can't be determined.
+   */
+  static List<String> scanTables(String sql)
+  {
+    String[] words = sql.trim().split("[\\s(]+");
+    int i = 0;
+    String verb = words[i++].toUpperCase();
+
+    // CREATE INDEX ... ON t, DROP INDEX ... ON t
+    for (int j = 1; j < words.length - 1; j++)
+    {
+      if (words[j].equalsIgnoreCase("INDEX"))
+      {
+        for (int k = j + 1; k < words.length - 1; k++)
+        {
+          if (words[k].equalsIgnoreCase("ON"))
+          {
+            List<String> tables = new ArrayList<String>();
+            tables.add(stripName(words[k + 1]));
+            return tables;
+          }
+        }
+        return null;
+      }
+      if (words[j].equalsIgnoreCase("TABLE"))
+      {
+        break;
+      }
+    }
+
+    while (i < words.length && !words[i].equalsIgnoreCase("TABLE"))
+    {
+      i++;
+    }
+    if (++i >= words.length)
+    {
+      return null;
+    }
+    if (words[i].equalsIgnoreCase("IF"))
+    {
+      i++;
+      if (i < words.length && words[i].equalsIgnoreCase("NOT"))
+      {
+        i++;
+      }
+      i++; // EXISTS
+    }
+
+    List<String> tables = new ArrayList<String>();
+    boolean rename = verb.equals("RENAME");
+    boolean multi = rename || verb.equals("DROP");
+    for (; i < words.length; i++)
+    {
+      String w = words[i];
+      if (w.equalsIgnoreCase("TO") && rename)
+      {
+        continue;
+      }
+      String name = stripName(w);
+      if (name.length() > 0)
+      {
+        tables.add(name);
+      }
+      if (!multi || !w.endsWith(","))
+      {
+        if (!rename || i + 1 >= words.length || !words[i + 1].equalsIgnoreCase("TO"))
+        {
+          break;
+        }
+      }
+    }
+
+    // ALTER TABLE a RENAME [TO|AS] b changes the name of the table as well
+    if (verb.equals("ALTER"))
+    {
+      for (; i < words.length - 1; i++)
+      {
+        if (words[i].equalsIgnoreCase("RENAME"))
+        {
+          String w = words[i + 1];
+          if ((w.equalsIgnoreCase("TO") || w.equalsIgnoreCase("AS")) && i + 2 < words.length)
+          {
+            w = words[i + 2];
+          }
+          if (!w.equalsIgnoreCase("COLUMN") && !w.equalsIgnoreCase("INDEX") &&
+              !w.equalsIgnoreCase("KEY") && !w.equalsIgnoreCase("CONSTRAINT"))
+          {
+            tables.add(stripName(w));
+          }
+          break;
+        }
+      }
+    }
+    return tables.size() == 0 ? null : tables;
+  }
+
+  private static String stripName(String word)
+  {
+    int end = word.length();
+    while (end > 0 && (word.charAt(end - 1) == ',' || word.charAt(end - 1) == ';'))
+    {
+      end--;
+    }
+    return word.substring(0, end);
+  }
+
+  private static int skipWhitespace(String sql, int i)
+  {
+    while (i < sql.length() && (Character.isWhitespace(sql.charAt(i)) || sql.charAt(i) == '('))
+    {
+      i++;
+    }
+    return i;
+  }
+
+  private static boolean isNameChar(char c)
+  {
+    return Character.isLetterOrDigit(c) || c == '_';
+  }
+}
@@ -27,8 +27,10 @@ import java.sql.Driver;
 import java.sql.DriverManager;
 import java.sql.DriverPropertyInfo;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Properties;
@@ -221,6 +223,128 @@ public class DriverSpy implements Driver
    */
   static boolean SuppressGetGeneratedKeysException;
 
+  /**
+   * Number of log events the AsyncSpyLogDelegator can buffer, 0 to log on
+   * the threads making the JDBC calls.
+   */
+  static int AsyncLogBufferSize;
+
+  /**
+   * What the AsyncSpyLogDelegator does when its buffer is full: drop,
+   * sample or block.
+   */
+  static String AsyncLogOverflow;
+
+  /**
+   * With the sample overflow policy, the AsyncSpyLogDelegator keeps one log
+   * event out of this many while its buffer is more than half full.
+   */
+  static int AsyncLogSampleRate;
+
+  /**
+   * If true, statements hand out result sets that are not spied upon while
+   * the resultset logger is off (see PassThroughResultSet).
+   */
+  static boolean ResultSetPassThrough;
+
+  /**
+   * If true, the pass through result sets are the driver's own, not even
+   * wrapped to fix getStatement().
+   */
+  static boolean ResultSetPassThroughDirect;
+
+  /**
+   * If true, statement latencies are recorded in the StatementMetrics.
+   */
+  static boolean Metrics;
+
+  /**
+   * Maximum number of SQL fingerprints the StatementMetrics track separately.
+   */
+  static int MetricsMaxStatements;
+
+  /**
+   * Maximum number of temporal rewrites kept in the process wide
+   * RewriteCache.  0 disables the cache.
+   */
+  static int RewriteCacheSize;
+
+  /**
+   * If true, statements that touch no temporalized table are sent to the
+   * driver without going through the temporal rewriter (see TemporalTables.)
+   */
+  static boolean TemporalSkipNonTemporal;
+
+  /**
+   * If true, the time comparisons of temporal queries are rewritten into
+   * index friendly form, and turned into bound parameters in prepared
+   * statements (see SnapshotPredicates.)
+   */
+  static boolean TemporalSnapshotFastPath;
+
+  /**
+   * Directory holding persisted schema snapshots (see SchemaSnapshot), or null
+   * if schemas are always loaded from information_schema.
+   */
+  static String SchemaSnapshotDir;
+
+  /**
+   * Maximum number of closed prepared statement groups each connection keeps
+   * for reuse (see StatementCache).  0 disables statement caching.
+   */
+  static int StatementCacheSize;
+
+  /**
+   * Maximum estimated size in bytes of the statements each connection keeps
+   * for reuse.
+   */
+  static long StatementCacheBytes;
+
+  /**
+   * If true, a prepared statement that is rewritten to several statements (a
+   * temporal UPDATE or DELETE) sends them to the server joined into one multi
+   * statement SQL.  MySQL Connector/J needs allowMultiQueries=true for this.
+   */
+  static boolean TemporalMultiStatement;
+
+  /**
+   * Maximum number of batched rows a temporal UPDATE batch is collapsed into
+   * one set based statement for (see BatchCollapse).  0 disables collapsing,
+   * and the rows of such a batch run one at a time.  Rewrites that call
+   * now_usec() are only collapsed with TemporalClientClock.
+   */
+  static int BatchCollapseRows;
+
+  /**
+   * Normalized names of the temporalized tables kept in the current/history
+   * split layout (see HistoryTables), empty if no table is split.
+   */
+  static Set<String> TemporalSplitTables = Collections.emptySet();
+
+  /**
+   * If true, the timestamps of temporal rewrites come from the proxy side
+   * TransactionClock instead of the now_usec() UDF.
+   */
+  static boolean TemporalClientClock;
+
+  /**
+   * If true, the TransactionClock hands out one timestamp per statement
+   * instead of one per transaction.
+   */
+  static boolean TemporalClockPerStatement;
+
+  /**
+   * Name of the one row table TransactionClock takes the node number of this
+   * process from, or null if only this process writes timestamps.
+   */
+  static String TemporalClockSequence;
+
+  /**
+   * Number of processes that can take timestamps from the same database at
+   * the same time, when TemporalClockSequence is set.
+   */
+  static int TemporalClockNodes;
+
   /**
    * Get a Long option from a property and
    * log a debug message about this.
@@ -444,6 +568,79 @@ public class DriverSpy implements Driver
     	getBooleanOption(props, "log4jdbc.suppress.generated.keys.exception",
     	false);
 
+    AsyncLogBufferSize = getLongOption(props,
+      "log4jdbc.async.buffer.size", 0L).intValue();
+
+    AsyncLogOverflow = getStringOption(props, "log4jdbc.async.overflow");
+
+    AsyncLogSampleRate = getLongOption(props,
+      "log4jdbc.async.sample.rate", 10L).intValue();
+
+    SpyLogFactory.configure();
+
+    String passThrough = getStringOption(props, "log4jdbc.resultset.passthrough");
+    ResultSetPassThroughDirect = "direct".equalsIgnoreCase(passThrough);
+    ResultSetPassThrough = ResultSetPassThroughDirect || "wrap".equalsIgnoreCase(passThrough);
+
+    Metrics = getBooleanOption(props, "log4jdbc.metrics", false);
+
+    MetricsMaxStatements = getLongOption(props,
+      "log4jdbc.metrics.max.statements", 1000L).intValue();
+
+    if (Metrics)
+    {
+      StatementMetrics.registerMBean();
+    }
+
+    RewriteCacheSize = getLongOption(props,
+      "log4jdbc.temporal.rewrite.cache.size", 1000L).intValue();
+
+    TemporalSkipNonTemporal = getBooleanOption(props,
+      "log4jdbc.temporal.skip.nontemporal", true);
+
+    TemporalSnapshotFastPath = getBooleanOption(props,
+      "log4jdbc.temporal.snapshot.fastpath", true);
+
+    SchemaSnapshotDir = getStringOption(props,
+      "log4jdbc.temporal.schema.snapshot.dir");
+
+    StatementCacheSize = getLongOption(props,
+      "log4jdbc.temporal.statement.cache.size", 0L).intValue();
+
+    StatementCacheBytes = getLongOption(props,
+      "log4jdbc.temporal.statement.cache.bytes", 1048576L).longValue();
+
+    TemporalMultiStatement = getBooleanOption(props,
+      "log4jdbc.temporal.multi.statement", false);
+
+    BatchCollapseRows = getLongOption(props,
+      "log4jdbc.temporal.batch.collapse.rows", 0L).intValue();
+
+    String split = getStringOption(props, "log4jdbc.temporal.split.tables");
+    if (split != null)
+    {
+      Set<String> tables = new HashSet<String>();
+      String[] names = split.split(",");
+      for (int i = 0; i < names.length; i++)
+      {
+        if (names[i].trim().length() > 0)
+        {
+          tables.add(RewrittenSql.normalizeTableName(names[i]));
+        }
+      }
+      TemporalSplitTables = Collections.unmodifiableSet(tables);
+    }
+
+    String clock = getStringOption(props, "log4jdbc.temporal.clock");
+    TemporalClockPerStatement = "statement".equalsIgnoreCase(clock);
+    TemporalClientClock = TemporalClockPerStatement || "transaction".equalsIgnoreCase(clock);
+
+    TemporalClockSequence = getStringOption(props,
+      "log4jdbc.temporal.clock.sequence");
+
+    TemporalClockNodes = getLongOption(props,
+      "log4jdbc.temporal.clock.nodes", 16L).intValue();
+
     // The Set of drivers that the log4jdbc driver will preload at instantiation
     // time.  The driver can spy on any driver type, it's just a little bit
     // easier to configure log4jdbc if it's one of these types!
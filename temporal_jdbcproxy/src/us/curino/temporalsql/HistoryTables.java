@@ -0,0 +1,432 @@
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The split layout of a temporalized table: a current table that holds the
+ * live version of each row, and an append only history table (the table
+ * name followed by {@link #SUFFIX}) that holds the versions that were closed.
+ * TemporalizeSchema creates the layout with <code>layout=split</code>; the
+ * proxy only treats the tables listed in log4jdbc.temporal.split.tables as
+ * split (see TemporalTables.)
+ *
+ * The rewriter knows nothing of the layout.  Non temporal statements are
+ * rewritten against the current table as before, and so never read history.
+ * When an UPDATE or a DELETE closes versions (sets their tend), the rewrite
+ * is followed by a sweep that moves the versions it closed, and only those,
+ * to history: the ones whose tend is the time the rewrite closed them at.  A
+ * temporal query reads both tables: each reference to a split table in its
+ * FROM clause is replaced by the UNION ALL of the current and the history
+ * table, under the same name.
+ *
+ * The sweep needs that time in SQL: the now_usec() of the statement when the
+ * proxy clock replaces it by one timestamp (TemporalClientClock), or the
+ * variable the closing UPDATE assigns it to (MySQL only).  Without either
+ * there is no sweep, and the closed versions stay in the current table, where
+ * non temporal queries filter them out by tend: on PostgreSQL the split
+ * layout needs the proxy clock.  A zero length version (see
+ * ConnectionSpy.getUnparkSql) is not swept either.
+ */
+final class HistoryTables
+{
+  /**
+   * Do not allow instantiation.  Access is through static methods.
+   */
+  private HistoryTables() {}
+
+  /**
+   * Suffix of the name of the history table of a split table.
+   */
+  static final String SUFFIX = "_history";
+
+  /**
+   * An UPDATE that sets tend to a variable, as in
+   * <code>UPDATE t SET tend=@temptime_t:=now_usec()</code>.
+   */
+  private static final Pattern CLOSED_AT = Pattern.compile(
+    "^\\s*UPDATE\\s+(\\S+)\\s+SET\\b.*?\\btend\\s*=\\s*(@[\\w$]+)\\s*:=",
+    Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+  /**
+   * Keywords that end the table list of a FROM clause.
+   */
+  private static final String[] FROM_END = {"where", "group", "order", "having", "limit", "union",
+    "on", "using", "for", "lock", "window", "into", "procedure"};
+
+  /**
+   * Keywords that can follow a table reference that has no alias.
+   */
+  private static final String[] NOT_ALIAS = {"where", "group", "order", "having", "limit", "union",
+    "on", "using", "for", "lock", "window", "into", "procedure", "join", "inner", "left", "right",
+    "full", "cross", "natural", "straight_join", "outer", "use", "force", "ignore"};
+
+  /**
+   * Get the statements that move the versions a rewrite closes in split
+   * tables from the current to the history table.
+   *
+   * @param rewrite     the statements of the rewrite.
+   * @param tables      normalized names of the split tables it touches.
+   * @param clientClock true if the now_usec() calls of the rewrite are
+   *                    replaced by one timestamp taken by the proxy.
+   * @return an INSERT ... SELECT and a DELETE for each table whose closing
+   *         time can be told.
+   */
+  static List<String> sweep(List<String> rewrite, Collection<String> tables, boolean clientClock)
+  {
+    List<String> sqls = new ArrayList<String>(2 * tables.size());
+    for (Iterator<String> i = tables.iterator(); i.hasNext();)
+    {
+      String table = i.next();
+      String closedAt = getClosedAt(rewrite, table);
+      if (closedAt == null && clientClock)
+      {
+        closedAt = "now_usec()";
+      }
+      if (closedAt != null)
+      {
+        sqls.addAll(sweep(table, closedAt));
+      }
+    }
+    return sqls;
+  }
+
+  /**
+   * Get the statements that move the versions of a split table closed at a
+   * time to its history table.
+   *
+   * @param table    normalized name of the table.
+   * @param closedAt the time, as SQL.
+   * @return an INSERT ... SELECT and a DELETE.
+   */
+  static List<String> sweep(String table, String closedAt)
+  {
+    String closed = " WHERE tend = " + closedAt;
+    List<String> sqls = new ArrayList<String>(2);
+    sqls.add("INSERT INTO " + table + SUFFIX + " SELECT * FROM " + table + closed + " AND tstart <> " + closedAt);
+    sqls.add("DELETE FROM " + table + closed);
+    return sqls;
+  }
+
+  /**
+   * @return the variable the rewrite assigns the closing time of a table to,
+   *         or null if it does not.
+   */
+  private static String getClosedAt(List<String> rewrite, String table)
+  {
+    for (Iterator<String> i = rewrite.iterator(); i.hasNext();)
+    {
+      Matcher m = CLOSED_AT.matcher(i.next());
+      if (m.find() && RewrittenSql.normalizeTableName(m.group(1)).equals(table))
+      {
+        return m.group(2);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Determine if a statement is one of the statements of {@link #sweep}.
+   *
+   * @param sql a rewritten statement.
+   * @return true if it moves closed versions to history.
+   */
+  static boolean isSweep(String sql)
+  {
+    int where = sql.indexOf(" WHERE tend = ");
+    if (where < 0)
+    {
+      return false;
+    }
+    String closedAt = sql.substring(where + " WHERE tend = ".length());
+    if (sql.startsWith("DELETE FROM "))
+    {
+      return closedAt.indexOf(' ') < 0;
+    }
+    int and = closedAt.indexOf(" AND tstart <> ");
+    return sql.startsWith("INSERT INTO ") && sql.indexOf(SUFFIX + " SELECT * FROM ") > 0 && and > 0 &&
+      closedAt.substring(and + " AND tstart <> ".length()).equals(closedAt.substring(0, and));
+  }
+
+  /**
+   * Make a temporal query read the history of the split tables it names: each
+   * reference to one in a FROM clause (or a JOIN) becomes the UNION ALL of the
+   * current and the history table, with the alias of the reference, or the
+   * table name if it has none.
+   *
+   * MySQL before 8.0.22 materializes such a derived table without pushing
+   * the conditions of the query into it, so the comparisons of the
+   * reference's tstart and tend with a literal in the WHERE clause of the
+   * outer query (as SnapshotPredicates writes them) are copied into both
+   * branches, where they can use the (key, tend, tstart) index.  They are
+   * only copied when they are conditions of the whole WHERE clause, joined to
+   * it with AND.
+   *
+   * @param sql    a temporal query, as the rewriter produced it.
+   * @param tables the temporalized tables of the schema.
+   * @return the query reading both tables, or the same query if it names no
+   *         split table.
+   */
+  static String union(String sql, TemporalTables tables)
+  {
+    List<int[]> tokens = SnapshotPredicates.tokenize(sql);
+    // the table references: their token, parenthesis depth and whether they
+    // are split
+    List<int[]> references = new ArrayList<int[]>();
+    boolean split = false;
+    // whether the table list of a FROM clause is open, by parenthesis depth
+    boolean[] from = new boolean[tokens.size() + 1];
+    int depth = 0;
+    boolean expectTable = false;
+    for (int t = 0; t < tokens.size(); t++)
+    {
+      int[] token = tokens.get(t);
+      String text = sql.substring(token[0], token[1]);
+      if (token[2] == SnapshotPredicates.NAME)
+      {
+        String k = text.toLowerCase();
+        if (k.equals("from") || k.equals("join") || k.equals("straight_join"))
+        {
+          from[depth] = true;
+          expectTable = true;
+          continue;
+        }
+        if (expectTable)
+        {
+          expectTable = false;
+          boolean isSplit = tables.isSplit(RewrittenSql.normalizeTableName(text));
+          references.add(new int[] {t, depth, isSplit ? 1 : 0});
+          split |= isSplit;
+          continue;
+        }
+        if (contains(FROM_END, k))
+        {
+          from[depth] = false;
+        }
+      }
+      else if (text.equals("("))
+      {
+        expectTable = false;
+        from[++depth] = false;
+      }
+      else if (text.equals(")"))
+      {
+        depth = Math.max(0, depth - 1);
+      }
+      else if (text.equals(","))
+      {
+        expectTable = from[depth];
+      }
+      else
+      {
+        expectTable = false;
+      }
+    }
+    if (!split)
+    {
+      return sql;
+    }
+
+    List<int[]> times = getTimeConditions(sql, tokens);
+    int outer = 0;
+    for (Iterator<int[]> i = references.iterator(); i.hasNext();)
+    {
+      outer += i.next()[1] == 0 ? 1 : 0;
+    }
+    StringBuffer out = new StringBuffer(sql.length() + 64);
+    int copied = 0;
+    for (Iterator<int[]> i = references.iterator(); i.hasNext();)
+    {
+      int[] reference = i.next();
+      if (reference[2] == 0)
+      {
+        continue;
+      }
+      int t = reference[0];
+      boolean alias = hasAlias(sql, tokens, t + 1);
+      StringBuffer where = new StringBuffer();
+      if (reference[1] == 0)
+      {
+        String name = getReferenceName(sql, tokens, t, alias);
+        for (Iterator<int[]> j = times.iterator(); j.hasNext();)
+        {
+          int[] time = j.next();
+          String column = text(sql, tokens, time[0]);
+          int dot = column.lastIndexOf('.');
+          if (dot < 0 ? outer == 1 : RewrittenSql.normalizeTableName(column.substring(0, dot)).equals(name))
+          {
+            where.append(where.length() == 0 ? " WHERE " : " AND ")
+              .append(RewrittenSql.normalizeTableName(column)).append(' ')
+              .append(text(sql, tokens, time[1])).append(' ').append(text(sql, tokens, time[2]));
+          }
+        }
+      }
+      out.append(sql.substring(copied, tokens.get(t)[0]))
+        .append(union(text(sql, tokens, t), alias, where.toString()));
+      copied = tokens.get(t)[1];
+    }
+    return out.append(sql.substring(copied)).toString();
+  }
+
+  /**
+   * Keywords that end a WHERE clause.
+   */
+  private static final String[] WHERE_END = {"group", "order", "having", "limit", "for", "lock",
+    "window", "into", "procedure"};
+
+  /**
+   * Find the comparisons of a tstart or tend column with a literal that are
+   * conditions of the whole WHERE clause of the outer query.
+   *
+   * @return the column, operator and literal token of each, none if the
+   *         outer query is a UNION.
+   */
+  private static List<int[]> getTimeConditions(String sql, List<int[]> tokens)
+  {
+    List<int[]> found = new ArrayList<int[]>();
+    int depth = 0;
+    boolean where = false;
+    boolean ended = false;
+    // true after WHERE and after an AND that is not part of a BETWEEN
+    boolean conjunct = false;
+    boolean between = false;
+    for (int t = 0; t < tokens.size(); t++)
+    {
+      boolean starts = conjunct;
+      conjunct = false;
+      String text = text(sql, tokens, t);
+      if (text.equals("("))
+      {
+        depth++;
+        continue;
+      }
+      if (text.equals(")"))
+      {
+        depth = Math.max(0, depth - 1);
+        continue;
+      }
+      if (depth > 0 || tokens.get(t)[2] != SnapshotPredicates.NAME)
+      {
+        continue;
+      }
+      String k = text.toLowerCase();
+      if (k.equals("union"))
+      {
+        return new ArrayList<int[]>();
+      }
+      if (!where || ended)
+      {
+        where |= k.equals("where");
+        conjunct = k.equals("where");
+        continue;
+      }
+      if (k.equals("or"))
+      {
+        return new ArrayList<int[]>();
+      }
+      if (contains(WHERE_END, k))
+      {
+        ended = true;
+      }
+      else if (k.equals("between"))
+      {
+        between = true;
+      }
+      else if (k.equals("and"))
+      {
+        conjunct = !between;
+        between = false;
+      }
+      else if (starts && SnapshotPredicates.isTimeColumn(sql, tokens, t) &&
+        SnapshotPredicates.isComparison(sql, tokens, t + 1) && SnapshotPredicates.isLiteral(tokens, t + 2) &&
+        SnapshotPredicates.endsTerm(sql, tokens, t + 3))
+      {
+        found.add(new int[] {t, t + 1, t + 2});
+        t += 2;
+      }
+    }
+    return found;
+  }
+
+  /**
+   * @return the name a table reference is known by in its query, normalized.
+   */
+  private static String getReferenceName(String sql, List<int[]> tokens, int t, boolean alias)
+  {
+    if (!alias)
+    {
+      return RewrittenSql.normalizeTableName(text(sql, tokens, t));
+    }
+    String name = text(sql, tokens, t + 1);
+    if (name.equalsIgnoreCase("as") && t + 2 < tokens.size())
+    {
+      name = text(sql, tokens, t + 2);
+    }
+    return RewrittenSql.normalizeTableName(name);
+  }
+
+  /**
+   * @param table the table name as the query wrote it.
+   * @param alias true if the query gives the reference an alias.
+   * @param where the conditions of both branches, as a WHERE clause, or "".
+   * @return the union of the current and the history table.
+   */
+  private static String union(String table, boolean alias, String where)
+  {
+    int end = table.length();
+    char last = table.charAt(end - 1);
+    String history = last == '`' || last == '"' ?
+      table.substring(0, end - 1) + SUFFIX + last : table + SUFFIX;
+    String union = "(SELECT * FROM " + table + where + " UNION ALL SELECT * FROM " + history + where + ")";
+    return alias ? union : union + " " + table.substring(table.lastIndexOf('.') + 1);
+  }
+
+  private static String text(String sql, List<int[]> tokens, int t)
+  {
+    return sql.substring(tokens.get(t)[0], tokens.get(t)[1]);
+  }
+
+  private static boolean hasAlias(String sql, List<int[]> tokens, int t)
+  {
+    if (t >= tokens.size() || tokens.get(t)[2] != SnapshotPredicates.NAME)
+    {
+      return false;
+    }
+    return !contains(NOT_ALIAS, sql.substring(tokens.get(t)[0], tokens.get(t)[1]).toLowerCase());
+  }
+
+  private static boolean contains(String[] keywords, String word)
+  {
+    for (int i = 0; i < keywords.length; i++)
+    {
+      if (keywords[i].equals(word))
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,247 @@
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock free histogram of latencies in nanoseconds, in the style of
+ * HdrHistogram: every power of two is split into 16 linear sub buckets, so a
+ * recorded value is known to within 1/16th (6.25%) of itself whatever its
+ * magnitude, from a nanosecond up to about half an hour.  Larger values are
+ * counted in the last bucket.
+ *
+ * Recording is a handful of atomic increments and never allocates, so any
+ * number of threads can record into the same histogram.  Histograms can be
+ * added together, to merge the histograms of several threads, statements or
+ * log files.
+ */
+public class LatencyHistogram
+{
+  private static final int SUB_BUCKET_BITS = 4;
+
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  /**
+   * Exponent of the largest power of two that is still told apart.
+   */
+  private static final int MAX_EXPONENT = 40;
+
+  /**
+   * Number of buckets of a histogram.
+   */
+  static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+  private final AtomicLong count = new AtomicLong();
+
+  private final AtomicLong total = new AtomicLong();
+
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Record one latency.
+   *
+   * @param nanos the latency in nanoseconds.  Negative values count as 0.
+   */
+  public void record(long nanos)
+  {
+    if (nanos < 0)
+    {
+      nanos = 0;
+    }
+    counts.incrementAndGet(bucketOf(nanos));
+    count.incrementAndGet();
+    total.addAndGet(nanos);
+    long m = max.get();
+    while (nanos > m && !max.compareAndSet(m, nanos))
+    {
+      m = max.get();
+    }
+  }
+
+  /**
+   * Add the latencies recorded in another histogram to this one.
+   *
+   * @param other the histogram to add.
+   */
+  public void add(LatencyHistogram other)
+  {
+    for (int b = 0; b < BUCKETS; b++)
+    {
+      long c = other.counts.get(b);
+      if (c != 0)
+      {
+        counts.addAndGet(b, c);
+      }
+    }
+    count.addAndGet(other.count.get());
+    total.addAndGet(other.total.get());
+    long o = other.max.get();
+    long m = max.get();
+    while (o > m && !max.compareAndSet(m, o))
+    {
+      m = max.get();
+    }
+  }
+
+  /**
+   * Forget all recorded latencies.  Latencies recorded concurrently with a
+   * reset may be partly kept.
+   */
+  public void reset()
+  {
+    for (int b = 0; b < BUCKETS; b++)
+    {
+      counts.set(b, 0);
+    }
+    count.set(0);
+    total.set(0);
+    max.set(0);
+  }
+
+  /**
+   * @return the number of latencies recorded.
+   */
+  public long getCount()
+  {
+    return count.get();
+  }
+
+  /**
+   * @return the sum of the latencies recorded, in nanoseconds.
+   */
+  public long getTotal()
+  {
+    return total.get();
+  }
+
+  /**
+   * @return the largest latency recorded, in nanoseconds.
+   */
+  public long getMax()
+  {
+    return max.get();
+  }
+
+  /**
+   * @return the mean of the latencies recorded, in nanoseconds, or 0 if none were.
+   */
+  public double getMean()
+  {
+    long c = count.get();
+    return c == 0 ? 0 : (double) total.get() / c;
+  }
+
+  /**
+   * Get the latency that the given percentage of the recorded latencies are
+   * at or below.  The value returned is the top of the bucket the latency
+   * fell in, so it overstates the latency by at most 6.25%.
+   *
+   * @param percentile the percentage, between 0 and 100 (99.9 for the p999.)
+   * @return the latency at the percentile in nanoseconds, or 0 if no
+   *         latencies were recorded.
+   */
+  public long getValueAtPercentile(double percentile)
+  {
+    long[] snapshot = new long[BUCKETS];
+    long n = 0;
+    for (int b = 0; b < BUCKETS; b++)
+    {
+      snapshot[b] = counts.get(b);
+      n += snapshot[b];
+    }
+    if (n == 0)
+    {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * n));
+    long seen = 0;
+    for (int b = 0; b < BUCKETS; b++)
+    {
+      seen += snapshot[b];
+      if (seen >= rank)
+      {
+        return Math.min(highestValueIn(b), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  /**
+   * Append one line summarizing this histogram, in microseconds, to a
+   * metrics dump.
+   *
+   * @param out  the dump to append to.
+   * @param name the name of the measured phase.
+   */
+  void appendTo(StringBuffer out, String name)
+  {
+    out.append("\n  ").append(name).append(" usec:  count ").append(getCount());
+    out.append(", mean ").append(micros((long) getMean()));
+    out.append(", p50 ").append(micros(getValueAtPercentile(50)));
+    out.append(", p99 ").append(micros(getValueAtPercentile(99)));
+    out.append(", p999 ").append(micros(getValueAtPercentile(99.9)));
+    out.append(", max ").append(micros(getMax()));
+  }
+
+  /**
+   * Format a latency in nanoseconds as microseconds.
+   */
+  private static String micros(long nanos)
+  {
+    return String.valueOf(nanos / 1000L);
+  }
+
+  /**
+   * Get the bucket a value is counted in.
+   */
+  static int bucketOf(long value)
+  {
+    if (value < SUB_BUCKETS)
+    {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    if (exponent > MAX_EXPONENT)
+    {
+      return BUCKETS - 1;
+    }
+    int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+  }
+
+  /**
+   * Get the largest value that is counted in a bucket.
+   */
+  static long highestValueIn(int bucket)
+  {
+    if (bucket < SUB_BUCKETS)
+    {
+      return bucket;
+    }
+    int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    int sub = bucket % SUB_BUCKETS;
+    long lowest = ((long) (SUB_BUCKETS + sub)) << (exponent - SUB_BUCKET_BITS);
+    return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+  }
+}
@@ -0,0 +1,627 @@
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.util.Calendar;
+
+/**
+ * Holds the parameters bound on a PreparedStatementSpy until the statement is
+ * executed.
+ *
+ * Every parameter is a typed slot: the kind of setter that was called, a long
+ * for primitive values (and lengths and sql types), and object references for
+ * everything else, so binding a primitive does not allocate.  At execute time
+ * each real statement is brought up to date with {@link #flush}, which only
+ * binds the parameters that statement takes (according to the
+ * {@link ParameterRouting}) and that changed since it was last flushed.
+ *
+ * Not thread safe, like the PreparedStatement it belongs to.
+ */
+public class ParameterBuffer
+{
+  /**
+   * Kinds of slot, one for each PreparedStatement setter.  0 means unset.
+   */
+  static final byte BOOLEAN = 1;
+  static final byte BYTE = 2;
+  static final byte SHORT = 3;
+  static final byte INT = 4;
+  static final byte LONG = 5;
+  static final byte FLOAT = 6;
+  static final byte DOUBLE = 7;
+  static final byte ARRAY = 8;
+  static final byte ASCII_STREAM = 9;
+  static final byte ASCII_STREAM_INT_LENGTH = 10;
+  static final byte ASCII_STREAM_LENGTH = 11;
+  static final byte BIG_DECIMAL = 12;
+  static final byte BINARY_STREAM = 13;
+  static final byte BINARY_STREAM_INT_LENGTH = 14;
+  static final byte BINARY_STREAM_LENGTH = 15;
+  static final byte BLOB = 16;
+  static final byte BLOB_STREAM = 17;
+  static final byte BLOB_STREAM_LENGTH = 18;
+  static final byte BYTES = 19;
+  static final byte CHARACTER_STREAM = 20;
+  static final byte CHARACTER_STREAM_INT_LENGTH = 21;
+  static final byte CHARACTER_STREAM_LENGTH = 22;
+  static final byte CLOB = 23;
+  static final byte CLOB_READER = 24;
+  static final byte CLOB_READER_LENGTH = 25;
+  static final byte DATE = 26;
+  static final byte DATE_CALENDAR = 27;
+  static final byte NCHARACTER_STREAM = 28;
+  static final byte NCHARACTER_STREAM_LENGTH = 29;
+  static final byte NCLOB = 30;
+  static final byte NCLOB_READER = 31;
+  static final byte NCLOB_READER_LENGTH = 32;
+  static final byte NSTRING = 33;
+  static final byte NULL = 34;
+  static final byte NULL_TYPE_NAME = 35;
+  static final byte OBJECT = 36;
+  static final byte OBJECT_TYPE = 37;
+  static final byte OBJECT_TYPE_SCALE = 38;
+  static final byte REF = 39;
+  static final byte ROW_ID = 40;
+  static final byte SQLXML = 41;
+  static final byte STRING = 42;
+  static final byte TIME = 43;
+  static final byte TIMESTAMP = 44;
+  static final byte TIMESTAMP_CALENDAR = 45;
+  static final byte TIME_CALENDAR = 46;
+  static final byte UNICODE_STREAM_INT_LENGTH = 47;
+  static final byte URL = 48;
+
+  private final ParameterRouting routing;
+
+  private final byte[] kinds;
+
+  private final long[] numbers;
+
+  private final int[] scales;
+
+  private final Object[] values;
+
+  private final Object[] extras;
+
+  /**
+   * versions[i] is the value of version when parameter i was last set.
+   */
+  private final int[] versions;
+
+  private int version;
+
+  /**
+   * flushed[s] is the value of version when statement s was last flushed.
+   */
+  private final int[] flushed;
+
+  /**
+   * Create an empty parameter buffer.
+   *
+   * @param routing routing of the parameters to the rewritten statements.
+   */
+  public ParameterBuffer(ParameterRouting routing)
+  {
+    this.routing = routing;
+    int size = routing.getParameterCount() + 1;
+    kinds = new byte[size];
+    numbers = new long[size];
+    scales = new int[size];
+    values = new Object[size];
+    extras = new Object[size];
+    versions = new int[size];
+    flushed = new int[routing.getStatementCount()];
+  }
+
+  /**
+   * Copy the parameters of another buffer (for the same routing).
+   */
+  private ParameterBuffer(ParameterBuffer from)
+  {
+    routing = from.routing;
+    kinds = from.kinds.clone();
+    numbers = from.numbers.clone();
+    scales = from.scales.clone();
+    values = from.values.clone();
+    extras = from.extras.clone();
+    versions = new int[kinds.length];
+    flushed = new int[from.flushed.length];
+  }
+
+  /**
+   * Take a copy of the current parameters, for example for a batch entry.
+   *
+   * @return a copy of this buffer.
+   */
+  public ParameterBuffer snapshot()
+  {
+    return new ParameterBuffer(this);
+  }
+
+  /**
+   * Replace the current parameters with a snapshot taken earlier.  Every
+   * parameter of the snapshot is bound again on the next flush.
+   *
+   * @param from a snapshot of this buffer.
+   */
+  public void restore(ParameterBuffer from)
+  {
+    version++;
+    for (int i = 0; i < kinds.length; i++)
+    {
+      kinds[i] = from.kinds[i];
+      numbers[i] = from.numbers[i];
+      scales[i] = from.scales[i];
+      values[i] = from.values[i];
+      extras[i] = from.extras[i];
+      versions[i] = version;
+    }
+  }
+
+  private void set(int i, byte kind, Object value, Object extra, long number, int scale)
+    throws SQLException
+  {
+    routing.first(i); // range check
+    kinds[i] = kind;
+    values[i] = value;
+    extras[i] = extra;
+    numbers[i] = number;
+    scales[i] = scale;
+    versions[i] = ++version;
+  }
+
+  /**
+   * Set an integral or boolean parameter (booleans are 0 or 1), or a null.
+   */
+  public void set(int i, byte kind, long number) throws SQLException
+  {
+    set(i, kind, null, null, number, 0);
+  }
+
+  /**
+   * Set a floating point parameter.
+   */
+  public void set(int i, byte kind, double number) throws SQLException
+  {
+    set(i, kind, null, null, Double.doubleToRawLongBits(number), 0);
+  }
+
+  /**
+   * Set a null with a type name.
+   */
+  public void set(int i, byte kind, long number, Object extra) throws SQLException
+  {
+    set(i, kind, null, extra, number, 0);
+  }
+
+  /**
+   * Set an object parameter.
+   */
+  public void set(int i, byte kind, Object value) throws SQLException
+  {
+    set(i, kind, value, null, 0, 0);
+  }
+
+  /**
+   * Set an object parameter with a Calendar.
+   */
+  public void set(int i, byte kind, Object value, Object extra) throws SQLException
+  {
+    set(i, kind, value, extra, 0, 0);
+  }
+
+  /**
+   * Set an object parameter with a length or target sql type.
+   */
+  public void set(int i, byte kind, Object value, long number) throws SQLException
+  {
+    set(i, kind, value, null, number, 0);
+  }
+
+  /**
+   * Set an object parameter with a target sql type and scale.
+   */
+  public void set(int i, byte kind, Object value, long number, int scale) throws SQLException
+  {
+    set(i, kind, value, null, number, scale);
+  }
+
+  /**
+   * Forget all parameters.  The caller is responsible for clearing the
+   * parameters of the real statements.
+   */
+  public void clear()
+  {
+    for (int i = 0; i < kinds.length; i++)
+    {
+      kinds[i] = 0;
+      values[i] = null;
+      extras[i] = null;
+    }
+  }
+
+  /**
+   * Bind the parameters that changed since the last flush to a real statement.
+   *
+   * @param ps        the real statement.
+   * @param statement position of the real statement in the rewritten statement list.
+   * @throws SQLException if the real statement refuses a parameter.
+   */
+  public void flush(PreparedStatement ps, int statement) throws SQLException
+  {
+    int since = flushed[statement];
+    for (int i = 1; i < kinds.length; i++)
+    {
+      if (versions[i] <= since || kinds[i] == 0)
+      {
+        continue;
+      }
+      for (int r = routing.first(i), end = routing.end(i); r < end; r++)
+      {
+        if (routing.statement(r) == statement)
+        {
+          apply(ps, routing.index(r), i);
+        }
+      }
+    }
+    flushed[statement] = version;
+  }
+
+  /**
+   * Bind every parameter a statement takes to a real statement, shifted by an
+   * offset.  Used to bind the rows of a batch one after the other into a set
+   * based statement (see BatchCollapse).
+   *
+   * @param ps        the real statement.
+   * @param routing   routing of the parameters to the statements of the rewrite
+   *                  the statement is made from.
+   * @param statement position of the statement in the rewritten statement list.
+   * @param offset    number added to each parameter index.
+   * @throws SQLException if the real statement refuses a parameter.
+   */
+  public void bind(PreparedStatement ps, ParameterRouting routing, int statement, int offset)
+    throws SQLException
+  {
+    for (int i = 1; i < kinds.length; i++)
+    {
+      if (kinds[i] == 0)
+      {
+        continue;
+      }
+      for (int r = routing.first(i), end = routing.end(i); r < end; r++)
+      {
+        if (routing.statement(r) == statement)
+        {
+          apply(ps, routing.index(r) + offset, i);
+        }
+      }
+    }
+  }
+
+  /**
+   * Get a key identifying the values bound to the parameters of one
+   * statement, to tell whether two batch rows may touch the same database
+   * rows.  The values are compared loosely (numbers by value, strings without
+   * case, accents or trailing blanks, and a string holding a number as that
+   * number), so that values the database could consider equal get equal keys.
+   *
+   * @param routing   routing of the parameters to the statements of the rewrite.
+   * @param statement position of the statement in the rewritten statement list.
+   * @param count     number of parameters of the statement.
+   * @return the key, or null if a parameter is not set or its kind of value
+   *         cannot be compared.
+   * @throws SQLException if the routing of the parameters is broken.
+   */
+  public String getKey(ParameterRouting routing, int statement, int count) throws SQLException
+  {
+    String[] parts = new String[count + 1];
+    for (int i = 1; i < kinds.length; i++)
+    {
+      for (int r = routing.first(i), end = routing.end(i); r < end; r++)
+      {
+        if (routing.statement(r) == statement && routing.index(r) <= count)
+        {
+          parts[routing.index(r)] = keyValue(i);
+        }
+      }
+    }
+    StringBuffer key = new StringBuffer();
+    for (int index = 1; index <= count; index++)
+    {
+      if (parts[index] == null)
+      {
+        return null;
+      }
+      key.append(parts[index]).append('\u0000');
+    }
+    return key.toString();
+  }
+
+  private String keyValue(int i)
+  {
+    switch (kinds[i])
+    {
+      case BOOLEAN:
+      case BYTE:
+      case SHORT:
+      case INT:
+      case LONG:
+        return String.valueOf(numbers[i]);
+      case FLOAT:
+      case DOUBLE:
+        double d = Double.longBitsToDouble(numbers[i]);
+        return Double.isNaN(d) || Double.isInfinite(d) ? null : keyNumber(new BigDecimal(d));
+      case BIG_DECIMAL:
+        return values[i] == null ? null : keyNumber((BigDecimal) values[i]);
+      case STRING:
+      case NSTRING:
+        return values[i] == null ? null : keyString((String) values[i]);
+      case DATE:
+      case TIME:
+      case TIMESTAMP:
+        return values[i] == null ? null : values[i].toString();
+      case OBJECT:
+        if (values[i] instanceof Number)
+        {
+          return keyString(values[i].toString());
+        }
+        if (values[i] instanceof String)
+        {
+          return keyString((String) values[i]);
+        }
+        if (values[i] instanceof java.util.Date)
+        {
+          return values[i].toString();
+        }
+        return null;
+      default:
+        return null;
+    }
+  }
+
+  private static String keyNumber(BigDecimal n)
+  {
+    return n.signum() == 0 ? "0" : n.stripTrailingZeros().toPlainString();
+  }
+
+  private static String keyString(String s)
+  {
+    String t = s.trim();
+    try
+    {
+      return keyNumber(new BigDecimal(t));
+    }
+    catch (NumberFormatException e)
+    {
+      // not a number
+    }
+    t = Normalizer.normalize(t, Normalizer.Form.NFD);
+    StringBuffer key = new StringBuffer(t.length());
+    for (int i = 0; i < t.length(); i++)
+    {
+      char c = t.charAt(i);
+      if (Character.getType(c) != Character.NON_SPACING_MARK)
+      {
+        key.append(Character.toLowerCase(c));
+      }
+    }
+    return key.toString();
+  }
+
+  /**
+   * Get the traced form of a primitive parameter, for dumping the SQL.
+   *
+   * @param i the parameter index.
+   * @return the parameter formatted the way RdbmsSpecifics formats the boxed
+   *         value, or null if the parameter is not a primitive.
+   */
+  public String tracePrimitive(int i)
+  {
+    if (i < 1 || i >= kinds.length)
+    {
+      return null;
+    }
+    switch (kinds[i])
+    {
+      case BOOLEAN:
+        return DriverSpy.DumpBooleanAsTrueFalse ?
+          (numbers[i] != 0 ? "true" : "false") : (numbers[i] != 0 ? "1" : "0");
+      case BYTE:
+      case SHORT:
+      case INT:
+      case LONG:
+        return String.valueOf(numbers[i]);
+      case FLOAT:
+        return String.valueOf((float) Double.longBitsToDouble(numbers[i]));
+      case DOUBLE:
+        return String.valueOf(Double.longBitsToDouble(numbers[i]));
+      default:
+        return null;
+    }
+  }
+
+  private void apply(PreparedStatement ps, int index, int i) throws SQLException
+  {
+    switch (kinds[i])
+    {
+      case BOOLEAN:
+        ps.setBoolean(index, numbers[i] != 0);
+        break;
+      case BYTE:
+        ps.setByte(index, (byte) numbers[i]);
+        break;
+      case SHORT:
+        ps.setShort(index, (short) numbers[i]);
+        break;
+      case INT:
+        ps.setInt(index, (int) numbers[i]);
+        break;
+      case LONG:
+        ps.setLong(index, numbers[i]);
+        break;
+      case FLOAT:
+        ps.setFloat(index, (float) Double.longBitsToDouble(numbers[i]));
+        break;
+      case DOUBLE:
+        ps.setDouble(index, Double.longBitsToDouble(numbers[i]));
+        break;
+      case ARRAY:
+        ps.setArray(index, (Array) values[i]);
+        break;
+      case ASCII_STREAM:
+        ps.setAsciiStream(index, (InputStream) values[i]);
+        break;
+      case ASCII_STREAM_INT_LENGTH:
+        ps.setAsciiStream(index, (InputStream) values[i], (int) numbers[i]);
+        break;
+      case ASCII_STREAM_LENGTH:
+        ps.setAsciiStream(index, (InputStream) values[i], numbers[i]);
+        break;
+      case BIG_DECIMAL:
+        ps.setBigDecimal(index, (BigDecimal) values[i]);
+        break;
+      case BINARY_STREAM:
+        ps.setBinaryStream(index, (InputStream) values[i]);
+        break;
+      case BINARY_STREAM_INT_LENGTH:
+        ps.setBinaryStream(index, (InputStream) values[i], (int) numbers[i]);
+        break;
+      case BINARY_STREAM_LENGTH:
+        ps.setBinaryStream(index, (InputStream) values[i], numbers[i]);
+        break;
+      case BLOB:
+        ps.setBlob(index, (Blob) values[i]);
+        break;
+      case BLOB_STREAM:
+        ps.setBlob(index, (InputStream) values[i]);
+        break;
+      case BLOB_STREAM_LENGTH:
+        ps.setBlob(index, (InputStream) values[i], numbers[i]);
+        break;
+      case BYTES:
+        ps.setBytes(index, (byte[]) values[i]);
+        break;
+      case CHARACTER_STREAM:
+        ps.setCharacterStream(index, (Reader) values[i]);
+        break;
+      case CHARACTER_STREAM_INT_LENGTH:
+        ps.setCharacterStream(index, (Reader) values[i], (int) numbers[i]);
+        break;
+      case CHARACTER_STREAM_LENGTH:
+        ps.setCharacterStream(index, (Reader) values[i], numbers[i]);
+        break;
+      case CLOB:
+        ps.setClob(index, (Clob) values[i]);
+        break;
+      case CLOB_READER:
+        ps.setClob(index, (Reader) values[i]);
+        break;
+      case CLOB_READER_LENGTH:
+        ps.setClob(index, (Reader) values[i], numbers[i]);
+        break;
+      case DATE:
+        ps.setDate(index, (Date) values[i]);
+        break;
+      case DATE_CALENDAR:
+        ps.setDate(index, (Date) values[i], (Calendar) extras[i]);
+        break;
+      case NCHARACTER_STREAM:
+        ps.setNCharacterStream(index, (Reader) values[i]);
+        break;
+      case NCHARACTER_STREAM_LENGTH:
+        ps.setNCharacterStream(index, (Reader) values[i], numbers[i]);
+        break;
+      case NCLOB:
+        ps.setNClob(index, (NClob) values[i]);
+        break;
+      case NCLOB_READER:
+        ps.setNClob(index, (Reader) values[i]);
+        break;
+      case NCLOB_READER_LENGTH:
+        ps.setNClob(index, (Reader) values[i], numbers[i]);
+        break;
+      case NSTRING:
+        ps.setNString(index, (String) values[i]);
+        break;
+      case NULL:
+        ps.setNull(index, (int) numbers[i]);
+        break;
+      case NULL_TYPE_NAME:
+        ps.setNull(index, (int) numbers[i], (String) extras[i]);
+        break;
+      case OBJECT:
+        ps.setObject(index, values[i]);
+        break;
+      case OBJECT_TYPE:
+        ps.setObject(index, values[i], (int) numbers[i]);
+        break;
+      case OBJECT_TYPE_SCALE:
+        ps.setObject(index, values[i], (int) numbers[i], scales[i]);
+        break;
+      case REF:
+        ps.setRef(index, (Ref) values[i]);
+        break;
+      case ROW_ID:
+        ps.setRowId(index, (RowId) values[i]);
+        break;
+      case SQLXML:
+        ps.setSQLXML(index, (SQLXML) values[i]);
+        break;
+      case STRING:
+        ps.setString(index, (String) values[i]);
+        break;
+      case TIME:
+        ps.setTime(index, (Time) values[i]);
+        break;
+      case TIMESTAMP:
+        ps.setTimestamp(index, (Timestamp) values[i]);
+        break;
+      case TIMESTAMP_CALENDAR:
+        ps.setTimestamp(index, (Timestamp) values[i], (Calendar) extras[i]);
+        break;
+      case TIME_CALENDAR:
+        ps.setTime(index, (Time) values[i], (Calendar) extras[i]);
+        break;
+      case UNICODE_STREAM_INT_LENGTH:
+        ps.setUnicodeStream(index, (InputStream) values[i], (int) numbers[i]);
+        break;
+      case URL:
+        ps.setURL(index, (URL) values[i]);
+        break;
+    }
+  }
+}
@@ -0,0 +1,300 @@
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Maps each parameter index of the SQL an application prepared to the
+ * (statement, parameter index) pairs it must be bound to in the rewritten
+ * statements.
+ *
+ * When a temporal rewrite produces more than one statement, the first one
+ * only carries the parameters after the non temporal part of the original
+ * statement (so user index i goes to index i - nonTemporalParametersCount),
+ * and every following statement carries all of them at the original index.
+ * The table is computed once per rewrite and shared through the
+ * {@link RewriteCache}; binding a parameter is then a walk over a slice of
+ * two int arrays.
+ *
+ * Routes for user index i are the entries <code>first(i)</code> (inclusive)
+ * to <code>end(i)</code> (exclusive) of the statement and index arrays.
+ */
+public class ParameterRouting
+{
+  /**
+   * offsets[i] is the first route of user parameter i, offsets[i+1] the end.
+   */
+  private final int[] offsets;
+
+  private final int[] statements;
+
+  private final int[] indexes;
+
+  private final int statementCount;
+
+  /**
+   * number of parameter markers in each rewritten statement
+   */
+  private final int[] counts;
+
+  /**
+   * Compile the routing table for a rewrite.
+   *
+   * @param sqls the rewritten SQL statements, in execution order.
+   * @param nonTemporalParametersCount number of parameters in the non temporal part of the rewrite.
+   */
+  public ParameterRouting(List<String> sqls, int nonTemporalParametersCount)
+  {
+    int n = sqls.size();
+    statementCount = n;
+    counts = new int[n];
+    int shift = n > 1 ? Math.max(nonTemporalParametersCount, 0) : 0;
+    int max = 0;
+    for (int s = 0; s < n; s++)
+    {
+      counts[s] = countParameters(sqls.get(s));
+      max = Math.max(max, s == 0 ? counts[s] + shift : counts[s]);
+    }
+
+    offsets = new int[max + 2];
+    int routes = 0;
+    for (int i = 1; i <= max; i++)
+    {
+      offsets[i] = routes;
+      for (int s = 0; s < n; s++)
+      {
+        if (target(s, i, shift, counts[s]) > 0)
+        {
+          routes++;
+        }
+      }
+    }
+    offsets[max + 1] = routes;
+
+    statements = new int[routes];
+    indexes = new int[routes];
+    int r = 0;
+    for (int i = 1; i <= max; i++)
+    {
+      for (int s = 0; s < n; s++)
+      {
+        int index = target(s, i, shift, counts[s]);
+        if (index > 0)
+        {
+          statements[r] = s;
+          indexes[r] = index;
+          r++;
+        }
+      }
+    }
+  }
+
+  /**
+   * Create the routing for the statements of another routing joined into a
+   * single statement, in order: a parameter of statement s moves to the same
+   * index plus the number of parameters of the statements before s.
+   */
+  private ParameterRouting(ParameterRouting parts)
+  {
+    int[] base = new int[parts.statementCount];
+    for (int s = 0; s < parts.statementCount; s++)
+    {
+      base[s] = parts.getJoinedBase(s);
+    }
+    statementCount = 1;
+    counts = new int[] {parts.getJoinedBase(parts.statementCount)};
+    offsets = parts.offsets;
+    statements = new int[parts.statements.length];
+    indexes = new int[parts.indexes.length];
+    for (int r = 0; r < indexes.length; r++)
+    {
+      indexes[r] = base[parts.statements[r]] + parts.indexes[r];
+    }
+  }
+
+  /**
+   * Create the routing for the same statements with parameter markers added:
+   * a parameter at index k of statement s moves to index maps[s][k].
+   */
+  private ParameterRouting(ParameterRouting from, int[][] maps, int[] counts)
+  {
+    statementCount = from.statementCount;
+    this.counts = counts;
+    offsets = from.offsets;
+    statements = from.statements;
+    indexes = new int[from.indexes.length];
+    for (int r = 0; r < indexes.length; r++)
+    {
+      indexes[r] = maps[statements[r]][from.indexes[r]];
+    }
+  }
+
+  /**
+   * Get the routing for the rewritten statements after parameter markers of
+   * their own (not bound by the application) were added to them.
+   *
+   * @param maps   for each statement, the new index of each old parameter index.
+   * @param counts the new number of parameter markers of each statement.
+   * @return the routing of the changed statements.
+   */
+  ParameterRouting remap(int[][] maps, int[] counts)
+  {
+    return new ParameterRouting(this, maps, counts);
+  }
+
+  /**
+   * Get the index the first parameter of a statement has once the statements
+   * are joined into one statement.
+   *
+   * @param statement position of the statement in the rewritten statement list.
+   * @return the number of parameter markers of the statements before it.
+   */
+  int getJoinedBase(int statement)
+  {
+    int base = 0;
+    for (int s = 0; s < statement; s++)
+    {
+      base += counts[s];
+    }
+    return base;
+  }
+
+  /**
+   * Get the routing for the rewritten statements joined into one statement.
+   *
+   * @return the routing of the joined statement.
+   */
+  public ParameterRouting join()
+  {
+    return statementCount <= 1 ? this : new ParameterRouting(this);
+  }
+
+  /**
+   * Get the parameter index user parameter i has in statement s, or 0 if the
+   * statement does not take it.
+   */
+  private static int target(int s, int i, int shift, int count)
+  {
+    int index = s == 0 ? i - shift : i;
+    return index >= 1 && index <= count ? index : 0;
+  }
+
+  /**
+   * Count the parameter markers in a SQL statement, ignoring any in quoted
+   * strings and identifiers.
+   *
+   * @param sql a SQL statement.
+   * @return the number of ? markers.
+   */
+  static int countParameters(String sql)
+  {
+    int count = 0;
+    char quote = 0;
+    for (int i = 0, len = sql.length(); i < len; i++)
+    {
+      char c = sql.charAt(i);
+      if (quote != 0)
+      {
+        if (c == '\\' && quote != '`')
+        {
+          i++;
+        }
+        else if (c == quote)
+        {
+          quote = 0;
+        }
+      }
+      else if (c == '\'' || c == '"' || c == '`')
+      {
+        quote = c;
+      }
+      else if (c == '?')
+      {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @return the number of parameters of the SQL the application prepared.
+   */
+  public int getParameterCount()
+  {
+    return offsets.length - 2;
+  }
+
+  /**
+   * @return the number of rewritten statements.
+   */
+  public int getStatementCount()
+  {
+    return statementCount;
+  }
+
+  /**
+   * Get the first route of a user parameter.
+   *
+   * @param parameterIndex the parameter index the application used, 1 based.
+   * @return index of the first route of the parameter.
+   * @throws SQLException if the parameter index is out of range.
+   */
+  public int first(int parameterIndex) throws SQLException
+  {
+    if (parameterIndex < 1 || parameterIndex > offsets.length - 2)
+    {
+      throw new SQLException("Parameter index out of range (" + parameterIndex +
+        " > number of parameters, which is " + (offsets.length - 2) + ").");
+    }
+    return offsets[parameterIndex];
+  }
+
+  /**
+   * Get the end (exclusive) of the routes of a user parameter.  Only valid
+   * after {@link #first} accepted the index.
+   *
+   * @param parameterIndex the parameter index the application used, 1 based.
+   * @return index after the last route of the parameter.
+   */
+  public int end(int parameterIndex)
+  {
+    return offsets[parameterIndex + 1];
+  }
+
+  /**
+   * @param route a route index.
+   * @return the position of the target statement in the rewritten statement list.
+   */
+  public int statement(int route)
+  {
+    return statements[route];
+  }
+
+  /**
+   * @param route a route index.
+   * @return the parameter index in the target statement.
+   */
+  public int index(int route)
+  {
+    return indexes[route];
+  }
+}
@@ -0,0 +1,1071 @@
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.RowId;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Map;
+
+/**
+ * A ResultSet wrapper that does no logging at all and only hands every call
+ * on to the real ResultSet.  Statements return one of these instead of a
+ * ResultSetSpy when <b>log4jdbc.resultset.passthrough</b> is <b>wrap</b> and the
+ * resultset logger is off, so that reading a large result (a VERSIONS scan
+ * over the history of a table, say) costs no more than it does without the
+ * proxy.
+ *
+ * The one thing it does fix is getStatement(), which returns the spy that
+ * produced the result rather than the real statement the rewrite ran.
+ */
+public class PassThroughResultSet implements ResultSet
+{
+  private final StatementSpy parent;
+
+  private final ResultSet realResultSet;
+
+  /**
+   * Create a new PassThroughResultSet.
+   *
+   * @param parent        Statement that generated this ResultSet.
+   * @param realResultSet real underlying ResultSet that is being wrapped.
+   */
+  public PassThroughResultSet(StatementSpy parent, ResultSet realResultSet)
+  {
+    this(parent, realResultSet, null);
+  }
+
+  /**
+   * Create a new PassThroughResultSet that records how long the application
+   * takes to read it in the given StatementMetrics.
+   *
+   * @param parent        Statement that generated this ResultSet.
+   * @param realResultSet real underlying ResultSet that is being wrapped.
+   * @param metrics       metrics of the statement, or null if they are not recorded.
+   */
+  public PassThroughResultSet(StatementSpy parent, ResultSet realResultSet, StatementMetrics.Entry metrics)
+  {
+    if (realResultSet == null)
+    {
+      throw new IllegalArgumentException("Must provide a non null real ResultSet");
+    }
+    this.parent = parent;
+    this.realResultSet = realResultSet;
+    this.metrics = metrics;
+    this.opened = metrics == null ? 0 : System.nanoTime();
+  }
+
+  /**
+   * metrics the consume time of this ResultSet is recorded in, null once it is
+   */
+  private StatementMetrics.Entry metrics;
+
+  /**
+   * System.nanoTime() when this ResultSet was handed out
+   */
+  private final long opened;
+
+  private void consumed()
+  {
+    if (metrics != null)
+    {
+      metrics.recordConsume(System.nanoTime() - opened);
+      metrics = null;
+    }
+  }
+
+  /**
+   * Get the real ResultSet that this PassThroughResultSet wraps.
+   *
+   * @return the real ResultSet that this PassThroughResultSet wraps.
+   */
+  public ResultSet getRealResultSet()
+  {
+    return realResultSet;
+  }
+
+  public Statement getStatement() throws SQLException
+  {
+    return parent;
+  }
+
+  public void updateAsciiStream(int columnIndex, InputStream x, int length) throws SQLException
+  {
+    realResultSet.updateAsciiStream(columnIndex, x, length);
+  }
+
+  public void updateAsciiStream(String columnName, InputStream x, int length) throws SQLException
+  {
+    realResultSet.updateAsciiStream(columnName, x, length);
+  }
+
+  public int getRow() throws SQLException
+  {
+    return realResultSet.getRow();
+  }
+
+  public void cancelRowUpdates() throws SQLException
+  {
+    realResultSet.cancelRowUpdates();
+  }
+
+  public Time getTime(int columnIndex) throws SQLException
+  {
+    return realResultSet.getTime(columnIndex);
+  }
+
+  public Time getTime(String columnName) throws SQLException
+  {
+    return realResultSet.getTime(columnName);
+  }
+
+  public Time getTime(int columnIndex, Calendar cal) throws SQLException
+  {
+    return realResultSet.getTime(columnIndex, cal);
+  }
+
+  public Time getTime(String columnName, Calendar cal) throws SQLException
+  {
+    return realResultSet.getTime(columnName, cal);
+  }
+
+  public boolean absolute(int row) throws SQLException
+  {
+    return realResultSet.absolute(row);
+  }
+
+  public Timestamp getTimestamp(int columnIndex) throws SQLException
+  {
+    return realResultSet.getTimestamp(columnIndex);
+  }
+
+  public Timestamp getTimestamp(String columnName) throws SQLException
+  {
+    return realResultSet.getTimestamp(columnName);
+  }
+
+  public Timestamp getTimestamp(int columnIndex, Calendar cal) throws SQLException
+  {
+    return realResultSet.getTimestamp(columnIndex, cal);
+  }
+
+  public Timestamp getTimestamp(String columnName, Calendar cal) throws SQLException
+  {
+    return realResultSet.getTimestamp(columnName, cal);
+  }
+
+  public void moveToInsertRow() throws SQLException
+  {
+    realResultSet.moveToInsertRow();
+  }
+
+  public boolean relative(int rows) throws SQLException
+  {
+    return realResultSet.relative(rows);
+  }
+
+  public boolean previous() throws SQLException
+  {
+    return realResultSet.previous();
+  }
+
+  public void moveToCurrentRow() throws SQLException
+  {
+    realResultSet.moveToCurrentRow();
+  }
+
+  public Ref getRef(int i) throws SQLException
+  {
+    return realResultSet.getRef(i);
+  }
+
+  public void updateRef(int columnIndex, Ref x) throws SQLException
+  {
+    realResultSet.updateRef(columnIndex, x);
+  }
+
+  public Ref getRef(String colName) throws SQLException
+  {
+    return realResultSet.getRef(colName);
+  }
+
+  public void updateRef(String columnName, Ref x) throws SQLException
+  {
+    realResultSet.updateRef(columnName, x);
+  }
+
+  public Blob getBlob(int i) throws SQLException
+  {
+    return realResultSet.getBlob(i);
+  }
+
+  public void updateBlob(int columnIndex, Blob x) throws SQLException
+  {
+    realResultSet.updateBlob(columnIndex, x);
+  }
+
+  public Blob getBlob(String colName) throws SQLException
+  {
+    return realResultSet.getBlob(colName);
+  }
+
+  public void updateBlob(String columnName, Blob x) throws SQLException
+  {
+    realResultSet.updateBlob(columnName, x);
+  }
+
+  public Clob getClob(int i) throws SQLException
+  {
+    return realResultSet.getClob(i);
+  }
+
+  public void updateClob(int columnIndex, Clob x) throws SQLException
+  {
+    realResultSet.updateClob(columnIndex, x);
+  }
+
+  public Clob getClob(String colName) throws SQLException
+  {
+    return realResultSet.getClob(colName);
+  }
+
+  public void updateClob(String columnName, Clob x) throws SQLException
+  {
+    realResultSet.updateClob(columnName, x);
+  }
+
+  public boolean getBoolean(int columnIndex) throws SQLException
+  {
+    return realResultSet.getBoolean(columnIndex);
+  }
+
+  public boolean getBoolean(String columnName) throws SQLException
+  {
+    return realResultSet.getBoolean(columnName);
+  }
+
+  public Array getArray(int i) throws SQLException
+  {
+    return realResultSet.getArray(i);
+  }
+
+  public void updateArray(int columnIndex, Array x) throws SQLException
+  {
+    realResultSet.updateArray(columnIndex, x);
+  }
+
+  public Array getArray(String colName) throws SQLException
+  {
+    return realResultSet.getArray(colName);
+  }
+
+  public void updateArray(String columnName, Array x) throws SQLException
+  {
+    realResultSet.updateArray(columnName, x);
+  }
+
+  public RowId getRowId(int columnIndex) throws SQLException
+  {
+    return realResultSet.getRowId(columnIndex);
+  }
+
+  public RowId getRowId(String columnLabel) throws SQLException
+  {
+    return realResultSet.getRowId(columnLabel);
+  }
+
+  public void updateRowId(int columnIndex, RowId x) throws SQLException
+  {
+    realResultSet.updateRowId(columnIndex, x);
+  }
+
+  public void updateRowId(String columnLabel, RowId x) throws SQLException
+  {
+    realResultSet.updateRowId(columnLabel, x);
+  }
+
+  public int getHoldability() throws SQLException
+  {
+    return realResultSet.getHoldability();
+  }
+
+  public boolean isClosed() throws SQLException
+  {
+    return realResultSet.isClosed();
+  }
+
+  public void updateNString(int columnIndex, String nString) throws SQLException
+  {
+    realResultSet.updateNString(columnIndex, nString);
+  }
+
+  public void updateNString(String columnLabel, String nString) throws SQLException
+  {
+    realResultSet.updateNString(columnLabel, nString);
+  }
+
+  public void updateNClob(int columnIndex, NClob nClob) throws SQLException
+  {
+    realResultSet.updateNClob(columnIndex, nClob);
+  }
+
+  public void updateNClob(String columnLabel, NClob nClob) throws SQLException
+  {
+    realResultSet.updateNClob(columnLabel, nClob);
+  }
+
+  public NClob getNClob(int columnIndex) throws SQLException
+  {
+    return realResultSet.getNClob(columnIndex);
+  }
+
+  public NClob getNClob(String columnLabel) throws SQLException
+  {
+    return realResultSet.getNClob(columnLabel);
+  }
+
+  public SQLXML getSQLXML(int columnIndex) throws SQLException
+  {
+    return realResultSet.getSQLXML(columnIndex);
+  }
+
+  public SQLXML getSQLXML(String columnLabel) throws SQLException
+  {
+    return realResultSet.getSQLXML(columnLabel);
+  }
+
+  public void updateSQLXML(int columnIndex, SQLXML xmlObject) throws SQLException
+  {
+    realResultSet.updateSQLXML(columnIndex, xmlObject);
+  }
+
+  public void updateSQLXML(String columnLabel, SQLXML xmlObject) throws SQLException
+  {
+    realResultSet.updateSQLXML(columnLabel, xmlObject);
+  }
+
+  public String getNString(int columnIndex) throws SQLException
+  {
+    return realResultSet.getNString(columnIndex);
+  }
+
+  public String getNString(String columnLabel) throws SQLException
+  {
+    return realResultSet.getNString(columnLabel);
+  }
+
+  public Reader getNCharacterStream(int columnIndex) throws SQLException
+  {
+    return realResultSet.getNCharacterStream(columnIndex);
+  }
+
+  public Reader getNCharacterStream(String columnLabel) throws SQLException
+  {
+    return realResultSet.getNCharacterStream(columnLabel);
+  }
+
+  public void updateNCharacterStream(int columnIndex, Reader x, long length) throws SQLException
+  {
+    realResultSet.updateNCharacterStream(columnIndex, x, length);
+  }
+
+  public void updateNCharacterStream(String columnLabel, Reader reader, long length) throws SQLException
+  {
+    realResultSet.updateNCharacterStream(columnLabel, reader, length);
+  }
+
+  public void updateAsciiStream(int columnIndex, InputStream x, long length) throws SQLException
+  {
+    realResultSet.updateAsciiStream(columnIndex, x, length);
+  }
+
+  public void updateBinaryStream(int columnIndex, InputStream x, long length) throws SQLException
+  {
+    realResultSet.updateBinaryStream(columnIndex, x, length);
+  }
+
+  public void updateCharacterStream(int columnIndex, Reader x, long length) throws SQLException
+  {
+    realResultSet.updateCharacterStream(columnIndex, x, length);
+  }
+
+  public void updateAsciiStream(String columnLabel, InputStream x, long length) throws SQLException
+  {
+    realResultSet.updateAsciiStream(columnLabel, x, length);
+  }
+
+  public void updateBinaryStream(String columnLabel, InputStream x, long length) throws SQLException
+  {
+    realResultSet.updateBinaryStream(columnLabel, x, length);
+  }
+
+  public void updateCharacterStream(String columnLabel, Reader reader, long length) throws SQLException
+  {
+    realResultSet.updateCharacterStream(columnLabel, reader, length);
+  }
+
+  public void updateBlob(int columnIndex, InputStream inputStream, long length) throws SQLException
+  {
+    realResultSet.updateBlob(columnIndex, inputStream, length);
+  }
+
+  public void updateBlob(String columnLabel, InputStream inputStream, long length) throws SQLException
+  {
+    realResultSet.updateBlob(columnLabel, inputStream, length);
+  }
+
+  public void updateClob(int columnIndex, Reader reader, long length) throws SQLException
+  {
+    realResultSet.updateClob(columnIndex, reader, length);
+  }
+
+  public void updateClob(String columnLabel, Reader reader, long length) throws SQLException
+  {
+    realResultSet.updateClob(columnLabel, reader, length);
+  }
+
+  public void updateNClob(int columnIndex, Reader reader, long length) throws SQLException
+  {
+    realResultSet.updateNClob(columnIndex, reader, length);
+  }
+
+  public void updateNClob(String columnLabel, Reader reader, long length) throws SQLException
+  {
+    realResultSet.updateNClob(columnLabel, reader, length);
+  }
+
+  public void updateNCharacterStream(int columnIndex, Reader reader) throws SQLException
+  {
+    realResultSet.updateNCharacterStream(columnIndex, reader);
+  }
+
+  public void updateNCharacterStream(String columnLabel, Reader reader) throws SQLException
+  {
+    realResultSet.updateNCharacterStream(columnLabel, reader);
+  }
+
+  public void updateAsciiStream(int columnIndex, InputStream x) throws SQLException
+  {
+    realResultSet.updateAsciiStream(columnIndex, x);
+  }
+
+  public void updateBinaryStream(int columnIndex, InputStream x) throws SQLException
+  {
+    realResultSet.updateBinaryStream(columnIndex, x);
+  }
+
+  public void updateCharacterStream(int columnIndex, Reader x) throws SQLException
+  {
+    realResultSet.updateCharacterStream(columnIndex, x);
+  }
+
+  public void updateAsciiStream(String columnLabel, InputStream x) throws SQLException
+  {
+    realResultSet.updateAsciiStream(columnLabel, x);
+  }
+
+  public void updateBinaryStream(String columnLabel, InputStream x) throws SQLException
+  {
+    realResultSet.updateBinaryStream(columnLabel, x);
+  }
+
+  public void updateCharacterStream(String columnLabel, Reader reader) throws SQLException
+  {
+    realResultSet.updateCharacterStream(columnLabel, reader);
+  }
+
+  public void updateBlob(int columnIndex, InputStream inputStream) throws SQLException
+  {
+    realResultSet.updateBlob(columnIndex, inputStream);
+  }
+
+  public void updateBlob(String columnLabel, InputStream inputStream) throws SQLException
+  {
+    realResultSet.updateBlob(columnLabel, inputStream);
+  }
+
+  public void updateClob(int columnIndex, Reader reader) throws SQLException
+  {
+    realResultSet.updateClob(columnIndex, reader);
+  }
+
+  public void updateClob(String columnLabel, Reader reader) throws SQLException
+  {
+    realResultSet.updateClob(columnLabel, reader);
+  }
+
+  public void updateNClob(int columnIndex, Reader reader) throws SQLException
+  {
+    realResultSet.updateNClob(columnIndex, reader);
+  }
+
+  public void updateNClob(String columnLabel, Reader reader) throws SQLException
+  {
+    realResultSet.updateNClob(columnLabel, reader);
+  }
+
+  public boolean isBeforeFirst() throws SQLException
+  {
+    return realResultSet.isBeforeFirst();
+  }
+
+  public short getShort(int columnIndex) throws SQLException
+  {
+    return realResultSet.getShort(columnIndex);
+  }
+
+  public short getShort(String columnName) throws SQLException
+  {
+    return realResultSet.getShort(columnName);
+  }
+
+  public int getInt(int columnIndex) throws SQLException
+  {
+    return realResultSet.getInt(columnIndex);
+  }
+
+  public int getInt(String columnName) throws SQLException
+  {
+    return realResultSet.getInt(columnName);
+  }
+
+  public void close() throws SQLException
+  {
+    consumed();
+    realResultSet.close();
+  }
+
+  public ResultSetMetaData getMetaData() throws SQLException
+  {
+    return realResultSet.getMetaData();
+  }
+
+  public int getType() throws SQLException
+  {
+    return realResultSet.getType();
+  }
+
+  public double getDouble(int columnIndex) throws SQLException
+  {
+    return realResultSet.getDouble(columnIndex);
+  }
+
+  public double getDouble(String columnName) throws SQLException
+  {
+    return realResultSet.getDouble(columnName);
+  }
+
+  public void deleteRow() throws SQLException
+  {
+    realResultSet.deleteRow();
+  }
+
+  public int getConcurrency() throws SQLException
+  {
+    return realResultSet.getConcurrency();
+  }
+
+  public boolean rowUpdated() throws SQLException
+  {
+    return realResultSet.rowUpdated();
+  }
+
+  public Date getDate(int columnIndex) throws SQLException
+  {
+    return realResultSet.getDate(columnIndex);
+  }
+
+  public Date getDate(String columnName) throws SQLException
+  {
+    return realResultSet.getDate(columnName);
+  }
+
+  public Date getDate(int columnIndex, Calendar cal) throws SQLException
+  {
+    return realResultSet.getDate(columnIndex, cal);
+  }
+
+  public Date getDate(String columnName, Calendar cal) throws SQLException
+  {
+    return realResultSet.getDate(columnName, cal);
+  }
+
+  public boolean last() throws SQLException
+  {
+    return realResultSet.last();
+  }
+
+  public boolean rowInserted() throws SQLException
+  {
+    return realResultSet.rowInserted();
+  }
+
+  public boolean rowDeleted() throws SQLException
+  {
+    return realResultSet.rowDeleted();
+  }
+
+  public void updateNull(int columnIndex) throws SQLException
+  {
+    realResultSet.updateNull(columnIndex);
+  }
+
+  public void updateNull(String columnName) throws SQLException
+  {
+    realResultSet.updateNull(columnName);
+  }
+
+  public void updateShort(int columnIndex, short x) throws SQLException
+  {
+    realResultSet.updateShort(columnIndex, x);
+  }
+
+  public void updateShort(String columnName, short x) throws SQLException
+  {
+    realResultSet.updateShort(columnName, x);
+  }
+
+  public void updateBoolean(int columnIndex, boolean x) throws SQLException
+  {
+    realResultSet.updateBoolean(columnIndex, x);
+  }
+
+  public void updateBoolean(String columnName, boolean x) throws SQLException
+  {
+    realResultSet.updateBoolean(columnName, x);
+  }
+
+  public void updateByte(int columnIndex, byte x) throws SQLException
+  {
+    realResultSet.updateByte(columnIndex, x);
+  }
+
+  public void updateByte(String columnName, byte x) throws SQLException
+  {
+    realResultSet.updateByte(columnName, x);
+  }
+
+  public void updateInt(int columnIndex, int x) throws SQLException
+  {
+    realResultSet.updateInt(columnIndex, x);
+  }
+
+  public void updateInt(String columnName, int x) throws SQLException
+  {
+    realResultSet.updateInt(columnName, x);
+  }
+
+  public Object getObject(int columnIndex) throws SQLException
+  {
+    return realResultSet.getObject(columnIndex);
+  }
+
+  public Object getObject(String columnName) throws SQLException
+  {
+    return realResultSet.getObject(columnName);
+  }
+
+  public Object getObject(String colName, Map map) throws SQLException
+  {
+    return realResultSet.getObject(colName, map);
+  }
+
+  public boolean next() throws SQLException
+  {
+    boolean next = realResultSet.next();
+    if (!next)
+    {
+      consumed();
+    }
+    return next;
+  }
+
+  public void updateLong(int columnIndex, long x) throws SQLException
+  {
+    realResultSet.updateLong(columnIndex, x);
+  }
+
+  public void updateLong(String columnName, long x) throws SQLException
+  {
+    realResultSet.updateLong(columnName, x);
+  }
+
+  public void updateFloat(int columnIndex, float x) throws SQLException
+  {
+    realResultSet.updateFloat(columnIndex, x);
+  }
+
+  public void updateFloat(String columnName, float x) throws SQLException
+  {
+    realResultSet.updateFloat(columnName, x);
+  }
+
+  public void updateDouble(int columnIndex, double x) throws SQLException
+  {
+    realResultSet.updateDouble(columnIndex, x);
+  }
+
+  public void updateDouble(String columnName, double x) throws SQLException
+  {
+    realResultSet.updateDouble(columnName, x);
+  }
+
+  public Object getObject(int columnIndex, Map<String, Class<?>> map) throws SQLException
+  {
+    return realResultSet.getObject(columnIndex, map);
+  }
+
+  public void updateString(int columnIndex, String x) throws SQLException
+  {
+    realResultSet.updateString(columnIndex, x);
+  }
+
+  public void updateString(String columnName, String x) throws SQLException
+  {
+    realResultSet.updateString(columnName, x);
+  }
+
+  public InputStream getAsciiStream(int columnIndex) throws SQLException
+  {
+    return realResultSet.getAsciiStream(columnIndex);
+  }
+
+  public InputStream getAsciiStream(String columnName) throws SQLException
+  {
+    return realResultSet.getAsciiStream(columnName);
+  }
+
+  public void updateBigDecimal(int columnIndex, BigDecimal x) throws SQLException
+  {
+    realResultSet.updateBigDecimal(columnIndex, x);
+  }
+
+  public URL getURL(int columnIndex) throws SQLException
+  {
+    return realResultSet.getURL(columnIndex);
+  }
+
+  public void updateBigDecimal(String columnName, BigDecimal x) throws SQLException
+  {
+    realResultSet.updateBigDecimal(columnName, x);
+  }
+
+  public URL getURL(String columnName) throws SQLException
+  {
+    return realResultSet.getURL(columnName);
+  }
+
+  public void updateBytes(int columnIndex, byte[] x) throws SQLException
+  {
+    realResultSet.updateBytes(columnIndex, x);
+  }
+
+  public void updateBytes(String columnName, byte[] x) throws SQLException
+  {
+    realResultSet.updateBytes(columnName, x);
+  }
+
+  public InputStream getUnicodeStream(int columnIndex) throws SQLException
+  {
+    return realResultSet.getUnicodeStream(columnIndex);
+  }
+
+  public InputStream getUnicodeStream(String columnName) throws SQLException
+  {
+    return realResultSet.getUnicodeStream(columnName);
+  }
+
+  public void updateDate(int columnIndex, Date x) throws SQLException
+  {
+    realResultSet.updateDate(columnIndex, x);
+  }
+
+  public void updateDate(String columnName, Date x) throws SQLException
+  {
+    realResultSet.updateDate(columnName, x);
+  }
+
+  public int getFetchSize() throws SQLException
+  {
+    return realResultSet.getFetchSize();
+  }
+
+  public SQLWarning getWarnings() throws SQLException
+  {
+    return realResultSet.getWarnings();
+  }
+
+  public InputStream getBinaryStream(int columnIndex) throws SQLException
+  {
+    return realResultSet.getBinaryStream(columnIndex);
+  }
+
+  public InputStream getBinaryStream(String columnName) throws SQLException
+  {
+    return realResultSet.getBinaryStream(columnName);
+  }
+
+  public void clearWarnings() throws SQLException
+  {
+    realResultSet.clearWarnings();
+  }
+
+  public void updateTimestamp(int columnIndex, Timestamp x) throws SQLException
+  {
+    realResultSet.updateTimestamp(columnIndex, x);
+  }
+
+  public void updateTimestamp(String columnName, Timestamp x) throws SQLException
+  {
+    realResultSet.updateTimestamp(columnName, x);
+  }
+
+  public boolean first() throws SQLException
+  {
+    return realResultSet.first();
+  }
+
+  public String getCursorName() throws SQLException
+  {
+    return realResultSet.getCursorName();
+  }
+
+  public int findColumn(String columnName) throws SQLException
+  {
+    return realResultSet.findColumn(columnName);
+  }
+
+  public boolean wasNull() throws SQLException
+  {
+    return realResultSet.wasNull();
+  }
+
+  public void updateBinaryStream(int columnIndex, InputStream x, int length) throws SQLException
+  {
+    realResultSet.updateBinaryStream(columnIndex, x, length);
+  }
+
+  public void updateBinaryStream(String columnName, InputStream x, int length) throws SQLException
+  {
+    realResultSet.updateBinaryStream(columnName, x, length);
+  }
+
+  public String getString(int columnIndex) throws SQLException
+  {
+    return realResultSet.getString(columnIndex);
+  }
+
+  public String getString(String columnName) throws SQLException
+  {
+    return realResultSet.getString(columnName);
+  }
+
+  public Reader getCharacterStream(int columnIndex) throws SQLException
+  {
+    return realResultSet.getCharacterStream(columnIndex);
+  }
+
+  public Reader getCharacterStream(String columnName) throws SQLException
+  {
+    return realResultSet.getCharacterStream(columnName);
+  }
+
+  public void setFetchDirection(int direction) throws SQLException
+  {
+    realResultSet.setFetchDirection(direction);
+  }
+
+  public void updateCharacterStream(int columnIndex, Reader x, int length) throws SQLException
+  {
+    realResultSet.updateCharacterStream(columnIndex, x, length);
+  }
+
+  public void updateCharacterStream(String columnName, Reader reader, int length) throws SQLException
+  {
+    realResultSet.updateCharacterStream(columnName, reader, length);
+  }
+
+  public byte getByte(int columnIndex) throws SQLException
+  {
+    return realResultSet.getByte(columnIndex);
+  }
+
+  public byte getByte(String columnName) throws SQLException
+  {
+    return realResultSet.getByte(columnName);
+  }
+
+  public void updateTime(int columnIndex, Time x) throws SQLException
+  {
+    realResultSet.updateTime(columnIndex, x);
+  }
+
+  public void updateTime(String columnName, Time x) throws SQLException
+  {
+    realResultSet.updateTime(columnName, x);
+  }
+
+  public byte[] getBytes(int columnIndex) throws SQLException
+  {
+    return realResultSet.getBytes(columnIndex);
+  }
+
+  public byte[] getBytes(String columnName) throws SQLException
+  {
+    return realResultSet.getBytes(columnName);
+  }
+
+  public boolean isAfterLast() throws SQLException
+  {
+    return realResultSet.isAfterLast();
+  }
+
+  public void updateObject(int columnIndex, Object x, int scale) throws SQLException
+  {
+    realResultSet.updateObject(columnIndex, x, scale);
+  }
+
+  public void updateObject(int columnIndex, Object x) throws SQLException
+  {
+    realResultSet.updateObject(columnIndex, x);
+  }
+
+  public void updateObject(String columnName, Object x, int scale) throws SQLException
+  {
+    realResultSet.updateObject(columnName, x, scale);
+  }
+
+  public void updateObject(String columnName, Object x) throws SQLException
+  {
+    realResultSet.updateObject(columnName, x);
+  }
+
+  public int getFetchDirection() throws SQLException
+  {
+    return realResultSet.getFetchDirection();
+  }
+
+  public long getLong(int columnIndex) throws SQLException
+  {
+    return realResultSet.getLong(columnIndex);
+  }
+
+  public long getLong(String columnName) throws SQLException
+  {
+    return realResultSet.getLong(columnName);
+  }
+
+  public boolean isFirst() throws SQLException
+  {
+    return realResultSet.isFirst();
+  }
+
+  public void insertRow() throws SQLException
+  {
+    realResultSet.insertRow();
+  }
+
+  public float getFloat(int columnIndex) throws SQLException
+  {
+    return realResultSet.getFloat(columnIndex);
+  }
+
+  public float getFloat(String columnName) throws SQLException
+  {
+    return realResultSet.getFloat(columnName);
+  }
+
+  public boolean isLast() throws SQLException
+  {
+    return realResultSet.isLast();
+  }
+
+  public void setFetchSize(int rows) throws SQLException
+  {
+    realResultSet.setFetchSize(rows);
+  }
+
+  public void updateRow() throws SQLException
+  {
+    realResultSet.updateRow();
+  }
+
+  public void beforeFirst() throws SQLException
+  {
+    realResultSet.beforeFirst();
+  }
+
+  public BigDecimal getBigDecimal(int columnIndex, int scale) throws SQLException
+  {
+    return realResultSet.getBigDecimal(columnIndex, scale);
+  }
+
+  public BigDecimal getBigDecimal(String columnName, int scale) throws SQLException
+  {
+    return realResultSet.getBigDecimal(columnName, scale);
+  }
+
+  public BigDecimal getBigDecimal(int columnIndex) throws SQLException
+  {
+    return realResultSet.getBigDecimal(columnIndex);
+  }
+
+  public BigDecimal getBigDecimal(String columnName) throws SQLException
+  {
+    return realResultSet.getBigDecimal(columnName);
+  }
+
+  public void afterLast() throws SQLException
+  {
+    realResultSet.afterLast();
+  }
+
+  public void refreshRow() throws SQLException
+  {
+    realResultSet.refreshRow();
+  }
+
+  public <T> T unwrap(Class<T> iface) throws SQLException
+  {
+    return iface != null && iface == ResultSet.class ? (T) this : realResultSet.unwrap(iface);
+  }
+
+  public boolean isWrapperFor(Class<?> iface) throws SQLException
+  {
+    return (iface != null && iface == ResultSet.class) || realResultSet.isWrapperFor(iface);
+  }
+}
@@ -1,269 +1,762 @@
-/**
- *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
- *  
- *  See the NOTICE file distributed with this work for additional 
- *  information regarding copyright ownership.
- *
- *  Licensed under the Apache License, Version 2.0 (the "License");
- *  you may not use this file except in compliance with the License.
- *  You may obtain a copy of the License at
- *
- *      http://www.apache.org/licenses/LICENSE-2.0
- *
- *  Unless required by applicable law or agreed to in writing, software
- *  distributed under the License is distributed on an "AS IS" BASIS,
- *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- *  See the License for the specific language governing permissions and
- *  limitations under the License.
- */
-package us.curino.temporalsql;
-
-import java.io.FileReader;
-import java.io.LineNumberReader;
-import java.io.PrintStream;
-import java.util.List;
-import java.util.LinkedList;
-import java.util.Arrays;
-
-
-/**
- * Post processes an existing sqltiming log, and creates a profiling report from it.
- * Name of log file is passed in on the command line as the only argument.
- *
- * Assumptions:
- *
- * 1. Each sql statement in the log is separated by a blank line.
- * 2. Each sql statement is terminated with the timing string "{executed in N msec}" where N is the number of
- *    milliseconds that the sql executed in.
- *
- */
-public class PostLogProfilerProcessor {
-
-  //todo:  needs to be able to gracefully handle sql exceptions in log output
-
-  /**
-   * Post Process log4jdbc sqltiming log data.
-   *
-   * @param args command line arguments.  Expects one argument, the name of the file to post process.
-   * @throws Exception if something goes wrong during processing.
-   */
-  public static void main(String[] args) throws Exception
-  {
-    if (args.length < 1)
-    {
-      System.out.println("usage: java PostLogProfilerProcessor <log-file>");
-      System.exit(1);
-    }
-    new PostLogProfilerProcessor(args[0], System.out);
-  }
-
-  /**
-   * Total number of sql statements processed.
-   */
-  private long totalSql = 0L;
-
-  /**
-   * Number of lines processed.
-   */
-  private long lineNo = 0L;
-
-  /**
-   * Total number of milliseconds that all processed sql took to run.
-   */
-  private long totalMsec = 0L;
-
-  /**
-   * Milliseconds of the worst single offending sql statement.
-   */
-  private long maxMsec = 0L;
-
-  /**
-   * Total combined milliseconds of all flagged sql statements.
-   */
-  private long flaggedSqlTotalMsec = 0L;
-
-  /**
-   * Threshold at which sql is deemed to be running slow enough to be flagged.
-   */
-  private long threshold = 100L;
-
-  /**
-   * How many top offender sql statements to display in final report
-   */
-  private long topOffenderCount = 1000L;
-
-  /**
-   * Collection of all sql that took longer than "threshold" msec to run.
-   */
-  private List flaggedSql = new LinkedList();
-
-  /**
-   * Process given filename, and produce sql profiling report to given PrintStream.
-   *
-   * @param filename sqltiming log to process.
-   * @param out PrintStream to write profiling report to.
-   * @throws Exception if reading error occurs.
-   */
-  public PostLogProfilerProcessor (String filename, PrintStream out) throws Exception
-  {
-    FileReader f= new FileReader(filename);
-    LineNumberReader l = new LineNumberReader(f);
-
-    String line;
-    boolean blankLine;
-
-    StringBuffer sql = new StringBuffer();
-
-    do
-    {
-      line = l.readLine();
-
-      if (line != null)
-      {
-        blankLine = line.length()==0;
-        lineNo++;
-/*
-        if (lineNo%100000L==0L)
-        {
-          out.println("" + lineNo + " lines...");
-        }
-*/
-        if (blankLine)
-        {
-          processSql(sql);
-          sql = new StringBuffer();
-        }
-        else
-        {
-          sql.append(line);
-        }
-
-      }
-    } while (line != null);
-
-    out.println("processed " + lineNo + " lines.");
-
-    f.close();
-
-    // display report to stdout
-
-    out.println("Number of sql statements:  " + totalSql);
-    out.println("Total number of msec    :  " + totalMsec);
-    if (totalMsec>0)
-    {
-      out.println("Average msec/statement  :  " + totalSql/totalMsec);
-    }
-
-    int flaggedSqlStmts = flaggedSql.size();
-
-    if (flaggedSqlStmts>0)
-    {
-      out.println("Sql statements that took more than "+ threshold + " msec were flagged.");
-      out.println("Flagged sql statements              :  " + flaggedSqlStmts);
-      out.println("Flagged sql Total number of msec    :  " + flaggedSqlTotalMsec);
-      out.println("Flagged sql Average msec/statement  :  " + flaggedSqlTotalMsec/flaggedSqlStmts);
-
-      out.println("sorting...");
-
-      Object[] flaggedSqlArray = flaggedSql.toArray();
-      Arrays.sort(flaggedSqlArray);
-
-      int execTimeSize = ("" + maxMsec).length();
-
-
-      if (topOffenderCount > flaggedSqlArray.length)
-      {
-        topOffenderCount = flaggedSqlArray.length;
-      }
-
-      out.println("top " + topOffenderCount + " offender"+ (topOffenderCount==1?"":"s") + ":");
-
-      ProfiledSql p;
-
-      for (int i=0; i < topOffenderCount; i++)
-      {
-        p = (ProfiledSql) flaggedSqlArray[i];
-        out.println(Utilities.rightJustify(execTimeSize,""+p.getExecTime()) + " " + p.getSql());
-      }
-    }
-  }
-
-
-  private void processSql(StringBuffer sql)
-  {
-    if (sql.length()>0)
-    {
-      totalSql++;
-      String sqlStr = sql.toString();
-      if (sqlStr.endsWith("msec}"))
-      {
-        int executedIn = sqlStr.indexOf("{executed in ");
-        if (executedIn == -1)
-        {
-          System.err.println("WARNING:  sql w/o timing info found at line " + lineNo);
-          return;
-        }
-
-        //todo: proper error handling for parse
-        String msecStr = sqlStr.substring(executedIn+13, sqlStr.length()-6);
-        long msec = Long.parseLong(msecStr);
-        totalMsec +=msec;
-        if (msec > maxMsec)
-        {
-          maxMsec = msec;
-        }
-
-        if (msec >threshold)
-        {
-          flagSql(msec,sqlStr);
-          flaggedSqlTotalMsec += msec;
-        }
-      }
-      else
-      {
-        System.err.println("WARNING:  sql w/o timing info found at line " + lineNo);
-      }
-    }
-  }
-
-  private void flagSql(long msec, String sql)
-  {
-    flaggedSql.add(new ProfiledSql(msec,sql));
-  }
-
-  private class ProfiledSql implements Comparable {
-    private Long execTime;
-    private String sql;
-
-    public ProfiledSql (long msec, String sql)
-    {
-      this.execTime= new Long(msec);
-      this.sql = sql;
-    }
-
-    /**
-     * Compares this object with the specified object for order.  Returns a
-     * negative integer, zero, or a positive integer as this object is less
-     * than, equal to, or greater than the specified object.<p>
-     *
-     * In this case the comparison is used to sort flagged sql in descending order.
-     * @param o ProfiledSql Object to compare to this ProfiledSql.  Must not be null.
-     */
-    public int compareTo(Object o) {
-      return ((ProfiledSql)o).execTime.compareTo(execTime);
-    }
-
-    public Long getExecTime() {
-      return execTime;
-    }
-
-    public String getSql() {
-      return sql;
-    }
-
-    public String toString()
-    {
-      return this.execTime + " msec:  " + this.sql;
-    }
-  }
-}
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *  
+ *  See the NOTICE file distributed with this work for additional 
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package us.curino.temporalsql;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Post processes an existing sqltiming log, and creates a profiling report from it.
+ * Name of log file is passed in on the command line as the last argument.
+ *
+ * Assumptions:
+ *
+ * 1. Each sql statement in the log is separated by a blank line, ends with its
+ *    timing string, or starts a new log line with a timestamp (as the
+ *    log4j.xml ConversionPattern of this project writes them.)
+ * 2. Each sql statement is terminated with the timing string "{executed in N msec}" where N is the number of
+ *    milliseconds that the sql executed in.
+ *
+ * The log is memory mapped a window at a time and split into segments that
+ * are processed in parallel, one thread per core by default, so memory use
+ * does not grow with the size of the log.  Statements are aggregated by
+ * their SQL fingerprint (see StatementMetrics.fingerprint) into histograms
+ * that are merged once every segment is done, and only the top offenders
+ * are kept in full.
+ */
+public class PostLogProfilerProcessor {
+
+  //todo:  needs to be able to gracefully handle sql exceptions in log output
+
+  /**
+   * Post Process log4jdbc sqltiming log data.
+   *
+   * @param args command line arguments.  Expects the name of the file to post
+   *             process, optionally preceded by options.
+   * @throws Exception if something goes wrong during processing.
+   */
+  public static void main(String[] args) throws Exception
+  {
+    PostLogProfilerProcessor p = new PostLogProfilerProcessor();
+    int a = 0;
+    try
+    {
+      for (; a < args.length - 1 && args[a].startsWith("-"); a += 2)
+      {
+        long value = Long.parseLong(args[a + 1]);
+        if ("-t".equals(args[a]))
+        {
+          p.threshold = value;
+        }
+        else if ("-n".equals(args[a]))
+        {
+          p.topOffenderCount = value;
+        }
+        else if ("-f".equals(args[a]))
+        {
+          p.maxFingerprints = (int) value;
+        }
+        else if ("-j".equals(args[a]))
+        {
+          p.threads = (int) value;
+        }
+        else
+        {
+          a = args.length;
+        }
+      }
+    }
+    catch (NumberFormatException e)
+    {
+      a = args.length;
+    }
+    if (a != args.length - 1)
+    {
+      System.out.println("usage: java PostLogProfilerProcessor [-t threshold-msec] [-n top-offenders]" +
+        " [-f max-fingerprints] [-j threads] <log-file>");
+      System.exit(1);
+    }
+    p.process(args[a], System.out);
+  }
+
+  /**
+   * Size of the window of the log that is mapped in memory at a time.
+   */
+  private static final int WINDOW_SIZE = 32 * 1024 * 1024;
+
+  /**
+   * How far back of the position asked for a window is mapped, so that the
+   * start of a line can be found without mapping another window.
+   */
+  private static final int WINDOW_BACK = 64 * 1024;
+
+  /**
+   * Largest segment of the log that is handed to one thread at a time.
+   */
+  private static final long MAX_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+  /**
+   * Smallest segment of the log worth handing to a thread.
+   */
+  private static final long MIN_SEGMENT_SIZE = 1024 * 1024;
+
+  /**
+   * Number of warnings about sql without timing info that are printed.
+   */
+  private static final int MAX_WARNINGS = 10;
+
+  /**
+   * Total number of sql statements processed.
+   */
+  private long totalSql = 0L;
+
+  /**
+   * Number of sql statements found without timing info.
+   */
+  private long untimedSql = 0L;
+
+  /**
+   * Number of lines processed.
+   */
+  private long lineNo = 0L;
+
+  /**
+   * Total number of milliseconds that all processed sql took to run.
+   */
+  private long totalMsec = 0L;
+
+  /**
+   * Milliseconds of the worst single offending sql statement.
+   */
+  private long maxMsec = 0L;
+
+  /**
+   * Number of flagged sql statements.
+   */
+  private long flaggedSqlStmts = 0L;
+
+  /**
+   * Total combined milliseconds of all flagged sql statements.
+   */
+  private long flaggedSqlTotalMsec = 0L;
+
+  /**
+   * Threshold at which sql is deemed to be running slow enough to be flagged.
+   */
+  private long threshold = 100L;
+
+  /**
+   * How many top offender sql statements to display in final report
+   */
+  private long topOffenderCount = 1000L;
+
+  /**
+   * Maximum number of distinct fingerprints aggregated.  Statements with new
+   * fingerprints past it are aggregated under StatementMetrics.OTHER.
+   */
+  private int maxFingerprints = 1000;
+
+  /**
+   * Number of threads processing the log.
+   */
+  private int threads = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Histogram of the milliseconds of all processed sql.
+   */
+  private final LatencyHistogram all = new LatencyHistogram();
+
+  /**
+   * Histograms of the milliseconds of the processed sql, by fingerprint.
+   */
+  private final Map<String, LatencyHistogram> fingerprints = new HashMap<String, LatencyHistogram>();
+
+  /**
+   * The top offenders among the sql that took longer than "threshold" msec
+   * to run, the fastest first.
+   */
+  private final PriorityQueue<ProfiledSql> flaggedSql =
+    new PriorityQueue<ProfiledSql>(16, Collections.reverseOrder());
+
+  /**
+   * Number of warnings printed so far, across all threads.
+   */
+  private final AtomicInteger warnings = new AtomicInteger();
+
+  private PostLogProfilerProcessor()
+  {
+  }
+
+  /**
+   * Process given filename, and produce sql profiling report to given PrintStream.
+   *
+   * @param filename sqltiming log to process.
+   * @param out PrintStream to write profiling report to.
+   * @throws Exception if reading error occurs.
+   */
+  public PostLogProfilerProcessor (String filename, PrintStream out) throws Exception
+  {
+    process(filename, out);
+  }
+
+  private void process(String filename, PrintStream out) throws Exception
+  {
+    RandomAccessFile f = new RandomAccessFile(filename, "r");
+    try
+    {
+      final FileChannel channel = f.getChannel();
+      final long size = channel.size();
+      int n = Math.max(1, threads);
+      long segmentSize = Math.max(MIN_SEGMENT_SIZE, Math.min(MAX_SEGMENT_SIZE, size / n + 1));
+      final List<Long> segments = new ArrayList<Long>();
+      for (long s = 0; s < size; s += segmentSize)
+      {
+        segments.add(Long.valueOf(s));
+      }
+      segments.add(Long.valueOf(size));
+      final AtomicInteger nextSegment = new AtomicInteger();
+
+      ExecutorService executor = Executors.newFixedThreadPool(n);
+      try
+      {
+        List<Future<Object>> workers = new ArrayList<Future<Object>>();
+        for (int t = 0; t < n; t++)
+        {
+          workers.add(executor.submit(new Callable<Object>()
+          {
+            public Object call() throws IOException
+            {
+              MappedLog log = new MappedLog(channel, size);
+              int s;
+              while ((s = nextSegment.getAndIncrement()) < segments.size() - 1)
+              {
+                Segment segment = new Segment(log);
+                segment.process(segments.get(s).longValue(), segments.get(s + 1).longValue());
+                merge(segment);
+              }
+              return null;
+            }
+          }));
+        }
+        for (int t = 0; t < workers.size(); t++)
+        {
+          workers.get(t).get();
+        }
+      }
+      finally
+      {
+        executor.shutdown();
+      }
+    }
+    finally
+    {
+      f.close();
+    }
+
+    out.println("processed " + lineNo + " lines.");
+
+    // display report to stdout
+
+    out.println("Number of sql statements:  " + totalSql);
+    out.println("Total number of msec    :  " + totalMsec);
+    if (totalSql>0)
+    {
+      out.println("Average msec/statement  :  " + format((double) totalMsec/totalSql));
+      out.println("p50/p95/p99/max msec    :  " + all.getValueAtPercentile(50) + " / " +
+        all.getValueAtPercentile(95) + " / " + all.getValueAtPercentile(99) + " / " + maxMsec);
+    }
+    if (untimedSql>0)
+    {
+      out.println("Sql w/o timing info     :  " + untimedSql);
+    }
+
+    if (flaggedSqlStmts>0)
+    {
+      out.println("Sql statements that took more than "+ threshold + " msec were flagged.");
+      out.println("Flagged sql statements              :  " + flaggedSqlStmts);
+      out.println("Flagged sql Total number of msec    :  " + flaggedSqlTotalMsec);
+      out.println("Flagged sql Average msec/statement  :  " + format((double) flaggedSqlTotalMsec/flaggedSqlStmts));
+
+      List<ProfiledSql> flaggedSqlList = new ArrayList<ProfiledSql>(flaggedSql);
+      Collections.sort(flaggedSqlList);
+
+      int execTimeSize = ("" + maxMsec).length();
+
+      out.println("top " + flaggedSqlList.size() + " offender"+ (flaggedSqlList.size()==1?"":"s") + ":");
+
+      for (int i=0; i < flaggedSqlList.size(); i++)
+      {
+        ProfiledSql p = flaggedSqlList.get(i);
+        out.println(Utilities.rightJustify(execTimeSize,""+p.getExecTime()) + " " + p.getSql());
+      }
+    }
+
+    if (!fingerprints.isEmpty())
+    {
+      List<Map.Entry<String, LatencyHistogram>> byTotal =
+        new ArrayList<Map.Entry<String, LatencyHistogram>>(fingerprints.entrySet());
+      Collections.sort(byTotal, new Comparator<Map.Entry<String, LatencyHistogram>>()
+      {
+        public int compare(Map.Entry<String, LatencyHistogram> a, Map.Entry<String, LatencyHistogram> b)
+        {
+          long ta = a.getValue().getTotal();
+          long tb = b.getValue().getTotal();
+          return ta < tb ? 1 : ta > tb ? -1 : 0;
+        }
+      });
+
+      int w = Math.max(5, ("" + totalMsec).length());
+      out.println(byTotal.size() + " sql fingerprint" + (byTotal.size()==1?"":"s") + ", by total msec:");
+      out.println(Utilities.rightJustify(w, "count") + " " + Utilities.rightJustify(w, "total") + " " +
+        Utilities.rightJustify(w, "avg") + " " + Utilities.rightJustify(w, "p50") + " " +
+        Utilities.rightJustify(w, "p95") + " " + Utilities.rightJustify(w, "p99") + " " +
+        Utilities.rightJustify(w, "max") + " sql");
+      for (int i = 0; i < byTotal.size(); i++)
+      {
+        LatencyHistogram h = byTotal.get(i).getValue();
+        out.println(Utilities.rightJustify(w, "" + h.getCount()) + " " +
+          Utilities.rightJustify(w, "" + h.getTotal()) + " " +
+          Utilities.rightJustify(w, format(h.getMean())) + " " +
+          Utilities.rightJustify(w, "" + h.getValueAtPercentile(50)) + " " +
+          Utilities.rightJustify(w, "" + h.getValueAtPercentile(95)) + " " +
+          Utilities.rightJustify(w, "" + h.getValueAtPercentile(99)) + " " +
+          Utilities.rightJustify(w, "" + h.getMax()) + " " + byTotal.get(i).getKey());
+      }
+    }
+  }
+
+  private static String format(double msec)
+  {
+    return "" + Math.round(msec * 100) / 100.0;
+  }
+
+  /**
+   * Add the totals of a processed segment to the report.
+   */
+  private synchronized void merge(Segment segment)
+  {
+    totalSql += segment.totalSql;
+    untimedSql += segment.untimedSql;
+    lineNo += segment.lineNo;
+    totalMsec += segment.totalMsec;
+    maxMsec = Math.max(maxMsec, segment.maxMsec);
+    flaggedSqlStmts += segment.flaggedSqlStmts;
+    flaggedSqlTotalMsec += segment.flaggedSqlTotalMsec;
+    all.add(segment.all);
+    for (Iterator<Map.Entry<String, LatencyHistogram>> i = segment.fingerprints.entrySet().iterator(); i.hasNext();)
+    {
+      Map.Entry<String, LatencyHistogram> e = i.next();
+      getHistogram(fingerprints, e.getKey()).add(e.getValue());
+    }
+    for (Iterator<ProfiledSql> i = segment.flaggedSql.iterator(); i.hasNext();)
+    {
+      flag(flaggedSql, i.next());
+    }
+  }
+
+  /**
+   * Get the histogram of a fingerprint, or of StatementMetrics.OTHER once
+   * maxFingerprints are aggregated.
+   */
+  private LatencyHistogram getHistogram(Map<String, LatencyHistogram> map, String fingerprint)
+  {
+    LatencyHistogram h = map.get(fingerprint);
+    if (h == null)
+    {
+      if (map.size() >= maxFingerprints)
+      {
+        fingerprint = StatementMetrics.OTHER;
+        h = map.get(fingerprint);
+      }
+      if (h == null)
+      {
+        h = new LatencyHistogram();
+        map.put(fingerprint, h);
+      }
+    }
+    return h;
+  }
+
+  /**
+   * Keep a flagged sql statement if it is among the top offenders.
+   */
+  private void flag(PriorityQueue<ProfiledSql> top, ProfiledSql p)
+  {
+    if (top.size() < topOffenderCount)
+    {
+      top.add(p);
+    }
+    else if (topOffenderCount > 0 && p.getExecTime().longValue() > top.peek().getExecTime().longValue())
+    {
+      top.poll();
+      top.add(p);
+    }
+  }
+
+  /**
+   * The sql statements of one segment of the log.  A segment processes every
+   * statement that starts in it, reading past its end to finish the last one.
+   */
+  private class Segment
+  {
+    private final MappedLog log;
+
+    private long totalSql, untimedSql, lineNo, totalMsec, maxMsec, flaggedSqlStmts, flaggedSqlTotalMsec;
+
+    private final LatencyHistogram all = new LatencyHistogram();
+
+    private final Map<String, LatencyHistogram> fingerprints = new HashMap<String, LatencyHistogram>();
+
+    private final PriorityQueue<ProfiledSql> flaggedSql =
+      new PriorityQueue<ProfiledSql>(16, Collections.reverseOrder());
+
+    /**
+     * The sql statement being read.
+     */
+    private byte[] sql = new byte[4096];
+
+    private int sqlLength;
+
+    Segment(MappedLog log)
+    {
+      this.log = log;
+    }
+
+    void process(long start, long end) throws IOException
+    {
+      long pos = firstStatement(start);
+      while (pos < end && pos < log.size)
+      {
+        long sqlStart = pos;
+        sqlLength = 0;
+        boolean first = true;
+        while (pos < log.size)
+        {
+          if (!first && log.timestampLength(pos) > 0)
+          {
+            break;
+          }
+          first = false;
+          long lineEnd = log.lineEnd(pos);
+          boolean terminator = appendLine(pos, lineEnd);
+          lineNo++;
+          pos = Math.min(lineEnd + 1, log.size);
+          if (terminator)
+          {
+            break;
+          }
+        }
+        processSql(sqlStart);
+      }
+    }
+
+    /**
+     * Find the start of the first statement at or after a position.  A
+     * statement starts at the beginning of the log, after a blank line or a
+     * line with timing info, and at a line that starts with a timestamp.
+     */
+    private long firstStatement(long start) throws IOException
+    {
+      if (start == 0)
+      {
+        return 0;
+      }
+      long pos = log.lineStart(start - 1);
+      while (pos < log.size)
+      {
+        if (pos >= start && log.timestampLength(pos) > 0)
+        {
+          return pos;
+        }
+        long lineEnd = log.lineEnd(pos);
+        if (log.isTerminator(pos, lineEnd))
+        {
+          return lineEnd + 1;
+        }
+        pos = lineEnd + 1;
+      }
+      return log.size;
+    }
+
+    /**
+     * Append a line of the log to the statement being read, without its log
+     * timestamp.  The line with the connection number that the debug info
+     * of a statement is followed by starts the statement over.
+     *
+     * @return true if the line ends the statement.
+     */
+    private boolean appendLine(long pos, long lineEnd) throws IOException
+    {
+      boolean terminator = log.isTerminator(pos, lineEnd);
+      long end = log.withoutCarriageReturn(pos, lineEnd);
+      pos += log.timestampLength(pos);
+      long p = pos;
+      while (p < end && Character.isDigit((char) log.byteAt(p)))
+      {
+        p++;
+      }
+      if (p > pos && p + 1 < end && log.byteAt(p) == '.' && log.byteAt(p + 1) == ' ')
+      {
+        sqlLength = 0;
+        pos = p + 2;
+      }
+      int length = (int) (end - pos);
+      if (sqlLength + length + 1 > sql.length)
+      {
+        byte[] grown = new byte[Math.max(sql.length * 2, sqlLength + length + 1)];
+        System.arraycopy(sql, 0, grown, 0, sqlLength);
+        sql = grown;
+      }
+      if (sqlLength > 0)
+      {
+        sql[sqlLength++] = ' ';
+      }
+      for (long b = pos; b < end; b++)
+      {
+        sql[sqlLength++] = (byte) log.byteAt(b);
+      }
+      return terminator;
+    }
+
+    private void processSql(long offset)
+    {
+      String sqlStr = new String(sql, 0, sqlLength).trim();
+      if (sqlStr.length() == 0)
+      {
+        return;
+      }
+      int executedIn = sqlStr.lastIndexOf("{executed in ");
+      if (!sqlStr.endsWith("msec}") || executedIn == -1)
+      {
+        warn(offset);
+        return;
+      }
+      long msec;
+      try
+      {
+        msec = Long.parseLong(sqlStr.substring(executedIn+13, sqlStr.length()-6).trim());
+      }
+      catch (NumberFormatException e)
+      {
+        warn(offset);
+        return;
+      }
+      sqlStr = sqlStr.substring(0, executedIn).trim();
+
+      totalSql++;
+      totalMsec += msec;
+      if (msec > maxMsec)
+      {
+        maxMsec = msec;
+      }
+      all.record(msec);
+      getHistogram(fingerprints, StatementMetrics.fingerprint(sqlStr)).record(msec);
+
+      if (msec > threshold)
+      {
+        flaggedSqlStmts++;
+        flaggedSqlTotalMsec += msec;
+        flag(flaggedSql, new ProfiledSql(msec, sqlStr));
+      }
+    }
+
+    private void warn(long offset)
+    {
+      untimedSql++;
+      if (warnings.incrementAndGet() <= MAX_WARNINGS)
+      {
+        System.err.println("WARNING:  sql w/o timing info found at byte offset " + offset);
+      }
+    }
+  }
+
+  /**
+   * A log file, memory mapped one window at a time.  Each thread has its own.
+   */
+  private static class MappedLog
+  {
+    private final FileChannel channel;
+
+    private final long size;
+
+    private MappedByteBuffer window;
+
+    private long windowStart, windowEnd;
+
+    MappedLog(FileChannel channel, long size)
+    {
+      this.channel = channel;
+      this.size = size;
+    }
+
+    int byteAt(long pos) throws IOException
+    {
+      if (pos < windowStart || pos >= windowEnd)
+      {
+        windowStart = Math.max(0, pos - WINDOW_BACK);
+        long length = Math.min(WINDOW_SIZE, size - windowStart);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+        windowEnd = windowStart + length;
+      }
+      return window.get((int) (pos - windowStart)) & 0xff;
+    }
+
+    /**
+     * @return the start of the line the position is on.
+     */
+    long lineStart(long pos) throws IOException
+    {
+      while (pos > 0 && byteAt(pos - 1) != '\n')
+      {
+        pos--;
+      }
+      return pos;
+    }
+
+    /**
+     * @return the position of the newline ending the line, or the size of
+     *         the log for its last line.
+     */
+    long lineEnd(long pos) throws IOException
+    {
+      while (pos < size && byteAt(pos) != '\n')
+      {
+        pos++;
+      }
+      return pos;
+    }
+
+    long withoutCarriageReturn(long pos, long lineEnd) throws IOException
+    {
+      return lineEnd > pos && byteAt(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+    }
+
+    /**
+     * @return true if the line is blank or ends with timing info.
+     */
+    boolean isTerminator(long pos, long lineEnd) throws IOException
+    {
+      long end = withoutCarriageReturn(pos, lineEnd);
+      if (end == pos)
+      {
+        return true;
+      }
+      String timing = "msec}";
+      if (end - pos < timing.length())
+      {
+        return false;
+      }
+      for (int i = 0; i < timing.length(); i++)
+      {
+        if (byteAt(end - timing.length() + i) != timing.charAt(i))
+        {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Get the length of the log4j timestamp ("yyyy-MM-dd HH:mm:ss.SSS" or
+     * ",SSS", and the spaces after it) a line starts with.
+     *
+     * @return the length of the timestamp, or 0 if the line has none.
+     */
+    int timestampLength(long pos) throws IOException
+    {
+      String pattern = "dddd-dd-dd dd:dd:dd";
+      if (size - pos < pattern.length() + 1)
+      {
+        return 0;
+      }
+      for (int i = 0; i < pattern.length(); i++)
+      {
+        int b = byteAt(pos + i);
+        char c = pattern.charAt(i);
+        if (c == 'd' ? b < '0' || b > '9' : b != c)
+        {
+          return 0;
+        }
+      }
+      int length = pattern.length();
+      if (size - pos > length + 4 && (byteAt(pos + length) == '.' || byteAt(pos + length) == ','))
+      {
+        length += 4;
+      }
+      while (pos + length < size && byteAt(pos + length) == ' ')
+      {
+        length++;
+      }
+      return length;
+    }
+  }
+
+  private static class ProfiledSql implements Comparable<ProfiledSql> {
+    private Long execTime;
+    private String sql;
+
+    public ProfiledSql (long msec, String sql)
+    {
+      this.execTime= new Long(msec);
+      this.sql = sql;
+    }
+
+    /**
+     * Compares this object with the specified object for order.  Returns a
+     * negative integer, zero, or a positive integer as this object is less
+     * than, equal to, or greater than the specified object.<p>
+     *
+     * In this case the comparison is used to sort flagged sql in descending order.
+     * @param o ProfiledSql Object to compare to this ProfiledSql.  Must not be null.
+     */
+    public int compareTo(ProfiledSql o) {
+      return o.execTime.compareTo(execTime);
+    }
+
+    public Long getExecTime() {
+      return execTime;
+    }
+
+    public String getSql() {
+      return sql;
+    }
+
+    public String toString()
+    {
+      return this.execTime + " msec:  " + this.sql;
+    }
+  }
+}
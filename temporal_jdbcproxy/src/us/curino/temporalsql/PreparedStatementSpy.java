@@ -24,8 +24,10 @@ import java.io.Reader;
 import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.Array;
+import java.sql.BatchUpdateException;
 import java.sql.Blob;
 import java.sql.Clob;
+import java.sql.Connection;
 import java.sql.Date;
 import java.sql.NClob;
 import java.sql.ParameterMetaData;
@@ -40,12 +42,15 @@ import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 
 
-import com.relationalcloud.tsqlparser.Parser;
 import com.relationalcloud.tsqlparser.parser.ParseException;
 
 /**
@@ -71,6 +76,8 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	/**
 	 * Store an argument (bind variable) into the argTrace list (above) for later dumping.
+	 * Nothing is stored when JDBC logging is off; the argument is only formatted
+	 * when the SQL is dumped (see {@link #traceArg}.)
 	 *
 	 * @param i          index of argument being set.
 	 * @param typeHelper optional additional info about the type that is being set in the arg
@@ -78,6 +85,64 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 	 */
 	protected void argTraceSet(int i, String typeHelper, Object arg)
 	{
+		if (log.isJdbcLoggingEnabled())
+		{
+			argTraceStore(i, new Object[] {typeHelper, arg});
+		}
+	}
+
+	/**
+	 * Store a stream argument into the argTrace list, as its kind and length.
+	 *
+	 * @param i          index of argument being set.
+	 * @param typeHelper optional additional info about the type that is being set in the arg
+	 * @param stream     the kind of stream, as in "Reader".
+	 * @param length     length of the stream.
+	 */
+	protected void argTraceSet(int i, String typeHelper, String stream, long length)
+	{
+		if (log.isJdbcLoggingEnabled())
+		{
+			argTraceStore(i, new Object[] {typeHelper, stream, Long.valueOf(length)});
+		}
+	}
+
+	private void argTraceStore(int i, Object[] traced)
+	{
+		i--;  // make the index 0 based
+		synchronized (argTrace)
+		{
+			// if an object is being inserted out of sequence, fill up missing values with null...
+			while (i >= argTrace.size())
+			{
+				argTrace.add(argTrace.size(), null);
+			}
+			argTrace.set(i, traced);
+		}
+	}
+
+	/**
+	 * Get the traced form of an argument stored by argTraceSet.
+	 *
+	 * @param i 0 based index of the argument.
+	 * @return the argument formatted by rdbmsSpecifics, or null if it was not stored.
+	 */
+	private String traceArg(int i)
+	{
+		Object[] traced;
+		synchronized (argTrace)
+		{
+			if (i >= argTrace.size())
+			{
+				return null;
+			}
+			traced = (Object[]) argTrace.get(i);
+		}
+		if (traced == null)
+		{
+			return null;
+		}
+		Object arg = traced.length == 2 ? traced[1] : "<" + traced[1] + " of length " + traced[2] + ">";
 		String tracedArg;
 		try
 		{
@@ -94,28 +159,125 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 			// backup - so that at least we won't harm the application using us
 			tracedArg = arg==null?"null":arg.toString();
 		}
+		return !showTypeHelp || traced[0] == null ? tracedArg : traced[0] + tracedArg;
+	}
 
-		i--;  // make the index 0 based
-		synchronized (argTrace)
+	private String sql;
+	private List<String> sqls;
+
+	/**
+	 * the rewrite of sql, as it came from the parser
+	 */
+	private RewrittenSql rewritten;
+
+	/**
+	 * the form of the rewrite the real statements are prepared from (with the
+	 * now_usec() calls turned into parameters and/or joined)
+	 */
+	private RewrittenSql prepared;
+
+	/**
+	 * true if the real statements take the transaction timestamp
+	 */
+	private boolean clocked;
+
+	/**
+	 * Get the timestamp to bind in place of the now_usec() calls.
+	 *
+	 * @return the timestamp of the current transaction, or null if the
+	 *         statements do not take one.
+	 */
+	private BigDecimal getTimestamp() throws SQLException
+	{
+		return clocked ? connectionSpy.getTransactionTimestamp() : null;
+	}
+
+	/**
+	 * Bind the parameters of a real statement: the ones set by the application
+	 * that changed since it was last flushed, the time of a temporal query and
+	 * the timestamp.
+	 */
+	private void flush(PreparedStatement realPreparedStatement, int s, BigDecimal timestamp) throws SQLException
+	{
+		parameters.flush(realPreparedStatement, s);
+		int[] times = prepared.getSnapshotIndexes(s);
+		if (times.length > 0)
 		{
-			// if an object is being inserted out of sequence, fill up missing values with null...
-			while (i >= argTrace.size())
-			{
-				argTrace.add(argTrace.size(), null);
-			}
-			if (!showTypeHelp || typeHelper == null)
+			Object[] values = prepared.getSnapshotValues(s);
+			for (int j = 0; j < times.length; j++)
 			{
-				argTrace.set(i, tracedArg);
+				realPreparedStatement.setObject(times[j], values[j]);
 			}
-			else
+		}
+		if (timestamp != null)
+		{
+			int[] indexes = prepared.getClockIndexes(s);
+			for (int j = 0; j < indexes.length; j++)
 			{
-				argTrace.set(i, typeHelper + tracedArg);
+				realPreparedStatement.setBigDecimal(indexes[j], timestamp);
 			}
 		}
 	}
 
-	private String sql;
-	private List<String> sqls;
+	/**
+	 * routes each parameter the application binds to the rewritten statements
+	 */
+	private ParameterRouting routing;
+
+	/**
+	 * parameters bound by the application, applied to the real statements
+	 * when they are executed
+	 */
+	private ParameterBuffer parameters;
+
+	/**
+	 * true if the rewritten statements were joined into one multi statement
+	 */
+	private boolean multiStatement;
+
+	/**
+	 * parameters of the rows added to the batch, when the rewrite has more
+	 * than one statement and the rows have to run one after the other
+	 */
+	private final List<ParameterBuffer> batchedRows = new ArrayList<ParameterBuffer>();
+
+	/**
+	 * timestamp of the first row added to the batch of a single statement
+	 * rewrite, the rows of the batch close versions from then on
+	 */
+	private BigDecimal batchTimestamp;
+
+	/**
+	 * metrics of the SQL this statement was prepared with, looked up on first use
+	 */
+	private StatementMetrics.Entry sqlMetrics;
+
+	/**
+	 * The metrics of a prepared statement are those of the SQL it was
+	 * prepared with, whatever SQL is reported (the dumped SQL with its
+	 * parameter values, or the batch report.)
+	 */
+	protected StatementMetrics.Entry getMetrics(String sql)
+	{
+		StatementMetrics.Entry m = sqlMetrics;
+		if (m == null)
+		{
+			m = super.getMetrics(this.sql == null ? sql : this.sql);
+			sqlMetrics = m;
+		}
+		return m;
+	}
+
+	/**
+	 * True if the SQL went through the temporal rewriter: prepared statements
+	 * always do, unless they touch no temporalized table.
+	 */
+	private boolean temporal;
+
+	protected boolean isTemporal()
+	{
+		return temporal;
+	}
 
 	protected String dumpedSql()
 	{
@@ -127,17 +289,11 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 		while (Qpos != -1)
 		{
-			// get stored argument
-			synchronized (argTrace)
+			// get stored argument, primitives are only kept in the parameter buffer
+			arg = parameters == null ? null : parameters.tracePrimitive(argIdx + 1);
+			if (arg == null)
 			{
-				try
-				{
-					arg = (String) argTrace.get(argIdx);
-				}
-				catch (IndexOutOfBoundsException e)
-				{
-					arg = "?";
-				}
+				arg = traceArg(argIdx);
 			}
 			if (arg == null)
 			{
@@ -176,6 +332,17 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 	 */
 	public ArrayList<PreparedStatement> getRealPreparedStatements()
 	{
+		try
+		{
+			for(int s = 0; s < realSqls.size(); s++)
+			{
+				getRealPreparedStatement(s);
+			}
+		}
+		catch (SQLException e)
+		{
+			log.debug("could not prepare " + sqls + ": " + e.getMessage());
+		}
 		return realSqls;
 	}
 
@@ -184,8 +351,124 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 	 */
 	protected RdbmsSpecifics rdbmsSpecifics;
 
+	/**
+	 * the real statements, one for each rewritten SQL.  An entry stays null
+	 * until the statement is first used, see getRealPreparedStatement.
+	 */
 	public  ArrayList<PreparedStatement> realSqls;
 
+	/**
+	 * marks a prepareStatement flag the application did not pass
+	 */
+	private static final int NO_FLAG = Integer.MIN_VALUE;
+
+	// the flags the application prepared the statement with, used to prepare
+	// the real statements
+	private int autoGeneratedKeys = NO_FLAG;
+	private int resultSetType = NO_FLAG;
+	private int resultSetConcurrency = NO_FLAG;
+	private int resultSetHoldability = NO_FLAG;
+	private int[] columnIndexes;
+	private String[] columnNames;
+
+	/**
+	 * key of the real statements in the connection's StatementCache, or null
+	 * if statement caching is disabled
+	 */
+	private StatementCache.Key statementKey;
+
+	private boolean closed;
+
+	/**
+	 * Rewrite the SQL.  The real statements are not prepared until they are
+	 * used: an application may prepare a statement it never executes, and
+	 * executeQuery only ever runs the first one.
+	 */
+	private void init(String sql) throws SQLException
+	{
+		List<String> sqls;
+		try {
+			sqls = rewriteSql(sql);
+		} catch (ParseException e) {
+			throw new SQLException("Cannot temporally-rewrite correctly:" +sql);
+		}
+		StatementCache cache = connectionSpy.getStatementCache();
+		List<PreparedStatement> cached = null;
+		if (cache != null)
+		{
+			statementKey = new StatementCache.Key(sqls, autoGeneratedKeys, resultSetType, resultSetConcurrency,
+					resultSetHoldability, columnIndexes, columnNames);
+			cached = cache.checkOut(statementKey);
+		}
+		if (cached != null)
+		{
+			realSqls = new ArrayList<PreparedStatement>(cached);
+		}
+		else
+		{
+			realSqls = new ArrayList<PreparedStatement>(sqls.size());
+			for(int s = 0; s < sqls.size(); s++){
+				realSqls.add(null);
+			}
+		}
+		this.sql = sql;
+		rdbmsSpecifics = connectionSpy.getRdbmsSpecifics();
+	}
+
+	/**
+	 * Get one of the real statements, preparing it on the real connection
+	 * (with the flags the application used) the first time it is needed.
+	 *
+	 * @param s position of the statement in the rewritten statement list.
+	 * @return the real PreparedStatement.
+	 * @throws SQLException if the statement cannot be prepared.
+	 */
+	protected PreparedStatement getRealPreparedStatement(int s) throws SQLException
+	{
+		if (closed)
+		{
+			throw new SQLException("No operations allowed after statement closed.");
+		}
+		PreparedStatement realPreparedStatement = realSqls.get(s);
+		if (realPreparedStatement == null)
+		{
+			String rewritten = sqls.get(s);
+			Connection c = connectionSpy.realConnection;
+			long start = System.nanoTime();
+			if (columnIndexes != null)
+			{
+				realPreparedStatement = c.prepareStatement(rewritten, columnIndexes);
+			}
+			else if (columnNames != null)
+			{
+				realPreparedStatement = c.prepareStatement(rewritten, columnNames);
+			}
+			else if (autoGeneratedKeys != NO_FLAG)
+			{
+				realPreparedStatement = c.prepareStatement(rewritten, autoGeneratedKeys);
+			}
+			else if (resultSetHoldability != NO_FLAG)
+			{
+				realPreparedStatement = c.prepareStatement(rewritten, resultSetType, resultSetConcurrency,
+						resultSetHoldability);
+			}
+			else if (resultSetType != NO_FLAG)
+			{
+				realPreparedStatement = c.prepareStatement(rewritten, resultSetType, resultSetConcurrency);
+			}
+			else
+			{
+				realPreparedStatement = c.prepareStatement(rewritten);
+			}
+			if (DriverSpy.Metrics)
+			{
+				RewriteMetrics.recordPrepare(sql, this.rewritten, System.nanoTime() - start);
+			}
+			realSqls.set(s, realPreparedStatement);
+		}
+		return realPreparedStatement;
+	}
+
 	/**
 	 * Create a PreparedStatementSpy (JDBC 4 version) for logging activity of another PreparedStatement.
 	 *
@@ -199,27 +482,27 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 	{
 
 		super(connectionSpy);  //
-		ArrayList<String> sqls;
-		try {
-			sqls = rewriteSql(sql);
-		} catch (ParseException e) {
-			throw new SQLException("Cannot temporally-rewrite correctly:" +sql);
-		}
-		realSqls = new ArrayList<PreparedStatement>();
-		for(String s:sqls){
-			realSqls.add(connectionSpy.realConnection.prepareStatement(s));
-		}
-		this.sql = sql;
-		this.sqls= sqls;
-		rdbmsSpecifics = connectionSpy.getRdbmsSpecifics();
+		init(sql);
 	}
 	public void close() throws SQLException
 	{
 	    String methodCall = "close()";
+	    if (closed)
+	    {
+	      reportReturn(methodCall);
+	      return;
+	    }
+	    closed = true;
 	    try
 	    {
+			if (statementKey != null && checkIn())
+			{
+				reportReturn(methodCall);
+				return;
+			}
 			for(PreparedStatement realPreparedStatement:realSqls){		
-				realPreparedStatement.close();
+				if(realPreparedStatement != null)
+					realPreparedStatement.close();
 			}
 	    }
 	    catch (SQLException s)
@@ -229,13 +512,42 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 	    }
 	    reportReturn(methodCall);
 	}
+	/**
+	 * Clear the real statements and hand them to the connection's
+	 * StatementCache instead of closing them.
+	 *
+	 * @return true if the statements were cached, false if they could not be
+	 *         cleared and must be closed.
+	 */
+	private boolean checkIn()
+	{
+		try
+		{
+			for(PreparedStatement realPreparedStatement:realSqls){
+				if(realPreparedStatement != null){
+					realPreparedStatement.clearParameters();
+					realPreparedStatement.clearBatch();
+				}
+			}
+		}
+		catch (SQLException e)
+		{
+			return false;
+		}
+		connectionSpy.getStatementCache().checkIn(statementKey, realSqls);
+		// the statements belong to the cache now, don't touch them again
+		realSqls = new ArrayList<PreparedStatement>(Collections.nCopies(realSqls.size(), (PreparedStatement) null));
+		return true;
+	}
+
 	public void clearBatch() throws SQLException
 	{
 	    String methodCall = "clearBatch()";
 	    try
 	    {
 			for(PreparedStatement realPreparedStatement:realSqls)		
-				realPreparedStatement.clearBatch();
+				if(realPreparedStatement != null)
+					realPreparedStatement.clearBatch();
 	    }
 	    catch (SQLException s)
 	    {
@@ -243,25 +555,16 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 	      throw s;
 	    }
 	    currentBatch.clear();
+	    batchedRows.clear();
+	    batchTimestamp = null;
 	    reportReturn(methodCall);
 	}
 	public PreparedStatementSpy(String sql, ConnectionSpy connectionSpy,int autoGeneratedKeys) throws SQLException
 	{
 
 		super(connectionSpy);  //
-		ArrayList<String> sqls;
-		try {
-			sqls = rewriteSql(sql);
-		} catch (ParseException e) {
-			throw new SQLException("Cannot temporally-rewrite correctly:" +sql);
-		}
-		realSqls = new ArrayList<PreparedStatement>();
-		for(String s:sqls){
-			realSqls.add(connectionSpy.realConnection.prepareStatement(s,autoGeneratedKeys));
-		}
-		numberOfNonTemporalParameters=-1;
-		this.sql = sql;
-		rdbmsSpecifics = connectionSpy.getRdbmsSpecifics();
+		this.autoGeneratedKeys = autoGeneratedKeys;
+		init(sql);
 	}
 
 
@@ -271,19 +574,9 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 	{
 
 		super(connectionSpy);  //
-		ArrayList<String> sqls;
-		try {
-			sqls = rewriteSql(sql);
-		} catch (ParseException e) {
-			throw new SQLException("Cannot temporally-rewrite correctly:" +sql);
-		}
-		realSqls = new ArrayList<PreparedStatement>();
-		for(String s:sqls){
-			realSqls.add(connectionSpy.realConnection.prepareStatement(s,resultSetType,resultSetConcurrency));
-		}
-		numberOfNonTemporalParameters=-1;
-		this.sql = sql;
-		rdbmsSpecifics = connectionSpy.getRdbmsSpecifics();
+		this.resultSetType = resultSetType;
+		this.resultSetConcurrency = resultSetConcurrency;
+		init(sql);
 	}
 
 
@@ -292,58 +585,26 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 			{
 
 		super(connectionSpy);  //
-		ArrayList<String> sqls;
-		try {
-			sqls = rewriteSql(sql);
-		} catch (ParseException e) {
-			throw new SQLException("Cannot temporally-rewrite correctly:" +sql);
-		}
-		realSqls = new ArrayList<PreparedStatement>();
-		for(String s:sqls){
-			realSqls.add(connectionSpy.realConnection.prepareStatement(s,resultSetType,resultSetConcurrency,
-					resultSetHoldability));
-		}
-		numberOfNonTemporalParameters=-1;
-		this.sql = sql;
-		rdbmsSpecifics = connectionSpy.getRdbmsSpecifics();
+		this.resultSetType = resultSetType;
+		this.resultSetConcurrency = resultSetConcurrency;
+		this.resultSetHoldability = resultSetHoldability;
+		init(sql);
 			}
 
 	public PreparedStatementSpy(String sql, ConnectionSpy connectionSpy,int columnIndexes[]) throws SQLException
 	{
 
 		super(connectionSpy);  //
-		ArrayList<String> sqls;
-		try {
-			sqls = rewriteSql(sql);
-		} catch (ParseException e) {
-			throw new SQLException("Cannot temporally-rewrite correctly:" +sql);
-		}
-		realSqls = new ArrayList<PreparedStatement>();
-		for(String s:sqls){
-			realSqls.add(connectionSpy.realConnection.prepareStatement(s, columnIndexes));
-		}
-		numberOfNonTemporalParameters=-1;
-		this.sql = sql;
-		rdbmsSpecifics = connectionSpy.getRdbmsSpecifics();
+		this.columnIndexes = columnIndexes;
+		init(sql);
 	}
 
 	public PreparedStatementSpy(String sql, ConnectionSpy connectionSpy,String columnNames[]) throws SQLException
 	{
 
 		super(connectionSpy);  //
-		ArrayList<String> sqls;
-		try {
-			sqls = rewriteSql(sql);
-		} catch (ParseException e) {
-			throw new SQLException("Cannot temporally-rewrite correctly:" +sql);
-		}
-		realSqls = new ArrayList<PreparedStatement>();
-		for(String s:sqls){
-			realSqls.add(connectionSpy.realConnection.prepareStatement(s,columnNames));
-		}
-		numberOfNonTemporalParameters=-1;
-		this.sql = sql;
-		rdbmsSpecifics = connectionSpy.getRdbmsSpecifics();
+		this.columnNames = columnNames;
+		init(sql);
 	}
 
 
@@ -357,24 +618,15 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setTime(int parameterIndex, Time x) throws SQLException
 	{
-		String methodCall = "setTime(" + parameterIndex + ", " + x + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setTime(" + parameterIndex + ", " + x + ")" : "setTime";
 		argTraceSet(parameterIndex, "(Time)", x);
 		try
 		{
-
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setTime(parameterIndex-numberOfNonTemporalParameters, x);
-				first=false;
-				}else{
-					realPreparedStatement.setTime(parameterIndex, x);
-				}
-			}
+			parameters.set(parameterIndex, ParameterBuffer.TIME, x);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setTime(" + parameterIndex + ", " + x + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -382,25 +634,15 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException
 	{
-		String methodCall = "setTime(" + parameterIndex + ", " + x + ", " + cal + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setTime(" + parameterIndex + ", " + x + ", " + cal + ")" : "setTime";
 		argTraceSet(parameterIndex, "(Time)", x);
 		try
 		{
-
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setTime(parameterIndex-numberOfNonTemporalParameters, x, cal);
-				first=false;
-				}else{
-					realPreparedStatement.setTime(parameterIndex, x, cal);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.TIME_CALENDAR, x, cal);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setTime(" + parameterIndex + ", " + x + ", " + cal + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -408,25 +650,15 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException
 	{
-		String methodCall = "setCharacterStream(" + parameterIndex + ", " + reader + ", " + length + ")";
-		argTraceSet(parameterIndex, "(Reader)", "<Reader of length " + length + ">");
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setCharacterStream(" + parameterIndex + ", " + reader + ", " + length + ")" : "setCharacterStream";
+		argTraceSet(parameterIndex, "(Reader)", "Reader", length);
 		try
 		{
-
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setCharacterStream(parameterIndex-numberOfNonTemporalParameters, reader, length);
-				first=false;
-				}else{
-					realPreparedStatement.setCharacterStream(parameterIndex, reader, length);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.CHARACTER_STREAM_INT_LENGTH, reader, length);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setCharacterStream(" + parameterIndex + ", " + reader + ", " + length + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -434,23 +666,15 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setNull(int parameterIndex, int sqlType) throws SQLException
 	{
-		String methodCall = "setNull(" + parameterIndex + ", " + sqlType + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setNull(" + parameterIndex + ", " + sqlType + ")" : "setNull";
 		argTraceSet(parameterIndex, null, null);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setNull(parameterIndex-numberOfNonTemporalParameters, sqlType);
-				first=false;
-				}else{
-					realPreparedStatement.setNull(parameterIndex, sqlType);
-				}
-			}
+			parameters.set(parameterIndex, ParameterBuffer.NULL, sqlType);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setNull(" + parameterIndex + ", " + sqlType + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -458,23 +682,15 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException
 	{
-		String methodCall = "setNull(" + parameterIndex + ", " + sqlType + ", " + typeName + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setNull(" + parameterIndex + ", " + sqlType + ", " + typeName + ")" : "setNull";
 		argTraceSet(parameterIndex, null, null);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setNull(parameterIndex-numberOfNonTemporalParameters,  sqlType, typeName);
-				first=false;
-				}else{
-					realPreparedStatement.setNull(parameterIndex,  sqlType, typeName);
-				}
-			}
+			parameters.set(parameterIndex, ParameterBuffer.NULL_TYPE_NAME, sqlType, typeName);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setNull(" + parameterIndex + ", " + sqlType + ", " + typeName + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -482,24 +698,15 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setRef(int parameterIndex, Ref x) throws SQLException
 	{
-		String methodCall = "setRef(" + parameterIndex + ", " + x + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setRef(" + parameterIndex + ", " + x + ")" : "setRef";
 		argTraceSet(parameterIndex, "(Ref)", x);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setRef(parameterIndex-numberOfNonTemporalParameters, x);
-				first=false;
-				}else{
-					realPreparedStatement.setRef(parameterIndex, x);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.REF, x);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setRef(" + parameterIndex + ", " + x + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -507,23 +714,14 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setBoolean(int parameterIndex, boolean x) throws SQLException
 	{
-		String methodCall = "setBoolean(" + parameterIndex + ", " + x + ")";
-		argTraceSet(parameterIndex, "(boolean)", x?Boolean.TRUE:Boolean.FALSE);
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setBoolean(" + parameterIndex + ", " + x + ")" : "setBoolean";
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setBoolean(parameterIndex-numberOfNonTemporalParameters, x);
-				first=false;
-				}else{
-					realPreparedStatement.setBoolean(parameterIndex, x);
-				}
-			}
+			parameters.set(parameterIndex, ParameterBuffer.BOOLEAN, x ? 1 : 0);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setBoolean(" + parameterIndex + ", " + x + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -531,24 +729,19 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setBlob(int parameterIndex, Blob x) throws SQLException
 	{
-		String methodCall = "setBlob(" + parameterIndex + ", " + x + ")";
-		argTraceSet(parameterIndex, "(Blob)", 
-				x==null?null:("<Blob of size " + x.length() + ">"));
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setBlob(" + parameterIndex + ", " + x + ")" : "setBlob";
+		if (log.isJdbcLoggingEnabled())
+		{
+			argTraceSet(parameterIndex, "(Blob)", 
+					x==null?null:("<Blob of size " + x.length() + ">"));
+		}
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setBlob(parameterIndex-numberOfNonTemporalParameters, x);
-				first=false;
-				}else{
-					realPreparedStatement.setBlob(parameterIndex, x);
-				}
-			}
+			parameters.set(parameterIndex, ParameterBuffer.BLOB, x);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setBlob(" + parameterIndex + ", " + x + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -556,25 +749,19 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setClob(int parameterIndex, Clob x) throws SQLException
 	{
-		String methodCall = "setClob(" + parameterIndex + ", " + x + ")";
-		argTraceSet(parameterIndex, "(Clob)",
-				x==null?null:("<Clob of size " + x.length() + ">"));
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setClob(" + parameterIndex + ", " + x + ")" : "setClob";
+		if (log.isJdbcLoggingEnabled())
+		{
+			argTraceSet(parameterIndex, "(Clob)",
+					x==null?null:("<Clob of size " + x.length() + ">"));
+		}
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setClob(parameterIndex-numberOfNonTemporalParameters, x);
-				first=false;
-				}else{
-					realPreparedStatement.setClob(parameterIndex, x);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.CLOB, x);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setClob(" + parameterIndex + ", " + x + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -582,24 +769,15 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setArray(int parameterIndex, Array x) throws SQLException
 	{
-		String methodCall = "setArray(" + parameterIndex + ", " + x + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setArray(" + parameterIndex + ", " + x + ")" : "setArray";
 		argTraceSet(parameterIndex, "(Array)", "<Array>");
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setArray(parameterIndex-numberOfNonTemporalParameters, x);
-				first=false;
-				}else{
-					realPreparedStatement.setArray(parameterIndex, x);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.ARRAY, x);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setArray(" + parameterIndex + ", " + x + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -607,24 +785,14 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setByte(int parameterIndex, byte x) throws SQLException
 	{
-		String methodCall = "setByte(" + parameterIndex + ", " + x + ")";
-		argTraceSet(parameterIndex, "(byte)", new Byte(x));
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setByte(" + parameterIndex + ", " + x + ")" : "setByte";
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setByte(parameterIndex-numberOfNonTemporalParameters, x);
-				first=false;
-				}else{
-					realPreparedStatement.setByte(parameterIndex, x);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.BYTE, x);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setByte(" + parameterIndex + ", " + x + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -635,24 +803,15 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 	 */
 	public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException
 	{
-		String methodCall = "setUnicodeStream(" + parameterIndex + ", " + x + ", " + length + ")";
-		argTraceSet(parameterIndex, "(Unicode InputStream)", "<Unicode InputStream of length " + length + ">");
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setUnicodeStream(" + parameterIndex + ", " + x + ", " + length + ")" : "setUnicodeStream";
+		argTraceSet(parameterIndex, "(Unicode InputStream)", "Unicode InputStream", length);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setUnicodeStream(parameterIndex-numberOfNonTemporalParameters, x, length);
-				first=false;
-				}else{
-					realPreparedStatement.setUnicodeStream(parameterIndex, x, length);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.UNICODE_STREAM_INT_LENGTH, x, length);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setUnicodeStream(" + parameterIndex + ", " + x + ", " + length + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -660,24 +819,14 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setShort(int parameterIndex, short x) throws SQLException
 	{
-		String methodCall = "setShort(" + parameterIndex + ", " + x + ")";
-		argTraceSet(parameterIndex, "(short)", new Short(x));
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setShort(" + parameterIndex + ", " + x + ")" : "setShort";
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setShort(parameterIndex-numberOfNonTemporalParameters, x);
-				first=false;
-				}else{
-					realPreparedStatement.setShort(parameterIndex, x);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.SHORT, x);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setShort(" + parameterIndex + ", " + x + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -688,47 +837,54 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 		String methodCall = "execute()";
 		String dumpedSql = dumpedSql();
 		reportSql(dumpedSql, methodCall);
-		long tstart = System.currentTimeMillis();
+		long tstart = System.nanoTime();
+		boolean result = false;
 		try
 		{
-			boolean result=false;
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				result = realPreparedStatement.execute();
+			BigDecimal timestamp = getTimestamp();
+			List<String> revisited = connectionSpy.getRevisitedTables(rewritten, sql);
+			connectionSpy.park(revisited);
+			try
+			{
+				for(int s = 0; s < realSqls.size(); s++){
+					PreparedStatement realPreparedStatement = getRealPreparedStatement(s);
+					flush(realPreparedStatement, s, timestamp);
+					if (multiStatement)
+					{
+						executeMultiStatement(realPreparedStatement);
+					}
+					else
+					{
+						result = realPreparedStatement.execute();
+					}
+				}
 			}
-			reportSqlTiming(System.currentTimeMillis() - tstart, dumpedSql, methodCall);
-			return reportReturn(methodCall, result);
+			finally
+			{
+				connectionSpy.unpark(revisited);
+			}
+			connectionSpy.checkClosed(connectionSpy.getClosedTables(rewritten, sql), timestamp);
+			reportSqlTiming(System.nanoTime() - tstart, dumpedSql, methodCall);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s, dumpedSql, System.currentTimeMillis() - tstart);
+			reportException(methodCall, s, dumpedSql, System.nanoTime() - tstart);
 			throw s;
 		}
+		connectionSpy.schemaChanged(sql);
+		return reportReturn(methodCall, result);
 	}
 
 	public void setInt(int parameterIndex, int x) throws SQLException
 	{
-		String methodCall = "setInt(" + parameterIndex + ", " + x + ")";
-		argTraceSet(parameterIndex, "(int)", new Integer(x));
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setInt(" + parameterIndex + ", " + x + ")" : "setInt";
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls)
-			{		
-				if(realSqls.size()>1 && first)
-				{        	
-					if(parameterIndex-numberOfNonTemporalParameters>0)
-						realPreparedStatement.setInt(parameterIndex-numberOfNonTemporalParameters, x);
-					first=false;
-				}
-				else
-				{
-					realPreparedStatement.setInt(parameterIndex, x);
-				}
-			}
+			parameters.set(parameterIndex, ParameterBuffer.INT, x);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setInt(" + parameterIndex + ", " + x + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -736,24 +892,14 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setLong(int parameterIndex, long x) throws SQLException
 	{
-		String methodCall = "setLong(" + parameterIndex + ", " + x + ")";
-		argTraceSet(parameterIndex, "(long)", new Long(x));
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setLong(" + parameterIndex + ", " + x + ")" : "setLong";
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setLong(parameterIndex-numberOfNonTemporalParameters, x);
-				first=false;
-				}else{
-					realPreparedStatement.setLong(parameterIndex, x);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.LONG, x);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setLong(" + parameterIndex + ", " + x + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -761,24 +907,14 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setFloat(int parameterIndex, float x) throws SQLException
 	{
-		String methodCall = "setFloat(" + parameterIndex + ", " + x + ")";
-		argTraceSet(parameterIndex, "(float)", new Float(x));
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setFloat(" + parameterIndex + ", " + x + ")" : "setFloat";
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setFloat(parameterIndex-numberOfNonTemporalParameters, x);
-				first=false;
-				}else{
-					realPreparedStatement.setFloat(parameterIndex, x);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.FLOAT, x);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setFloat(" + parameterIndex + ", " + x + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -786,24 +922,14 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setDouble(int parameterIndex, double x) throws SQLException
 	{
-		String methodCall = "setDouble(" + parameterIndex + ", " + x + ")";
-		argTraceSet(parameterIndex, "(double)", new Double(x));
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setDouble(" + parameterIndex + ", " + x + ")" : "setDouble";
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setDouble(parameterIndex-numberOfNonTemporalParameters, x);
-				first=false;
-				}else{
-					realPreparedStatement.setDouble(parameterIndex, x);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.DOUBLE, x);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setDouble(" + parameterIndex + ", " + x + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -811,25 +937,15 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException
 	{
-		String methodCall = "setBigDecimal(" + parameterIndex + ", " + x + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setBigDecimal(" + parameterIndex + ", " + x + ")" : "setBigDecimal";
 		argTraceSet(parameterIndex, "(BigDecimal)", x);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setBigDecimal(parameterIndex-numberOfNonTemporalParameters, x);
-				first=false;
-				}else{
-					realPreparedStatement.setBigDecimal(parameterIndex, x);
-				}
-			}
-
-
+			parameters.set(parameterIndex, ParameterBuffer.BIG_DECIMAL, x);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setBigDecimal(" + parameterIndex + ", " + x + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -837,25 +953,16 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setURL(int parameterIndex, URL x) throws SQLException
 	{
-		String methodCall = "setURL(" + parameterIndex + ", " + x + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setURL(" + parameterIndex + ", " + x + ")" : "setURL";
 		argTraceSet(parameterIndex, "(URL)", x);
 
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setURL(parameterIndex-numberOfNonTemporalParameters, x);
-				first=false;
-				}else{
-					realPreparedStatement.setURL(parameterIndex, x);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.URL, x);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setURL(" + parameterIndex + ", " + x + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -863,29 +970,16 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setString(int parameterIndex, String x) throws SQLException
 	{
-		String methodCall = "setString(" + parameterIndex + ", \"" + x + "\")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setString(" + parameterIndex + ", \"" + x + "\")" : "setString";
 		argTraceSet(parameterIndex, "(String)", x);
 
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first)
-				{        		  
-					if(parameterIndex-numberOfNonTemporalParameters>0)
-						realPreparedStatement.setString(parameterIndex-numberOfNonTemporalParameters, x);
-					first=false;
-				}
-				else
-				{
-					realPreparedStatement.setString(parameterIndex, x);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.STRING, x);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setString(" + parameterIndex + ", \"" + x + "\")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -894,24 +988,15 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 	public void setBytes(int parameterIndex, byte[] x) throws SQLException
 	{
 		//todo: dump array?
-		String methodCall = "setBytes(" + parameterIndex + ", " + x + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setBytes(" + parameterIndex + ", " + x + ")" : "setBytes";
 		argTraceSet(parameterIndex, "(byte[])", "<byte[]>");
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setBytes(parameterIndex-numberOfNonTemporalParameters, x);
-				first=false;
-				}else{
-					realPreparedStatement.setBytes(parameterIndex, x);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.BYTES, x);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setBytes(" + parameterIndex + ", " + x + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -919,24 +1004,15 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setDate(int parameterIndex, Date x) throws SQLException
 	{
-		String methodCall = "setDate(" + parameterIndex + ", " + x + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setDate(" + parameterIndex + ", " + x + ")" : "setDate";
 		argTraceSet(parameterIndex, "(Date)", x);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setDate(parameterIndex-numberOfNonTemporalParameters, x);
-				first=false;
-				}else{
-					realPreparedStatement.setDate(parameterIndex, x);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.DATE, x);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setDate(" + parameterIndex + ", " + x + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -949,7 +1025,7 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 		{
 
 			//FIXME not sure about this... it's an attempt..
-			return (ParameterMetaData) reportReturn(methodCall, realSqls.get(0).getParameterMetaData());
+			return (ParameterMetaData) reportReturn(methodCall, getRealPreparedStatement(0).getParameterMetaData());
 		}
 		catch (SQLException s)
 		{
@@ -959,192 +1035,120 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 	}
 
 	public void setRowId(int parameterIndex, RowId x) throws SQLException {
-		String methodCall = "setRowId(" + parameterIndex + ", " + x + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setRowId(" + parameterIndex + ", " + x + ")" : "setRowId";
 		argTraceSet(parameterIndex, "(RowId)", x);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setRowId(parameterIndex-numberOfNonTemporalParameters, x);
-				first=false;
-				}else{
-					realPreparedStatement.setRowId(parameterIndex, x);
-				}
-			}
+			parameters.set(parameterIndex, ParameterBuffer.ROW_ID, x);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setRowId(" + parameterIndex + ", " + x + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
 	}
 
 	public void setNString(int parameterIndex, String value) throws SQLException {
-		String methodCall = "setNString(" + parameterIndex + ", " + value + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setNString(" + parameterIndex + ", " + value + ")" : "setNString";
 		argTraceSet(parameterIndex, "(String)", value);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setNString(parameterIndex-numberOfNonTemporalParameters, value);
-				first=false;
-				}else{
-					realPreparedStatement.setNString(parameterIndex, value);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.NSTRING, value);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setNString(" + parameterIndex + ", " + value + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
 	}
 
 	public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
-		String methodCall = "setNCharacterStream(" + parameterIndex + ", " + value + ", " + length + ")";
-		argTraceSet(parameterIndex, "(Reader)", "<Reader of length " + length + ">");
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setNCharacterStream(" + parameterIndex + ", " + value + ", " + length + ")" : "setNCharacterStream";
+		argTraceSet(parameterIndex, "(Reader)", "Reader", length);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setNCharacterStream(parameterIndex-numberOfNonTemporalParameters,value, length);
-				first=false;
-				}else{
-					realPreparedStatement.setNCharacterStream(parameterIndex, value, length);
-				}
-			}
-
-
+			parameters.set(parameterIndex, ParameterBuffer.NCHARACTER_STREAM_LENGTH, value, length);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setNCharacterStream(" + parameterIndex + ", " + value + ", " + length + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
 	}
 
 	public void setNClob(int parameterIndex, NClob value) throws SQLException {
-		String methodCall = "setNClob(" + parameterIndex + ", " + value + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setNClob(" + parameterIndex + ", " + value + ")" : "setNClob";
 		argTraceSet(parameterIndex, "(NClob)", "<NClob>");
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setNClob(parameterIndex-numberOfNonTemporalParameters, value);
-				first=false;
-				}else{
-					realPreparedStatement.setNClob(parameterIndex, value);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.NCLOB, value);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setNClob(" + parameterIndex + ", " + value + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
 	}
 
 	public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
-		String methodCall = "setClob(" + parameterIndex + ", " + reader + ", " + length + ")";
-		argTraceSet(parameterIndex, "(Reader)", "<Reader of length " + length + ">");
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setClob(" + parameterIndex + ", " + reader + ", " + length + ")" : "setClob";
+		argTraceSet(parameterIndex, "(Reader)", "Reader", length);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setClob(parameterIndex-numberOfNonTemporalParameters, reader, length);
-				first=false;
-				}else{
-					realPreparedStatement.setClob(parameterIndex, reader, length);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.CLOB_READER_LENGTH, reader, length);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setClob(" + parameterIndex + ", " + reader + ", " + length + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
 	}
 
 	public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
-		String methodCall = "setBlob(" + parameterIndex + ", " + inputStream + ", " + length + ")";
-		argTraceSet(parameterIndex, "(InputStream)", "<InputStream of length " + length + ">");
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setBlob(" + parameterIndex + ", " + inputStream + ", " + length + ")" : "setBlob";
+		argTraceSet(parameterIndex, "(InputStream)", "InputStream", length);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setBlob(parameterIndex-numberOfNonTemporalParameters, inputStream, length);
-				first=false;
-				}else{
-					realPreparedStatement.setBlob(parameterIndex,  inputStream, length);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.BLOB_STREAM_LENGTH, inputStream, length);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setBlob(" + parameterIndex + ", " + inputStream + ", " + length + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
 	}
 
 	public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
-		String methodCall = "setNClob(" + parameterIndex + ", " + reader + ", " + length + ")";
-		argTraceSet(parameterIndex, "(Reader)", "<Reader of length " + length + ">");
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setNClob(" + parameterIndex + ", " + reader + ", " + length + ")" : "setNClob";
+		argTraceSet(parameterIndex, "(Reader)", "Reader", length);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setNClob(parameterIndex-numberOfNonTemporalParameters,  reader, length);
-				first=false;
-				}else{
-					realPreparedStatement.setNClob(parameterIndex, reader, length);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.NCLOB_READER_LENGTH, reader, length);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setNClob(" + parameterIndex + ", " + reader + ", " + length + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
 	}
 
 	public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
-		String methodCall = "setSQLXML(" + parameterIndex + ", " + xmlObject + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setSQLXML(" + parameterIndex + ", " + xmlObject + ")" : "setSQLXML";
 		argTraceSet(parameterIndex, "(SQLXML)", xmlObject);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setSQLXML(parameterIndex-numberOfNonTemporalParameters, xmlObject);
-				first=false;
-				}else{
-					realPreparedStatement.setSQLXML(parameterIndex, xmlObject);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.SQLXML, xmlObject);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setSQLXML(" + parameterIndex + ", " + xmlObject + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -1152,25 +1156,16 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException
 	{
-		String methodCall = "setDate(" + parameterIndex + ", " + x + ", " + cal + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setDate(" + parameterIndex + ", " + x + ", " + cal + ")" : "setDate";
 		argTraceSet(parameterIndex, "(Date)", x);
 
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setDate(parameterIndex-numberOfNonTemporalParameters, x,cal);
-				first=false;
-				}else{
-					realPreparedStatement.setDate(parameterIndex, x,cal);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.DATE_CALENDAR, x, cal);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setDate(" + parameterIndex + ", " + x + ", " + cal + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -1181,26 +1176,31 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 		String methodCall = "executeQuery()";
 		String dumpedSql = dumpedSql();
 		reportSql(dumpedSql, methodCall);
-		long tstart = System.currentTimeMillis();
+		long tstart = System.nanoTime();
 		try
 		{
 			reportSql("Translate : "+sqls.toString(), methodCall);
 			//System.out.println("Translate: "+ sqls.toString());
-			ResultSet r = realSqls.get(0).executeQuery();
-			reportSqlTiming(System.currentTimeMillis() - tstart, dumpedSql, methodCall);
-			ResultSetSpy rsp = new ResultSetSpy(this, r);
-			return (ResultSet) reportReturn(methodCall, rsp);
+			PreparedStatement realPreparedStatement = getRealPreparedStatement(0);
+			flush(realPreparedStatement, 0, getTimestamp());
+			ResultSet r = realPreparedStatement.executeQuery();
+			reportSqlTiming(System.nanoTime() - tstart, dumpedSql, methodCall);
+			return (ResultSet) reportReturn(methodCall, wrapResultSet(r));
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s, dumpedSql, System.currentTimeMillis() - tstart);
+			reportException(methodCall, s, dumpedSql, System.nanoTime() - tstart);
 			throw s;
 		}
 	}
 
 	private String getTypeHelp(Object x)
 	{
-		if (x==null)
+		if (!showTypeHelp)
+		{
+			return null;
+		}
+		else if (x==null)
 		{
 			return "(null)";
 		}
@@ -1212,25 +1212,16 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setObject(int parameterIndex, Object x, int targetSqlType, int scale) throws SQLException
 	{
-		String methodCall = "setObject(" + parameterIndex + ", " + x + ", " + targetSqlType + ", " + scale + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setObject(" + parameterIndex + ", " + x + ", " + targetSqlType + ", " + scale + ")" : "setObject";
 		argTraceSet(parameterIndex, getTypeHelp(x), x);
 
 		try
 		{
-
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setObject(parameterIndex-numberOfNonTemporalParameters, x, targetSqlType, scale);
-				first=false;
-				}else{
-					realPreparedStatement.setObject(parameterIndex, x, targetSqlType, scale);
-				}
-			}
+			parameters.set(parameterIndex, ParameterBuffer.OBJECT_TYPE_SCALE, x, targetSqlType, scale);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setObject(" + parameterIndex + ", " + x + ", " + targetSqlType + ", " + scale + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -1258,70 +1249,45 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 	 * @since 1.6
 	 */
 	public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
-		String methodCall = "setAsciiStream(" + parameterIndex + ", " + x + ", " + length + ")";
-		argTraceSet(parameterIndex, "(Ascii InputStream)", "<Ascii InputStream of length " + length + ">");
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setAsciiStream(" + parameterIndex + ", " + x + ", " + length + ")" : "setAsciiStream";
+		argTraceSet(parameterIndex, "(Ascii InputStream)", "Ascii InputStream", length);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setAsciiStream(parameterIndex-numberOfNonTemporalParameters, x, length);
-				first=false;
-				}else{
-					realPreparedStatement.setAsciiStream(parameterIndex, x, length);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.ASCII_STREAM_LENGTH, x, length);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setAsciiStream(" + parameterIndex + ", " + x + ", " + length + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
 	}
 
 	public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
-		String methodCall = "setBinaryStream(" + parameterIndex + ", " + x + ", " + length + ")";
-		argTraceSet(parameterIndex, "(Binary InputStream)", "<Binary InputStream of length " + length + ">");
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setBinaryStream(" + parameterIndex + ", " + x + ", " + length + ")" : "setBinaryStream";
+		argTraceSet(parameterIndex, "(Binary InputStream)", "Binary InputStream", length);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setBinaryStream(parameterIndex-numberOfNonTemporalParameters, x,length);
-				first=false;
-				}else{
-					realPreparedStatement.setBinaryStream(parameterIndex, x,length);
-				}
-			}
+			parameters.set(parameterIndex, ParameterBuffer.BINARY_STREAM_LENGTH, x, length);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setBinaryStream(" + parameterIndex + ", " + x + ", " + length + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
 	}
 
 	public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
-		String methodCall = "setCharacterStream(" + parameterIndex + ", " + reader + ", " + length + ")";
-		argTraceSet(parameterIndex, "(Reader)", "<Reader of length " + length + ">");
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setCharacterStream(" + parameterIndex + ", " + reader + ", " + length + ")" : "setCharacterStream";
+		argTraceSet(parameterIndex, "(Reader)", "Reader", length);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setCharacterStream(parameterIndex-numberOfNonTemporalParameters,reader, length);
-				first=false;
-				}else{
-					realPreparedStatement.setCharacterStream(parameterIndex, reader, length);
-				}
-			}
+			parameters.set(parameterIndex, ParameterBuffer.CHARACTER_STREAM_LENGTH, reader, length);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setCharacterStream(" + parameterIndex + ", " + reader + ", " + length + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -1329,46 +1295,30 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 	}
 
 	public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
-		String methodCall = "setAsciiStream(" + parameterIndex + ", " + x + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setAsciiStream(" + parameterIndex + ", " + x + ")" : "setAsciiStream";
 		argTraceSet(parameterIndex, "(Ascii InputStream)", "<Ascii InputStream>");
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setAsciiStream(parameterIndex-numberOfNonTemporalParameters, x);
-				first=false;
-				}else{
-					realPreparedStatement.setAsciiStream(parameterIndex, x);
-				}
-			}
+			parameters.set(parameterIndex, ParameterBuffer.ASCII_STREAM, x);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setAsciiStream(" + parameterIndex + ", " + x + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
 	}
 
 	public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
-		String methodCall = "setBinaryStream(" + parameterIndex + ", " + x + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setBinaryStream(" + parameterIndex + ", " + x + ")" : "setBinaryStream";
 		argTraceSet(parameterIndex, "(Binary InputStream)", "<Binary InputStream>");
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setBinaryStream(parameterIndex-numberOfNonTemporalParameters, x);
-				first=false;
-				}else{
-					realPreparedStatement.setBinaryStream(parameterIndex, x);
-				}
-			}
+			parameters.set(parameterIndex, ParameterBuffer.BINARY_STREAM, x);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setBinaryStream(" + parameterIndex + ", " + x + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -1376,117 +1326,75 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 	}
 
 	public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
-		String methodCall = "setCharacterStream(" + parameterIndex + ", " + reader + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setCharacterStream(" + parameterIndex + ", " + reader + ")" : "setCharacterStream";
 		argTraceSet(parameterIndex, "(Reader)", "<Reader>");
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setCharacterStream(parameterIndex-numberOfNonTemporalParameters, reader);
-				first=false;
-				}else{
-					realPreparedStatement.setCharacterStream(parameterIndex, reader);
-				}
-			}
+			parameters.set(parameterIndex, ParameterBuffer.CHARACTER_STREAM, reader);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setCharacterStream(" + parameterIndex + ", " + reader + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
 	}
 
 	public void setNCharacterStream(int parameterIndex, Reader reader) throws SQLException {
-		String methodCall = "setNCharacterStream(" + parameterIndex + ", " + reader + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setNCharacterStream(" + parameterIndex + ", " + reader + ")" : "setNCharacterStream";
 		argTraceSet(parameterIndex, "(Reader)", "<Reader>");
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setNCharacterStream(parameterIndex-numberOfNonTemporalParameters, reader);
-				first=false;
-				}else{
-					realPreparedStatement.setNCharacterStream(parameterIndex, reader);
-				}
-			}
+			parameters.set(parameterIndex, ParameterBuffer.NCHARACTER_STREAM, reader);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setNCharacterStream(" + parameterIndex + ", " + reader + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
 	}
 
 	public void setClob(int parameterIndex, Reader reader) throws SQLException {
-		String methodCall = "setClob(" + parameterIndex + ", " + reader + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setClob(" + parameterIndex + ", " + reader + ")" : "setClob";
 		argTraceSet(parameterIndex, "(Reader)", "<Reader>");
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setClob(parameterIndex-numberOfNonTemporalParameters, reader);
-				first=false;
-				}else{
-					realPreparedStatement.setClob(parameterIndex, reader);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.CLOB_READER, reader);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setClob(" + parameterIndex + ", " + reader + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
 	}
 
 	public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
-		String methodCall = "setBlob(" + parameterIndex + ", " + inputStream + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setBlob(" + parameterIndex + ", " + inputStream + ")" : "setBlob";
 		argTraceSet(parameterIndex, "(InputStream)", "<InputStream>");
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setBlob(parameterIndex-numberOfNonTemporalParameters, inputStream);
-				first=false;
-				}else{
-					realPreparedStatement.setBlob(parameterIndex, inputStream);
-				}
-			}
+			parameters.set(parameterIndex, ParameterBuffer.BLOB_STREAM, inputStream);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setBlob(" + parameterIndex + ", " + inputStream + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
 	}
 
 	public void setNClob(int parameterIndex, Reader reader) throws SQLException {
-		String methodCall = "setNClob(" + parameterIndex + ", " + reader + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setNClob(" + parameterIndex + ", " + reader + ")" : "setNClob";
 		argTraceSet(parameterIndex, "(Reader)", "<Reader>");
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setNClob(parameterIndex-numberOfNonTemporalParameters, reader);
-				first=false;
-				}else{
-					realPreparedStatement.setNClob(parameterIndex, reader);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.NCLOB_READER, reader);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setNClob(" + parameterIndex + ", " + reader + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -1495,24 +1403,15 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException
 	{
-		String methodCall = "setObject(" + parameterIndex + ", " + x + ", " + targetSqlType + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setObject(" + parameterIndex + ", " + x + ", " + targetSqlType + ")" : "setObject";
 		argTraceSet(parameterIndex, getTypeHelp(x), x);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setObject(parameterIndex-numberOfNonTemporalParameters, x, targetSqlType);
-				first=false;
-				}else{
-					realPreparedStatement.setObject(parameterIndex, x, targetSqlType);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.OBJECT_TYPE, x, targetSqlType);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setObject(" + parameterIndex + ", " + x + ", " + targetSqlType + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -1520,23 +1419,15 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setObject(int parameterIndex, Object x) throws SQLException
 	{
-		String methodCall = "setObject(" + parameterIndex + ", " + x + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setObject(" + parameterIndex + ", " + x + ")" : "setObject";
 		argTraceSet(parameterIndex, getTypeHelp(x), x);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setObject(parameterIndex-numberOfNonTemporalParameters, x);
-				first=false;
-				}else{
-					realPreparedStatement.setObject(parameterIndex, x);
-				}
-			}
+			parameters.set(parameterIndex, ParameterBuffer.OBJECT, x);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setObject(" + parameterIndex + ", " + x + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -1544,23 +1435,15 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException
 	{
-		String methodCall = "setTimestamp(" + parameterIndex + ", " + x + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setTimestamp(" + parameterIndex + ", " + x + ")" : "setTimestamp";
 		argTraceSet(parameterIndex, "(Date)", x);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setTimestamp(parameterIndex-numberOfNonTemporalParameters, x);
-				first=false;
-				}else{
-					realPreparedStatement.setTimestamp(parameterIndex, x);
-				}
-			}
+			parameters.set(parameterIndex, ParameterBuffer.TIMESTAMP, x);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setTimestamp(" + parameterIndex + ", " + x + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -1568,24 +1451,15 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException
 	{
-		String methodCall = "setTimestamp(" + parameterIndex + ", " + x + ", " + cal + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setTimestamp(" + parameterIndex + ", " + x + ", " + cal + ")" : "setTimestamp";
 		argTraceSet(parameterIndex, "(Timestamp)", x);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setTimestamp(parameterIndex-numberOfNonTemporalParameters, x,cal);
-				first=false;
-				}else{
-					realPreparedStatement.setTimestamp(parameterIndex, x,cal);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.TIMESTAMP_CALENDAR, x, cal);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setTimestamp(" + parameterIndex + ", " + x + ", " + cal + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -1596,50 +1470,60 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 		String methodCall = "executeUpdate()";
 		String dumpedSql = dumpedSql();
 		reportSql(dumpedSql, methodCall);
-		long tstart = System.currentTimeMillis();
+		long tstart = System.nanoTime();
+		int result = -1;
 		try
 		{
-			int result=-1;
 			reportSql("Translate: "+sqls.toString(), methodCall);
 			//System.out.println("Translate: "+sqls.toString());
-			for(PreparedStatement realPreparedStatement:realSqls)
-			{	
-				//System.out.println(realPreparedStatement);
-				result = realPreparedStatement.executeUpdate();
+			BigDecimal timestamp = getTimestamp();
+			List<String> revisited = connectionSpy.getRevisitedTables(rewritten, sql);
+			connectionSpy.park(revisited);
+			try
+			{
+				for(int s = 0; s < realSqls.size(); s++)
+				{
+					PreparedStatement realPreparedStatement = getRealPreparedStatement(s);
+					flush(realPreparedStatement, s, timestamp);
+					//System.out.println(realPreparedStatement);
+					int count = multiStatement ? executeMultiStatement(realPreparedStatement) :
+						realPreparedStatement.executeUpdate();
+					if (s < getCountedStatements())
+					{
+						result = count;
+					}
+				}
+			}
+			finally
+			{
+				connectionSpy.unpark(revisited);
 			}
-			reportSqlTiming(System.currentTimeMillis() - tstart, dumpedSql, methodCall);
-			int ret=reportReturn(methodCall, result);
-			//System.out.println("return value:" + ret);
-			return ret;
+			connectionSpy.checkClosed(connectionSpy.getClosedTables(rewritten, sql), timestamp);
+			reportSqlTiming(System.nanoTime() - tstart, dumpedSql, methodCall);
 		}
 		catch (SQLException s)
 		{
 			//System.out.println(realSqls);
-			reportException(methodCall, s, dumpedSql, System.currentTimeMillis() - tstart);
+			reportException(methodCall, s, dumpedSql, System.nanoTime() - tstart);
 			throw s;
 		}
+		connectionSpy.schemaChanged(sql);
+		int ret=reportReturn(methodCall, result);
+		//System.out.println("return value:" + ret);
+		return ret;
 	}
 
 	public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException
 	{
-		String methodCall = "setAsciiStream(" + parameterIndex + ", " + x + ", " + length + ")";
-		argTraceSet(parameterIndex, "(Ascii InputStream)", "<Ascii InputStream of length " + length + ">");
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setAsciiStream(" + parameterIndex + ", " + x + ", " + length + ")" : "setAsciiStream";
+		argTraceSet(parameterIndex, "(Ascii InputStream)", "Ascii InputStream", length);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setAsciiStream(parameterIndex-numberOfNonTemporalParameters, x,length);
-				first=false;
-				}else{
-					realPreparedStatement.setAsciiStream(parameterIndex, x,length);
-				}
-			}
-
+			parameters.set(parameterIndex, ParameterBuffer.ASCII_STREAM_INT_LENGTH, x, length);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setAsciiStream(" + parameterIndex + ", " + x + ", " + length + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -1647,23 +1531,15 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 
 	public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException
 	{
-		String methodCall = "setBinaryStream(" + parameterIndex + ", " + x + ", " + length + ")";
-		argTraceSet(parameterIndex, "(Binary InputStream)", "<Binary InputStream of length " + length + ">");
+		String methodCall = log.isMethodReturnedEnabled(this) ? "setBinaryStream(" + parameterIndex + ", " + x + ", " + length + ")" : "setBinaryStream";
+		argTraceSet(parameterIndex, "(Binary InputStream)", "Binary InputStream", length);
 		try
 		{
-			boolean first = true;	
-			for(PreparedStatement realPreparedStatement:realSqls){		
-				if(realSqls.size()>1 && first){        		  if(parameterIndex-numberOfNonTemporalParameters>0)
-					realPreparedStatement.setBinaryStream(parameterIndex-numberOfNonTemporalParameters, x,length);
-				first=false;
-				}else{
-					realPreparedStatement.setBinaryStream(parameterIndex, x,length);
-				}
-			}
+			parameters.set(parameterIndex, ParameterBuffer.BINARY_STREAM_INT_LENGTH, x, length);
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall, s);
+			reportException(log.isJdbcLoggingEnabled() ? "setBinaryStream(" + parameterIndex + ", " + x + ", " + length + ")" : methodCall, s);
 			throw s;
 		}
 		reportReturn(methodCall);
@@ -1677,12 +1553,13 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 		{
 			argTrace.clear();
 		}
+		parameters.clear();
 
 		try
 		{
 			for(PreparedStatement realPreparedStatement:realSqls){	
-
-				realPreparedStatement.clearParameters();
+				if(realPreparedStatement != null)
+					realPreparedStatement.clearParameters();
 			}
 
 
@@ -1701,7 +1578,7 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 		try
 		{
 			//FIXME check this..
-			return (ResultSetMetaData) reportReturn(methodCall, realSqls.get(0).getMetaData());
+			return (ResultSetMetaData) reportReturn(methodCall, getRealPreparedStatement(0).getMetaData());
 		}
 		catch (SQLException s)
 		{
@@ -1711,8 +1588,12 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 	}
 
 	/**
-	 * Warning: This can't be right, as Update+Insert operation needs to be successive
-	 * Can't run a batch of Updates then a batch of Inserts.
+	 * A rewrite with a single statement (or joined into one multi statement)
+	 * is batched by the driver.  When the rewrite has several statements, the
+	 * statements of one row must run before those of the next row (an Update
+	 * closes the current version that the following Insert copies), so the
+	 * parameters of the row are kept and the rows are run in order by
+	 * executeBatch.
 	 */
 	public void addBatch() throws SQLException
 	{
@@ -1720,9 +1601,21 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 		currentBatch.add(dumpedSql());
 		try
 		{
-			//FIXME check this
-	    	for(PreparedStatement realStatement:realSqls)
-	    		realStatement.addBatch();
+			if (realSqls.size() == 1)
+			{
+				PreparedStatement realPreparedStatement = getRealPreparedStatement(0);
+				BigDecimal timestamp = getTimestamp();
+				if (batchTimestamp == null)
+				{
+					batchTimestamp = timestamp;
+				}
+				flush(realPreparedStatement, 0, timestamp);
+				realPreparedStatement.addBatch();
+			}
+			else
+			{
+				batchedRows.add(parameters.snapshot());
+			}
 		}
 		catch (SQLException s)
 		{
@@ -1732,8 +1625,233 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 		reportReturn(methodCall);
 	}
 
+	public int[] executeBatch() throws SQLException
+	{
+		String methodCall = "executeBatch()";
+		String batchReport = getBatchReport();
+		reportSql(batchReport, methodCall);
+		long tstart = System.nanoTime();
+		int[] updateResults;
+		try
+		{
+			BatchCollapse collapse = realSqls.size() > 1 && DriverSpy.BatchCollapseRows > 0 &&
+					batchedRows.size() > 1 ? rewritten.getBatchCollapse(sql) : null;
+			if (collapse != null && !rowsIndependent(collapse))
+			{
+				collapse = null;
+			}
+			if (realSqls.size() > 1 && collapse == null)
+			{
+				// each row parks what the rows before it closed
+				updateResults = executeRows();
+			}
+			else
+			{
+				// a single statement or set based rows change each database row once
+				List<String> revisited = connectionSpy.getRevisitedTables(rewritten, sql);
+				connectionSpy.park(revisited);
+				BigDecimal timestamp = collapse == null ? batchTimestamp : getTimestamp();
+				try
+				{
+					updateResults = collapse == null ? getRealPreparedStatement(0).executeBatch() :
+						executeCollapsed(collapse, timestamp);
+				}
+				finally
+				{
+					connectionSpy.unpark(revisited);
+				}
+				connectionSpy.checkClosed(connectionSpy.getClosedTables(rewritten, sql), timestamp);
+			}
+			reportSqlTiming(System.nanoTime() - tstart, batchReport, methodCall);
+		}
+		catch (SQLException s)
+		{
+			reportException(methodCall, s, batchReport, System.nanoTime() - tstart);
+			throw s;
+		}
+		finally
+		{
+			currentBatch.clear();
+			batchedRows.clear();
+			batchTimestamp = null;
+		}
+		return (int[]) reportReturn(methodCall, updateResults);
+	}
+
+	/**
+	 * Determine if the batched rows can run set based: no two rows may bind
+	 * the same values to the key columns of the closing UPDATE, or a row could
+	 * close the version another row has just inserted.
+	 */
+	private boolean rowsIndependent(BatchCollapse collapse) throws SQLException
+	{
+		Set<String> keys = new HashSet<String>();
+		for (int row = 0; row < batchedRows.size(); row++)
+		{
+			String key = batchedRows.get(row).getKey(rewritten.getParameterRouting(), 0,
+					collapse.getParameterCount(0));
+			if (key == null || !keys.add(key))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Run the batched rows of a rewrite with several statements set based:
+	 * each rewritten statement once for (up to BatchCollapseRows of) the rows,
+	 * statement after statement.
+	 *
+	 * @return Statement.SUCCESS_NO_INFO for each row, the set based statements
+	 *         do not tell how many database rows each batch row changed.
+	 * @throws BatchUpdateException if a statement fails.  The rows can then be
+	 *         partly applied, with no update counts.
+	 */
+	private int[] executeCollapsed(BatchCollapse collapse, BigDecimal timestamp) throws SQLException
+	{
+		if (closed)
+		{
+			throw new SQLException("No operations allowed after statement closed.");
+		}
+		int rows = batchedRows.size();
+		ParameterRouting plain = rewritten.getParameterRouting();
+		try
+		{
+			for (int s = 0; s < collapse.getStatementCount(); s++)
+			{
+				int chunk = collapse.getRowsPerStatement(s, DriverSpy.BatchCollapseRows);
+				int count = collapse.getParameterCount(s);
+				PreparedStatement full = null;
+				try
+				{
+					for (int first = 0; first < rows; first += chunk)
+					{
+						int n = Math.min(chunk, rows - first);
+						PreparedStatement ps;
+						if (n < chunk)
+						{
+							ps = connectionSpy.realConnection.prepareStatement(collapsedSql(collapse, s, n, timestamp));
+						}
+						else
+						{
+							if (full == null)
+							{
+								full = connectionSpy.realConnection.prepareStatement(collapsedSql(collapse, s, n, timestamp));
+							}
+							ps = full;
+						}
+						try
+						{
+							for (int r = 0; r < n; r++)
+							{
+								batchedRows.get(first + r).bind(ps, plain, s, r * count);
+							}
+							ps.executeUpdate();
+						}
+						finally
+						{
+							if (ps != full)
+							{
+								ps.close();
+							}
+						}
+					}
+				}
+				finally
+				{
+					if (full != null)
+					{
+						full.close();
+					}
+				}
+			}
+		}
+		catch (SQLException s)
+		{
+			BatchUpdateException b = new BatchUpdateException(s.getMessage(), s.getSQLState(),
+					s.getErrorCode(), new int[0]);
+			b.initCause(s);
+			throw b;
+		}
+		int[] counts = new int[rows];
+		Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+		return counts;
+	}
+
+	/**
+	 * Get the set based SQL of a statement for a number of rows.  It is made
+	 * from the rewrite as it came from the parser, so any now_usec() calls are
+	 * replaced by the timestamp here.
+	 */
+	private String collapsedSql(BatchCollapse collapse, int s, int rows, BigDecimal timestamp)
+	{
+		String collapsed = collapse.getSql(s, rows);
+		return timestamp == null ? collapsed : TransactionClock.replaceCalls(collapsed, timestamp.toPlainString());
+	}
+
+	/**
+	 * Run the batched rows of a rewrite with several statements, all the
+	 * statements of a row before the next row.
+	 *
+	 * @return the update count of each row: the count of its last statement,
+	 *         the same executeUpdate returns.
+	 * @throws BatchUpdateException if a row fails, with the counts of the rows before it.
+	 */
+	private int[] executeRows() throws SQLException
+	{
+		int[] counts = new int[batchedRows.size()];
+		ParameterBuffer current = parameters.snapshot();
+		int row = 0;
+		try
+		{
+			for (; row < counts.length; row++)
+			{
+				parameters.restore(batchedRows.get(row));
+				BigDecimal timestamp = getTimestamp();
+				int result = -1;
+				List<String> revisited = connectionSpy.getRevisitedTables(rewritten, sql);
+				connectionSpy.park(revisited);
+				try
+				{
+					for (int s = 0; s < realSqls.size(); s++)
+					{
+						PreparedStatement realPreparedStatement = getRealPreparedStatement(s);
+						flush(realPreparedStatement, s, timestamp);
+						int count = realPreparedStatement.executeUpdate();
+						if (s < getCountedStatements())
+						{
+							result = count;
+						}
+					}
+				}
+				finally
+				{
+					connectionSpy.unpark(revisited);
+				}
+				connectionSpy.checkClosed(connectionSpy.getClosedTables(rewritten, sql), timestamp);
+				counts[row] = result;
+			}
+		}
+		catch (SQLException s)
+		{
+			int[] done = new int[row];
+			System.arraycopy(counts, 0, done, 0, row);
+			BatchUpdateException b = new BatchUpdateException(s.getMessage(), s.getSQLState(),
+					s.getErrorCode(), done);
+			b.initCause(s);
+			throw b;
+		}
+		finally
+		{
+			// the parameters set by the application stay in effect after the batch
+			parameters.restore(current);
+		}
+		return counts;
+	}
+
 	public <T> T unwrap(Class<T> iface) throws SQLException {
-		String methodCall = "unwrap(" + (iface==null?"null":iface.getName()) + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "unwrap(" + (iface==null?"null":iface.getName()) + ")" : "unwrap";
 		try
 		{
 			//todo: double check this logic
@@ -1743,18 +1861,18 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 					(iface != null && (iface==PreparedStatement.class||iface==Statement.class||iface==Spy.class))?
 							(T)this:
 								//FIXME check this
-								realSqls.get(0).unwrap(iface));
+								getRealPreparedStatement(0).unwrap(iface));
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall,s);
+			reportException(log.isJdbcLoggingEnabled() ? "unwrap(" + (iface==null?"null":iface.getName()) + ")" : methodCall,s);
 			throw s;
 		}
 	}
 
 	public boolean isWrapperFor(Class<?> iface) throws SQLException
 	{
-		String methodCall = "isWrapperFor(" + (iface==null?"null":iface.getName()) + ")";
+		String methodCall = log.isMethodReturnedEnabled(this) ? "isWrapperFor(" + (iface==null?"null":iface.getName()) + ")" : "isWrapperFor";
 		try
 		{
 			//NOTE: could call super.isWrapperFor to simplify this logic, but it would result in extra log output
@@ -1762,43 +1880,115 @@ public class PreparedStatementSpy extends StatementSpy implements PreparedStatem
 			return reportReturn(methodCall,
 					(iface != null && (iface==PreparedStatement.class||iface==Statement.class||iface==Spy.class)) ||
 					//FIXME check this	
-					realSqls.get(0).isWrapperFor(iface));
+					getRealPreparedStatement(0).isWrapperFor(iface));
 		}
 		catch (SQLException s)
 		{
-			reportException(methodCall,s);
+			reportException(log.isJdbcLoggingEnabled() ? "isWrapperFor(" + (iface==null?"null":iface.getName()) + ")" : methodCall,s);
 			throw s;
 		}
 	}
 
 
 	/**
-	 * temporal rewriting 
+	 * Execute the joined statements of a multi statement rewrite in one round
+	 * trip and step through all of their results.
+	 *
+	 * @param realPreparedStatement the real statement holding the joined statements.
+	 * @return the update count of the last statement before the sweeps to
+	 *         history, the same as running the statements one by one returns.
+	 * @throws SQLException if one of the statements fails.
+	 */
+	private int executeMultiStatement(PreparedStatement realPreparedStatement) throws SQLException
+	{
+		// the update counts of the last statements, the sweeps last
+		int[] counts = new int[prepared.getSweepCount() + 1];
+		Arrays.fill(counts, -1);
+		boolean isResultSet = realPreparedStatement.execute();
+		while (true)
+		{
+			if (isResultSet)
+			{
+				realPreparedStatement.getResultSet().close();
+			}
+			else
+			{
+				int count = realPreparedStatement.getUpdateCount();
+				if (count == -1)
+				{
+					break;
+				}
+				System.arraycopy(counts, 1, counts, 0, counts.length - 1);
+				counts[counts.length - 1] = count;
+			}
+			isResultSet = realPreparedStatement.getMoreResults();
+		}
+		return counts[0];
+	}
+
+	/**
+	 * @return the number of real statements whose update count is the
+	 *         count of the statement: all but the sweeps to history of the
+	 *         rewrite (see HistoryTables), which a multi statement SQL skips
+	 *         itself.
+	 */
+	private int getCountedStatements()
+	{
+		return multiStatement ? realSqls.size() : realSqls.size() - prepared.getSweepCount();
+	}
+
+	/**
+	 * temporal rewriting, served from the process wide RewriteCache when possible,
+	 * skipped for SQL that touches no temporalized table
 	 * @param sql
 	 * @return
-	 * @throws ParseException 
+	 * @throws ParseException
 	 */
-	private ArrayList<String> rewriteSql(String sql) throws ParseException {		
-		//System.out.println(sql);
-		Parser p = new Parser(connectionSpy.schema.getSchemaName(),connectionSpy.schema, sql);
-		ArrayList<String> li = new ArrayList<String>();
-		if(p.isTemporal())
-			li.add(p.toNonTemporalSQL());
+	private List<String> rewriteSql(String sql) throws ParseException {
+		RewrittenSql rewritten;
+		temporal = !DriverSpy.TemporalSkipNonTemporal ||
+			connectionSpy.getSchemaEntry().getTemporalTables().isTouchedBy(sql);
+		if (temporal)
+		{
+			long start = System.nanoTime();
+			rewritten = RewriteCache.rewrite(connectionSpy.getSchemaEntry(), sql);
+			recordRewrite(sql, rewritten, start);
+		}
 		else
-			li = p.rewriteToTemporal();
-
-		numberOfNonTemporalParameters = p.getNonTemporalParametersCount();
-
-		//System.out.println("translation:");
-		//for(String s:li)
-			//System.out.println(s);
-		return li;
+		{
+			rewritten = new RewrittenSql(Collections.singletonList(sql), 0, null);
+		}
+		this.rewritten = rewritten;
+		if (DriverSpy.TemporalSnapshotFastPath)
+		{
+			rewritten = rewritten.getSnapshot();
+		}
+		clocked = false;
+		if (DriverSpy.TemporalClientClock)
+		{
+			rewritten = rewritten.getClocked();
+			for (int s = 0; s < rewritten.getSqls().size(); s++)
+			{
+				clocked |= rewritten.getClockIndexes(s).length > 0;
+			}
+		}
+		if (DriverSpy.TemporalMultiStatement)
+		{
+			rewritten = rewritten.getJoined();
+		}
+		prepared = rewritten;
+		multiStatement = rewritten.isMultiStatement();
+		numberOfNonTemporalParameters = rewritten.getNonTemporalParametersCount();
+		routing = rewritten.getParameterRouting();
+		parameters = new ParameterBuffer(routing);
+		sqls = rewritten.getSqls();
+		return sqls;
 	}
 	/**
 	 * 
 	 */
 	public String toString()
 	{
-		return getRealPreparedStatements().toString();
+		return realSqls.toString();
 	}
 }
@@ -96,6 +96,19 @@ public class ResultSetSpy implements ResultSet, Spy
    * @param realResultSet real underlying ResultSet that is being wrapped.
    */
   public ResultSetSpy(StatementSpy parent, ResultSet realResultSet)
+  {
+    this(parent, realResultSet, null);
+  }
+
+  /**
+   * Create a new ResultSetSpy that also records how long the application
+   * takes to read it in the given StatementMetrics.
+   *
+   * @param parent Statement that generated this ResultSet.
+   * @param realResultSet real underlying ResultSet that is being wrapped.
+   * @param metrics metrics of the statement, or null if they are not recorded.
+   */
+  public ResultSetSpy(StatementSpy parent, ResultSet realResultSet, StatementMetrics.Entry metrics)
   {
     if (realResultSet == null)
     {
@@ -103,10 +116,35 @@ public class ResultSetSpy implements ResultSet, Spy
     }
     this.realResultSet = realResultSet;
     this.parent = parent;
+    this.metrics = metrics;
+    this.opened = metrics == null ? 0 : System.nanoTime();
     log = SpyLogFactory.getSpyLogDelegator();
     reportReturn("new ResultSet");
   }
 
+  /**
+   * metrics the consume time of this ResultSet is recorded in, null once it is
+   */
+  private StatementMetrics.Entry metrics;
+
+  /**
+   * System.nanoTime() when this ResultSet was handed out
+   */
+  private final long opened;
+
+  /**
+   * Record the consume time of this ResultSet, the first time it is read to
+   * the end or closed.
+   */
+  private void consumed()
+  {
+    if (metrics != null)
+    {
+      metrics.recordConsume(System.nanoTime() - opened);
+      metrics = null;
+    }
+  }
+
   /**
    * Description for ResultSet class type.
    */
@@ -131,7 +169,10 @@ public class ResultSetSpy implements ResultSet, Spy
    */
   protected boolean reportReturn(String methodCall, boolean value)
   {
-    reportAllReturns(methodCall, "" + value);
+    if (log.isMethodReturnedEnabled(this))
+    {
+      reportAllReturns(methodCall, "" + value);
+    }
     return value;
   }
 
@@ -144,7 +185,10 @@ public class ResultSetSpy implements ResultSet, Spy
    */
   protected byte reportReturn(String methodCall, byte value)
   {
-    reportAllReturns(methodCall, "" + value);
+    if (log.isMethodReturnedEnabled(this))
+    {
+      reportAllReturns(methodCall, "" + value);
+    }
     return value;
   }
 
@@ -157,7 +201,10 @@ public class ResultSetSpy implements ResultSet, Spy
    */
   protected int reportReturn(String methodCall, int value)
   {
-    reportAllReturns(methodCall, "" + value);
+    if (log.isMethodReturnedEnabled(this))
+    {
+      reportAllReturns(methodCall, "" + value);
+    }
     return value;
   }
 
@@ -170,7 +217,10 @@ public class ResultSetSpy implements ResultSet, Spy
    */
   protected double reportReturn(String methodCall, double value)
   {
-    reportAllReturns(methodCall, "" + value);
+    if (log.isMethodReturnedEnabled(this))
+    {
+      reportAllReturns(methodCall, "" + value);
+    }
     return value;
   }
 
@@ -183,7 +233,10 @@ public class ResultSetSpy implements ResultSet, Spy
    */
   protected short reportReturn(String methodCall, short value)
   {
-    reportAllReturns(methodCall, "" + value);
+    if (log.isMethodReturnedEnabled(this))
+    {
+      reportAllReturns(methodCall, "" + value);
+    }
     return value;
   }
 
@@ -196,7 +249,10 @@ public class ResultSetSpy implements ResultSet, Spy
    */
   protected long reportReturn(String methodCall, long value)
   {
-    reportAllReturns(methodCall, "" + value);
+    if (log.isMethodReturnedEnabled(this))
+    {
+      reportAllReturns(methodCall, "" + value);
+    }
     return value;
   }
 
@@ -209,7 +265,10 @@ public class ResultSetSpy implements ResultSet, Spy
    */
   protected float reportReturn(String methodCall, float value)
   {
-    reportAllReturns(methodCall, "" + value);
+    if (log.isMethodReturnedEnabled(this))
+    {
+      reportAllReturns(methodCall, "" + value);
+    }
     return value;
   }
 
@@ -222,7 +281,10 @@ public class ResultSetSpy implements ResultSet, Spy
    */
   protected Object reportReturn(String methodCall, Object value)
   {
-    reportAllReturns(methodCall, "" + value);
+    if (log.isMethodReturnedEnabled(this))
+    {
+      reportAllReturns(methodCall, "" + value);
+    }
     return value;
   }
 
@@ -240,14 +302,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateAsciiStream(int columnIndex, InputStream x, int length) throws SQLException
   {
-    String methodCall = "updateAsciiStream(" + columnIndex + ", " + x + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateAsciiStream(" + columnIndex + ", " + x + ", " + length + ")" : "updateAsciiStream";
     try
     {
       realResultSet.updateAsciiStream(columnIndex, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateAsciiStream(" + columnIndex + ", " + x + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -255,14 +317,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateAsciiStream(String columnName, InputStream x, int length) throws SQLException
   {
-    String methodCall = "updateAsciiStream(" + columnName + ", " + x + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateAsciiStream(" + columnName + ", " + x + ", " + length + ")" : "updateAsciiStream";
     try
     {
       realResultSet.updateAsciiStream(columnName, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateAsciiStream(" + columnName + ", " + x + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -299,98 +361,98 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public Time getTime(int columnIndex) throws SQLException
   {
-    String methodCall = "getTime(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getTime(" + columnIndex + ")" : "getTime";
     try
     {
       return (Time) reportReturn(methodCall, realResultSet.getTime(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getTime(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Time getTime(String columnName) throws SQLException
   {
-    String methodCall = "getTime(" + columnName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getTime(" + columnName + ")" : "getTime";
     try
     {
       return (Time) reportReturn(methodCall, realResultSet.getTime(columnName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getTime(" + columnName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Time getTime(int columnIndex, Calendar cal) throws SQLException
   {
-    String methodCall = "getTime(" + columnIndex + ", " + cal + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getTime(" + columnIndex + ", " + cal + ")" : "getTime";
     try
     {
       return (Time) reportReturn(methodCall, realResultSet.getTime(columnIndex, cal));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getTime(" + columnIndex + ", " + cal + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Time getTime(String columnName, Calendar cal) throws SQLException
   {
-    String methodCall = "getTime(" + columnName + ", " + cal + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getTime(" + columnName + ", " + cal + ")" : "getTime";
     try
     {
       return (Time) reportReturn(methodCall, realResultSet.getTime(columnName, cal));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getTime(" + columnName + ", " + cal + ")" : methodCall, s);
       throw s;
     }
   }
 
   public boolean absolute(int row) throws SQLException
   {
-    String methodCall = "absolute(" + row + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "absolute(" + row + ")" : "absolute";
     try
     {
       return reportReturn(methodCall, realResultSet.absolute(row));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "absolute(" + row + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Timestamp getTimestamp(int columnIndex) throws SQLException
   {
-    String methodCall = "getTimestamp(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getTimestamp(" + columnIndex + ")" : "getTimestamp";
     try
     {
       return (Timestamp) reportReturn(methodCall, realResultSet.getTimestamp(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getTimestamp(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Timestamp getTimestamp(String columnName) throws SQLException
   {
-    String methodCall = "getTimestamp(" + columnName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getTimestamp(" + columnName + ")" : "getTimestamp";
     try
     {
       return (Timestamp) reportReturn(methodCall, realResultSet.getTimestamp(columnName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getTimestamp(" + columnName + ")" : methodCall, s);
       throw s;
     }
 
@@ -398,14 +460,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public Timestamp getTimestamp(int columnIndex, Calendar cal) throws SQLException
   {
-    String methodCall = "getTimestamp(" + columnIndex + ", " + cal + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getTimestamp(" + columnIndex + ", " + cal + ")" : "getTimestamp";
     try
     {
       return (Timestamp) reportReturn(methodCall, realResultSet.getTimestamp(columnIndex, cal));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getTimestamp(" + columnIndex + ", " + cal + ")" : methodCall, s);
       throw s;
     }
 
@@ -413,14 +475,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public Timestamp getTimestamp(String columnName, Calendar cal) throws SQLException
   {
-    String methodCall = "getTimestamp(" + columnName + ", " + cal + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getTimestamp(" + columnName + ", " + cal + ")" : "getTimestamp";
     try
     {
       return (Timestamp) reportReturn(methodCall, realResultSet.getTimestamp(columnName, cal));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getTimestamp(" + columnName + ", " + cal + ")" : methodCall, s);
       throw s;
     }
   }
@@ -442,14 +504,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public boolean relative(int rows) throws SQLException
   {
-    String methodCall = "relative(" + rows + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "relative(" + rows + ")" : "relative";
     try
     {
       return reportReturn(methodCall, realResultSet.relative(rows));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "relative(" + rows + ")" : methodCall, s);
       throw s;
     }
   }
@@ -485,28 +547,28 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public Ref getRef(int i) throws SQLException
   {
-    String methodCall = "getRef(" + i + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getRef(" + i + ")" : "getRef";
     try
     {
       return (Ref) reportReturn(methodCall, realResultSet.getRef(i));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getRef(" + i + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void updateRef(int columnIndex, Ref x) throws SQLException
   {
-    String methodCall = "updateRef(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateRef(" + columnIndex + ", " + x + ")" : "updateRef";
     try
     {
       realResultSet.updateRef(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateRef(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -514,28 +576,28 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public Ref getRef(String colName) throws SQLException
   {
-    String methodCall = "getRef(" + colName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getRef(" + colName + ")" : "getRef";
     try
     {
       return (Ref) reportReturn(methodCall, realResultSet.getRef(colName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getRef(" + colName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void updateRef(String columnName, Ref x) throws SQLException
   {
-    String methodCall = "updateRef(" + columnName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateRef(" + columnName + ", " + x + ")" : "updateRef";
     try
     {
       realResultSet.updateRef(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateRef(" + columnName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -543,28 +605,28 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public Blob getBlob(int i) throws SQLException
   {
-    String methodCall = "getBlob(" + i + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getBlob(" + i + ")" : "getBlob";
     try
     {
       return (Blob) reportReturn(methodCall, realResultSet.getBlob(i));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getBlob(" + i + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void updateBlob(int columnIndex, Blob x) throws SQLException
   {
-    String methodCall = "updateBlob(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateBlob(" + columnIndex + ", " + x + ")" : "updateBlob";
     try
     {
       realResultSet.updateBlob(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateBlob(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -572,28 +634,28 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public Blob getBlob(String colName) throws SQLException
   {
-    String methodCall = "getBlob(" + colName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getBlob(" + colName + ")" : "getBlob";
     try
     {
       return (Blob) reportReturn(methodCall, realResultSet.getBlob(colName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getBlob(" + colName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void updateBlob(String columnName, Blob x) throws SQLException
   {
-    String methodCall = "updateBlob(" + columnName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateBlob(" + columnName + ", " + x + ")" : "updateBlob";
     try
     {
       realResultSet.updateBlob(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateBlob(" + columnName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -601,28 +663,28 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public Clob getClob(int i) throws SQLException
   {
-    String methodCall = "getClob(" + i + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getClob(" + i + ")" : "getClob";
     try
     {
       return (Clob) reportReturn(methodCall, realResultSet.getClob(i));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getClob(" + i + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void updateClob(int columnIndex, Clob x) throws SQLException
   {
-    String methodCall = "updateClob(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateClob(" + columnIndex + ", " + x + ")" : "updateClob";
     try
     {
       realResultSet.updateClob(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateClob(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -630,28 +692,28 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public Clob getClob(String colName) throws SQLException
   {
-    String methodCall = "getClob(" + colName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getClob(" + colName + ")" : "getClob";
     try
     {
       return (Clob) reportReturn(methodCall, realResultSet.getClob(colName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getClob(" + colName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void updateClob(String columnName, Clob x) throws SQLException
   {
-    String methodCall = "updateClob(" + columnName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateClob(" + columnName + ", " + x + ")" : "updateClob";
     try
     {
       realResultSet.updateClob(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateClob(" + columnName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -659,56 +721,56 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public boolean getBoolean(int columnIndex) throws SQLException
   {
-    String methodCall = "getBoolean(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getBoolean(" + columnIndex + ")" : "getBoolean";
     try
     {
       return reportReturn(methodCall, realResultSet.getBoolean(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getBoolean(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public boolean getBoolean(String columnName) throws SQLException
   {
-    String methodCall = "getBoolean(" + columnName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getBoolean(" + columnName + ")" : "getBoolean";
     try
     {
       return reportReturn(methodCall, realResultSet.getBoolean(columnName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getBoolean(" + columnName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Array getArray(int i) throws SQLException
   {
-    String methodCall = "getArray(" + i + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getArray(" + i + ")" : "getArray";
     try
     {
       return (Array) reportReturn(methodCall, realResultSet.getArray(i));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getArray(" + i + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void updateArray(int columnIndex, Array x) throws SQLException
   {
-    String methodCall = "updateArray(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateArray(" + columnIndex + ", " + x + ")" : "updateArray";
     try
     {
       realResultSet.updateArray(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateArray(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -716,82 +778,82 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public Array getArray(String colName) throws SQLException
   {
-    String methodCall = "getArray(" + colName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getArray(" + colName + ")" : "getArray";
     try
     {
       return (Array) reportReturn(methodCall, realResultSet.getArray(colName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getArray(" + colName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void updateArray(String columnName, Array x) throws SQLException
   {
-    String methodCall = "updateArray(" + columnName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateArray(" + columnName + ", " + x + ")" : "updateArray";
     try
     {
       realResultSet.updateArray(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateArray(" + columnName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public RowId getRowId(int columnIndex) throws SQLException {
-    String methodCall = "getRowId(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getRowId(" + columnIndex + ")" : "getRowId";
     try
     {
       return (RowId) reportReturn(methodCall, realResultSet.getRowId(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getRowId(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public RowId getRowId(String columnLabel) throws SQLException {
-    String methodCall = "getRowId(" + columnLabel + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getRowId(" + columnLabel + ")" : "getRowId";
     try
     {
       return (RowId) reportReturn(methodCall, realResultSet.getRowId(columnLabel));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getRowId(" + columnLabel + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void updateRowId(int columnIndex, RowId x) throws SQLException {
-    String methodCall = "updateRowId(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateRowId(" + columnIndex + ", " + x + ")" : "updateRowId";
     try
     {
       realResultSet.updateRowId(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateRowId(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateRowId(String columnLabel, RowId x) throws SQLException {
-    String methodCall = "updateRowId(" + columnLabel + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateRowId(" + columnLabel + ", " + x + ")" : "updateRowId";
     try
     {
       realResultSet.updateRowId(columnLabel, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateRowId(" + columnLabel + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -824,580 +886,580 @@ public class ResultSetSpy implements ResultSet, Spy
   }
 
   public void updateNString(int columnIndex, String nString) throws SQLException {
-    String methodCall = "updateNString(" + columnIndex + ", " + nString + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateNString(" + columnIndex + ", " + nString + ")" : "updateNString";
     try
     {
       realResultSet.updateNString(columnIndex, nString);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateNString(" + columnIndex + ", " + nString + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateNString(String columnLabel, String nString) throws SQLException {
-    String methodCall = "updateNString(" + columnLabel + ", " + nString + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateNString(" + columnLabel + ", " + nString + ")" : "updateNString";
     try
     {
       realResultSet.updateNString(columnLabel, nString);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateNString(" + columnLabel + ", " + nString + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateNClob(int columnIndex, NClob nClob) throws SQLException {
-    String methodCall = "updateNClob(" + columnIndex + ", " + nClob + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateNClob(" + columnIndex + ", " + nClob + ")" : "updateNClob";
     try
     {
       realResultSet.updateNClob(columnIndex, nClob);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateNClob(" + columnIndex + ", " + nClob + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateNClob(String columnLabel, NClob nClob) throws SQLException {
-    String methodCall = "updateNClob(" + columnLabel + ", " + nClob + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateNClob(" + columnLabel + ", " + nClob + ")" : "updateNClob";
     try
     {
       realResultSet.updateNClob(columnLabel, nClob);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateNClob(" + columnLabel + ", " + nClob + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public NClob getNClob(int columnIndex) throws SQLException {
-    String methodCall = "getNClob(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getNClob(" + columnIndex + ")" : "getNClob";
     try
     {
       return (NClob) reportReturn(methodCall, realResultSet.getNClob(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getNClob(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public NClob getNClob(String columnLabel) throws SQLException {
-    String methodCall = "getNClob(" + columnLabel + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getNClob(" + columnLabel + ")" : "getNClob";
     try
     {
       return (NClob) reportReturn(methodCall, realResultSet.getNClob(columnLabel));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getNClob(" + columnLabel + ")" : methodCall, s);
       throw s;
     }
   }
 
   public SQLXML getSQLXML(int columnIndex) throws SQLException {
-    String methodCall = "getSQLXML(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getSQLXML(" + columnIndex + ")" : "getSQLXML";
     try
     {
       return (SQLXML) reportReturn(methodCall, realResultSet.getSQLXML(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getSQLXML(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public SQLXML getSQLXML(String columnLabel) throws SQLException {
-    String methodCall = "getSQLXML(" + columnLabel + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getSQLXML(" + columnLabel + ")" : "getSQLXML";
     try
     {
       return (SQLXML) reportReturn(methodCall, realResultSet.getSQLXML(columnLabel));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getSQLXML(" + columnLabel + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void updateSQLXML(int columnIndex, SQLXML xmlObject) throws SQLException {
-    String methodCall = "updateSQLXML(" + columnIndex + ", " + xmlObject + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateSQLXML(" + columnIndex + ", " + xmlObject + ")" : "updateSQLXML";
     try
     {
       realResultSet.updateSQLXML(columnIndex, xmlObject);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateSQLXML(" + columnIndex + ", " + xmlObject + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateSQLXML(String columnLabel, SQLXML xmlObject) throws SQLException {
-    String methodCall = "updateSQLXML(" + columnLabel + ", " + xmlObject + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateSQLXML(" + columnLabel + ", " + xmlObject + ")" : "updateSQLXML";
     try
     {
       realResultSet.updateSQLXML(columnLabel, xmlObject);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateSQLXML(" + columnLabel + ", " + xmlObject + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public String getNString(int columnIndex) throws SQLException {
-    String methodCall = "getNString(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getNString(" + columnIndex + ")" : "getNString";
     try
     {
       return (String) reportReturn(methodCall, realResultSet.getNString(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getNString(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public String getNString(String columnLabel) throws SQLException {
-    String methodCall = "getNString(" + columnLabel + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getNString(" + columnLabel + ")" : "getNString";
     try
     {
       return (String) reportReturn(methodCall, realResultSet.getNString(columnLabel));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getNString(" + columnLabel + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Reader getNCharacterStream(int columnIndex) throws SQLException {
-    String methodCall = "getNCharacterStream(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getNCharacterStream(" + columnIndex + ")" : "getNCharacterStream";
     try
     {
       return (Reader) reportReturn(methodCall, realResultSet.getNCharacterStream(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getNCharacterStream(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Reader getNCharacterStream(String columnLabel) throws SQLException {
-    String methodCall = "getNCharacterStream(" + columnLabel + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getNCharacterStream(" + columnLabel + ")" : "getNCharacterStream";
     try
     {
       return (Reader) reportReturn(methodCall, realResultSet.getNCharacterStream(columnLabel));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getNCharacterStream(" + columnLabel + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void updateNCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
-    String methodCall = "updateNCharacterStream(" + columnIndex + ", " + x + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateNCharacterStream(" + columnIndex + ", " + x + ", " + length + ")" : "updateNCharacterStream";
     try
     {
       realResultSet.updateNCharacterStream(columnIndex, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateNCharacterStream(" + columnIndex + ", " + x + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateNCharacterStream(String columnLabel, Reader reader, long length) throws SQLException {
-    String methodCall = "updateNCharacterStream(" + columnLabel + ", " + reader + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateNCharacterStream(" + columnLabel + ", " + reader + ", " + length + ")" : "updateNCharacterStream";
     try
     {
       realResultSet.updateNCharacterStream(columnLabel, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateNCharacterStream(" + columnLabel + ", " + reader + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateAsciiStream(int columnIndex, InputStream x, long length) throws SQLException {
-    String methodCall = "updateAsciiStream(" + columnIndex + ", " + x + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateAsciiStream(" + columnIndex + ", " + x + ", " + length + ")" : "updateAsciiStream";
     try
     {
       realResultSet.updateAsciiStream(columnIndex, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateAsciiStream(" + columnIndex + ", " + x + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateBinaryStream(int columnIndex, InputStream x, long length) throws SQLException {
-    String methodCall = "updateBinaryStream(" + columnIndex + ", " + x + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateBinaryStream(" + columnIndex + ", " + x + ", " + length + ")" : "updateBinaryStream";
     try
     {
       realResultSet.updateBinaryStream(columnIndex, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateBinaryStream(" + columnIndex + ", " + x + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateCharacterStream(int columnIndex, Reader x, long length) throws SQLException {
-    String methodCall = "updateCharacterStream(" + columnIndex + ", " + x + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateCharacterStream(" + columnIndex + ", " + x + ", " + length + ")" : "updateCharacterStream";
     try
     {
       realResultSet.updateCharacterStream(columnIndex, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateCharacterStream(" + columnIndex + ", " + x + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateAsciiStream(String columnLabel, InputStream x, long length) throws SQLException {
-    String methodCall = "updateAsciiStream(" + columnLabel + ", " + x + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateAsciiStream(" + columnLabel + ", " + x + ", " + length + ")" : "updateAsciiStream";
     try
     {
       realResultSet.updateAsciiStream(columnLabel, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateAsciiStream(" + columnLabel + ", " + x + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateBinaryStream(String columnLabel, InputStream x, long length) throws SQLException {
-    String methodCall = "updateBinaryStream(" + columnLabel + ", " + x + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateBinaryStream(" + columnLabel + ", " + x + ", " + length + ")" : "updateBinaryStream";
     try
     {
       realResultSet.updateBinaryStream(columnLabel, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateBinaryStream(" + columnLabel + ", " + x + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateCharacterStream(String columnLabel, Reader reader, long length) throws SQLException {
-    String methodCall = "updateCharacterStream(" + columnLabel + ", " + reader + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateCharacterStream(" + columnLabel + ", " + reader + ", " + length + ")" : "updateCharacterStream";
     try
     {
       realResultSet.updateCharacterStream(columnLabel, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateCharacterStream(" + columnLabel + ", " + reader + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateBlob(int columnIndex, InputStream inputStream, long length) throws SQLException {
-    String methodCall = "updateBlob(" + columnIndex + ", " + inputStream + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateBlob(" + columnIndex + ", " + inputStream + ", " + length + ")" : "updateBlob";
     try
     {
       realResultSet.updateBlob(columnIndex, inputStream, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateBlob(" + columnIndex + ", " + inputStream + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateBlob(String columnLabel, InputStream inputStream, long length) throws SQLException {
-    String methodCall = "updateBlob(" + columnLabel + ", " + inputStream + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateBlob(" + columnLabel + ", " + inputStream + ", " + length + ")" : "updateBlob";
     try
     {
       realResultSet.updateBlob(columnLabel, inputStream, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateBlob(" + columnLabel + ", " + inputStream + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateClob(int columnIndex, Reader reader, long length) throws SQLException {
-    String methodCall = "updateClob(" + columnIndex + ", " + reader + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateClob(" + columnIndex + ", " + reader + ", " + length + ")" : "updateClob";
     try
     {
       realResultSet.updateClob(columnIndex, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateClob(" + columnIndex + ", " + reader + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateClob(String columnLabel, Reader reader, long length) throws SQLException {
-    String methodCall = "updateClob(" + columnLabel + ", " + reader + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateClob(" + columnLabel + ", " + reader + ", " + length + ")" : "updateClob";
     try
     {
       realResultSet.updateClob(columnLabel, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateClob(" + columnLabel + ", " + reader + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateNClob(int columnIndex, Reader reader, long length) throws SQLException {
-    String methodCall = "updateNClob(" + columnIndex + ", " + reader + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateNClob(" + columnIndex + ", " + reader + ", " + length + ")" : "updateNClob";
     try
     {
       realResultSet.updateNClob(columnIndex, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateNClob(" + columnIndex + ", " + reader + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateNClob(String columnLabel, Reader reader, long length) throws SQLException {
-    String methodCall = "updateNClob(" + columnLabel + ", " + reader + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateNClob(" + columnLabel + ", " + reader + ", " + length + ")" : "updateNClob";
     try
     {
       realResultSet.updateNClob(columnLabel, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateNClob(" + columnLabel + ", " + reader + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateNCharacterStream(int columnIndex, Reader reader) throws SQLException {
-    String methodCall = "updateNCharacterStream(" + columnIndex + ", " + reader + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateNCharacterStream(" + columnIndex + ", " + reader + ")" : "updateNCharacterStream";
     try
     {
       realResultSet.updateNCharacterStream(columnIndex, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateNCharacterStream(" + columnIndex + ", " + reader + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateNCharacterStream(String columnLabel, Reader reader) throws SQLException {
-    String methodCall = "updateNCharacterStream(" + columnLabel + ", " + reader + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateNCharacterStream(" + columnLabel + ", " + reader + ")" : "updateNCharacterStream";
     try
     {
       realResultSet.updateNCharacterStream(columnLabel, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateNCharacterStream(" + columnLabel + ", " + reader + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateAsciiStream(int columnIndex, InputStream x) throws SQLException {
-    String methodCall = "updateAsciiStream(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateAsciiStream(" + columnIndex + ", " + x + ")" : "updateAsciiStream";
     try
     {
       realResultSet.updateAsciiStream(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateAsciiStream(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateBinaryStream(int columnIndex, InputStream x) throws SQLException {
-    String methodCall = "updateBinaryStream(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateBinaryStream(" + columnIndex + ", " + x + ")" : "updateBinaryStream";
     try
     {
       realResultSet.updateBinaryStream(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateBinaryStream(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateCharacterStream(int columnIndex, Reader x) throws SQLException {
-    String methodCall = "updateCharacterStream(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateCharacterStream(" + columnIndex + ", " + x + ")" : "updateCharacterStream";
     try
     {
       realResultSet.updateCharacterStream(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateCharacterStream(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateAsciiStream(String columnLabel, InputStream x) throws SQLException {
-    String methodCall = "updateAsciiStream(" + columnLabel + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateAsciiStream(" + columnLabel + ", " + x + ")" : "updateAsciiStream";
     try
     {
       realResultSet.updateAsciiStream(columnLabel, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateAsciiStream(" + columnLabel + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateBinaryStream(String columnLabel, InputStream x) throws SQLException {
-    String methodCall = "updateBinaryStream(" + columnLabel + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateBinaryStream(" + columnLabel + ", " + x + ")" : "updateBinaryStream";
     try
     {
       realResultSet.updateBinaryStream(columnLabel, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateBinaryStream(" + columnLabel + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateCharacterStream(String columnLabel, Reader reader) throws SQLException {
-    String methodCall = "updateCharacterStream(" + columnLabel + ", " + reader + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateCharacterStream(" + columnLabel + ", " + reader + ")" : "updateCharacterStream";
     try
     {
       realResultSet.updateCharacterStream(columnLabel, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateCharacterStream(" + columnLabel + ", " + reader + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateBlob(int columnIndex, InputStream inputStream) throws SQLException {
-    String methodCall = "updateBlob(" + columnIndex + ", " + inputStream + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateBlob(" + columnIndex + ", " + inputStream + ")" : "updateBlob";
     try
     {
       realResultSet.updateBlob(columnIndex, inputStream);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateBlob(" + columnIndex + ", " + inputStream + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateBlob(String columnLabel, InputStream inputStream) throws SQLException {
-    String methodCall = "updateBlob(" + columnLabel + ", " + inputStream + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateBlob(" + columnLabel + ", " + inputStream + ")" : "updateBlob";
     try
     {
       realResultSet.updateBlob(columnLabel, inputStream);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateBlob(" + columnLabel + ", " + inputStream + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateClob(int columnIndex, Reader reader) throws SQLException {
-    String methodCall = "updateClob(" + columnIndex + ", " + reader + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateClob(" + columnIndex + ", " + reader + ")" : "updateClob";
     try
     {
       realResultSet.updateClob(columnIndex, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateClob(" + columnIndex + ", " + reader + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateClob(String columnLabel, Reader reader) throws SQLException {
-    String methodCall = "updateClob(" + columnLabel + ", " + reader + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateClob(" + columnLabel + ", " + reader + ")" : "updateClob";
     try
     {
       realResultSet.updateClob(columnLabel, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateClob(" + columnLabel + ", " + reader + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateNClob(int columnIndex, Reader reader) throws SQLException {
-    String methodCall = "updateNClob(" + columnIndex + ", " + reader + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateNClob(" + columnIndex + ", " + reader + ")" : "updateNClob";
     try
     {
       realResultSet.updateNClob(columnIndex, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateNClob(" + columnIndex + ", " + reader + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
   public void updateNClob(String columnLabel, Reader reader) throws SQLException {
-    String methodCall = "updateNClob(" + columnLabel + ", " + reader + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateNClob(" + columnLabel + ", " + reader + ")" : "updateNClob";
     try
     {
       realResultSet.updateNClob(columnLabel, reader);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateNClob(" + columnLabel + ", " + reader + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1419,56 +1481,56 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public short getShort(int columnIndex) throws SQLException
   {
-    String methodCall = "getShort(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getShort(" + columnIndex + ")" : "getShort";
     try
     {
       return reportReturn(methodCall, realResultSet.getShort(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getShort(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public short getShort(String columnName) throws SQLException
   {
-    String methodCall = "getShort(" + columnName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getShort(" + columnName + ")" : "getShort";
     try
     {
       return reportReturn(methodCall, realResultSet.getShort(columnName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getShort(" + columnName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public int getInt(int columnIndex) throws SQLException
   {
-    String methodCall = "getInt(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getInt(" + columnIndex + ")" : "getInt";
     try
     {
       return reportReturn(methodCall, realResultSet.getInt(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getInt(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public int getInt(String columnName) throws SQLException
   {
-    String methodCall = "getInt(" + columnName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getInt(" + columnName + ")" : "getInt";
     try
     {
       return reportReturn(methodCall, realResultSet.getInt(columnName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getInt(" + columnName + ")" : methodCall, s);
       throw s;
     }
   }
@@ -1476,6 +1538,7 @@ public class ResultSetSpy implements ResultSet, Spy
   public void close() throws SQLException
   {
     String methodCall = "close()";
+    consumed();
     try
     {
       realResultSet.close();
@@ -1518,28 +1581,28 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public double getDouble(int columnIndex) throws SQLException
   {
-    String methodCall = "getDouble(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getDouble(" + columnIndex + ")" : "getDouble";
     try
     {
       return reportReturn(methodCall, realResultSet.getDouble(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getDouble(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public double getDouble(String columnName) throws SQLException
   {
-    String methodCall = "getDouble(" + columnName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getDouble(" + columnName + ")" : "getDouble";
     try
     {
       return reportReturn(methodCall, realResultSet.getDouble(columnName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getDouble(" + columnName + ")" : methodCall, s);
       throw s;
     }
   }
@@ -1589,42 +1652,42 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public Date getDate(int columnIndex) throws SQLException
   {
-    String methodCall = "getDate(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getDate(" + columnIndex + ")" : "getDate";
     try
     {
       return (Date) reportReturn(methodCall, realResultSet.getDate(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getDate(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Date getDate(String columnName) throws SQLException
   {
-    String methodCall = "getDate(" + columnName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getDate(" + columnName + ")" : "getDate";
     try
     {
       return (Date) reportReturn(methodCall, realResultSet.getDate(columnName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getDate(" + columnName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Date getDate(int columnIndex, Calendar cal) throws SQLException
   {
-    String methodCall = "getDate(" + columnIndex + ", " + cal + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getDate(" + columnIndex + ", " + cal + ")" : "getDate";
     try
     {
       return (Date) reportReturn(methodCall, realResultSet.getDate(columnIndex, cal));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getDate(" + columnIndex + ", " + cal + ")" : methodCall, s);
       throw s;
     }
 
@@ -1632,14 +1695,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public Date getDate(String columnName, Calendar cal) throws SQLException
   {
-    String methodCall = "getDate(" + columnName + ", " + cal + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getDate(" + columnName + ", " + cal + ")" : "getDate";
     try
     {
       return (Date) reportReturn(methodCall, realResultSet.getDate(columnName, cal));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getDate(" + columnName + ", " + cal + ")" : methodCall, s);
       throw s;
     }
   }
@@ -1688,14 +1751,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateNull(int columnIndex) throws SQLException
   {
-    String methodCall = "updateNull(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateNull(" + columnIndex + ")" : "updateNull";
     try
     {
       realResultSet.updateNull(columnIndex);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateNull(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1703,14 +1766,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateNull(String columnName) throws SQLException
   {
-    String methodCall = "updateNull(" + columnName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateNull(" + columnName + ")" : "updateNull";
     try
     {
       realResultSet.updateNull(columnName);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateNull(" + columnName + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1718,14 +1781,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateShort(int columnIndex, short x) throws SQLException
   {
-    String methodCall = "updateShort(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateShort(" + columnIndex + ", " + x + ")" : "updateShort";
     try
     {
       realResultSet.updateShort(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateShort(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1733,14 +1796,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateShort(String columnName, short x) throws SQLException
   {
-    String methodCall = "updateShort(" + columnName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateShort(" + columnName + ", " + x + ")" : "updateShort";
     try
     {
       realResultSet.updateShort(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateShort(" + columnName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1748,14 +1811,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateBoolean(int columnIndex, boolean x) throws SQLException
   {
-    String methodCall = "updateBoolean(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateBoolean(" + columnIndex + ", " + x + ")" : "updateBoolean";
     try
     {
       realResultSet.updateBoolean(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateBoolean(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1763,14 +1826,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateBoolean(String columnName, boolean x) throws SQLException
   {
-    String methodCall = "updateBoolean(" + columnName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateBoolean(" + columnName + ", " + x + ")" : "updateBoolean";
     try
     {
       realResultSet.updateBoolean(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateBoolean(" + columnName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1778,14 +1841,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateByte(int columnIndex, byte x) throws SQLException
   {
-    String methodCall = "updateByte(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateByte(" + columnIndex + ", " + x + ")" : "updateByte";
     try
     {
       realResultSet.updateByte(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateByte(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1793,14 +1856,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateByte(String columnName, byte x) throws SQLException
   {
-    String methodCall = "updateByte(" + columnName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateByte(" + columnName + ", " + x + ")" : "updateByte";
     try
     {
       realResultSet.updateByte(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateByte(" + columnName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1808,14 +1871,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateInt(int columnIndex, int x) throws SQLException
   {
-    String methodCall = "updateInt(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateInt(" + columnIndex + ", " + x + ")" : "updateInt";
     try
     {
       realResultSet.updateInt(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateInt(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1823,14 +1886,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateInt(String columnName, int x) throws SQLException
   {
-    String methodCall = "updateInt(" + columnName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateInt(" + columnName + ", " + x + ")" : "updateInt";
     try
     {
       realResultSet.updateInt(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateInt(" + columnName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1838,42 +1901,42 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public Object getObject(int columnIndex) throws SQLException
   {
-    String methodCall = "getObject(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getObject(" + columnIndex + ")" : "getObject";
     try
     {
       return reportReturn(methodCall, realResultSet.getObject(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getObject(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Object getObject(String columnName) throws SQLException
   {
-    String methodCall = "getObject(" + columnName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getObject(" + columnName + ")" : "getObject";
     try
     {
       return reportReturn(methodCall, realResultSet.getObject(columnName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getObject(" + columnName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Object getObject(String colName, Map map) throws SQLException
   {
-    String methodCall = "getObject(" + colName + ", " + map + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getObject(" + colName + ", " + map + ")" : "getObject";
     try
     {
       return reportReturn(methodCall, realResultSet.getObject(colName, map));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getObject(" + colName + ", " + map + ")" : methodCall, s);
       throw s;
     }
   }
@@ -1883,7 +1946,12 @@ public class ResultSetSpy implements ResultSet, Spy
     String methodCall = "next()";
     try
     {
-      return reportReturn(methodCall, realResultSet.next());
+      boolean next = realResultSet.next();
+      if (!next)
+      {
+        consumed();
+      }
+      return reportReturn(methodCall, next);
     }
     catch (SQLException s)
     {
@@ -1894,14 +1962,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateLong(int columnIndex, long x) throws SQLException
   {
-    String methodCall = "updateLong(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateLong(" + columnIndex + ", " + x + ")" : "updateLong";
     try
     {
       realResultSet.updateLong(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateLong(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1909,14 +1977,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateLong(String columnName, long x) throws SQLException
   {
-    String methodCall = "updateLong(" + columnName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateLong(" + columnName + ", " + x + ")" : "updateLong";
     try
     {
       realResultSet.updateLong(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateLong(" + columnName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1924,14 +1992,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateFloat(int columnIndex, float x) throws SQLException
   {
-    String methodCall = "updateFloat(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateFloat(" + columnIndex + ", " + x + ")" : "updateFloat";
     try
     {
       realResultSet.updateFloat(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateFloat(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1940,14 +2008,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateFloat(String columnName, float x) throws SQLException
   {
-    String methodCall = "updateFloat(" + columnName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateFloat(" + columnName + ", " + x + ")" : "updateFloat";
     try
     {
       realResultSet.updateFloat(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateFloat(" + columnName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1955,14 +2023,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateDouble(int columnIndex, double x) throws SQLException
   {
-    String methodCall = "updateDouble(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateDouble(" + columnIndex + ", " + x + ")" : "updateDouble";
     try
     {
       realResultSet.updateDouble(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateDouble(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -1970,14 +2038,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateDouble(String columnName, double x) throws SQLException
   {
-    String methodCall = "updateDouble(" + columnName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateDouble(" + columnName + ", " + x + ")" : "updateDouble";
     try
     {
       realResultSet.updateDouble(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateDouble(" + columnName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2008,28 +2076,28 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public Object getObject(int columnIndex, Map<String, Class<?>> map) throws SQLException
   {
-    String methodCall = "getObject(" + columnIndex + ", " + map + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getObject(" + columnIndex + ", " + map + ")" : "getObject";
     try
     {
       return reportReturn(methodCall, realResultSet.getObject(columnIndex, map));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getObject(" + columnIndex + ", " + map + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void updateString(int columnIndex, String x) throws SQLException
   {
-    String methodCall = "updateString(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateString(" + columnIndex + ", " + x + ")" : "updateString";
     try
     {
       realResultSet.updateString(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateString(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2037,14 +2105,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateString(String columnName, String x) throws SQLException
   {
-    String methodCall = "updateString(" + columnName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateString(" + columnName + ", " + x + ")" : "updateString";
     try
     {
       realResultSet.updateString(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateString(" + columnName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2052,42 +2120,42 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public InputStream getAsciiStream(int columnIndex) throws SQLException
   {
-    String methodCall = "getAsciiStream(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getAsciiStream(" + columnIndex + ")" : "getAsciiStream";
     try
     {
       return (InputStream) reportReturn(methodCall, realResultSet.getAsciiStream(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getAsciiStream(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public InputStream getAsciiStream(String columnName) throws SQLException
   {
-    String methodCall = "getAsciiStream(" + columnName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getAsciiStream(" + columnName + ")" : "getAsciiStream";
     try
     {
       return (InputStream) reportReturn(methodCall, realResultSet.getAsciiStream(columnName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getAsciiStream(" + columnName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void updateBigDecimal(int columnIndex, BigDecimal x) throws SQLException
   {
-    String methodCall = "updateBigDecimal(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateBigDecimal(" + columnIndex + ", " + x + ")" : "updateBigDecimal";
     try
     {
       realResultSet.updateBigDecimal(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateBigDecimal(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2095,28 +2163,28 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public URL getURL(int columnIndex) throws SQLException
   {
-    String methodCall = "getURL(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getURL(" + columnIndex + ")" : "getURL";
     try
     {
       return (URL) reportReturn(methodCall, realResultSet.getURL(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getURL(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void updateBigDecimal(String columnName, BigDecimal x) throws SQLException
   {
-    String methodCall = "updateBigDecimal(" + columnName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateBigDecimal(" + columnName + ", " + x + ")" : "updateBigDecimal";
     try
     {
       realResultSet.updateBigDecimal(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateBigDecimal(" + columnName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2124,14 +2192,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public URL getURL(String columnName) throws SQLException
   {
-    String methodCall = "getURL(" + columnName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getURL(" + columnName + ")" : "getURL";
     try
     {
       return (URL) reportReturn(methodCall, realResultSet.getURL(columnName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getURL(" + columnName + ")" : methodCall, s);
       throw s;
     }
   }
@@ -2139,14 +2207,14 @@ public class ResultSetSpy implements ResultSet, Spy
   public void updateBytes(int columnIndex, byte[] x) throws SQLException
   {
     // todo: dump array?
-    String methodCall = "updateBytes(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateBytes(" + columnIndex + ", " + x + ")" : "updateBytes";
     try
     {
       realResultSet.updateBytes(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateBytes(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2155,14 +2223,14 @@ public class ResultSetSpy implements ResultSet, Spy
   public void updateBytes(String columnName, byte[] x) throws SQLException
   {
     // todo: dump array?
-    String methodCall = "updateBytes(" + columnName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateBytes(" + columnName + ", " + x + ")" : "updateBytes";
     try
     {
       realResultSet.updateBytes(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateBytes(" + columnName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2173,14 +2241,14 @@ public class ResultSetSpy implements ResultSet, Spy
    */
   public InputStream getUnicodeStream(int columnIndex) throws SQLException
   {
-    String methodCall = "getUnicodeStream(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getUnicodeStream(" + columnIndex + ")" : "getUnicodeStream";
     try
     {
       return (InputStream) reportReturn(methodCall, realResultSet.getUnicodeStream(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getUnicodeStream(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
@@ -2190,42 +2258,42 @@ public class ResultSetSpy implements ResultSet, Spy
    */
   public InputStream getUnicodeStream(String columnName) throws SQLException
   {
-    String methodCall = "getUnicodeStream(" + columnName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getUnicodeStream(" + columnName + ")" : "getUnicodeStream";
     try
     {
       return (InputStream) reportReturn(methodCall, realResultSet.getUnicodeStream(columnName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getUnicodeStream(" + columnName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void updateDate(int columnIndex, Date x) throws SQLException
   {
-    String methodCall = "updateDate(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateDate(" + columnIndex + ", " + x + ")" : "updateDate";
     try
     {
       realResultSet.updateDate(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateDate(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void updateDate(String columnName, Date x) throws SQLException
   {
-    String methodCall = "updateDate(" + columnName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateDate(" + columnName + ", " + x + ")" : "updateDate";
     try
     {
       realResultSet.updateDate(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateDate(" + columnName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2261,28 +2329,28 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public InputStream getBinaryStream(int columnIndex) throws SQLException
   {
-    String methodCall = "getBinaryStream(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getBinaryStream(" + columnIndex + ")" : "getBinaryStream";
     try
     {
       return (InputStream) reportReturn(methodCall, realResultSet.getBinaryStream(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getBinaryStream(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public InputStream getBinaryStream(String columnName) throws SQLException
   {
-    String methodCall = "getBinaryStream(" + columnName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getBinaryStream(" + columnName + ")" : "getBinaryStream";
     try
     {
       return (InputStream) reportReturn(methodCall, realResultSet.getBinaryStream(columnName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getBinaryStream(" + columnName + ")" : methodCall, s);
       throw s;
     }
   }
@@ -2304,14 +2372,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateTimestamp(int columnIndex, Timestamp x) throws SQLException
   {
-    String methodCall = "updateTimestamp(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateTimestamp(" + columnIndex + ", " + x + ")" : "updateTimestamp";
     try
     {
       realResultSet.updateTimestamp(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateTimestamp(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2319,14 +2387,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateTimestamp(String columnName, Timestamp x) throws SQLException
   {
-    String methodCall = "updateTimestamp(" + columnName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateTimestamp(" + columnName + ", " + x + ")" : "updateTimestamp";
     try
     {
       realResultSet.updateTimestamp(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateTimestamp(" + columnName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2362,14 +2430,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public int findColumn(String columnName) throws SQLException
   {
-    String methodCall = "findColumn(" + columnName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "findColumn(" + columnName + ")" : "findColumn";
     try
     {
       return reportReturn(methodCall, realResultSet.findColumn(columnName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "findColumn(" + columnName + ")" : methodCall, s);
       throw s;
     }
   }
@@ -2390,14 +2458,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateBinaryStream(int columnIndex, InputStream x, int length) throws SQLException
   {
-    String methodCall = "updateBinaryStream(" + columnIndex + ", " + x + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateBinaryStream(" + columnIndex + ", " + x + ", " + length + ")" : "updateBinaryStream";
     try
     {
       realResultSet.updateBinaryStream(columnIndex, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateBinaryStream(" + columnIndex + ", " + x + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2405,14 +2473,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateBinaryStream(String columnName, InputStream x, int length) throws SQLException
   {
-    String methodCall = "updateBinaryStream(" + columnName + ", " + x + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateBinaryStream(" + columnName + ", " + x + ", " + length + ")" : "updateBinaryStream";
     try
     {
       realResultSet.updateBinaryStream(columnName, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateBinaryStream(" + columnName + ", " + x + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2420,70 +2488,70 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public String getString(int columnIndex) throws SQLException
   {
-    String methodCall = "getString(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getString(" + columnIndex + ")" : "getString";
     try
     {
       return (String) reportReturn(methodCall, realResultSet.getString(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getString(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public String getString(String columnName) throws SQLException
   {
-    String methodCall = "getString(" + columnName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getString(" + columnName + ")" : "getString";
     try
     {
       return (String) reportReturn(methodCall, realResultSet.getString(columnName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getString(" + columnName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Reader getCharacterStream(int columnIndex) throws SQLException
   {
-    String methodCall = "getCharacterStream(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getCharacterStream(" + columnIndex + ")" : "getCharacterStream";
     try
     {
       return (Reader) reportReturn(methodCall, realResultSet.getCharacterStream(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getCharacterStream(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public Reader getCharacterStream(String columnName) throws SQLException
   {
-    String methodCall = "getCharacterStream(" + columnName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getCharacterStream(" + columnName + ")" : "getCharacterStream";
     try
     {
       return (Reader) reportReturn(methodCall, realResultSet.getCharacterStream(columnName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getCharacterStream(" + columnName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void setFetchDirection(int direction) throws SQLException
   {
-    String methodCall = "setFetchDirection(" + direction + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setFetchDirection(" + direction + ")" : "setFetchDirection";
     try
     {
       realResultSet.setFetchDirection(direction);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setFetchDirection(" + direction + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2491,14 +2559,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateCharacterStream(int columnIndex, Reader x, int length) throws SQLException
   {
-    String methodCall = "updateCharacterStream(" + columnIndex + ", " + x + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateCharacterStream(" + columnIndex + ", " + x + ", " + length + ")" : "updateCharacterStream";
     try
     {
       realResultSet.updateCharacterStream(columnIndex, x, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateCharacterStream(" + columnIndex + ", " + x + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2506,14 +2574,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateCharacterStream(String columnName, Reader reader, int length) throws SQLException
   {
-    String methodCall = "updateCharacterStream(" + columnName + ", " + reader + ", " + length + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateCharacterStream(" + columnName + ", " + reader + ", " + length + ")" : "updateCharacterStream";
     try
     {
       realResultSet.updateCharacterStream(columnName, reader, length);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateCharacterStream(" + columnName + ", " + reader + ", " + length + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2521,42 +2589,42 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public byte getByte(int columnIndex) throws SQLException
   {
-    String methodCall = "getByte(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getByte(" + columnIndex + ")" : "getByte";
     try
     {
       return reportReturn(methodCall, realResultSet.getByte(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getByte(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public byte getByte(String columnName) throws SQLException
   {
-    String methodCall = "getByte(" + columnName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getByte(" + columnName + ")" : "getByte";
     try
     {
       return reportReturn(methodCall, realResultSet.getByte(columnName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getByte(" + columnName + ")" : methodCall, s);
       throw s;
     }
   }
 
   public void updateTime(int columnIndex, Time x) throws SQLException
   {
-    String methodCall = "updateTime(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateTime(" + columnIndex + ", " + x + ")" : "updateTime";
     try
     {
       realResultSet.updateTime(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateTime(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2564,14 +2632,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateTime(String columnName, Time x) throws SQLException
   {
-    String methodCall = "updateTime(" + columnName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateTime(" + columnName + ", " + x + ")" : "updateTime";
     try
     {
       realResultSet.updateTime(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateTime(" + columnName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2579,28 +2647,28 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public byte[] getBytes(int columnIndex) throws SQLException
   {
-    String methodCall = "getBytes(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getBytes(" + columnIndex + ")" : "getBytes";
     try
     {
       return (byte[]) reportReturn(methodCall, realResultSet.getBytes(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getBytes(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public byte[] getBytes(String columnName) throws SQLException
   {
-    String methodCall = "getBytes(" + columnName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getBytes(" + columnName + ")" : "getBytes";
     try
     {
       return (byte[]) reportReturn(methodCall, realResultSet.getBytes(columnName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getBytes(" + columnName + ")" : methodCall, s);
       throw s;
     }
   }
@@ -2621,14 +2689,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateObject(int columnIndex, Object x, int scale) throws SQLException
   {
-    String methodCall = "updateObject(" + columnIndex + ", " + x + ", " + scale + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateObject(" + columnIndex + ", " + x + ", " + scale + ")" : "updateObject";
     try
     {
       realResultSet.updateObject(columnIndex, x, scale);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateObject(" + columnIndex + ", " + x + ", " + scale + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2636,14 +2704,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateObject(int columnIndex, Object x) throws SQLException
   {
-    String methodCall = "updateObject(" + columnIndex + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateObject(" + columnIndex + ", " + x + ")" : "updateObject";
     try
     {
       realResultSet.updateObject(columnIndex, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateObject(" + columnIndex + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2651,14 +2719,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateObject(String columnName, Object x, int scale) throws SQLException
   {
-    String methodCall = "updateObject(" + columnName + ", " + x + ", " + scale + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateObject(" + columnName + ", " + x + ", " + scale + ")" : "updateObject";
     try
     {
       realResultSet.updateObject(columnName, x, scale);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateObject(" + columnName + ", " + x + ", " + scale + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2666,14 +2734,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void updateObject(String columnName, Object x) throws SQLException
   {
-    String methodCall = "updateObject(" + columnName + ", " + x + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "updateObject(" + columnName + ", " + x + ")" : "updateObject";
     try
     {
       realResultSet.updateObject(columnName, x);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "updateObject(" + columnName + ", " + x + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2695,28 +2763,28 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public long getLong(int columnIndex) throws SQLException
   {
-    String methodCall = "getLong(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getLong(" + columnIndex + ")" : "getLong";
     try
     {
       return reportReturn(methodCall, realResultSet.getLong(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getLong(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public long getLong(String columnName) throws SQLException
   {
-    String methodCall = "getLong(" + columnName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getLong(" + columnName + ")" : "getLong";
     try
     {
       return reportReturn(methodCall, realResultSet.getLong(columnName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getLong(" + columnName + ")" : methodCall, s);
       throw s;
     }
   }
@@ -2751,28 +2819,28 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public float getFloat(int columnIndex) throws SQLException
   {
-    String methodCall = "getFloat(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getFloat(" + columnIndex + ")" : "getFloat";
     try
     {
       return reportReturn(methodCall, realResultSet.getFloat(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getFloat(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public float getFloat(String columnName) throws SQLException
   {
-    String methodCall = "getFloat(" + columnName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getFloat(" + columnName + ")" : "getFloat";
     try
     {
       return reportReturn(methodCall, realResultSet.getFloat(columnName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getFloat(" + columnName + ")" : methodCall, s);
       throw s;
     }
   }
@@ -2793,14 +2861,14 @@ public class ResultSetSpy implements ResultSet, Spy
 
   public void setFetchSize(int rows) throws SQLException
   {
-    String methodCall = "setFetchSize(" + rows + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setFetchSize(" + rows + ")" : "setFetchSize";
     try
     {
       realResultSet.setFetchSize(rows);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setFetchSize(" + rows + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -2841,14 +2909,14 @@ public class ResultSetSpy implements ResultSet, Spy
    */
   public BigDecimal getBigDecimal(int columnIndex, int scale) throws SQLException
   {
-    String methodCall = "getBigDecimal(" + columnIndex + ", " + scale + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getBigDecimal(" + columnIndex + ", " + scale + ")" : "getBigDecimal";
     try
     {
       return (BigDecimal) reportReturn(methodCall, realResultSet.getBigDecimal(columnIndex, scale));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getBigDecimal(" + columnIndex + ", " + scale + ")" : methodCall, s);
       throw s;
     }
   }
@@ -2858,42 +2926,42 @@ public class ResultSetSpy implements ResultSet, Spy
    */
   public BigDecimal getBigDecimal(String columnName, int scale) throws SQLException
   {
-    String methodCall = "getBigDecimal(" + columnName + ", " + scale + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getBigDecimal(" + columnName + ", " + scale + ")" : "getBigDecimal";
     try
     {
       return (BigDecimal) reportReturn(methodCall, realResultSet.getBigDecimal(columnName, scale));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getBigDecimal(" + columnName + ", " + scale + ")" : methodCall, s);
       throw s;
     }
   }
 
   public BigDecimal getBigDecimal(int columnIndex) throws SQLException
   {
-    String methodCall = "getBigDecimal(" + columnIndex + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getBigDecimal(" + columnIndex + ")" : "getBigDecimal";
     try
     {
       return (BigDecimal) reportReturn(methodCall, realResultSet.getBigDecimal(columnIndex));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getBigDecimal(" + columnIndex + ")" : methodCall, s);
       throw s;
     }
   }
 
   public BigDecimal getBigDecimal(String columnName) throws SQLException
   {
-    String methodCall = "getBigDecimal(" + columnName + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getBigDecimal(" + columnName + ")" : "getBigDecimal";
     try
     {
       return (BigDecimal) reportReturn(methodCall, realResultSet.getBigDecimal(columnName));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getBigDecimal(" + columnName + ")" : methodCall, s);
       throw s;
     }
   }
@@ -2928,7 +2996,7 @@ public class ResultSetSpy implements ResultSet, Spy
   }
 
   public <T> T unwrap(Class<T> iface) throws SQLException {
-    String methodCall = "unwrap(" + (iface==null?"null":iface.getName()) + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "unwrap(" + (iface==null?"null":iface.getName()) + ")" : "unwrap";
     try
     {
       //todo: double check this logic
@@ -2936,14 +3004,14 @@ public class ResultSetSpy implements ResultSet, Spy
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(log.isJdbcLoggingEnabled() ? "unwrap(" + (iface==null?"null":iface.getName()) + ")" : methodCall,s);
       throw s;
     }
   }
 
   public boolean isWrapperFor(Class<?> iface) throws SQLException
   {
-    String methodCall = "isWrapperFor(" + (iface==null?"null":iface.getName()) + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "isWrapperFor(" + (iface==null?"null":iface.getName()) + ")" : "isWrapperFor";
     try
     {
       return reportReturn(methodCall, (iface != null && (iface == ResultSet.class || iface == Spy.class)) ||
@@ -2951,7 +3019,7 @@ public class ResultSetSpy implements ResultSet, Spy
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(log.isJdbcLoggingEnabled() ? "isWrapperFor(" + (iface==null?"null":iface.getName()) + ")" : methodCall,s);
       throw s;
     }
   }
@@ -0,0 +1,381 @@
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.relationalcloud.tsqlparser.Parser;
+import com.relationalcloud.tsqlparser.loader.Schema;
+import com.relationalcloud.tsqlparser.parser.ParseException;
+
+/**
+ * A process wide, size bounded cache of temporal rewrites.
+ *
+ * Running the tsqlparser Parser is by far the most expensive thing the proxy
+ * does, and applications tend to run the same few SQL strings over and over.
+ * Rewrites are cached by schema identity (the SchemaRegistry entry of the
+ * schema, which survives a reload) and SQL text, and evicted in least recently
+ * used order once the cache is full.  When the schema changes, the registry
+ * drops the rewrites that touch the affected tables.
+ *
+ * The cache is split into a fixed number of segments, each one a small
+ * synchronized LRU map, so that concurrent connections rarely contend on the
+ * same lock.  The size of the cache is controlled by the
+ * <b>log4jdbc.temporal.rewrite.cache.size</b> property; a size of 0 disables
+ * caching altogether.
+ */
+public class RewriteCache
+{
+  /**
+   * Do not allow instantiation.  Access is through static methods.
+   */
+  private RewriteCache() {}
+
+  /**
+   * Number of independently locked segments.  Must be a power of two.
+   */
+  private static final int SEGMENTS = 16;
+
+  private static final AtomicLong hits = new AtomicLong();
+  private static final AtomicLong misses = new AtomicLong();
+  private static final AtomicLong evictions = new AtomicLong();
+
+  private static final Segment[] segments = new Segment[SEGMENTS];
+
+  static
+  {
+    int perSegment = (DriverSpy.RewriteCacheSize + SEGMENTS - 1) / SEGMENTS;
+    for (int i = 0; i < SEGMENTS; i++)
+    {
+      segments[i] = new Segment(perSegment);
+    }
+  }
+
+  /**
+   * Temporally rewrite the given SQL against the given schema, reusing a
+   * previous rewrite of the same SQL if there is one in the cache.
+   *
+   * @param entry the registry entry of the (temporalized) schema the SQL runs against.
+   * @param sql   the SQL to rewrite.
+   * @return the rewritten SQL.
+   * @throws ParseException if the SQL cannot be parsed.
+   */
+  public static RewrittenSql rewrite(SchemaRegistry.Entry entry, String sql) throws ParseException
+  {
+    Schema schema = entry.getSchema();
+    if (DriverSpy.RewriteCacheSize <= 0)
+    {
+      misses.incrementAndGet();
+      return parse(schema, entry.getTemporalTables(), sql);
+    }
+
+    Key key = new Key(entry, sql);
+    Segment segment = segmentFor(key);
+    RewrittenSql rewritten;
+    synchronized (segment)
+    {
+      rewritten = segment.get(key);
+    }
+    if (rewritten != null)
+    {
+      hits.incrementAndGet();
+      return rewritten;
+    }
+
+    // parse outside of the lock, two threads missing on the same sql at
+    // the same time will both parse it, which is harmless.
+    misses.incrementAndGet();
+    rewritten = parse(schema, entry.getTemporalTables(), sql);
+    synchronized (segment)
+    {
+      // if the schema was reloaded while we were parsing, the invalidation
+      // may already have run, so don't cache a rewrite of the old schema.
+      if (entry.getSchema() == schema)
+      {
+        segment.put(key, rewritten);
+      }
+    }
+    return rewritten;
+  }
+
+  /**
+   * Run the tsqlparser on the given SQL.
+   *
+   * @param schema   the (temporalized) schema the SQL runs against.
+   * @param temporal the temporalized tables of the schema.
+   * @param sql      the SQL to rewrite.
+   * @return the rewritten SQL.
+   * @throws ParseException if the SQL cannot be parsed.
+   */
+  private static RewrittenSql parse(Schema schema, TemporalTables temporal, String sql) throws ParseException
+  {
+    long start = System.nanoTime();
+    Parser p = new Parser(schema.getSchemaName(), schema, sql);
+    long parsed = System.nanoTime();
+    ArrayList<String> li;
+    boolean snapshot = false;
+    boolean numericTime = temporal == null || temporal.isNumericTime();
+    List<String> tables = getTables(p);
+    int nonTemporalParametersCount = p.getNonTemporalParametersCount();
+    if (p.isTemporal())
+    {
+      li = new ArrayList<String>();
+      String temporalSql = p.toNonTemporalSQL();
+      if (DriverSpy.TemporalSnapshotFastPath)
+      {
+        temporalSql = SnapshotPredicates.normalize(temporalSql, numericTime);
+        snapshot = true;
+      }
+      if (temporal != null && !temporal.getSplit(tables).isEmpty())
+      {
+        temporalSql = HistoryTables.union(temporalSql, temporal);
+      }
+      li.add(temporalSql);
+    }
+    else
+    {
+      li = p.rewriteToTemporal();
+      String type = RewriteMetrics.getStatementType(sql);
+      if (temporal != null && (type.equals("UPDATE") || type.equals("DELETE")))
+      {
+        List<String> split = temporal.getSplit(tables);
+        if (!split.isEmpty())
+        {
+          // a single statement rewrite takes all the parameters, keep it
+          // that way with the sweeps after it
+          if (li.size() == 1)
+          {
+            nonTemporalParametersCount = 0;
+          }
+          li.addAll(HistoryTables.sweep(li, split, DriverSpy.TemporalClientClock));
+        }
+      }
+    }
+    long end = System.nanoTime();
+    RewrittenSql rewritten = new RewrittenSql(li, nonTemporalParametersCount, tables, snapshot);
+    if (DriverSpy.Metrics)
+    {
+      RewriteMetrics.recordParse(sql, rewritten, parsed - start, end - parsed);
+    }
+    return rewritten;
+  }
+
+  /**
+   * Get the tables a parsed statement touches (the Parser collects them with
+   * its TablesForStatementVisitor.)
+   *
+   * @param p a Parser that has parsed a statement.
+   * @return the table names, or null if the parser could not tell.
+   */
+  static List<String> getTables(Parser p)
+  {
+    try
+    {
+      return p.getTableStringList();
+    }
+    catch (RuntimeException e)
+    {
+      // the visitor does not know every kind of statement
+      return null;
+    }
+  }
+
+  private static Segment segmentFor(Key key)
+  {
+    int h = key.hashCode();
+    h ^= (h >>> 16);
+    return segments[h & (SEGMENTS - 1)];
+  }
+
+  /**
+   * Remove every cached rewrite made against the given schema.
+   *
+   * @param entry the registry entry of the schema.
+   */
+  public static void invalidate(SchemaRegistry.Entry entry)
+  {
+    invalidate(entry, null);
+  }
+
+  /**
+   * Remove the cached rewrites made against the given schema that touch the
+   * given table.
+   *
+   * @param entry the registry entry of the schema.
+   * @param table name of the table, or null for all tables.
+   */
+  public static void invalidate(SchemaRegistry.Entry entry, String table)
+  {
+    for (int i = 0; i < SEGMENTS; i++)
+    {
+      synchronized (segments[i])
+      {
+        for (Iterator<Map.Entry<Key, RewrittenSql>> it = segments[i].entrySet().iterator(); it.hasNext();)
+        {
+          Map.Entry<Key, RewrittenSql> e = it.next();
+          if (e.getKey().entry == entry && (table == null || e.getValue().touchesTable(table)))
+          {
+            it.remove();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Remove all entries from the cache.  The hit, miss and eviction counters
+   * are not reset.
+   */
+  public static void clear()
+  {
+    for (int i = 0; i < SEGMENTS; i++)
+    {
+      synchronized (segments[i])
+      {
+        segments[i].clear();
+      }
+    }
+  }
+
+  /**
+   * Get the number of rewrites currently held in the cache.
+   *
+   * @return the number of cached rewrites.
+   */
+  public static int size()
+  {
+    int size = 0;
+    for (int i = 0; i < SEGMENTS; i++)
+    {
+      synchronized (segments[i])
+      {
+        size += segments[i].size();
+      }
+    }
+    return size;
+  }
+
+  /**
+   * @return the number of rewrites that were served from the cache.
+   */
+  public static long getHits()
+  {
+    return hits.get();
+  }
+
+  /**
+   * @return the number of rewrites that had to run the parser.
+   */
+  public static long getMisses()
+  {
+    return misses.get();
+  }
+
+  /**
+   * @return the number of rewrites that were evicted to make room for newer ones.
+   */
+  public static long getEvictions()
+  {
+    return evictions.get();
+  }
+
+  /**
+   * Get a dump of the cache statistics, suitable for logging.
+   *
+   * @return a rewrite cache statistics dump.
+   */
+  public static String getStatsDump()
+  {
+    StringBuffer dump = new StringBuffer();
+    dump.append("rewrite cache:  size ");
+    dump.append(size());
+    dump.append("/");
+    dump.append(DriverSpy.RewriteCacheSize);
+    dump.append(", hits ");
+    dump.append(getHits());
+    dump.append(", misses ");
+    dump.append(getMisses());
+    dump.append(", evictions ");
+    dump.append(getEvictions());
+    return dump.toString();
+  }
+
+  /**
+   * One LRU segment of the cache.  All access must be synchronized on the
+   * segment itself.
+   */
+  private static class Segment extends LinkedHashMap<Key, RewrittenSql>
+  {
+    private final int capacity;
+
+    Segment(int capacity)
+    {
+      super(16, 0.75f, true);
+      this.capacity = capacity;
+    }
+
+    protected boolean removeEldestEntry(Map.Entry<Key, RewrittenSql> eldest)
+    {
+      if (size() > capacity)
+      {
+        evictions.incrementAndGet();
+        return true;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Cache key: the identity of the schema registry entry and the SQL text.
+   */
+  private static class Key
+  {
+    private final SchemaRegistry.Entry entry;
+    private final String sql;
+    private final int hash;
+
+    Key(SchemaRegistry.Entry entry, String sql)
+    {
+      this.entry = entry;
+      this.sql = sql;
+      this.hash = 31 * System.identityHashCode(entry) + sql.hashCode();
+    }
+
+    public int hashCode()
+    {
+      return hash;
+    }
+
+    public boolean equals(Object o)
+    {
+      if (!(o instanceof Key))
+      {
+        return false;
+      }
+      Key k = (Key) o;
+      return entry == k.entry && sql.equals(k.sql);
+    }
+  }
+}
@@ -0,0 +1,343 @@
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * What the temporal layer itself costs, kept next to the StatementMetrics
+ * when <b>log4jdbc.metrics</b> is on.
+ *
+ * For every statement the rewriter runs on (every RewriteCache miss) the time
+ * taken to construct the tsqlparser Parser and the time of the rewrite call
+ * are recorded, and for every real statement a PreparedStatementSpy prepares,
+ * the time the driver took to prepare it.  Every logical statement handed to
+ * the rewriter also counts the number of real statements it became, its
+ * amplification.
+ *
+ * Everything is kept twice: per statement type (INSERT, UPDATE, DELETE,
+ * SELECT or OTHER) and per table touched, so that the cost of temporalizing
+ * one table can be told apart from the rest.
+ */
+public class RewriteMetrics
+{
+  /**
+   * Do not allow instantiation.  Access is through static methods.
+   */
+  private RewriteMetrics() {}
+
+  private static final ConcurrentHashMap<String, Entry> byType =
+    new ConcurrentHashMap<String, Entry>();
+
+  private static final ConcurrentHashMap<String, Entry> byTable =
+    new ConcurrentHashMap<String, Entry>();
+
+  /**
+   * Record a run of the rewriter.
+   *
+   * @param sql         the SQL that was rewritten.
+   * @param rewritten   the rewrite.
+   * @param parserNanos time taken to construct the Parser, in nanoseconds.
+   * @param rewriteNanos time taken by the rewrite call, in nanoseconds.
+   */
+  static void recordParse(String sql, RewrittenSql rewritten, long parserNanos, long rewriteNanos)
+  {
+    Entry[] entries = getEntries(sql, rewritten);
+    for (int i = 0; i < entries.length; i++)
+    {
+      entries[i].parser.record(parserNanos);
+      entries[i].rewrite.record(rewriteNanos);
+    }
+  }
+
+  /**
+   * Record a logical statement and the number of real statements it was
+   * rewritten to.
+   *
+   * @param sql       the SQL of the logical statement.
+   * @param rewritten its rewrite.
+   */
+  static void recordStatement(String sql, RewrittenSql rewritten)
+  {
+    int n = rewritten.getSqls().size();
+    Entry[] entries = getEntries(sql, rewritten);
+    for (int i = 0; i < entries.length; i++)
+    {
+      entries[i].recordAmplification(n);
+    }
+  }
+
+  /**
+   * Record the driver preparing one of the real statements of a rewrite.
+   *
+   * @param sql       the SQL of the logical statement.
+   * @param rewritten its rewrite.
+   * @param nanos     time taken to prepare the real statement, in nanoseconds.
+   */
+  static void recordPrepare(String sql, RewrittenSql rewritten, long nanos)
+  {
+    Entry[] entries = getEntries(sql, rewritten);
+    for (int i = 0; i < entries.length; i++)
+    {
+      entries[i].prepare.record(nanos);
+    }
+  }
+
+  /**
+   * Get the entries of the statement type and of every table of a statement.
+   */
+  private static Entry[] getEntries(String sql, RewrittenSql rewritten)
+  {
+    Set<String> tables = rewritten.getTables();
+    int n = tables == null ? 0 : tables.size();
+    Entry[] entries = new Entry[1 + n];
+    entries[0] = getEntry(byType, getStatementType(sql));
+    if (n > 0)
+    {
+      int i = 1;
+      for (Iterator<String> t = tables.iterator(); t.hasNext();)
+      {
+        entries[i++] = getEntry(byTable, t.next());
+      }
+    }
+    return entries;
+  }
+
+  private static Entry getEntry(ConcurrentHashMap<String, Entry> map, String name)
+  {
+    Entry entry = map.get(name);
+    if (entry == null)
+    {
+      Entry newEntry = new Entry(name);
+      entry = map.putIfAbsent(name, newEntry);
+      if (entry == null)
+      {
+        entry = newEntry;
+      }
+    }
+    return entry;
+  }
+
+  /**
+   * Get the type of a statement from its first keyword.
+   *
+   * @param sql the SQL of a statement.
+   * @return INSERT, UPDATE, DELETE, SELECT or OTHER.
+   */
+  public static String getStatementType(String sql)
+  {
+    int n = sql.length();
+    int i = 0;
+    while (i < n && (Character.isWhitespace(sql.charAt(i)) || sql.charAt(i) == '('))
+    {
+      i++;
+    }
+    String[] types = {"INSERT", "UPDATE", "DELETE", "SELECT"};
+    for (int t = 0; t < types.length; t++)
+    {
+      if (sql.regionMatches(true, i, types[t], 0, types[t].length()))
+      {
+        return types[t];
+      }
+    }
+    return "OTHER";
+  }
+
+  /**
+   * Get the metrics of every statement type.
+   *
+   * @return an unmodifiable view of the metrics, by statement type.
+   */
+  public static Map<String, Entry> getByType()
+  {
+    return Collections.unmodifiableMap(byType);
+  }
+
+  /**
+   * Get the metrics of every table touched by a rewritten statement.
+   *
+   * @return an unmodifiable view of the metrics, by lower case table name.
+   */
+  public static Map<String, Entry> getByTable()
+  {
+    return Collections.unmodifiableMap(byTable);
+  }
+
+  /**
+   * Forget all the metrics recorded so far.
+   */
+  public static void reset()
+  {
+    byType.clear();
+    byTable.clear();
+  }
+
+  /**
+   * Get a dump of the metrics, suitable for logging.  Times are in
+   * microseconds.
+   *
+   * @return a rewrite metrics dump.
+   */
+  public static String getStatsDump()
+  {
+    StringBuffer dump = new StringBuffer();
+    dump.append("rewrite metrics by statement type:");
+    append(dump, byType);
+    dump.append("\nrewrite metrics by table:");
+    append(dump, byTable);
+    return dump.toString();
+  }
+
+  private static void append(StringBuffer dump, Map<String, Entry> map)
+  {
+    List<String> names = new ArrayList<String>(map.keySet());
+    Collections.sort(names);
+    for (int i = 0; i < names.size(); i++)
+    {
+      Entry entry = map.get(names.get(i));
+      if (entry != null)
+      {
+        dump.append("\n");
+        dump.append(entry);
+      }
+    }
+  }
+
+  /**
+   * The rewrite metrics of one statement type or one table.
+   */
+  public static class Entry
+  {
+    private final String name;
+
+    private final LatencyHistogram parser = new LatencyHistogram();
+    private final LatencyHistogram rewrite = new LatencyHistogram();
+    private final LatencyHistogram prepare = new LatencyHistogram();
+
+    private final AtomicLong statements = new AtomicLong();
+    private final AtomicLong realStatements = new AtomicLong();
+    private final AtomicLong maxAmplification = new AtomicLong();
+
+    Entry(String name)
+    {
+      this.name = name;
+    }
+
+    void recordAmplification(int n)
+    {
+      statements.incrementAndGet();
+      realStatements.addAndGet(n);
+      long m = maxAmplification.get();
+      while (n > m && !maxAmplification.compareAndSet(m, n))
+      {
+        m = maxAmplification.get();
+      }
+    }
+
+    /**
+     * @return the statement type or table name.
+     */
+    public String getName()
+    {
+      return name;
+    }
+
+    /**
+     * @return the histogram of Parser construction times.
+     */
+    public LatencyHistogram getParser()
+    {
+      return parser;
+    }
+
+    /**
+     * @return the histogram of rewrite call times.
+     */
+    public LatencyHistogram getRewrite()
+    {
+      return rewrite;
+    }
+
+    /**
+     * @return the histogram of the times taken to prepare one real statement.
+     */
+    public LatencyHistogram getPrepare()
+    {
+      return prepare;
+    }
+
+    /**
+     * @return the number of logical statements that were rewritten.
+     */
+    public long getStatements()
+    {
+      return statements.get();
+    }
+
+    /**
+     * @return the number of real statements the logical statements were rewritten to.
+     */
+    public long getRealStatements()
+    {
+      return realStatements.get();
+    }
+
+    /**
+     * @return the mean number of real statements per logical statement.
+     */
+    public double getAmplification()
+    {
+      long s = statements.get();
+      return s == 0 ? 0 : (double) realStatements.get() / s;
+    }
+
+    /**
+     * @return the largest number of real statements a logical statement was rewritten to.
+     */
+    public long getMaxAmplification()
+    {
+      return maxAmplification.get();
+    }
+
+    public String toString()
+    {
+      StringBuffer out = new StringBuffer();
+      out.append(name);
+      out.append(":  statements ");
+      out.append(getStatements());
+      out.append(", amplification ");
+      out.append(Math.round(getAmplification() * 100) / 100.0);
+      out.append(" (max ");
+      out.append(getMaxAmplification());
+      out.append(")");
+      parser.appendTo(out, "parser");
+      rewrite.appendTo(out, "rewrite");
+      prepare.appendTo(out, "prepare");
+      return out.toString();
+    }
+  }
+}
@@ -0,0 +1,600 @@
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *  
+ *  See the NOTICE file distributed with this work for additional 
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The result of temporally rewriting one SQL statement: the list of real SQL
+ * statements to run against the database, and the number of parameters of the
+ * original statement that belong to the non temporal part of the rewrite.
+ *
+ * Instances are immutable so that they can be shared between connections
+ * through the {@link RewriteCache}, together with the {@link ParameterRouting}
+ * compiled for them.  The names of the tables the statement touches are kept
+ * as well, so that the cache can drop only the rewrites affected by a change
+ * to one table.
+ */
+public class RewrittenSql
+{
+  private final List<String> sqls;
+
+  private final int nonTemporalParametersCount;
+
+  private final ParameterRouting routing;
+
+  /**
+   * Number of statements at the end of the rewrite that move closed versions
+   * to history (see HistoryTables.sweep.)  Their update counts are not the
+   * statement's.
+   */
+  private final int sweeps;
+
+  /**
+   * The statements joined into one multi statement SQL, made on first use.
+   */
+  private volatile RewrittenSql joined;
+
+  /**
+   * True if the single SQL of this rewrite holds several joined statements.
+   */
+  private final boolean multiStatement;
+
+  /**
+   * The rewrite with its now_usec() calls turned into parameters, made on
+   * first use.
+   */
+  private volatile RewrittenSql clocked;
+
+  /**
+   * For each statement, the indexes of the parameters that take the
+   * transaction timestamp in place of a now_usec() call.
+   */
+  private final int[][] clockIndexes;
+
+  /**
+   * True if this is the rewrite of a temporal query whose time comparisons
+   * are still literals (see getSnapshot.)
+   */
+  private final boolean snapshot;
+
+  /**
+   * The rewrite with the time literals of a temporal query turned into
+   * parameters, made on first use.
+   */
+  private volatile RewrittenSql snapshotForm;
+
+  /**
+   * For each statement, the indexes of the parameters that take the time of
+   * a temporal query, and the values they take.
+   */
+  private final int[][] snapshotIndexes;
+
+  private final Object[][] snapshotValues;
+
+  /**
+   * The set based form of this rewrite for batches, see getBatchCollapse.
+   */
+  private volatile BatchCollapse batchCollapse;
+
+  private volatile boolean batchCollapseCompiled;
+
+  /**
+   * Lower case names of the tables touched, or null if they are not known.
+   */
+  private final Set<String> tables;
+
+  /**
+   * Create a new RewrittenSql.
+   *
+   * @param sqls the real SQL statements produced by the rewriter, in execution order.
+   * @param nonTemporalParametersCount number of parameters in the non temporal part of the rewrite.
+   * @param tables names of the tables the statement touches, or null if not known.
+   */
+  public RewrittenSql(List<String> sqls, int nonTemporalParametersCount, Collection<String> tables)
+  {
+    this(sqls, nonTemporalParametersCount, tables, false);
+  }
+
+  /**
+   * Create a new RewrittenSql.
+   *
+   * @param sqls the real SQL statements produced by the rewriter, in execution order.
+   * @param nonTemporalParametersCount number of parameters in the non temporal part of the rewrite.
+   * @param tables names of the tables the statement touches, or null if not known.
+   * @param snapshot true if this is the rewrite of a temporal query, with its
+   *        time comparisons normalized by SnapshotPredicates.
+   */
+  public RewrittenSql(List<String> sqls, int nonTemporalParametersCount, Collection<String> tables,
+    boolean snapshot)
+  {
+    if (sqls == null)
+    {
+      throw new IllegalArgumentException("Must pass in a non null list of sql statements");
+    }
+    this.sqls = Collections.unmodifiableList(new ArrayList<String>(sqls));
+    this.nonTemporalParametersCount = nonTemporalParametersCount;
+    this.routing = new ParameterRouting(this.sqls, nonTemporalParametersCount);
+    this.multiStatement = false;
+    this.clockIndexes = new int[this.sqls.size()][0];
+    this.snapshot = snapshot;
+    this.snapshotIndexes = new int[this.sqls.size()][0];
+    this.snapshotValues = new Object[this.sqls.size()][0];
+    int swept = 0;
+    while (swept < this.sqls.size() - 1 && HistoryTables.isSweep(this.sqls.get(this.sqls.size() - 1 - swept)))
+    {
+      swept++;
+    }
+    this.sweeps = swept;
+    if (tables == null)
+    {
+      this.tables = null;
+    }
+    else
+    {
+      Set<String> names = new HashSet<String>();
+      for (Iterator<String> i = tables.iterator(); i.hasNext();)
+      {
+        names.add(normalizeTableName(i.next()));
+      }
+      this.tables = Collections.unmodifiableSet(names);
+    }
+  }
+
+  /**
+   * Create the joined form of a multi statement rewrite.
+   */
+  private RewrittenSql(RewrittenSql parts)
+  {
+    StringBuffer sql = new StringBuffer();
+    for (Iterator<String> i = parts.sqls.iterator(); i.hasNext();)
+    {
+      String s = i.next().trim();
+      while (s.endsWith(";"))
+      {
+        s = s.substring(0, s.length() - 1).trim();
+      }
+      if (sql.length() > 0)
+      {
+        sql.append(";\n");
+      }
+      sql.append(s);
+    }
+    this.sqls = Collections.singletonList(sql.toString());
+    this.nonTemporalParametersCount = parts.nonTemporalParametersCount;
+    this.routing = parts.routing.join();
+    this.tables = parts.tables;
+    this.sweeps = parts.sweeps;
+    this.joined = this;
+    this.clocked = parts.clocked == parts ? this : null;
+    this.multiStatement = true;
+
+    int clocks = 0;
+    for (int s = 0; s < parts.clockIndexes.length; s++)
+    {
+      clocks += parts.clockIndexes[s].length;
+    }
+    int[] indexes = new int[clocks];
+    int c = 0;
+    for (int s = 0; s < parts.clockIndexes.length; s++)
+    {
+      int base = parts.routing.getJoinedBase(s);
+      for (int j = 0; j < parts.clockIndexes[s].length; j++)
+      {
+        indexes[c++] = base + parts.clockIndexes[s][j];
+      }
+    }
+    this.clockIndexes = new int[][] {indexes};
+
+    this.snapshot = parts.snapshot;
+    this.snapshotForm = parts.snapshotForm == parts ? this : null;
+    List<Integer> times = new ArrayList<Integer>();
+    List<Object> values = new ArrayList<Object>();
+    for (int s = 0; s < parts.snapshotIndexes.length; s++)
+    {
+      int base = parts.routing.getJoinedBase(s);
+      for (int j = 0; j < parts.snapshotIndexes[s].length; j++)
+      {
+        times.add(Integer.valueOf(base + parts.snapshotIndexes[s][j]));
+        values.add(parts.snapshotValues[s][j]);
+      }
+    }
+    this.snapshotIndexes = new int[][] {toArray(times)};
+    this.snapshotValues = new Object[][] {values.toArray()};
+  }
+
+  /**
+   * Create the form of a rewrite with the now_usec() calls replaced by
+   * parameter markers.
+   */
+  private RewrittenSql(RewrittenSql plain, int[][] calls)
+  {
+    int n = plain.sqls.size();
+    List<String> replaced = new ArrayList<String>(n);
+    int[][] maps = new int[n][];
+    int[] counts = new int[n];
+    clockIndexes = new int[n][];
+    snapshotIndexes = new int[n][];
+    for (int s = 0; s < n; s++)
+    {
+      String sql = plain.sqls.get(s);
+      clockIndexes[s] = new int[calls[s].length / 2];
+      maps[s] = mapParameters(sql, calls[s], clockIndexes[s]);
+      counts[s] = maps[s].length - 1 + clockIndexes[s].length;
+      snapshotIndexes[s] = remap(plain.snapshotIndexes[s], maps[s]);
+      replaced.add(TransactionClock.replaceCalls(sql, "?"));
+    }
+    this.sqls = Collections.unmodifiableList(replaced);
+    this.nonTemporalParametersCount = plain.nonTemporalParametersCount;
+    this.routing = plain.routing.remap(maps, counts);
+    this.tables = plain.tables;
+    this.sweeps = plain.sweeps;
+    this.multiStatement = plain.multiStatement;
+    this.joined = plain.multiStatement ? this : null;
+    this.clocked = this;
+    this.snapshot = plain.snapshot;
+    this.snapshotValues = plain.snapshotValues;
+  }
+
+  /**
+   * Create the form of the rewrite of a temporal query with its time
+   * literals replaced by parameter markers.
+   */
+  private RewrittenSql(RewrittenSql plain, int[][] literals, Object[][] values)
+  {
+    int n = plain.sqls.size();
+    List<String> replaced = new ArrayList<String>(n);
+    int[][] maps = new int[n][];
+    int[] counts = new int[n];
+    clockIndexes = new int[n][];
+    snapshotIndexes = new int[n][];
+    for (int s = 0; s < n; s++)
+    {
+      String sql = plain.sqls.get(s);
+      snapshotIndexes[s] = new int[literals[s].length / 2];
+      maps[s] = mapParameters(sql, literals[s], snapshotIndexes[s]);
+      counts[s] = maps[s].length - 1 + snapshotIndexes[s].length;
+      clockIndexes[s] = remap(plain.clockIndexes[s], maps[s]);
+      StringBuffer marked = new StringBuffer(sql.length());
+      int pos = 0;
+      for (int j = 0; j < literals[s].length; j += 2)
+      {
+        marked.append(sql.substring(pos, literals[s][j])).append('?');
+        pos = literals[s][j + 1];
+      }
+      replaced.add(marked.append(sql.substring(pos)).toString());
+    }
+    this.sqls = Collections.unmodifiableList(replaced);
+    this.nonTemporalParametersCount = plain.nonTemporalParametersCount;
+    this.routing = plain.routing.remap(maps, counts);
+    this.tables = plain.tables;
+    this.sweeps = plain.sweeps;
+    this.multiStatement = plain.multiStatement;
+    this.joined = plain.multiStatement ? this : null;
+    this.clocked = plain.clocked == plain ? this : null;
+    this.snapshot = false;
+    this.snapshotForm = this;
+    this.snapshotValues = values;
+  }
+
+  /**
+   * Work out where the parameters of a statement go once parameter markers
+   * are put in place of some of its text.
+   *
+   * @param sql     the statement.
+   * @param spans   the start and end of each piece of text replaced by a marker, in pairs.
+   * @param indexes filled with the parameter index each new marker takes.
+   * @return for each old parameter index, its new index.
+   */
+  private static int[] mapParameters(String sql, int[] spans, int[] indexes)
+  {
+    int params = ParameterRouting.countParameters(sql);
+    int[] before = new int[spans.length / 2];
+    for (int j = 0; j < before.length; j++)
+    {
+      before[j] = ParameterRouting.countParameters(sql.substring(0, spans[2 * j]));
+    }
+    // the k-th old parameter moves up by the markers in front of it, the j-th
+    // marker takes the index after the old parameters and markers before it
+    int[] map = new int[params + 1];
+    for (int k = 1; k <= params; k++)
+    {
+      int shift = 0;
+      while (shift < before.length && before[shift] < k)
+      {
+        shift++;
+      }
+      map[k] = k + shift;
+    }
+    for (int j = 0; j < before.length; j++)
+    {
+      indexes[j] = before[j] + j + 1;
+    }
+    return map;
+  }
+
+  private static int[] remap(int[] indexes, int[] map)
+  {
+    int[] remapped = new int[indexes.length];
+    for (int j = 0; j < indexes.length; j++)
+    {
+      remapped[j] = map[indexes[j]];
+    }
+    return remapped;
+  }
+
+  private static int[] toArray(List<Integer> list)
+  {
+    int[] array = new int[list.size()];
+    for (int i = 0; i < array.length; i++)
+    {
+      array[i] = list.get(i).intValue();
+    }
+    return array;
+  }
+
+  /**
+   * Get this rewrite with all its statements joined into a single multi
+   * statement SQL, so that it can be sent to the server in one round trip.
+   * The parameters of the statements follow each other in the joined SQL.
+   *
+   * @return the joined rewrite, or this rewrite if it only has one statement.
+   */
+  public RewrittenSql getJoined()
+  {
+    RewrittenSql j = joined;
+    if (j == null)
+    {
+      j = sqls.size() <= 1 ? this : new RewrittenSql(this);
+      joined = j;
+    }
+    return j;
+  }
+
+  /**
+   * Get the set based form of this rewrite, to run a batch of it in a few
+   * statements.  It is worked out on first use.
+   *
+   * @param sql the SQL this is the rewrite of.
+   * @return the set based form, or null if this rewrite cannot be collapsed.
+   */
+  public BatchCollapse getBatchCollapse(String sql)
+  {
+    if (!batchCollapseCompiled)
+    {
+      batchCollapse = multiStatement ? null : BatchCollapse.compile(sql, sqls,
+        DriverSpy.TemporalClientClock);
+      batchCollapseCompiled = true;
+    }
+    return batchCollapse;
+  }
+
+  /**
+   * Get this rewrite with its now_usec() calls turned into parameters, to be
+   * bound to the timestamp of the TransactionClock.
+   *
+   * @return the clocked rewrite, or this rewrite if it does not call now_usec().
+   */
+  public RewrittenSql getClocked()
+  {
+    RewrittenSql c = clocked;
+    if (c == null)
+    {
+      int[][] calls = new int[sqls.size()][];
+      boolean any = false;
+      for (int s = 0; s < calls.length; s++)
+      {
+        calls[s] = TransactionClock.findCalls(sqls.get(s));
+        any |= calls[s].length > 0;
+      }
+      c = any ? new RewrittenSql(this, calls) : this;
+      clocked = c;
+    }
+    return c;
+  }
+
+  /**
+   * Get the rewrite of a temporal query with the times it compares tstart
+   * and tend with turned into parameters, bound to the same times (see
+   * SnapshotPredicates), so that the database can reuse the plan of the
+   * query for any time.
+   *
+   * @return the parameterized rewrite, or this rewrite if it is not the
+   *         rewrite of a temporal query or has no time literals.
+   */
+  public RewrittenSql getSnapshot()
+  {
+    RewrittenSql f = snapshotForm;
+    if (f == null)
+    {
+      f = this;
+      if (snapshot)
+      {
+        int[][] literals = new int[sqls.size()][];
+        Object[][] values = new Object[sqls.size()][];
+        boolean any = false;
+        for (int s = 0; s < literals.length; s++)
+        {
+          String sql = sqls.get(s);
+          literals[s] = SnapshotPredicates.findLiterals(sql);
+          values[s] = new Object[literals[s].length / 2];
+          for (int j = 0; j < values[s].length; j++)
+          {
+            values[s][j] = SnapshotPredicates.getValue(sql.substring(literals[s][2 * j], literals[s][2 * j + 1]));
+          }
+          any |= literals[s].length > 0;
+        }
+        if (any)
+        {
+          f = new RewrittenSql(this, literals, values);
+        }
+      }
+      snapshotForm = f;
+    }
+    return f;
+  }
+
+  /**
+   * Get the indexes of the parameters of a statement that take the time of
+   * a temporal query (see getSnapshot).
+   *
+   * @param statement position of the statement in the rewritten statement list.
+   * @return the parameter indexes, empty if the statement takes none.
+   */
+  public int[] getSnapshotIndexes(int statement)
+  {
+    return snapshotIndexes[statement];
+  }
+
+  /**
+   * Get the values of the parameters of a statement that take the time of a
+   * temporal query, in the order of getSnapshotIndexes.
+   *
+   * @param statement position of the statement in the rewritten statement list.
+   * @return the values, BigDecimals or Timestamps.
+   */
+  public Object[] getSnapshotValues(int statement)
+  {
+    return snapshotValues[statement];
+  }
+
+  /**
+   * Get the number of statements at the end of the rewrite that move the
+   * versions it closed to history.  In the joined form they are the last
+   * statements of its single SQL.
+   *
+   * @return the number of sweep statements, 0 if the rewrite has none.
+   */
+  public int getSweepCount()
+  {
+    return sweeps;
+  }
+
+  /**
+   * Get the indexes of the parameters of a statement that take the
+   * transaction timestamp (see getClocked).
+   *
+   * @param statement position of the statement in the rewritten statement list.
+   * @return the parameter indexes, empty if the statement takes none.
+   */
+  public int[] getClockIndexes(int statement)
+  {
+    return clockIndexes[statement];
+  }
+
+  /**
+   * @return true if this is the joined form of a multi statement rewrite.
+   */
+  public boolean isMultiStatement()
+  {
+    return multiStatement;
+  }
+
+  /**
+   * Get the real SQL statements produced by the rewriter.
+   *
+   * @return an unmodifiable list of the rewritten SQL statements.
+   */
+  public List<String> getSqls()
+  {
+    return sqls;
+  }
+
+  /**
+   * Get the number of parameters of the original statement that belong to the
+   * non temporal part of the rewrite.
+   *
+   * @return the value of Parser.getNonTemporalParametersCount() for the original statement.
+   */
+  public int getNonTemporalParametersCount()
+  {
+    return nonTemporalParametersCount;
+  }
+
+  /**
+   * Get the table routing parameters of the original statement to the
+   * rewritten statements.
+   *
+   * @return the parameter routing table.
+   */
+  public ParameterRouting getParameterRouting()
+  {
+    return routing;
+  }
+
+  /**
+   * Get the tables the statement touches.
+   *
+   * @return an unmodifiable set of lower case table names, or null if they are not known.
+   */
+  public Set<String> getTables()
+  {
+    return tables;
+  }
+
+  /**
+   * Determine if the statement touches the given table.  If the tables of the
+   * statement are not known, it is assumed to touch every table.
+   *
+   * @param table name of the table, optionally qualified by a schema name.
+   * @return true if the statement (possibly) touches the table.
+   */
+  public boolean touchesTable(String table)
+  {
+    return tables == null || tables.contains(normalizeTableName(table));
+  }
+
+  /**
+   * Strip any schema qualifier and quoting from a table name and lower case it.
+   *
+   * @param table a table name as found in SQL.
+   * @return the normalized table name.
+   */
+  static String normalizeTableName(String table)
+  {
+    String name = table.trim();
+    int space = name.indexOf(' ');
+    if (space > 0)
+    {
+      name = name.substring(0, space);
+    }
+    int dot = name.lastIndexOf('.');
+    if (dot >= 0)
+    {
+      name = name.substring(dot + 1);
+    }
+    if (name.length() > 1 && (name.charAt(0) == '`' || name.charAt(0) == '"'))
+    {
+      name = name.substring(1, name.length() - 1);
+    }
+    return name.toLowerCase();
+  }
+
+  public String toString()
+  {
+    return sqls.toString();
+  }
+}
@@ -0,0 +1,382 @@
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.relationalcloud.tsqlparser.loader.IntegrityConstraintsExistsException;
+import com.relationalcloud.tsqlparser.loader.PrimaryKey;
+import com.relationalcloud.tsqlparser.loader.Schema;
+import com.relationalcloud.tsqlparser.loader.SchemaLoader;
+import com.relationalcloud.tsqlparser.loader.SchemaTable;
+
+/**
+ * A process wide registry of loaded schemas, keyed by JDBC URL and schema name.
+ *
+ * Loading a schema scans information_schema, so it is done once per database
+ * and schema name and the result is shared by every ConnectionSpy opened
+ * against it.  A Schema is never modified once it has been published in the
+ * registry: a refresh loads a new Schema and swaps it in, so statements that
+ * are being rewritten concurrently keep seeing a consistent schema.
+ *
+ * When DDL runs through the proxy only the tables it names are reloaded (see
+ * {@link Entry#reloadTable}), and only the cached rewrites touching those
+ * tables are dropped from the RewriteCache.
+ */
+public class SchemaRegistry
+{
+  /**
+   * Do not allow instantiation.  Access is through static methods.
+   */
+  private SchemaRegistry() {}
+
+  /**
+   * Contains a Mapping of registry key (url and schema name) to Entry.
+   */
+  private static final ConcurrentHashMap<String, Entry> entries =
+    new ConcurrentHashMap<String, Entry>();
+
+  /**
+   * Get the registry entry for the schema the given connection is using,
+   * loading the schema from the database if this is the first time it is
+   * requested.  Concurrent callers for the same schema wait for a single load.
+   *
+   * @param conn       a real connection to the database holding the schema.
+   * @param schemaName name of the schema.
+   * @return the registry entry for the schema.
+   * @throws SQLException if the schema cannot be loaded.
+   */
+  public static Entry getEntry(Connection conn, String schemaName) throws SQLException
+  {
+    String key = getKey(conn.getMetaData().getURL(), schemaName);
+    Entry entry = entries.get(key);
+    if (entry == null)
+    {
+      Entry newEntry = new Entry(key, schemaName);
+      entry = entries.putIfAbsent(key, newEntry);
+      if (entry == null)
+      {
+        entry = newEntry;
+      }
+    }
+    entry.loadIfNeeded(conn);
+    return entry;
+  }
+
+  /**
+   * Get the currently registered schema for a given url and schema name.
+   *
+   * @param url        JDBC url of the database.
+   * @param schemaName name of the schema.
+   * @return the registered Schema, or null if it was never loaded.
+   */
+  public static Schema getSchema(String url, String schemaName)
+  {
+    Entry entry = entries.get(getKey(url, schemaName));
+    return entry == null ? null : entry.getSchema();
+  }
+
+  /**
+   * Reload the schema the given connection is using and make it visible to
+   * every connection sharing it.
+   *
+   * @param conn       a real connection to the database holding the schema.
+   * @param schemaName name of the schema.
+   * @return the freshly loaded Schema.
+   * @throws SQLException if the schema cannot be loaded.
+   */
+  public static Schema refresh(Connection conn, String schemaName) throws SQLException
+  {
+    Entry entry = getEntry(conn, schemaName);
+    entry.refresh(conn);
+    return entry.getSchema();
+  }
+
+  /**
+   * Forget all registered schemas.  Connections that are already open keep
+   * the schema they were given.
+   */
+  public static void clear()
+  {
+    entries.clear();
+  }
+
+  private static String getKey(String url, String schemaName)
+  {
+    return url + "|" + schemaName;
+  }
+
+  /**
+   * Load a schema from a snapshot file if snapshots are enabled and one
+   * matches the live schema, otherwise from the database.
+   */
+  private static Schema load(Connection conn, String schemaName) throws SQLException
+  {
+    if (DriverSpy.SchemaSnapshotDir != null)
+    {
+      return SchemaSnapshot.load(conn, schemaName);
+    }
+    return loadFromDB(conn, schemaName);
+  }
+
+  /**
+   * Load a schema from the database, the same way ConnectionSpy always did.
+   */
+  static Schema loadFromDB(Connection conn, String schemaName) throws SQLException
+  {
+    Schema schema = SchemaLoader.loadSchemaFromDB(conn, schemaName);
+    schema.setSchemaName(schemaName);
+    return schema;
+  }
+
+  /**
+   * Get the information_schema.COLUMNS column holding the full column type,
+   * the same one SchemaLoader uses for the driver of the given connection.
+   */
+  static String getTypeColumn(Connection conn) throws SQLException
+  {
+    String driver = conn.getMetaData().getDriverName();
+    return driver != null && driver.indexOf("PostgreSQL Native Driver") >= 0 ?
+      "DATA_TYPE" : "COLUMN_TYPE";
+  }
+
+  /**
+   * Load the metadata of a single table, with the same information_schema
+   * queries SchemaLoader uses for the whole schema.  Tables with foreign keys
+   * are taken from a full SchemaLoader load instead, so that they carry the
+   * same constraints as after a restart.
+   *
+   * @param conn       a real connection to the database holding the schema.
+   * @param schemaName name of the schema.
+   * @param tableName  name of the table.
+   * @return the table, or null if it does not exist (any more).
+   * @throws SQLException if the table metadata cannot be read.
+   */
+  static SchemaTable loadTable(Connection conn, String schemaName, String tableName) throws SQLException
+  {
+    String typeColumn = getTypeColumn(conn);
+
+    SchemaTable table = null;
+    PreparedStatement ps = conn.prepareStatement("SELECT TABLE_NAME, COLUMN_NAME, " + typeColumn +
+      " FROM information_schema.COLUMNS WHERE TABLE_SCHEMA=? AND LOWER(TABLE_NAME)=? ORDER BY ORDINAL_POSITION");
+    try
+    {
+      ps.setString(1, schemaName);
+      ps.setString(2, tableName);
+      ResultSet rs = ps.executeQuery();
+      while (rs.next())
+      {
+        if (table == null)
+        {
+          table = new SchemaTable(rs.getString(1));
+        }
+        table.addColumn(rs.getString(2), rs.getString(3));
+      }
+      rs.close();
+    }
+    finally
+    {
+      ps.close();
+    }
+    if (table == null)
+    {
+      return null;
+    }
+
+    ps = conn.prepareStatement("SELECT k.COLUMN_NAME, c.CONSTRAINT_NAME " +
+      "FROM information_schema.KEY_COLUMN_USAGE k, information_schema.TABLE_CONSTRAINTS c " +
+      "WHERE k.TABLE_NAME = c.TABLE_NAME AND k.TABLE_SCHEMA = c.TABLE_SCHEMA " +
+      "AND k.CONSTRAINT_NAME = c.CONSTRAINT_NAME AND c.CONSTRAINT_TYPE = 'PRIMARY KEY' " +
+      "AND k.TABLE_SCHEMA = ? AND k.TABLE_NAME = ? ORDER BY k.ORDINAL_POSITION");
+    try
+    {
+      ps.setString(1, schemaName);
+      ps.setString(2, table.getTableName());
+      ResultSet rs = ps.executeQuery();
+      Vector<String> fields = new Vector<String>();
+      String constraintName = null;
+      while (rs.next())
+      {
+        fields.add(rs.getString(1));
+        constraintName = rs.getString(2);
+      }
+      rs.close();
+      if (fields.size() > 0)
+      {
+        table.addConstraint(new PrimaryKey(constraintName, fields));
+      }
+    }
+    catch (IntegrityConstraintsExistsException e)
+    {
+      // can't happen on a freshly created SchemaTable
+    }
+    finally
+    {
+      ps.close();
+    }
+
+    if (hasForeignKeys(conn, schemaName, table.getTableName()))
+    {
+      SchemaTable loaded = loadFromDB(conn, schemaName).getTable(table.getTableName());
+      if (loaded != null)
+      {
+        return loaded;
+      }
+    }
+    return table;
+  }
+
+  /**
+   * Check whether a table declares any foreign key.
+   */
+  private static boolean hasForeignKeys(Connection conn, String schemaName, String tableName) throws SQLException
+  {
+    PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*) FROM information_schema.TABLE_CONSTRAINTS " +
+      "WHERE CONSTRAINT_TYPE = 'FOREIGN KEY' AND TABLE_SCHEMA = ? AND TABLE_NAME = ?");
+    try
+    {
+      ps.setString(1, schemaName);
+      ps.setString(2, tableName);
+      ResultSet rs = ps.executeQuery();
+      boolean found = rs.next() && rs.getInt(1) > 0;
+      rs.close();
+      return found;
+    }
+    finally
+    {
+      ps.close();
+    }
+  }
+
+  /**
+   * A registered schema.  ConnectionSpy holds on to its Entry and reads the
+   * current Schema from it for every rewrite, so a refresh is picked up by
+   * connections that are already open.
+   */
+  public static class Entry
+  {
+    private final String key;
+    private final String schemaName;
+    private volatile Schema schema;
+    private volatile TemporalTables temporalTables;
+
+    Entry(String key, String schemaName)
+    {
+      this.key = key;
+      this.schemaName = schemaName;
+    }
+
+    /**
+     * @return the current Schema of this entry.
+     */
+    public Schema getSchema()
+    {
+      return schema;
+    }
+
+    /**
+     * @return the name of the schema.
+     */
+    public String getSchemaName()
+    {
+      return schemaName;
+    }
+
+    /**
+     * Reload the schema from the database and publish it.
+     *
+     * @param conn a real connection to the database holding the schema.
+     * @throws SQLException if the schema cannot be loaded.
+     */
+    public synchronized void refresh(Connection conn) throws SQLException
+    {
+      publish(load(conn, schemaName));
+      RewriteCache.invalidate(this);
+    }
+
+    /**
+     * Reload the metadata of a single table and publish a copy of the schema
+     * that contains it.  If the table no longer exists it is removed from the
+     * schema.
+     *
+     * @param conn      a real connection to the database holding the schema.
+     * @param tableName name of the table that changed.
+     * @throws SQLException if the table cannot be loaded.
+     */
+    public synchronized void reloadTable(Connection conn, String tableName) throws SQLException
+    {
+      String name = RewrittenSql.normalizeTableName(tableName);
+      SchemaTable reloaded = loadTable(conn, schemaName, name);
+
+      Vector<SchemaTable> tables = new Vector<SchemaTable>();
+      for (Iterator<SchemaTable> i = schema.getTables().iterator(); i.hasNext();)
+      {
+        SchemaTable t = i.next();
+        if (!t.getTableName().equalsIgnoreCase(name))
+        {
+          tables.add(t);
+        }
+      }
+      if (reloaded != null)
+      {
+        tables.add(reloaded);
+      }
+
+      Schema copy = new Schema(schema);
+      copy.setTables(tables);
+      copy.setSchemaName(schemaName);
+      publish(copy);
+      RewriteCache.invalidate(this, name);
+    }
+
+    synchronized void loadIfNeeded(Connection conn) throws SQLException
+    {
+      if (schema == null)
+      {
+        publish(load(conn, schemaName));
+      }
+    }
+
+    /**
+     * @return the temporalized tables of the current schema.
+     */
+    TemporalTables getTemporalTables()
+    {
+      return temporalTables;
+    }
+
+    private void publish(Schema loaded)
+    {
+      temporalTables = new TemporalTables(loaded);
+      schema = loaded;
+    }
+
+    public String toString()
+    {
+      return key;
+    }
+  }
+}
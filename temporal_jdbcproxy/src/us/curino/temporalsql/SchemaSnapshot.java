@@ -0,0 +1,325 @@
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.relationalcloud.tsqlparser.loader.Schema;
+
+/**
+ * Persists loaded schemas to disk so that a freshly started process does not
+ * have to rebuild them from information_schema.
+ *
+ * SchemaLoader runs a couple of queries per table, which takes seconds on a
+ * large schema.  Instead, a fingerprint of the live schema (table and column
+ * names and types, and primary key columns) is computed with two queries, and
+ * a snapshot file named after the schema and that fingerprint is looked up in
+ * the directory given by the <b>log4jdbc.temporal.schema.snapshot.dir</b>
+ * property.  If there is one, it holds the same schema as the database and is
+ * memory mapped and deserialized; otherwise the schema is loaded from the
+ * database and a new snapshot is written for the next start.
+ *
+ * A snapshot file is a small header (magic number, format version, schema
+ * name and fingerprint, which are checked again on load) followed by the
+ * deflate compressed, serialized Schema.
+ */
+public class SchemaSnapshot
+{
+  /**
+   * Do not allow instantiation.  Access is through static methods.
+   */
+  private SchemaSnapshot() {}
+
+  private static final int MAGIC = 0x54534e50; // "TSNP"
+
+  private static final int VERSION = 1;
+
+  private static final SpyLogDelegator log = SpyLogFactory.getSpyLogDelegator();
+
+  /**
+   * Load the given schema, from a snapshot file if there is one that matches
+   * the live schema, otherwise from the database (and then write a snapshot.)
+   *
+   * @param conn       a real connection to the database holding the schema.
+   * @param schemaName name of the schema.
+   * @return the loaded Schema.
+   * @throws SQLException if the schema cannot be loaded.
+   */
+  public static Schema load(Connection conn, String schemaName) throws SQLException
+  {
+    String fingerprint = fingerprint(conn, schemaName);
+    File file = getFile(schemaName, fingerprint);
+    if (file.isFile())
+    {
+      try
+      {
+        Schema schema = read(file, schemaName, fingerprint);
+        log.debug("loaded schema " + schemaName + " from snapshot " + file);
+        return schema;
+      }
+      catch (Exception e)
+      {
+        log.debug("ignoring unreadable schema snapshot " + file + ": " + e);
+      }
+    }
+
+    Schema schema = SchemaRegistry.loadFromDB(conn, schemaName);
+    try
+    {
+      write(file, schema, schemaName, fingerprint);
+      log.debug("wrote schema snapshot " + file);
+    }
+    catch (IOException e)
+    {
+      log.debug("could not write schema snapshot " + file + ": " + e);
+    }
+    return schema;
+  }
+
+  /**
+   * Compute a fingerprint of the live schema, which changes whenever a table,
+   * a column, a column type, a primary key or a foreign key changes.
+   *
+   * @param conn       a real connection to the database holding the schema.
+   * @param schemaName name of the schema.
+   * @return the fingerprint as a hex string.
+   * @throws SQLException if information_schema cannot be read.
+   */
+  public static String fingerprint(Connection conn, String schemaName) throws SQLException
+  {
+    MessageDigest md;
+    try
+    {
+      md = MessageDigest.getInstance("SHA-1");
+    }
+    catch (NoSuchAlgorithmException e)
+    {
+      throw new SQLException("SHA-1 not available: " + e);
+    }
+
+    digest(md, conn, schemaName, "SELECT TABLE_NAME, COLUMN_NAME, " +
+      SchemaRegistry.getTypeColumn(conn) + " FROM information_schema.COLUMNS " +
+      "WHERE TABLE_SCHEMA=? ORDER BY TABLE_NAME, ORDINAL_POSITION");
+    digest(md, conn, schemaName, "SELECT k.TABLE_NAME, k.COLUMN_NAME, c.CONSTRAINT_NAME, c.CONSTRAINT_TYPE " +
+      "FROM information_schema.KEY_COLUMN_USAGE k, information_schema.TABLE_CONSTRAINTS c " +
+      "WHERE k.TABLE_NAME = c.TABLE_NAME AND k.TABLE_SCHEMA = c.TABLE_SCHEMA " +
+      "AND k.CONSTRAINT_NAME = c.CONSTRAINT_NAME " +
+      "AND c.CONSTRAINT_TYPE IN ('PRIMARY KEY', 'FOREIGN KEY') " +
+      "AND k.TABLE_SCHEMA = ? ORDER BY k.TABLE_NAME, c.CONSTRAINT_NAME, k.ORDINAL_POSITION");
+    digest(md, conn, schemaName, "SELECT CONSTRAINT_NAME, UNIQUE_CONSTRAINT_NAME " +
+      "FROM information_schema.REFERENTIAL_CONSTRAINTS " +
+      "WHERE CONSTRAINT_SCHEMA = ? ORDER BY CONSTRAINT_NAME");
+
+    byte[] hash = md.digest();
+    StringBuffer hex = new StringBuffer(hash.length * 2);
+    for (int i = 0; i < hash.length; i++)
+    {
+      hex.append(Character.forDigit((hash[i] >> 4) & 0xf, 16));
+      hex.append(Character.forDigit(hash[i] & 0xf, 16));
+    }
+    return hex.toString();
+  }
+
+  /**
+   * Feed every column of every row of a schema query to the digest.
+   */
+  private static void digest(MessageDigest md, Connection conn, String schemaName, String sql)
+    throws SQLException
+  {
+    PreparedStatement ps = conn.prepareStatement(sql);
+    try
+    {
+      ps.setString(1, schemaName);
+      ResultSet rs = ps.executeQuery();
+      int columns = rs.getMetaData().getColumnCount();
+      while (rs.next())
+      {
+        for (int i = 1; i <= columns; i++)
+        {
+          String value = rs.getString(i);
+          if (value != null)
+          {
+            for (int j = 0; j < value.length(); j++)
+            {
+              char c = value.charAt(j);
+              md.update((byte) (c >> 8));
+              md.update((byte) c);
+            }
+          }
+          md.update((byte) 0);
+        }
+      }
+      rs.close();
+    }
+    finally
+    {
+      ps.close();
+    }
+  }
+
+  /**
+   * Get the snapshot file for a schema name and fingerprint.
+   */
+  static File getFile(String schemaName, String fingerprint)
+  {
+    StringBuffer name = new StringBuffer();
+    for (int i = 0; i < schemaName.length(); i++)
+    {
+      char c = schemaName.charAt(i);
+      name.append(Character.isLetterOrDigit(c) || c == '_' || c == '-' ? c : '_');
+    }
+    name.append('-');
+    name.append(fingerprint);
+    name.append(".schema");
+    return new File(DriverSpy.SchemaSnapshotDir, name.toString());
+  }
+
+  /**
+   * Memory map a snapshot file and deserialize the Schema in it.
+   */
+  static Schema read(File file, String schemaName, String fingerprint)
+    throws IOException, ClassNotFoundException
+  {
+    FileInputStream fis = new FileInputStream(file);
+    try
+    {
+      FileChannel channel = fis.getChannel();
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      DataInputStream in = new DataInputStream(new ByteBufferInputStream(buffer));
+      if (in.readInt() != MAGIC || in.readInt() != VERSION)
+      {
+        throw new IOException("not a schema snapshot");
+      }
+      if (!schemaName.equals(in.readUTF()) || !fingerprint.equals(in.readUTF()))
+      {
+        throw new IOException("snapshot is for a different schema");
+      }
+      ObjectInputStream ois = new ObjectInputStream(new InflaterInputStream(in));
+      Schema schema = (Schema) ois.readObject();
+      schema.setSchemaName(schemaName);
+      return schema;
+    }
+    finally
+    {
+      fis.close();
+    }
+  }
+
+  /**
+   * Serialize a Schema to a snapshot file.  The snapshot is written to a
+   * temporary file first and renamed into place, so that concurrently starting
+   * processes never see a partial snapshot.
+   */
+  static void write(File file, Schema schema, String schemaName, String fingerprint)
+    throws IOException
+  {
+    File dir = file.getParentFile();
+    if (dir != null && !dir.isDirectory() && !dir.mkdirs())
+    {
+      throw new IOException("could not create " + dir);
+    }
+    File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+    try
+    {
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+      try
+      {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(schemaName);
+        out.writeUTF(fingerprint);
+        DeflaterOutputStream deflater = new DeflaterOutputStream(out);
+        ObjectOutputStream oos = new ObjectOutputStream(deflater);
+        oos.writeObject(schema);
+        oos.flush();
+        deflater.finish();
+      }
+      finally
+      {
+        out.close();
+      }
+      if (!tmp.renameTo(file))
+      {
+        // another process may have written the same snapshot already
+        if (!file.isFile())
+        {
+          throw new IOException("could not rename " + tmp + " to " + file);
+        }
+      }
+    }
+    finally
+    {
+      tmp.delete();
+    }
+  }
+
+  /**
+   * An InputStream over a (memory mapped) ByteBuffer.
+   */
+  private static class ByteBufferInputStream extends InputStream
+  {
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer)
+    {
+      this.buffer = buffer;
+    }
+
+    public int read()
+    {
+      return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    public int read(byte[] b, int off, int len)
+    {
+      if (!buffer.hasRemaining())
+      {
+        return -1;
+      }
+      len = Math.min(len, buffer.remaining());
+      buffer.get(b, off, len);
+      return len;
+    }
+
+    public int available()
+    {
+      return buffer.remaining();
+    }
+  }
+}
@@ -86,6 +86,61 @@ public class Slf4jSpyLogDelegator implements SpyLogDelegator
       sqlTimingLogger.isErrorEnabled() || connectionLogger.isErrorEnabled();
   }
 
+  /**
+   * Determine if any of the spy loggers is at debug level, so that debug info
+   * (the caller of the JDBC method) will be logged.
+   *
+   * @return true if debug info is needed for a log event.
+   */
+  boolean isDebugInfoEnabled()
+  {
+    return jdbcLogger.isDebugEnabled() || resultSetLogger.isDebugEnabled() || sqlOnlyLogger.isDebugEnabled() ||
+      sqlTimingLogger.isDebugEnabled() || connectionLogger.isDebugEnabled();
+  }
+
+  public boolean isResultSetLoggingEnabled()
+  {
+    return resultSetLogger.isInfoEnabled();
+  }
+
+  public boolean isMethodReturnedEnabled(Spy spy)
+  {
+    return (ResultSetSpy.classTypeDescription.equals(spy.getClassType()) ?
+      resultSetLogger : jdbcLogger).isInfoEnabled();
+  }
+
+  /**
+   * Determine if sqlOccured would log anything.
+   */
+  boolean isSqlEnabled()
+  {
+    return sqlOnlyLogger.isInfoEnabled();
+  }
+
+  /**
+   * Determine if sqlTimingOccured would log anything.
+   */
+  boolean isSqlTimingEnabled()
+  {
+    return sqlTimingLogger.isErrorEnabled();
+  }
+
+  /**
+   * Determine if connectionOpened and connectionClosed would log anything.
+   */
+  boolean isConnectionEnabled()
+  {
+    return connectionLogger.isInfoEnabled();
+  }
+
+  /**
+   * Determine if debug would log anything.
+   */
+  boolean isDebugEnabled()
+  {
+    return debugLogger.isDebugEnabled();
+  }
+
   /**
    * Called when a jdbc method throws an Exception.
    *
@@ -178,6 +233,23 @@ public class Slf4jSpyLogDelegator implements SpyLogDelegator
 
   private static String nl = System.getProperty("line.separator");
 
+  /**
+   * Debug info captured on the thread that made the JDBC call, for the log
+   * thread of an AsyncSpyLogDelegator to use instead of its own stack.
+   */
+  private static final ThreadLocal<String> capturedDebugInfo = new ThreadLocal<String>();
+
+  /**
+   * Make getDebugInfo on this thread return the given debug info instead of
+   * looking at the stack, until it is set to null again.
+   *
+   * @param debugInfo debug info captured on another thread, or null.
+   */
+  static void setCapturedDebugInfo(String debugInfo)
+  {
+    capturedDebugInfo.set(debugInfo);
+  }
+
   /**
    * Determine if the given sql should be logged or not
    * based on the various DumpSqlXXXXXX flags.
@@ -378,91 +450,57 @@ public class Slf4jSpyLogDelegator implements SpyLogDelegator
   /**
    * Get debugging info - the module and line number that called the logger
    * version that prints the stack trace information from the point just before
-   * we got it (net.sf.log4jdbc)
+   * we got it (us.curino.temporalsql)
    *
    * if the optional log4jdbc.debug.stack.prefix system property is defined then
    * the last call point from an application is shown in the debug
    * trace output, instead of the last direct caller into log4jdbc
    *
+   * The caller is found by CallerLocator, which avoids capturing the whole
+   * stack where it can.
+   *
    * @return debugging info for whoever called into JDBC from within the application.
    */
-  private static String getDebugInfo()
+  static String getDebugInfo()
   {
-    Throwable t = new Throwable();
-    t.fillInStackTrace();
-
-    StackTraceElement[] stackTrace = t.getStackTrace();
-
-    if (stackTrace != null)
+    String captured = capturedDebugInfo.get();
+    if (captured != null)
     {
-      String className;
+      return captured;
+    }
 
+    /**
+     * The DumpFullDebugStackTrace option is useful in some situations when
+     * we want to see the full stack trace in the debug info-  watch out
+     * though as this will make the logs HUGE!
+     */
+    if (DriverSpy.DumpFullDebugStackTrace)
+    {
+      StackTraceElement[] stackTrace = new Throwable().getStackTrace();
       StringBuffer dump = new StringBuffer();
-
-      /**
-       * The DumpFullDebugStackTrace option is useful in some situations when
-       * we want to see the full stack trace in the debug info-  watch out
-       * though as this will make the logs HUGE!
-       */
-      if (DriverSpy.DumpFullDebugStackTrace)
+      boolean first=true;
+      for (int i = 0; i < stackTrace.length; i++)
       {
-        boolean first=true;
-        for (int i = 0; i < stackTrace.length; i++)
+        if (!stackTrace[i].getClassName().startsWith(CallerLocator.PACKAGE_PREFIX))
         {
-          className = stackTrace[i].getClassName();
-          if (!className.startsWith("net.sf.log4jdbc"))
+          if (first)
           {
-            if (first)
-            {
-              first = false;
-            }
-            else
-            {
-              dump.append("  ");
-            }
-            dump.append("at ");
-            dump.append(stackTrace[i]);
-            dump.append(nl);
+            first = false;
           }
-        }
-      }
-      else
-      {
-        dump.append(" ");
-        int firstLog4jdbcCall = 0;
-        int lastApplicationCall = 0;
-
-        for (int i = 0; i < stackTrace.length; i++)
-        {
-          className = stackTrace[i].getClassName();
-          if (className.startsWith("net.sf.log4jdbc"))
-          {
-            firstLog4jdbcCall = i;
-          }
-          else if (DriverSpy.TraceFromApplication &&
-            className.startsWith(DriverSpy.DebugStackPrefix))
+          else
           {
-            lastApplicationCall = i;
-            break;
+            dump.append("  ");
           }
+          dump.append("at ");
+          dump.append(stackTrace[i]);
+          dump.append(nl);
         }
-        int j = lastApplicationCall;
-
-        if (j == 0)  // if app not found, then use whoever was the last guy that called a log4jdbc class.
-        {
-          j = 1 + firstLog4jdbcCall;
-        }
-
-        dump.append(stackTrace[j].getClassName()).append(".").append(stackTrace[j].getMethodName()).append("(").
-          append(stackTrace[j].getFileName()).append(":").append(stackTrace[j].getLineNumber()).append(")");
       }
-
       return dump.toString();
     }
-    else
-    {
-      return null;
-    }
+
+    String location = CallerLocator.getCallerLocation();
+    return location == null ? null : " " + location;
   }
 
   /**
@@ -505,6 +543,11 @@ public class Slf4jSpyLogDelegator implements SpyLogDelegator
     {
       connectionLogger.info(spy.getConnectionNumber() + ". Connection closed " +
         getDebugInfo());
+      if (spy instanceof ConnectionSpy && ((ConnectionSpy) spy).getStatementCache() != null)
+      {
+        connectionLogger.debug(spy.getConnectionNumber() + ". " +
+          ((ConnectionSpy) spy).getStatementCache().getStatsDump());
+      }
       connectionLogger.debug(ConnectionSpy.getOpenConnectionsDump());
     }
     else
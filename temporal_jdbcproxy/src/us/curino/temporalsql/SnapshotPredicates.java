@@ -0,0 +1,480 @@
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Index friendly predicates for the temporal queries (the tsqlparser
+ * extensions that ask for the state of the tables at, or before, a time.)
+ *
+ * The rewriter turns the time of such a query into comparisons of the
+ * tstart and tend columns with a literal, written as the application wrote
+ * the time.  A datetime string compared with the DECIMAL(20,6) columns
+ * TemporalizeSchema creates is converted to a floating point number row by
+ * row, and a comparison written with the literal first or as
+ * <code>T BETWEEN tstart AND tend</code> is not always seen as a range on the
+ * columns, so a point in time lookup can end up scanning all of history.
+ *
+ * {@link #normalize} rewrites those comparisons as
+ * <code>column op literal</code> (so <code>T BETWEEN tstart AND tend</code>
+ * becomes <code>tstart &lt;= T AND tend &gt; T</code>) with the literal in
+ * the encoding of the columns: a YYYYMMDDhhmmss.uuuuuu number for numeric
+ * columns, a quoted timestamp otherwise.  For prepared statements
+ * {@link #findLiterals} then finds the literals so that RewrittenSql can turn
+ * them into parameters bound to the same value, and a statement asking for
+ * another time reuses the same plan.  A range on (tend, tstart) after the key
+ * columns is served by the index TemporalizeSchema creates.
+ *
+ * A version is valid from its tstart up to but not including its tend, the
+ * tstart of the version that replaced it, so BETWEEN becomes the half open
+ * range: at the exact time a row changed, only the new version matches.
+ */
+final class SnapshotPredicates
+{
+  /**
+   * Do not allow instantiation.  Access is through static methods.
+   */
+  private SnapshotPredicates() {}
+
+  /**
+   * Kinds of the tokens of {@link #tokenize}.
+   */
+  static final int NAME = 1;
+  static final int STRING = 2;
+  static final int NUMBER = 3;
+  static final int OPERATOR = 4;
+  static final int OTHER = 5;
+
+  /**
+   * Rewrite the comparisons of the tstart and tend columns with a time in a
+   * temporal query into the <code>column op literal</code> form, with the
+   * literal in the encoding of the columns.  Comparisons whose literal is not
+   * a number or a datetime are left as they are.
+   *
+   * @param sql         the non temporal SQL the rewriter made of a temporal query.
+   * @param numericTime true if tstart and tend are numbers (DECIMAL(20,6)),
+   *                    false if they are timestamps.
+   * @return the SQL with its time comparisons normalized.
+   */
+  static String normalize(String sql, boolean numericTime)
+  {
+    List<int[]> tokens = tokenize(sql);
+    StringBuffer out = new StringBuffer(sql.length() + 16);
+    int pos = 0;
+    for (int t = 0; t < tokens.size(); t++)
+    {
+      String replacement = null;
+      int last = t;
+      if (isTimeColumn(sql, tokens, t) && isComparison(sql, tokens, t + 1) &&
+          isLiteral(tokens, t + 2) && endsTerm(sql, tokens, t + 3))
+      {
+        replacement = normalizeLiteral(text(sql, tokens, t + 2), numericTime);
+        if (replacement != null)
+        {
+          replacement = text(sql, tokens, t) + " " + text(sql, tokens, t + 1) + " " + replacement;
+          last = t + 2;
+        }
+      }
+      else if (isLiteral(tokens, t) && startsTerm(sql, tokens, t - 1))
+      {
+        String literal = normalizeLiteral(text(sql, tokens, t), numericTime);
+        if (literal != null && isComparison(sql, tokens, t + 1) && isTimeColumn(sql, tokens, t + 2) &&
+            endsTerm(sql, tokens, t + 3))
+        {
+          replacement = text(sql, tokens, t + 2) + " " + flip(text(sql, tokens, t + 1)) + " " + literal;
+          last = t + 2;
+        }
+        else if (literal != null && isKeyword(sql, tokens, t + 1, "between") &&
+                 isTimeColumn(sql, tokens, t + 2) && isKeyword(sql, tokens, t + 3, "and") &&
+                 isTimeColumn(sql, tokens, t + 4) && endsTerm(sql, tokens, t + 5))
+        {
+          replacement = text(sql, tokens, t + 2) + " <= " + literal + " AND " +
+            text(sql, tokens, t + 4) + " > " + literal;
+          last = t + 4;
+        }
+      }
+      if (replacement != null)
+      {
+        out.append(sql.substring(pos, tokens.get(t)[0]));
+        out.append(replacement);
+        pos = tokens.get(last)[1];
+        t = last;
+      }
+    }
+    if (pos == 0)
+    {
+      return sql;
+    }
+    out.append(sql.substring(pos));
+    return out.toString();
+  }
+
+  /**
+   * Find the literals compared with the tstart and tend columns in a
+   * normalized temporal query.
+   *
+   * @param sql a temporal query, normalized.
+   * @return the start and end of each literal, in pairs, in order.
+   */
+  static int[] findLiterals(String sql)
+  {
+    List<int[]> tokens = tokenize(sql);
+    List<Integer> literals = new ArrayList<Integer>();
+    for (int t = 0; t + 2 < tokens.size(); t++)
+    {
+      if (isTimeColumn(sql, tokens, t) && isComparison(sql, tokens, t + 1) && isLiteral(tokens, t + 2) &&
+          endsTerm(sql, tokens, t + 3) && getValue(text(sql, tokens, t + 2)) != null)
+      {
+        literals.add(Integer.valueOf(tokens.get(t + 2)[0]));
+        literals.add(Integer.valueOf(tokens.get(t + 2)[1]));
+        t += 2;
+      }
+    }
+    int[] found = new int[literals.size()];
+    for (int i = 0; i < found.length; i++)
+    {
+      found[i] = literals.get(i).intValue();
+    }
+    return found;
+  }
+
+  /**
+   * Get the value to bind in place of a normalized literal.
+   *
+   * @param literal a number or a quoted timestamp.
+   * @return a BigDecimal or a Timestamp, or null if the literal is neither.
+   */
+  static Object getValue(String literal)
+  {
+    try
+    {
+      if (literal.startsWith("'"))
+      {
+        return Timestamp.valueOf(literal.substring(1, literal.length() - 1));
+      }
+      return new BigDecimal(literal);
+    }
+    catch (IllegalArgumentException e)
+    {
+      return null;
+    }
+  }
+
+  /**
+   * Write a literal in the encoding of the time columns.
+   *
+   * @return the literal, or null if it is not a time.
+   */
+  private static String normalizeLiteral(String literal, boolean numericTime)
+  {
+    String value = literal;
+    if (value.startsWith("'"))
+    {
+      value = value.substring(1, value.length() - 1).trim();
+    }
+    if (value.length() > 0 && isNumber(value))
+    {
+      return numericTime ? value : literal;
+    }
+    // YYYY-MM-DD[ hh:mm:ss[.uuuuuu]]
+    StringBuffer digits = new StringBuffer(21);
+    int[] lengths = {4, 2, 2, 2, 2, 2};
+    char[] separators = {'-', '-', ' ', ':', ':', '.'};
+    int i = 0;
+    for (int f = 0; f < lengths.length; f++)
+    {
+      if (f == 3 && i == value.length())
+      {
+        digits.append("000000");
+        break;
+      }
+      for (int d = 0; d < lengths[f]; d++, i++)
+      {
+        if (i >= value.length() || !Character.isDigit(value.charAt(i)))
+        {
+          return null;
+        }
+        digits.append(value.charAt(i));
+      }
+      if (f < lengths.length - 1 && i < value.length())
+      {
+        char c = value.charAt(i);
+        if (c != separators[f] && !(f == 2 && c == 'T'))
+        {
+          return null;
+        }
+        i++;
+      }
+    }
+    StringBuffer micros = new StringBuffer();
+    if (i < value.length() && value.charAt(i) == '.')
+    {
+      for (i++; i < value.length() && Character.isDigit(value.charAt(i)) && micros.length() < 6; i++)
+      {
+        micros.append(value.charAt(i));
+      }
+    }
+    if (i != value.length())
+    {
+      return null;
+    }
+    while (micros.length() < 6)
+    {
+      micros.append('0');
+    }
+    if (numericTime)
+    {
+      return digits + "." + micros;
+    }
+    return "'" + digits.substring(0, 4) + "-" + digits.substring(4, 6) + "-" + digits.substring(6, 8) + " " +
+      digits.substring(8, 10) + ":" + digits.substring(10, 12) + ":" + digits.substring(12, 14) + "." + micros + "'";
+  }
+
+  private static boolean isNumber(String value)
+  {
+    boolean dot = false;
+    for (int i = 0; i < value.length(); i++)
+    {
+      char c = value.charAt(i);
+      if (c == '.' && !dot && i > 0)
+      {
+        dot = true;
+      }
+      else if (!Character.isDigit(c))
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String flip(String operator)
+  {
+    if (operator.equals("<"))
+    {
+      return ">";
+    }
+    if (operator.equals("<="))
+    {
+      return ">=";
+    }
+    if (operator.equals(">"))
+    {
+      return "<";
+    }
+    if (operator.equals(">="))
+    {
+      return "<=";
+    }
+    return operator;
+  }
+
+  private static String text(String sql, List<int[]> tokens, int t)
+  {
+    return sql.substring(tokens.get(t)[0], tokens.get(t)[1]);
+  }
+
+  /**
+   * @return true if the token is a (qualified) tstart or tend column.
+   */
+  static boolean isTimeColumn(String sql, List<int[]> tokens, int t)
+  {
+    if (t < 0 || t >= tokens.size() || tokens.get(t)[2] != NAME)
+    {
+      return false;
+    }
+    String name = RewrittenSql.normalizeTableName(text(sql, tokens, t));
+    return name.equals("tstart") || name.equals("tend");
+  }
+
+  static boolean isComparison(String sql, List<int[]> tokens, int t)
+  {
+    if (t >= tokens.size() || tokens.get(t)[2] != OPERATOR)
+    {
+      return false;
+    }
+    String op = text(sql, tokens, t);
+    return op.equals("<") || op.equals("<=") || op.equals(">") || op.equals(">=") || op.equals("=");
+  }
+
+  static boolean isLiteral(List<int[]> tokens, int t)
+  {
+    return t < tokens.size() && (tokens.get(t)[2] == STRING || tokens.get(t)[2] == NUMBER);
+  }
+
+  private static boolean isKeyword(String sql, List<int[]> tokens, int t, String keyword)
+  {
+    return t < tokens.size() && tokens.get(t)[2] == NAME && text(sql, tokens, t).equalsIgnoreCase(keyword);
+  }
+
+  /**
+   * @return true if a comparison starting after the token cannot be the
+   *         right hand side of an arithmetic operator.
+   */
+  private static boolean startsTerm(String sql, List<int[]> tokens, int t)
+  {
+    if (t < 0)
+    {
+      return true;
+    }
+    if (tokens.get(t)[2] == NAME)
+    {
+      String k = text(sql, tokens, t).toLowerCase();
+      return k.equals("where") || k.equals("and") || k.equals("or") || k.equals("on") ||
+        k.equals("not") || k.equals("when") || k.equals("having");
+    }
+    String c = text(sql, tokens, t);
+    return c.equals("(") || c.equals(",");
+  }
+
+  /**
+   * @return true if a comparison ending before the token cannot be the left
+   *         hand side of an arithmetic operator.
+   */
+  static boolean endsTerm(String sql, List<int[]> tokens, int t)
+  {
+    if (t >= tokens.size())
+    {
+      return true;
+    }
+    if (tokens.get(t)[2] == NAME)
+    {
+      return true;
+    }
+    String c = text(sql, tokens, t);
+    return c.equals(")") || c.equals(";") || c.equals(",");
+  }
+
+  /**
+   * Split SQL into tokens, without the blanks and comments between them.
+   *
+   * @return for each token its start, its end and its kind.
+   */
+  static List<int[]> tokenize(String sql)
+  {
+    List<int[]> tokens = new ArrayList<int[]>();
+    int n = sql.length();
+    int i = 0;
+    while (i < n)
+    {
+      char c = sql.charAt(i);
+      int start = i;
+      int kind;
+      if (Character.isWhitespace(c))
+      {
+        i++;
+        continue;
+      }
+      else if (c == '-' && i + 1 < n && sql.charAt(i + 1) == '-')
+      {
+        while (i < n && sql.charAt(i) != '\n')
+        {
+          i++;
+        }
+        continue;
+      }
+      else if (c == '/' && i + 1 < n && sql.charAt(i + 1) == '*')
+      {
+        int end = sql.indexOf("*/", i + 2);
+        i = end < 0 ? n : end + 2;
+        continue;
+      }
+      else if (c == '\'')
+      {
+        i++;
+        while (i < n)
+        {
+          char q = sql.charAt(i++);
+          if (q == '\\')
+          {
+            i++;
+          }
+          else if (q == '\'')
+          {
+            if (i < n && sql.charAt(i) == '\'')
+            {
+              i++;
+            }
+            else
+            {
+              break;
+            }
+          }
+        }
+        i = Math.min(i, n);
+        kind = STRING;
+      }
+      else if (Character.isDigit(c))
+      {
+        while (i < n && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.'))
+        {
+          i++;
+        }
+        kind = NUMBER;
+        if (i < n && Character.isLetter(sql.charAt(i)))
+        {
+          kind = OTHER;
+        }
+      }
+      else if (Character.isLetter(c) || c == '_' || c == '`' || c == '"')
+      {
+        // a name, qualified or not, with its quoted parts
+        while (i < n)
+        {
+          char d = sql.charAt(i);
+          if (d == '`' || d == '"')
+          {
+            int end = sql.indexOf(d, i + 1);
+            i = end < 0 ? n : end + 1;
+          }
+          else if (Character.isLetterOrDigit(d) || d == '_' || d == '$' || d == '.')
+          {
+            i++;
+          }
+          else
+          {
+            break;
+          }
+        }
+        kind = NAME;
+      }
+      else if (c == '<' || c == '>' || c == '=' || c == '!')
+      {
+        i++;
+        if (i < n && (sql.charAt(i) == '=' || (c == '<' && sql.charAt(i) == '>')))
+        {
+          i++;
+        }
+        kind = OPERATOR;
+      }
+      else
+      {
+        i++;
+        kind = OTHER;
+      }
+      tokens.add(new int[] {start, i, kind});
+    }
+    return tokens;
+  }
+}
@@ -35,6 +35,26 @@ public interface SpyLogDelegator
    */
   public boolean isJdbcLoggingEnabled();
 
+  /**
+   * Determine if a method returning on the given spy will be logged.  Spies
+   * only build the description of a method call when this is true, so that
+   * wrapped calls allocate nothing while the loggers are turned off.  A call
+   * that throws is described in full again whenever isJdbcLoggingEnabled is
+   * true, so that the exception log keeps the arguments (and bind values).
+   *
+   * @param spy the Spy wrapping the class whose method returns.
+   * @return true if methodReturned logs anything for the spy.
+   */
+  public boolean isMethodReturnedEnabled(Spy spy);
+
+  /**
+   * Determine if the resultset logger is turned on.  While it is off,
+   * statements may hand out result sets that are not spied upon at all.
+   *
+   * @return true if the resultset logger is enabled at info level or lower.
+   */
+  public boolean isResultSetLoggingEnabled();
+
   /**
    * Called when a spied upon method throws an Exception.
    *
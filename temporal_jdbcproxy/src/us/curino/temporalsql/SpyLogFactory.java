@@ -1,55 +1,70 @@
-/**
- *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
- *  
- *  See the NOTICE file distributed with this work for additional 
- *  information regarding copyright ownership.
- *
- *  Licensed under the Apache License, Version 2.0 (the "License");
- *  you may not use this file except in compliance with the License.
- *  You may obtain a copy of the License at
- *
- *      http://www.apache.org/licenses/LICENSE-2.0
- *
- *  Unless required by applicable law or agreed to in writing, software
- *  distributed under the License is distributed on an "AS IS" BASIS,
- *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- *  See the License for the specific language governing permissions and
- *  limitations under the License.
- */
-
-package us.curino.temporalsql;
-
-
-/**
- * A provider for a SpyLogDelegator.  This allows a single switch point to abstract
- * away which logging system to use for spying on JDBC calls.
- *
- * The SLF4J logging facade is used, which is a very good general purpose facade for plugging into
- * numerous java logging systems, simply and easily.
- *
- * @author Arthur Blake
- */
-public class SpyLogFactory
-{
-  /**
-   * Do not allow instantiation.  Access is through static method.
-   */
-  private SpyLogFactory() {}
-
-  /**
-   * The logging system of choice.
-   */
-  private static final SpyLogDelegator logger = new Slf4jSpyLogDelegator();
-  //new Log4jSpyLogDelegator();
-
-  /**
-   * Get the default SpyLogDelegator for logging to the logger.
-   *
-   * @return the default SpyLogDelegator for logging to the logger.
-   */
-  public static SpyLogDelegator getSpyLogDelegator()
-  {
-    return logger;
-  }
-}
-
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *  
+ *  See the NOTICE file distributed with this work for additional 
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+
+/**
+ * A provider for a SpyLogDelegator.  This allows a single switch point to abstract
+ * away which logging system to use for spying on JDBC calls.
+ *
+ * The SLF4J logging facade is used, which is a very good general purpose facade for plugging into
+ * numerous java logging systems, simply and easily.
+ *
+ * @author Arthur Blake
+ */
+public class SpyLogFactory
+{
+  /**
+   * Do not allow instantiation.  Access is through static method.
+   */
+  private SpyLogFactory() {}
+
+  /**
+   * The logging system of choice.
+   */
+  private static volatile SpyLogDelegator logger = new Slf4jSpyLogDelegator();
+  //new Log4jSpyLogDelegator();
+
+  /**
+   * Switch to an AsyncSpyLogDelegator in front of the slf4j one if
+   * <b>log4jdbc.async.buffer.size</b> is set.  Called by DriverSpy once the
+   * log4jdbc properties are loaded; objects that already got the delegator
+   * keep logging synchronously.
+   */
+  static synchronized void configure()
+  {
+    if (DriverSpy.AsyncLogBufferSize > 0 && logger instanceof Slf4jSpyLogDelegator)
+    {
+      logger = new AsyncSpyLogDelegator((Slf4jSpyLogDelegator) logger, DriverSpy.AsyncLogBufferSize,
+        AsyncSpyLogDelegator.getPolicy(DriverSpy.AsyncLogOverflow), DriverSpy.AsyncLogSampleRate);
+    }
+  }
+
+  /**
+   * Get the default SpyLogDelegator for logging to the logger.
+   *
+   * @return the default SpyLogDelegator for logging to the logger.
+   */
+  public static SpyLogDelegator getSpyLogDelegator()
+  {
+    return logger;
+  }
+}
+
@@ -0,0 +1,262 @@
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A per connection pool of the real statements behind PreparedStatementSpy
+ * objects that were closed by the application.
+ *
+ * Many applications close and prepare the same SQL over and over.  Instead
+ * of closing its real statements, a closed PreparedStatementSpy clears them
+ * and checks them in here, keyed by the rewritten SQL and the prepare flags;
+ * the next PreparedStatementSpy with the same key takes them over and does
+ * not have to prepare them again.
+ *
+ * The pool is kept in least recently used order and is bounded both by the
+ * number of statement groups (<b>log4jdbc.temporal.statement.cache.size</b>)
+ * and by their estimated size in bytes
+ * (<b>log4jdbc.temporal.statement.cache.bytes</b>); groups pushed out are
+ * closed.  The size is estimated from the length of the rewritten SQL, since
+ * the memory the driver and server hold for a statement is not visible here.
+ */
+public class StatementCache
+{
+  /**
+   * Rough per statement overhead added to the size estimate of the SQL text.
+   */
+  private static final int STATEMENT_OVERHEAD = 512;
+
+  private final SpyLogDelegator log = SpyLogFactory.getSpyLogDelegator();
+
+  private final int maxSize;
+
+  private final long maxBytes;
+
+  private long bytes;
+
+  private long hits;
+
+  private long misses;
+
+  /**
+   * Idle statement groups, least recently used first.
+   */
+  private final LinkedHashMap<Key, List<PreparedStatement>> idle =
+    new LinkedHashMap<Key, List<PreparedStatement>>(16, 0.75f, true);
+
+  /**
+   * Create an empty statement cache.
+   *
+   * @param maxSize  maximum number of idle statement groups.
+   * @param maxBytes maximum estimated size of the idle statement groups.
+   */
+  public StatementCache(int maxSize, long maxBytes)
+  {
+    this.maxSize = maxSize;
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Take an idle statement group out of the cache.
+   *
+   * @param key the rewritten SQL and prepare flags.
+   * @return the real statements (entries may be null for statements that were
+   *         never prepared), or null if there are none for the key.
+   */
+  public synchronized List<PreparedStatement> checkOut(Key key)
+  {
+    List<PreparedStatement> statements = idle.remove(key);
+    if (statements == null)
+    {
+      misses++;
+      return null;
+    }
+    hits++;
+    bytes -= key.getEstimatedSize();
+    return statements;
+  }
+
+  /**
+   * Return a statement group to the cache.  The statements must already be
+   * cleared of parameters and batches.  If the cache already holds a group
+   * for the key, or it grows too large, statements are closed.
+   *
+   * @param key        the rewritten SQL and prepare flags.
+   * @param statements the real statements.
+   */
+  public void checkIn(Key key, List<PreparedStatement> statements)
+  {
+    List<List<PreparedStatement>> evicted = new ArrayList<List<PreparedStatement>>();
+    synchronized (this)
+    {
+      List<PreparedStatement> previous = idle.put(key, statements);
+      if (previous != null)
+      {
+        evicted.add(previous);
+      }
+      else
+      {
+        bytes += key.getEstimatedSize();
+      }
+      for (Iterator<Map.Entry<Key, List<PreparedStatement>>> i = idle.entrySet().iterator();
+           i.hasNext() && (idle.size() > maxSize || bytes > maxBytes);)
+      {
+        Map.Entry<Key, List<PreparedStatement>> eldest = i.next();
+        i.remove();
+        bytes -= eldest.getKey().getEstimatedSize();
+        evicted.add(eldest.getValue());
+      }
+    }
+    // close outside of the lock, it may mean a round trip to the server
+    for (int i = 0; i < evicted.size(); i++)
+    {
+      closeAll(evicted.get(i));
+    }
+  }
+
+  /**
+   * Close every idle statement.  Called when the connection is closed, and
+   * when DDL runs on it.
+   */
+  public void clear()
+  {
+    List<List<PreparedStatement>> all;
+    synchronized (this)
+    {
+      all = new ArrayList<List<PreparedStatement>>(idle.values());
+      idle.clear();
+      bytes = 0;
+    }
+    for (int i = 0; i < all.size(); i++)
+    {
+      closeAll(all.get(i));
+    }
+  }
+
+  private void closeAll(List<PreparedStatement> statements)
+  {
+    for (int i = 0; i < statements.size(); i++)
+    {
+      PreparedStatement ps = statements.get(i);
+      if (ps != null)
+      {
+        try
+        {
+          ps.close();
+        }
+        catch (SQLException e)
+        {
+          log.debug("could not close cached statement: " + e.getMessage());
+        }
+      }
+    }
+  }
+
+  /**
+   * Get a dump of the cache statistics, suitable for logging.
+   *
+   * @return a statement cache statistics dump.
+   */
+  public synchronized String getStatsDump()
+  {
+    return "statement cache:  idle " + idle.size() + "/" + maxSize + ", " +
+      bytes + "/" + maxBytes + " bytes, hits " + hits + ", misses " + misses;
+  }
+
+  /**
+   * Cache key: the rewritten SQL statements and the flags they are prepared
+   * with.
+   */
+  public static class Key
+  {
+    private final List<String> sqls;
+    private final int autoGeneratedKeys;
+    private final int resultSetType;
+    private final int resultSetConcurrency;
+    private final int resultSetHoldability;
+    private final int[] columnIndexes;
+    private final String[] columnNames;
+    private final int hash;
+
+    public Key(List<String> sqls, int autoGeneratedKeys, int resultSetType, int resultSetConcurrency,
+      int resultSetHoldability, int[] columnIndexes, String[] columnNames)
+    {
+      this.sqls = sqls;
+      this.autoGeneratedKeys = autoGeneratedKeys;
+      this.resultSetType = resultSetType;
+      this.resultSetConcurrency = resultSetConcurrency;
+      this.resultSetHoldability = resultSetHoldability;
+      this.columnIndexes = columnIndexes == null ? null : columnIndexes.clone();
+      this.columnNames = columnNames == null ? null : columnNames.clone();
+      int h = sqls.hashCode();
+      h = 31 * h + autoGeneratedKeys;
+      h = 31 * h + resultSetType;
+      h = 31 * h + resultSetConcurrency;
+      h = 31 * h + resultSetHoldability;
+      h = 31 * h + Arrays.hashCode(this.columnIndexes);
+      h = 31 * h + Arrays.hashCode(this.columnNames);
+      this.hash = h;
+    }
+
+    /**
+     * @return the estimated size in bytes of the statements prepared for this key.
+     */
+    long getEstimatedSize()
+    {
+      long size = 0;
+      for (int i = 0; i < sqls.size(); i++)
+      {
+        size += 2L * sqls.get(i).length() + STATEMENT_OVERHEAD;
+      }
+      return size;
+    }
+
+    public int hashCode()
+    {
+      return hash;
+    }
+
+    public boolean equals(Object o)
+    {
+      if (!(o instanceof Key))
+      {
+        return false;
+      }
+      Key k = (Key) o;
+      return hash == k.hash &&
+        autoGeneratedKeys == k.autoGeneratedKeys &&
+        resultSetType == k.resultSetType &&
+        resultSetConcurrency == k.resultSetConcurrency &&
+        resultSetHoldability == k.resultSetHoldability &&
+        Arrays.equals(columnIndexes, k.columnIndexes) &&
+        Arrays.equals(columnNames, k.columnNames) &&
+        sqls.equals(k.sqls);
+    }
+  }
+}
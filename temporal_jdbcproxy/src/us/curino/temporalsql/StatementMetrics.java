@@ -0,0 +1,539 @@
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * A process wide registry of statement latencies, kept in memory so that
+ * they can be read without parsing the sql timing log.
+ *
+ * Statements are grouped by the fingerprint of their SQL (the SQL with its
+ * literals, comments and extra whitespace taken out), and for each one three
+ * times are recorded, all with System.nanoTime():
+ * <ul>
+ * <li>rewrite: running the statement through the RewriteCache and the temporal rewriter,</li>
+ * <li>execute: running the real statements on the driver,</li>
+ * <li>consume: from the execution returning to the application reading the
+ *     last row of the ResultSet or closing it.</li>
+ * </ul>
+ *
+ * Metrics are turned on by the <b>log4jdbc.metrics</b> property.  They can be
+ * pulled through the static methods of this class or through JMX (see
+ * {@link StatementMetricsMBean}.)  At most <b>log4jdbc.metrics.max.statements</b>
+ * fingerprints are tracked; the executions of any others are counted together
+ * under {@link #OTHER}.
+ */
+public class StatementMetrics
+{
+  /**
+   * Do not allow instantiation.  Access is through static methods.
+   */
+  private StatementMetrics() {}
+
+  /**
+   * Fingerprint the statements past the maximum number tracked are recorded under.
+   */
+  public static final String OTHER = "(other statements)";
+
+  /**
+   * Name the metrics are registered under in the platform MBean server.
+   */
+  public static final String OBJECT_NAME = "us.curino.temporalsql:type=StatementMetrics";
+
+  private static final ConcurrentHashMap<String, Entry> entries =
+    new ConcurrentHashMap<String, Entry>();
+
+  private static final AtomicLong temporalExecutions = new AtomicLong();
+  private static final AtomicLong passthroughExecutions = new AtomicLong();
+
+  /**
+   * Register the metrics with the platform MBean server.  Failing to do so
+   * (another copy of the proxy in the same JVM registered them first, say) is
+   * only logged, the metrics are still kept.
+   */
+  static void registerMBean()
+  {
+    try
+    {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName(OBJECT_NAME);
+      if (!server.isRegistered(name))
+      {
+        server.registerMBean(new StandardMBean(new Jmx(), StatementMetricsMBean.class), name);
+      }
+    }
+    catch (Exception e)
+    {
+      DriverSpy.log.debug("could not register " + OBJECT_NAME + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Get the metrics of a SQL statement, creating them the first time its
+   * fingerprint is seen.
+   *
+   * @param sql the SQL of a statement, as the application passed it.
+   * @return the metrics of the statement's fingerprint.
+   */
+  public static Entry getEntry(String sql)
+  {
+    String fingerprint = fingerprint(sql);
+    Entry entry = entries.get(fingerprint);
+    if (entry == null)
+    {
+      if (entries.size() >= DriverSpy.MetricsMaxStatements)
+      {
+        fingerprint = OTHER;
+        entry = entries.get(fingerprint);
+      }
+      if (entry == null)
+      {
+        Entry newEntry = new Entry(fingerprint);
+        entry = entries.putIfAbsent(fingerprint, newEntry);
+        if (entry == null)
+        {
+          entry = newEntry;
+        }
+      }
+    }
+    return entry;
+  }
+
+  /**
+   * Get the metrics of every tracked fingerprint.
+   *
+   * @return an unmodifiable view of the metrics, by fingerprint.
+   */
+  public static Map<String, Entry> getEntries()
+  {
+    return Collections.unmodifiableMap(entries);
+  }
+
+  /**
+   * @return the number of statement executions that went through the temporal rewriter.
+   */
+  public static long getTemporalExecutions()
+  {
+    return temporalExecutions.get();
+  }
+
+  /**
+   * @return the number of statement executions that were passed to the driver unchanged.
+   */
+  public static long getPassthroughExecutions()
+  {
+    return passthroughExecutions.get();
+  }
+
+  /**
+   * Forget all the metrics recorded so far.  The fingerprints stay tracked,
+   * as open statements hold on to their metrics.
+   */
+  public static void reset()
+  {
+    for (Iterator<Entry> i = entries.values().iterator(); i.hasNext();)
+    {
+      i.next().reset();
+    }
+    temporalExecutions.set(0);
+    passthroughExecutions.set(0);
+    RewriteMetrics.reset();
+  }
+
+  /**
+   * Get a dump of the metrics, the busiest statements first, suitable for
+   * logging.  Times are in microseconds.
+   *
+   * @return a statement metrics dump.
+   */
+  public static String getStatsDump()
+  {
+    List<Entry> list = new ArrayList<Entry>(entries.values());
+    Collections.sort(list, new Comparator<Entry>()
+    {
+      public int compare(Entry a, Entry b)
+      {
+        long ta = a.getExecute().getTotal();
+        long tb = b.getExecute().getTotal();
+        return ta < tb ? 1 : ta > tb ? -1 : 0;
+      }
+    });
+    StringBuffer dump = new StringBuffer();
+    dump.append("statement metrics:  temporal executions ");
+    dump.append(getTemporalExecutions());
+    dump.append(", passthrough executions ");
+    dump.append(getPassthroughExecutions());
+    dump.append(", statements ");
+    dump.append(list.size());
+    for (int i = 0; i < list.size(); i++)
+    {
+      dump.append("\n");
+      dump.append(list.get(i));
+    }
+    return dump.toString();
+  }
+
+  /**
+   * Compute the fingerprint of a SQL statement: the SQL lower cased, with its
+   * string and numeric literals replaced by ?, its comments dropped, its
+   * whitespace collapsed and its lists of parameters (IN lists, multi row
+   * VALUES) shortened to one element.  Quoted identifiers are kept as they are.
+   *
+   * @param sql the SQL of a statement.
+   * @return the fingerprint of the SQL.
+   */
+  public static String fingerprint(String sql)
+  {
+    int n = sql.length();
+    StringBuffer fp = new StringBuffer(n);
+    boolean space = false;
+    int i = 0;
+    while (i < n)
+    {
+      char c = sql.charAt(i);
+      if (Character.isWhitespace(c))
+      {
+        space = true;
+        i++;
+        continue;
+      }
+      if (c == '-' && i + 1 < n && sql.charAt(i + 1) == '-')
+      {
+        while (i < n && sql.charAt(i) != '\n')
+        {
+          i++;
+        }
+        space = true;
+        continue;
+      }
+      if (c == '/' && i + 1 < n && sql.charAt(i + 1) == '*')
+      {
+        int end = sql.indexOf("*/", i + 2);
+        i = end < 0 ? n : end + 2;
+        space = true;
+        continue;
+      }
+      if (space && fp.length() > 0)
+      {
+        fp.append(' ');
+      }
+      space = false;
+      if (c == '\'')
+      {
+        i++;
+        while (i < n)
+        {
+          char q = sql.charAt(i++);
+          if (q == '\\')
+          {
+            i++;
+          }
+          else if (q == '\'')
+          {
+            if (i < n && sql.charAt(i) == '\'')
+            {
+              i++;
+            }
+            else
+            {
+              break;
+            }
+          }
+        }
+        appendParameter(fp);
+      }
+      else if (c == '"' || c == '`')
+      {
+        int end = sql.indexOf(c, i + 1);
+        end = end < 0 ? n : end + 1;
+        fp.append(sql, i, end);
+        i = end;
+      }
+      else if (Character.isDigit(c) && !endsWithIdentifier(fp))
+      {
+        while (i < n && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.'))
+        {
+          i++;
+        }
+        appendParameter(fp);
+      }
+      else if (c == '?')
+      {
+        i++;
+        appendParameter(fp);
+      }
+      else
+      {
+        fp.append(Character.toLowerCase(c));
+        i++;
+        if (c == ')')
+        {
+          collapseRows(fp);
+        }
+      }
+    }
+    return fp.toString();
+  }
+
+  private static boolean endsWithIdentifier(StringBuffer fp)
+  {
+    if (fp.length() == 0)
+    {
+      return false;
+    }
+    char last = fp.charAt(fp.length() - 1);
+    return Character.isLetterOrDigit(last) || last == '_' || last == '$';
+  }
+
+  /**
+   * Append a ? to the fingerprint, unless it ends with a list of ? already.
+   */
+  private static void appendParameter(StringBuffer fp)
+  {
+    int l = fp.length();
+    if (l >= 3 && fp.charAt(l - 1) == ' ' && fp.charAt(l - 2) == ',' && fp.charAt(l - 3) == '?')
+    {
+      fp.setLength(l - 2);
+    }
+    else if (l >= 2 && fp.charAt(l - 1) == ',' && fp.charAt(l - 2) == '?')
+    {
+      fp.setLength(l - 1);
+    }
+    else
+    {
+      fp.append('?');
+    }
+  }
+
+  /**
+   * Shorten "(?), (?)" at the end of the fingerprint to "(?)", for multi row
+   * VALUES lists.
+   */
+  private static void collapseRows(StringBuffer fp)
+  {
+    int l = fp.length();
+    String tail = "(?), (?)";
+    String tailNoSpace = "(?),(?)";
+    if (l >= tail.length() && fp.substring(l - tail.length()).equals(tail))
+    {
+      fp.setLength(l - tail.length() + 3);
+    }
+    else if (l >= tailNoSpace.length() && fp.substring(l - tailNoSpace.length()).equals(tailNoSpace))
+    {
+      fp.setLength(l - tailNoSpace.length() + 3);
+    }
+  }
+
+  /**
+   * The metrics of one SQL fingerprint.
+   */
+  public static class Entry
+  {
+    private final String fingerprint;
+
+    private final LatencyHistogram rewrite = new LatencyHistogram();
+    private final LatencyHistogram execute = new LatencyHistogram();
+    private final LatencyHistogram consume = new LatencyHistogram();
+
+    private final AtomicLong temporal = new AtomicLong();
+    private final AtomicLong passthrough = new AtomicLong();
+
+    Entry(String fingerprint)
+    {
+      this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Record the time a statement of this fingerprint took to rewrite.
+     *
+     * @param nanos the rewrite time in nanoseconds.
+     */
+    public void recordRewrite(long nanos)
+    {
+      rewrite.record(nanos);
+    }
+
+    /**
+     * Record the time a statement of this fingerprint took to run on the driver.
+     *
+     * @param nanos    the execution time in nanoseconds.
+     * @param temporal true if the statement went through the temporal rewriter.
+     */
+    public void recordExecute(long nanos, boolean temporal)
+    {
+      execute.record(nanos);
+      if (temporal)
+      {
+        this.temporal.incrementAndGet();
+        temporalExecutions.incrementAndGet();
+      }
+      else
+      {
+        passthrough.incrementAndGet();
+        passthroughExecutions.incrementAndGet();
+      }
+    }
+
+    /**
+     * Record the time the application spent reading a result of this fingerprint.
+     *
+     * @param nanos the consume time in nanoseconds.
+     */
+    public void recordConsume(long nanos)
+    {
+      consume.record(nanos);
+    }
+
+    /**
+     * Forget the metrics recorded so far.
+     */
+    void reset()
+    {
+      rewrite.reset();
+      execute.reset();
+      consume.reset();
+      temporal.set(0);
+      passthrough.set(0);
+    }
+
+    /**
+     * @return the fingerprint of the SQL.
+     */
+    public String getFingerprint()
+    {
+      return fingerprint;
+    }
+
+    /**
+     * @return the histogram of rewrite times.
+     */
+    public LatencyHistogram getRewrite()
+    {
+      return rewrite;
+    }
+
+    /**
+     * @return the histogram of execute times.
+     */
+    public LatencyHistogram getExecute()
+    {
+      return execute;
+    }
+
+    /**
+     * @return the histogram of consume times.
+     */
+    public LatencyHistogram getConsume()
+    {
+      return consume;
+    }
+
+    /**
+     * @return the number of executions that went through the temporal rewriter.
+     */
+    public long getTemporalExecutions()
+    {
+      return temporal.get();
+    }
+
+    /**
+     * @return the number of executions that were passed to the driver unchanged.
+     */
+    public long getPassthroughExecutions()
+    {
+      return passthrough.get();
+    }
+
+    public String toString()
+    {
+      StringBuffer out = new StringBuffer();
+      out.append(fingerprint);
+      out.append("\n  executions ");
+      out.append(getTemporalExecutions());
+      out.append(" temporal, ");
+      out.append(getPassthroughExecutions());
+      out.append(" passthrough");
+      rewrite.appendTo(out, "rewrite");
+      execute.appendTo(out, "execute");
+      consume.appendTo(out, "consume");
+      return out.toString();
+    }
+  }
+
+  /**
+   * The JMX face of the metrics.
+   */
+  private static class Jmx implements StatementMetricsMBean
+  {
+    public long getTemporalExecutions()
+    {
+      return StatementMetrics.getTemporalExecutions();
+    }
+
+    public long getPassthroughExecutions()
+    {
+      return StatementMetrics.getPassthroughExecutions();
+    }
+
+    public int getStatementCount()
+    {
+      return entries.size();
+    }
+
+    public String[] getFingerprints()
+    {
+      return entries.keySet().toArray(new String[0]);
+    }
+
+    public String getStatsDump()
+    {
+      return StatementMetrics.getStatsDump();
+    }
+
+    public String getRewriteStatsDump()
+    {
+      return RewriteMetrics.getStatsDump();
+    }
+
+    public String describe(String fingerprint)
+    {
+      Entry entry = fingerprint == null ? null : entries.get(fingerprint);
+      return entry == null ? null : entry.toString();
+    }
+
+    public void reset()
+    {
+      StatementMetrics.reset();
+    }
+  }
+}
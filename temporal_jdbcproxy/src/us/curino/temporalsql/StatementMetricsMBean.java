@@ -0,0 +1,74 @@
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+/**
+ * The JMX view of the {@link StatementMetrics}, registered as
+ * <b>us.curino.temporalsql:type=StatementMetrics</b> when metrics are enabled.
+ * Latencies are in microseconds.
+ */
+public interface StatementMetricsMBean
+{
+  /**
+   * @return the number of statement executions that went through the temporal rewriter.
+   */
+  public long getTemporalExecutions();
+
+  /**
+   * @return the number of statement executions that were passed to the driver unchanged.
+   */
+  public long getPassthroughExecutions();
+
+  /**
+   * @return the number of distinct SQL fingerprints being tracked.
+   */
+  public int getStatementCount();
+
+  /**
+   * @return the SQL fingerprints being tracked.
+   */
+  public String[] getFingerprints();
+
+  /**
+   * @return a dump of the metrics of every fingerprint.
+   */
+  public String getStatsDump();
+
+  /**
+   * @return a dump of the cost of the temporal rewrite itself (Parser
+   *         construction, rewrite and prepare times, and the number of real
+   *         statements per logical statement) by statement type and by table.
+   */
+  public String getRewriteStatsDump();
+
+  /**
+   * Describe the metrics of one SQL fingerprint: the count, mean, p50, p99,
+   * p999 and maximum of its rewrite, execute and consume times.
+   *
+   * @param fingerprint a fingerprint, as listed by getFingerprints.
+   * @return the description, or null if the fingerprint is not tracked.
+   */
+  public String describe(String fingerprint);
+
+  /**
+   * Forget all the metrics recorded so far.
+   */
+  public void reset();
+}
@@ -19,6 +19,8 @@
 
 package us.curino.temporalsql;
 
+import java.math.BigDecimal;
+import java.sql.BatchUpdateException;
 import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -28,10 +30,12 @@ import java.sql.SQLWarning;
 import java.sql.Statement;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 
 
-import com.relationalcloud.tsqlparser.Parser;
 import com.relationalcloud.tsqlparser.loader.Schema;
 import com.relationalcloud.tsqlparser.parser.ParseException;
 
@@ -143,16 +147,34 @@ public class StatementSpy implements Statement, Spy
     return connectionSpy.getConnectionNumber();
   }
 
+  /**
+   * Wrap a ResultSet this statement produced for the application: in a
+   * ResultSetSpy, or while the resultset logger is off and pass through
+   * result sets are enabled, in a PassThroughResultSet or not at all.
+   *
+   * @param r a real ResultSet, not null.
+   * @return the ResultSet to hand to the application.
+   */
+  protected ResultSet wrapResultSet(ResultSet r)
+  {
+    StatementMetrics.Entry m = DriverSpy.Metrics ? metrics : null;
+    if (DriverSpy.ResultSetPassThrough && !log.isResultSetLoggingEnabled())
+    {
+      return DriverSpy.ResultSetPassThroughDirect ? r : new PassThroughResultSet(this, r, m);
+    }
+    return new ResultSetSpy(this, r, m);
+  }
+
   /**
    * Report an exception to be logged which includes timing data on a sql failure.
    * @param methodCall description of method call and arguments passed to it that generated the exception.
    * @param exception exception that was generated
    * @param sql SQL associated with the call.
-   * @param execTime amount of time that the jdbc driver was chugging on the SQL before it threw an exception.
+   * @param execTime amount of time in nanoseconds that the jdbc driver was chugging on the SQL before it threw an exception.
    */
   protected void reportException(String methodCall, SQLException exception, String sql, long execTime)
   {
-    log.exceptionOccured(this, methodCall, exception, sql, execTime);
+    log.exceptionOccured(this, methodCall, exception, sql, execTime / 1000000L);
   }
 
   /**
@@ -197,7 +219,10 @@ public class StatementSpy implements Statement, Spy
    */
   protected boolean reportReturn(String methodCall, boolean value)
   {
-    reportAllReturns(methodCall, "" + value);
+    if (log.isMethodReturnedEnabled(this))
+    {
+      reportAllReturns(methodCall, "" + value);
+    }
     return value;
   }
 
@@ -210,7 +235,10 @@ public class StatementSpy implements Statement, Spy
    */
   protected byte reportReturn(String methodCall, byte value)
   {
-    reportAllReturns(methodCall, "" + value);
+    if (log.isMethodReturnedEnabled(this))
+    {
+      reportAllReturns(methodCall, "" + value);
+    }
     return value;
   }
 
@@ -223,7 +251,10 @@ public class StatementSpy implements Statement, Spy
    */
   protected int reportReturn(String methodCall, int value)
   {
-    reportAllReturns(methodCall, "" + value);
+    if (log.isMethodReturnedEnabled(this))
+    {
+      reportAllReturns(methodCall, "" + value);
+    }
     return value;
   }
 
@@ -236,7 +267,10 @@ public class StatementSpy implements Statement, Spy
    */
   protected double reportReturn(String methodCall, double value)
   {
-    reportAllReturns(methodCall, "" + value);
+    if (log.isMethodReturnedEnabled(this))
+    {
+      reportAllReturns(methodCall, "" + value);
+    }
     return value;
   }
 
@@ -249,7 +283,10 @@ public class StatementSpy implements Statement, Spy
    */
   protected short reportReturn(String methodCall, short value)
   {
-    reportAllReturns(methodCall, "" + value);
+    if (log.isMethodReturnedEnabled(this))
+    {
+      reportAllReturns(methodCall, "" + value);
+    }
     return value;
   }
 
@@ -262,7 +299,10 @@ public class StatementSpy implements Statement, Spy
    */
   protected long reportReturn(String methodCall, long value)
   {
-    reportAllReturns(methodCall, "" + value);
+    if (log.isMethodReturnedEnabled(this))
+    {
+      reportAllReturns(methodCall, "" + value);
+    }
     return value;
   }
 
@@ -275,7 +315,10 @@ public class StatementSpy implements Statement, Spy
    */
   protected float reportReturn(String methodCall, float value)
   {
-    reportAllReturns(methodCall, "" + value);
+    if (log.isMethodReturnedEnabled(this))
+    {
+      reportAllReturns(methodCall, "" + value);
+    }
     return value;
   }
 
@@ -288,7 +331,10 @@ public class StatementSpy implements Statement, Spy
    */
   protected Object reportReturn(String methodCall, Object value)
   {
-    reportAllReturns(methodCall, "" + value);
+    if (log.isMethodReturnedEnabled(this))
+    {
+      reportAllReturns(methodCall, "" + value);
+    }
     return value;
   }
 
@@ -325,30 +371,133 @@ public class StatementSpy implements Statement, Spy
   /**
    * Report SQL for logging with a warning that it was generated from a statement.
    *
-   * @param execTime   execution time in msec.
+   * @param execTime   execution time in nanoseconds.
    * @param sql        the SQL being run
    * @param methodCall the name of the method that was running the SQL
    */
   protected void reportStatementSqlTiming(long execTime, String sql, String methodCall)
   {
+    recordExecution(sql, execTime);
     // redirect to one more method call ONLY so that stack trace search is consistent
     // with the reportReturn calls
-    _reportSqlTiming(execTime, (DriverSpy.StatementUsageWarn?StatementSqlWarning:"") +
+    _reportSqlTiming(execTime / 1000000L, (DriverSpy.StatementUsageWarn?StatementSqlWarning:"") +
       sql, methodCall);
   }
 
   /**
    * Report SQL for logging.
    *
-   * @param execTime   execution time in msec.
+   * @param execTime   execution time in nanoseconds.
    * @param sql        the SQL being run
    * @param methodCall the name of the method that was running the SQL
    */
   protected void reportSqlTiming(long execTime, String sql, String methodCall)
   {
+    recordExecution(sql, execTime);
     // redirect to one more method call ONLY so that stack trace search is consistent
     // with the reportReturn calls
-    _reportSqlTiming(execTime, sql, methodCall);
+    _reportSqlTiming(execTime / 1000000L, sql, methodCall);
+  }
+
+  /**
+   * Metrics of the SQL this statement ran last, for the result sets it hands out.
+   */
+  private StatementMetrics.Entry metrics;
+
+  /**
+   * Get the metrics SQL run by this statement is recorded in.
+   *
+   * @param sql the SQL being run.
+   * @return the metrics of the SQL.
+   */
+  protected StatementMetrics.Entry getMetrics(String sql)
+  {
+    return StatementMetrics.getEntry(sql);
+  }
+
+  /**
+   * True if the SQL last checked with isRewritten goes through the temporal
+   * rewriter.
+   */
+  private boolean temporal;
+
+  /**
+   * Determine if SQL goes through the temporal rewriter: if the connection
+   * rewrites temporally and, unless <b>log4jdbc.temporal.skip.nontemporal</b>
+   * is off, the SQL may touch a temporalized table (see TemporalTables.)
+   * Other SQL is sent to the driver as it is, without being parsed.
+   *
+   * @param sql the SQL about to be run.
+   * @return true if the SQL is to be temporally rewritten.
+   */
+  protected boolean isRewritten(String sql)
+  {
+    temporal = connectionSpy.rewriteTemporal && (!DriverSpy.TemporalSkipNonTemporal ||
+      connectionSpy.getSchemaEntry().getTemporalTables().isTouchedBy(sql));
+    return temporal;
+  }
+
+  /**
+   * The tables whose closed versions are parked while the SQL last rewritten
+   * by rewriteSql runs, see ConnectionSpy.getRevisitedTables.
+   */
+  private List<String> revisited = Collections.emptyList();
+
+  /**
+   * The tables the SQL last rewritten by rewriteSql closes versions of, and
+   * the timestamp it closes them at, see ConnectionSpy.checkClosed.
+   */
+  private List<String> closed = Collections.emptyList();
+
+  private BigDecimal clockedAt;
+
+  /**
+   * Number of the statements the SQL last rewritten by rewriteSql was
+   * rewritten to that move closed versions to history, at the end of them
+   * (see RewrittenSql.getSweepCount.)  Their update counts are not the SQL's.
+   */
+  private int sweeps;
+
+  /**
+   * Determine if the SQL this statement runs goes through the temporal rewriter.
+   *
+   * @return true if the statement is temporally rewritten.
+   */
+  protected boolean isTemporal()
+  {
+    return temporal;
+  }
+
+  /**
+   * Record the execution time of SQL in the StatementMetrics, if they are enabled.
+   *
+   * @param sql      the SQL that was run.
+   * @param execTime execution time in nanoseconds.
+   */
+  protected void recordExecution(String sql, long execTime)
+  {
+    if (DriverSpy.Metrics)
+    {
+      metrics = getMetrics(sql);
+      metrics.recordExecute(execTime, isTemporal());
+    }
+  }
+
+  /**
+   * Record the time a rewrite took in the StatementMetrics, and the number of
+   * real statements it produced in the RewriteMetrics, if they are enabled.
+   *
+   * @param sql       the SQL that was rewritten.
+   * @param rewritten the rewrite.
+   * @param start     System.nanoTime() when the rewrite started.
+   */
+  protected void recordRewrite(String sql, RewrittenSql rewritten, long start)
+  {
+    if (DriverSpy.Metrics)
+    {
+      getMetrics(sql).recordRewrite(System.nanoTime() - start);
+      RewriteMetrics.recordStatement(sql, rewritten);
+    }
   }
 
   /**
@@ -391,50 +540,54 @@ public class StatementSpy implements Statement, Spy
 
   public int executeUpdate(String sql, String[] columnNames) throws SQLException
   {
-    String methodCall = "executeUpdate(" + sql + ", " + columnNames + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "executeUpdate(" + sql + ", " + columnNames + ")" : "executeUpdate";
     reportStatementSql(sql, methodCall);
-    long tstart = System.currentTimeMillis();
+    long tstart = System.nanoTime();
+    int result;
     try
     {
-      int result = realStatement.executeUpdate(sql, columnNames);
-      reportStatementSqlTiming(System.currentTimeMillis() - tstart, sql, methodCall);
-      return reportReturn(methodCall, result);
+      result = realStatement.executeUpdate(sql, columnNames);
+      reportStatementSqlTiming(System.nanoTime() - tstart, sql, methodCall);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql, System.currentTimeMillis() - tstart);
+      reportException(log.isJdbcLoggingEnabled() ? "executeUpdate(" + sql + ", " + columnNames + ")" : methodCall, s, sql, System.nanoTime() - tstart);
       throw s;
     }
+    connectionSpy.schemaChanged(sql);
+    return reportReturn(methodCall, result);
   }
 
   public boolean execute(String sql, String[] columnNames) throws SQLException
   {
-    String methodCall = "execute(" + sql + ", " + columnNames + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "execute(" + sql + ", " + columnNames + ")" : "execute";
     reportStatementSql(sql, methodCall);
-    long tstart = System.currentTimeMillis();
+    long tstart = System.nanoTime();
+    boolean result;
     try
     {
-      boolean result = realStatement.execute(sql, columnNames);
-      reportStatementSqlTiming(System.currentTimeMillis() - tstart, sql, methodCall);
-      return reportReturn(methodCall, result);
+      result = realStatement.execute(sql, columnNames);
+      reportStatementSqlTiming(System.nanoTime() - tstart, sql, methodCall);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql, System.currentTimeMillis() - tstart);
+      reportException(log.isJdbcLoggingEnabled() ? "execute(" + sql + ", " + columnNames + ")" : methodCall, s, sql, System.nanoTime() - tstart);
       throw s;
     }
+    connectionSpy.schemaChanged(sql);
+    return reportReturn(methodCall, result);
   }
 
   public void setMaxRows(int max) throws SQLException
   {
-    String methodCall = "setMaxRows(" + max + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setMaxRows(" + max + ")" : "setMaxRows";
     try
     {
       realStatement.setMaxRows(max);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setMaxRows(" + max + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -476,19 +629,75 @@ public class StatementSpy implements Statement, Spy
    */
   protected List currentBatch = new ArrayList();
 
+  /**
+   * Number of real statements each entry of the current batch was rewritten
+   * to, in order.  The rewritten statements of an entry are added to the real
+   * batch one after the other, so they run in order for every entry.
+   */
+  private final List<Integer> batchStatementCounts = new ArrayList<Integer>();
+
+  /**
+   * Number of the real statements of each entry of the current batch that
+   * run after the one whose update count is the entry's: its sweeps to
+   * history and the statements of ConnectionSpy.getUnparkSql, in order.
+   */
+  private final List<Integer> batchTrailingCounts = new ArrayList<Integer>();
+
+  /**
+   * The tables the entries of the current batch close versions of, and the
+   * timestamp of the first entry, see ConnectionSpy.checkClosed.
+   */
+  private final Set<String> batchClosed = new HashSet<String>();
+
+  private BigDecimal batchTimestamp;
 
   public void addBatch(String sql) throws SQLException
   {
-    String methodCall = "addBatch(" + sql + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "addBatch(" + sql + ")" : "addBatch";
 
+    List<String> sqls = null;
+    if (isRewritten(sql))
+    {
+      try
+      {
+        sqls = rewriteSql(sql);
+      }
+      catch (ParseException e)
+      {
+        throw new SQLException("Error performing temporal rewriting of:" + sql);
+      }
+    }
     currentBatch.add(StatementSqlWarning + sql);
     try
     {
-      realStatement.addBatch(sql);
+      if (sqls != null)
+      {
+        List<String> all = new ArrayList<String>(connectionSpy.getParkSql(revisited));
+        all.addAll(sqls);
+        List<String> trailing = connectionSpy.getUnparkSql(revisited);
+        all.addAll(trailing);
+        for (String s : all)
+        {
+          realStatement.addBatch(s);
+        }
+        batchStatementCounts.add(all.size());
+        batchTrailingCounts.add(trailing.size() + sweeps);
+        batchClosed.addAll(closed);
+        if (batchTimestamp == null)
+        {
+          batchTimestamp = clockedAt;
+        }
+      }
+      else
+      {
+        realStatement.addBatch(sql);
+        batchStatementCounts.add(1);
+        batchTrailingCounts.add(0);
+      }
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(log.isJdbcLoggingEnabled() ? "addBatch(" + sql + ")" : methodCall,s);
       throw s;
     }
     reportReturn(methodCall);
@@ -521,28 +730,35 @@ public class StatementSpy implements Statement, Spy
       throw s;
     }
     currentBatch.clear();
+    batchStatementCounts.clear();
+    batchTrailingCounts.clear();
+    batchClosed.clear();
+    batchTimestamp = null;
     reportReturn(methodCall);
   }
 
   public void setFetchDirection(int direction) throws SQLException
   {
-    String methodCall = "setFetchDirection(" + direction + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setFetchDirection(" + direction + ")" : "setFetchDirection";
     try
     {
       realStatement.setFetchDirection(direction);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setFetchDirection(" + direction + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
   }
 
-  public int[] executeBatch() throws SQLException
+  /**
+   * Get a report of the current batch, suitable for logging.
+   *
+   * @return the batch report.
+   */
+  protected String getBatchReport()
   {
-    String methodCall = "executeBatch()";
-
     int j=currentBatch.size();
     StringBuffer batchReport = new StringBuffer("batching " + j + " statements:");
 
@@ -557,36 +773,112 @@ public class StatementSpy implements Statement, Spy
       batchReport.append(":  ");
       batchReport.append(sql);
     }
+    return batchReport.toString();
+  }
 
-    sql = batchReport.toString();
+  public int[] executeBatch() throws SQLException
+  {
+    String methodCall = "executeBatch()";
+
+    String sql = getBatchReport();
     reportSql(sql, methodCall);
-    long tstart = System.currentTimeMillis();
+    long tstart = System.nanoTime();
 
     int[] updateResults;
     try
     {
-      updateResults = realStatement.executeBatch();
-      reportSqlTiming(System.currentTimeMillis()-tstart, sql, methodCall);
+      updateResults = toEntryCounts(realStatement.executeBatch());
+      // the batch report is no key for the metrics, so it is only logged
+      _reportSqlTiming((System.nanoTime() - tstart) / 1000000L, sql, methodCall);
+    }
+    catch (BatchUpdateException s)
+    {
+      BatchUpdateException b = new BatchUpdateException(s.getMessage(), s.getSQLState(),
+        s.getErrorCode(), toEntryCounts(s.getUpdateCounts()));
+      b.initCause(s);
+      reportException(methodCall, b, sql, System.nanoTime()-tstart);
+      currentBatch.clear();
+      batchStatementCounts.clear();
+      batchTrailingCounts.clear();
+      batchClosed.clear();
+      batchTimestamp = null;
+      throw b;
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql, System.currentTimeMillis()-tstart);
+      reportException(methodCall, s, sql, System.nanoTime()-tstart);
       throw s;
     }
     currentBatch.clear();
+    batchStatementCounts.clear();
+    batchTrailingCounts.clear();
+    List<String> tables = new ArrayList<String>(batchClosed);
+    BigDecimal from = batchTimestamp;
+    batchClosed.clear();
+    batchTimestamp = null;
+    try
+    {
+      connectionSpy.checkClosed(tables, from);
+    }
+    catch (SQLException s)
+    {
+      reportException(methodCall, s, sql, System.nanoTime()-tstart);
+      throw s;
+    }
     return (int[])reportReturn(methodCall,updateResults);
   }
 
+  /**
+   * Fold the update counts of the real batch into one count per batch entry:
+   * the count of the last statement the entry was rewritten to (not counting
+   * the statements run after it), the same count executeUpdate returns for it.
+   *
+   * @param counts update counts of the real statements.
+   * @return update counts of the batch entries, as far as they are known.
+   */
+  private int[] toEntryCounts(int[] counts)
+  {
+    int total = 0;
+    for (int i = 0; i < batchStatementCounts.size(); i++)
+    {
+      total += batchStatementCounts.get(i).intValue();
+    }
+    if (counts == null || total == batchStatementCounts.size())
+    {
+      // every entry ran a single statement
+      return counts;
+    }
+    int[] entries = new int[batchStatementCounts.size()];
+    int c = 0;
+    int e = 0;
+    for (; e < entries.length; e++)
+    {
+      c += batchStatementCounts.get(e).intValue();
+      if (c > counts.length)
+      {
+        break;
+      }
+      entries[e] = counts[c - 1 - batchTrailingCounts.get(e).intValue()];
+    }
+    if (e < entries.length)
+    {
+      int[] known = new int[e];
+      System.arraycopy(entries, 0, known, 0, e);
+      return known;
+    }
+    return entries;
+  }
+
   public void setFetchSize(int rows) throws SQLException
   {
-    String methodCall = "setFetchSize(" + rows + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setFetchSize(" + rows + ")" : "setFetchSize";
     try
     {
       realStatement.setFetchSize(rows);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setFetchSize(" + rows + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -639,14 +931,14 @@ public class StatementSpy implements Statement, Spy
 
   public void setEscapeProcessing(boolean enable) throws SQLException
   {
-    String methodCall = "setEscapeProcessing(" + enable + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setEscapeProcessing(" + enable + ")" : "setEscapeProcessing";
     try
     {
       realStatement.setEscapeProcessing(enable);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setEscapeProcessing(" + enable + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -668,14 +960,14 @@ public class StatementSpy implements Statement, Spy
 
   public void setQueryTimeout(int seconds) throws SQLException
   {
-    String methodCall = "setQueryTimeout(" + seconds + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setQueryTimeout(" + seconds + ")" : "setQueryTimeout";
     try
     {
       realStatement.setQueryTimeout(seconds);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setQueryTimeout(" + seconds + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -683,7 +975,7 @@ public class StatementSpy implements Statement, Spy
 
   public boolean getMoreResults(int current) throws SQLException
   {
-    String methodCall = "getMoreResults(" + current + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "getMoreResults(" + current + ")" : "getMoreResults";
 
     try
     {
@@ -691,61 +983,77 @@ public class StatementSpy implements Statement, Spy
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "getMoreResults(" + current + ")" : methodCall, s);
       throw s;
     }
   }
 
   public ResultSet executeQuery(String sql) throws SQLException
   {
-    String methodCall = "executeQuery(" + sql + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "executeQuery(" + sql + ")" : "executeQuery";
     reportStatementSql(sql, methodCall);
-    long tstart = System.currentTimeMillis();
-    try
-    {
+    String realSql = sql;
     //ADD HERE Rewriting
-     if(connectionSpy.rewriteTemporal)
+     if(isRewritten(sql))
      {	 
     	 try 
     	 {
-    		sql = rewriteSql(sql).get(0);
-    		reportStatementSql("Translated : "+sql, methodCall);
+    		realSql = rewriteSql(sql).get(0);
+    		reportStatementSql("Translated : "+realSql, methodCall);
     	 }	catch (ParseException e) {
 			throw new SQLException("Error performing temporal rewriting of:" + sql);
 		}
     	 
      }	
-    	
-      ResultSet result = realStatement.executeQuery(sql);
-      reportStatementSqlTiming(System.currentTimeMillis() - tstart, sql, methodCall);
-      ResultSetSpy r = new ResultSetSpy(this, result);
-      return (ResultSet) reportReturn(methodCall, r);
+    long tstart = System.nanoTime();
+    try
+    {
+      ResultSet result = realStatement.executeQuery(realSql);
+      reportStatementSqlTiming(System.nanoTime() - tstart, sql, methodCall);
+      return (ResultSet) reportReturn(methodCall, wrapResultSet(result));
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql, System.currentTimeMillis() - tstart);
+      reportException(log.isJdbcLoggingEnabled() ? "executeQuery(" + sql + ")" : methodCall, s, sql, System.nanoTime() - tstart);
       throw s;
     }
   }
 
   /**
-   * temporal rewriting 
+   * temporal rewriting, served from the process wide RewriteCache when possible
    * @param sql
    * @return
-   * @throws ParseException 
+   * @throws ParseException
    */
-  private ArrayList<String> rewriteSql(String sql) throws ParseException {
-	  
-	  //System.out.println(sql);
-	  Parser p = new Parser(connectionSpy.schema.getSchemaName(), connectionSpy.schema, sql);
-	  ArrayList<String> li = new ArrayList<String>();
-	  if(p.isTemporal())
-		  li.add(p.toNonTemporalSQL());
-	  else
-		  li = p.rewriteToTemporal();
-
-	  //System.out.println(li.get(0));
-	  return li;
+  private List<String> rewriteSql(String sql) throws ParseException, SQLException {
+
+	  long start = System.nanoTime();
+	  RewrittenSql rewritten = RewriteCache.rewrite(connectionSpy.getSchemaEntry(), sql);
+	  recordRewrite(sql, rewritten, start);
+	  List<String> sqls = rewritten.getSqls();
+	  revisited = Collections.emptyList();
+	  closed = Collections.emptyList();
+	  clockedAt = null;
+	  sweeps = rewritten.getSweepCount();
+	  if (DriverSpy.TemporalClientClock)
+	  {
+	    // the now_usec() calls take the timestamp of the transaction
+	    String timestamp = null;
+	    List<String> clocked = new ArrayList<String>(sqls.size());
+	    for (String s : sqls)
+	    {
+	      if (timestamp == null && TransactionClock.findCalls(s).length > 0)
+	      {
+	        clockedAt = connectionSpy.getTransactionTimestamp();
+	        timestamp = clockedAt.toPlainString();
+	      }
+	      clocked.add(timestamp == null ? s : TransactionClock.replaceCalls(s, timestamp));
+	    }
+	    sqls = clocked;
+	    revisited = connectionSpy.getRevisitedTables(rewritten, sql);
+	    closed = connectionSpy.getClosedTables(rewritten, sql);
+	  }
+	  return sqls;
 }
 
 public int getMaxFieldSize() throws SQLException
@@ -764,11 +1072,11 @@ public int getMaxFieldSize() throws SQLException
 
   public int executeUpdate(String sql) throws SQLException
   {
-	  ArrayList<String> sqls = null;  
+	  List<String> sqls = null;  
 	  
 	    //ADD HERE Rewriting
 	    
-	     if(connectionSpy.rewriteTemporal)
+	     if(isRewritten(sql))
 	     {
 	    	try 
 	    	{
@@ -778,28 +1086,41 @@ public int getMaxFieldSize() throws SQLException
 			}
 	    	 
 	     }	
-    String methodCall = "executeUpdate(" + sql + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "executeUpdate(" + sql + ")" : "executeUpdate";
     reportStatementSql(sql, methodCall);
-    long tstart = System.currentTimeMillis();
+    long tstart = System.nanoTime();
+    int result = -1;
     try
     {
-    	int result = -1;
 	     if(sqls!=null){
-	     	 for(String s:sqls){
-	    	      result = realStatement.executeUpdate(s); // it's ok to just report the # of touched tuples from last query 
+	       connectionSpy.park(revisited);
+	       try
+	       {
+	     	 for(int i = 0; i < sqls.size(); i++){
+	    	      int count = realStatement.executeUpdate(sqls.get(i)); // report the # of touched tuples from the last query before the sweeps to history
+	    	      if (i < sqls.size() - sweeps){
+	    	        result = count;
+	    	      }
 	    	 }
+	       }
+	       finally
+	       {
+	         connectionSpy.unpark(revisited);
+	       }
+	       connectionSpy.checkClosed(closed, clockedAt);
 	     }
 	     else{
 	    	 result = realStatement.executeUpdate(sql);
 	     }
-       reportStatementSqlTiming(System.currentTimeMillis() - tstart, sql, methodCall);
-      return reportReturn(methodCall, result);
+       reportStatementSqlTiming(System.nanoTime() - tstart, sql, methodCall);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql, System.currentTimeMillis() - tstart);
+      reportException(log.isJdbcLoggingEnabled() ? "executeUpdate(" + sql + ")" : methodCall, s, sql, System.nanoTime() - tstart);
       throw s;
     }
+    connectionSpy.schemaChanged(sql);
+    return reportReturn(methodCall, result);
   }
 
   public void cancel() throws SQLException
@@ -819,14 +1140,14 @@ public int getMaxFieldSize() throws SQLException
 
   public void setCursorName(String name) throws SQLException
   {
-    String methodCall = "setCursorName(" + name + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setCursorName(" + name + ")" : "setCursorName";
     try
     {
       realStatement.setCursorName(name);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setCursorName(" + name + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -888,14 +1209,14 @@ public int getMaxFieldSize() throws SQLException
   }
 
   public void setPoolable(boolean poolable) throws SQLException {
-    String methodCall = "setPoolable(" + poolable + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setPoolable(" + poolable + ")" : "setPoolable";
     try
     {
       realStatement.setPoolable(poolable);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setPoolable(" + poolable + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -916,14 +1237,14 @@ public int getMaxFieldSize() throws SQLException
 
   public void setMaxFieldSize(int max) throws SQLException
   {
-    String methodCall = "setMaxFieldSize(" + max + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "setMaxFieldSize(" + max + ")" : "setMaxFieldSize";
     try
     {
       realStatement.setMaxFieldSize(max);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s);
+      reportException(log.isJdbcLoggingEnabled() ? "setMaxFieldSize(" + max + ")" : methodCall, s);
       throw s;
     }
     reportReturn(methodCall);
@@ -931,10 +1252,10 @@ public int getMaxFieldSize() throws SQLException
 
   public boolean execute(String sql) throws SQLException
   {
-	String methodCall = "execute(" + sql + ")";
+	String methodCall = log.isMethodReturnedEnabled(this) ? "execute(" + sql + ")" : "execute";
     reportStatementSql(sql, methodCall);
-    ArrayList<String> sqls=null;
-    if(connectionSpy.rewriteTemporal){
+    List<String> sqls=null;
+    if(isRewritten(sql)){
    	 try {
    		 sqls = rewriteSql(sql);
    		 reportStatementSql("Translated: "+sqls.toString(), methodCall);
@@ -943,28 +1264,37 @@ public int getMaxFieldSize() throws SQLException
 		}
    	 
     }
-    long tstart = System.currentTimeMillis();
+    long tstart = System.nanoTime();
+    boolean result = false;
     try
     {
-    	
-    	boolean result = false;
 	     if(sqls!=null){
+	       connectionSpy.park(revisited);
+	       try
+	       {
 	     	 for(String s:sqls){
 		    	 result = realStatement.execute(s); // it's ok to just report the # of touched tuples from last query 
 	    	 }
+	       }
+	       finally
+	       {
+	         connectionSpy.unpark(revisited);
+	       }
+	       connectionSpy.checkClosed(closed, clockedAt);
 	     }
 	     else{
 	    	 result = realStatement.execute(sql);
 	     }
    	
-      reportStatementSqlTiming(System.currentTimeMillis() - tstart, sql, methodCall);
-      return reportReturn(methodCall, result);
+      reportStatementSqlTiming(System.nanoTime() - tstart, sql, methodCall);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql, System.currentTimeMillis() - tstart);
+      reportException(log.isJdbcLoggingEnabled() ? "execute(" + sql + ")" : methodCall, s, sql, System.nanoTime() - tstart);
       throw s;
     }
+    connectionSpy.schemaChanged(sql);
+    return reportReturn(methodCall, result);
   }
 
   public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException
@@ -972,8 +1302,8 @@ public int getMaxFieldSize() throws SQLException
 	  
 	  
 	  
-	    ArrayList<String> sqls=null;
-	     if(connectionSpy.rewriteTemporal){
+	    List<String> sqls=null;
+	     if(isRewritten(sql)){
 	    	 try {
 	    		 sqls = rewriteSql(sql);
 			} catch (ParseException e) {
@@ -982,36 +1312,49 @@ public int getMaxFieldSize() throws SQLException
 	    	 
 	     }	
 	  
-    String methodCall = "executeUpdate(" + sql + ", " + autoGeneratedKeys + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "executeUpdate(" + sql + ", " + autoGeneratedKeys + ")" : "executeUpdate";
     reportStatementSql(sql, methodCall);
-    long tstart = System.currentTimeMillis();
+    long tstart = System.nanoTime();
+    int result = -1;
     try
     {
-     	int result = -1;
 	     if(sqls!=null){
-	     	 for(String s:sqls){
-	     		result = realStatement.executeUpdate(s, autoGeneratedKeys); // it's ok to just report the # of touched tuples from last query 
+	       connectionSpy.park(revisited);
+	       try
+	       {
+	     	 for(int i = 0; i < sqls.size(); i++){
+	     		int count = realStatement.executeUpdate(sqls.get(i), autoGeneratedKeys); // report the # of touched tuples from the last query before the sweeps to history
+	     		if (i < sqls.size() - sweeps){
+	     		  result = count;
+	     		}
 	    	 }
+	       }
+	       finally
+	       {
+	         connectionSpy.unpark(revisited);
+	       }
+	       connectionSpy.checkClosed(closed, clockedAt);
 	     }
 	     else{
 	    	 result = realStatement.executeUpdate(sql, autoGeneratedKeys);
 	     }
     	
-      reportStatementSqlTiming(System.currentTimeMillis() - tstart, sql, methodCall);
-      return reportReturn(methodCall, result);
+      reportStatementSqlTiming(System.nanoTime() - tstart, sql, methodCall);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql, System.currentTimeMillis() - tstart);
+      reportException(log.isJdbcLoggingEnabled() ? "executeUpdate(" + sql + ", " + autoGeneratedKeys + ")" : methodCall, s, sql, System.nanoTime() - tstart);
       throw s;
     }
+    connectionSpy.schemaChanged(sql);
+    return reportReturn(methodCall, result);
   }
 
   public boolean execute(String sql, int autoGeneratedKeys) throws SQLException
   {
 	  
-	    ArrayList<String> sqls=null;
-	     if(connectionSpy.rewriteTemporal){
+	    List<String> sqls=null;
+	     if(isRewritten(sql)){
 	    	 try {
 	    		 sqls = rewriteSql(sql);
 			} catch (ParseException e) {
@@ -1020,35 +1363,45 @@ public int getMaxFieldSize() throws SQLException
 	    	 
 	     }	
 	     
-    String methodCall = "execute(" + sql + ", " + autoGeneratedKeys + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "execute(" + sql + ", " + autoGeneratedKeys + ")" : "execute";
     reportStatementSql(sql, methodCall);
-    long tstart = System.currentTimeMillis();
+    long tstart = System.nanoTime();
+    boolean result = false;
     try
     {
-     	boolean result = false;
 	     if(sqls!=null){
+	       connectionSpy.park(revisited);
+	       try
+	       {
 	     	 for(String s:sqls){
 	     		result = realStatement.execute(s, autoGeneratedKeys); // it's ok to just report the # of touched tuples from last query 
 	    	 }
+	       }
+	       finally
+	       {
+	         connectionSpy.unpark(revisited);
+	       }
+	       connectionSpy.checkClosed(closed, clockedAt);
 	     }
 	     else{
 	    	 result = realStatement.execute(sql, autoGeneratedKeys);
 	     }
-      reportStatementSqlTiming(System.currentTimeMillis() - tstart, sql, methodCall);
-      return reportReturn(methodCall, result);
+      reportStatementSqlTiming(System.nanoTime() - tstart, sql, methodCall);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql, System.currentTimeMillis() - tstart);
+      reportException(log.isJdbcLoggingEnabled() ? "execute(" + sql + ", " + autoGeneratedKeys + ")" : methodCall, s, sql, System.nanoTime() - tstart);
       throw s;
     }
+    connectionSpy.schemaChanged(sql);
+    return reportReturn(methodCall, result);
   }
 
   public int executeUpdate(String sql, int[] columnIndexes) throws SQLException
   {
 	  
-	    ArrayList<String> sqls=null;
-	     if(connectionSpy.rewriteTemporal){
+	    List<String> sqls=null;
+	     if(isRewritten(sql)){
 	    	 try {
 	    		 sqls = rewriteSql(sql);
 			} catch (ParseException e) {
@@ -1057,37 +1410,49 @@ public int getMaxFieldSize() throws SQLException
 	    	 
 	     }	
 	     
-    String methodCall = "executeUpdate(" + sql + ", " + columnIndexes + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "executeUpdate(" + sql + ", " + columnIndexes + ")" : "executeUpdate";
     reportStatementSql(sql, methodCall);
-    long tstart = System.currentTimeMillis();
+    long tstart = System.nanoTime();
+    int result = -1;
     try
     {
-    	
-     	int result = -1;
 	     if(sqls!=null){
-	     	 for(String s:sqls){
-	     		result = realStatement.executeUpdate(s, columnIndexes); 
+	       connectionSpy.park(revisited);
+	       try
+	       {
+	     	 for(int i = 0; i < sqls.size(); i++){
+	     		int count = realStatement.executeUpdate(sqls.get(i), columnIndexes); 
+	     		if (i < sqls.size() - sweeps){
+	     		  result = count;
+	     		}
 	    	 }
+	       }
+	       finally
+	       {
+	         connectionSpy.unpark(revisited);
+	       }
+	       connectionSpy.checkClosed(closed, clockedAt);
 	     }
 	     else{
 	    	 result = realStatement.executeUpdate(sql, columnIndexes);
 	     }
       
-      reportStatementSqlTiming(System.currentTimeMillis() - tstart, sql, methodCall);
-      return reportReturn(methodCall, result);
+      reportStatementSqlTiming(System.nanoTime() - tstart, sql, methodCall);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql, System.currentTimeMillis() - tstart);
+      reportException(log.isJdbcLoggingEnabled() ? "executeUpdate(" + sql + ", " + columnIndexes + ")" : methodCall, s, sql, System.nanoTime() - tstart);
       throw s;
     }
+    connectionSpy.schemaChanged(sql);
+    return reportReturn(methodCall, result);
   }
 
   public boolean execute(String sql, int[] columnIndexes) throws SQLException
   {
 	  
-	    ArrayList<String> sqls=null;
-	     if(connectionSpy.rewriteTemporal){
+	    List<String> sqls=null;
+	     if(isRewritten(sql)){
 	    	 try {
 	    		 sqls = rewriteSql(sql);
 			} catch (ParseException e) {
@@ -1095,32 +1460,40 @@ public int getMaxFieldSize() throws SQLException
 			}
 	    	 
 	     }	
-    String methodCall = "execute(" + sql + ", " + columnIndexes + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "execute(" + sql + ", " + columnIndexes + ")" : "execute";
     reportStatementSql(sql, methodCall);
-    long tstart = System.currentTimeMillis();
+    long tstart = System.nanoTime();
+    boolean result = false;
     try
     {
-    	
-    	
-     	boolean result = false;
 	     if(sqls!=null){
+	       connectionSpy.park(revisited);
+	       try
+	       {
 	     	 for(String s:sqls){
 	     		result = realStatement.execute(s, columnIndexes); 
 	    	 }
+	       }
+	       finally
+	       {
+	         connectionSpy.unpark(revisited);
+	       }
+	       connectionSpy.checkClosed(closed, clockedAt);
 	     }
 	     else{
 	    	 result = realStatement.execute(sql, columnIndexes);
 	     }
     	
 
-      reportStatementSqlTiming(System.currentTimeMillis() - tstart, sql, methodCall);
-      return reportReturn(methodCall, result);
+      reportStatementSqlTiming(System.nanoTime() - tstart, sql, methodCall);
     }
     catch (SQLException s)
     {
-      reportException(methodCall, s, sql, System.currentTimeMillis() - tstart);
+      reportException(log.isJdbcLoggingEnabled() ? "execute(" + sql + ", " + columnIndexes + ")" : methodCall, s, sql, System.nanoTime() - tstart);
       throw s;
     }
+    connectionSpy.schemaChanged(sql);
+    return reportReturn(methodCall, result);
   }
 
   public ResultSet getResultSet() throws SQLException
@@ -1135,7 +1508,7 @@ public int getMaxFieldSize() throws SQLException
       }
       else
       {
-        return (ResultSet) reportReturn(methodCall, new ResultSetSpy(this, r));
+        return (ResultSet) reportReturn(methodCall, wrapResultSet(r));
       }
     }
     catch (SQLException s)
@@ -1189,7 +1562,7 @@ public int getMaxFieldSize() throws SQLException
   }
 
   public <T> T unwrap(Class<T> iface) throws SQLException {
-    String methodCall = "unwrap(" + (iface==null?"null":iface.getName()) + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "unwrap(" + (iface==null?"null":iface.getName()) + ")" : "unwrap";
     try
     {
       //todo: double check this logic
@@ -1197,14 +1570,14 @@ public int getMaxFieldSize() throws SQLException
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(log.isJdbcLoggingEnabled() ? "unwrap(" + (iface==null?"null":iface.getName()) + ")" : methodCall,s);
       throw s;
     }
   }
 
   public boolean isWrapperFor(Class<?> iface) throws SQLException
   {
-    String methodCall = "isWrapperFor(" + (iface==null?"null":iface.getName()) + ")";
+    String methodCall = log.isMethodReturnedEnabled(this) ? "isWrapperFor(" + (iface==null?"null":iface.getName()) + ")" : "isWrapperFor";
     try
     {
       return reportReturn(methodCall, (iface != null && (iface == Statement.class || iface == Spy.class)) ||
@@ -1212,7 +1585,7 @@ public int getMaxFieldSize() throws SQLException
     }
     catch (SQLException s)
     {
-      reportException(methodCall,s);
+      reportException(log.isJdbcLoggingEnabled() ? "isWrapperFor(" + (iface==null?"null":iface.getName()) + ")" : methodCall,s);
       throw s;
     }
   }
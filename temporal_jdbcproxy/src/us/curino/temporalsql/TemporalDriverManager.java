@@ -1,31 +1,37 @@
-/**
- *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
- *  
- *  See the NOTICE file distributed with this work for additional 
- *  information regarding copyright ownership.
- *
- *  Licensed under the Apache License, Version 2.0 (the "License");
- *  you may not use this file except in compliance with the License.
- *  You may obtain a copy of the License at
- *
- *      http://www.apache.org/licenses/LICENSE-2.0
- *
- *  Unless required by applicable law or agreed to in writing, software
- *  distributed under the License is distributed on an "AS IS" BASIS,
- *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- *  See the License for the specific language governing permissions and
- *  limitations under the License.
- */
-
-package us.curino.temporalsql;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
-
-public abstract class TemporalDriverManager{
-	public static Connection getConnection(String path, String user, String password, String schema) throws SQLException
-	{
-		Connection conn= DriverManager.getConnection(path, user, password);
-		return new us.curino.temporalsql.ConnectionSpy(conn,true,schema);
-	}	
-}
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *  
+ *  See the NOTICE file distributed with this work for additional 
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+public abstract class TemporalDriverManager{
+	/**
+	 * Open a connection that temporally rewrites its SQL against the given
+	 * schema.  The schema is loaded once per process through the SchemaRegistry,
+	 * from a SchemaSnapshot file when <b>log4jdbc.temporal.schema.snapshot.dir</b>
+	 * is set and the snapshot still matches the database.
+	 */
+	public static Connection getConnection(String path, String user, String password, String schema) throws SQLException
+	{
+		Connection conn= DriverManager.getConnection(path, user, password);
+		return new us.curino.temporalsql.ConnectionSpy(conn,true,schema);
+	}	
+}
@@ -0,0 +1,387 @@
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.Vector;
+
+import com.relationalcloud.tsqlparser.loader.Schema;
+import com.relationalcloud.tsqlparser.loader.SchemaTable;
+
+/**
+ * The temporalized tables of a schema (the tables TemporalizeSchema gave a
+ * tstart and a tend column), and a quick check of whether a SQL statement
+ * may touch any of them.
+ *
+ * The check does not parse the SQL: it scans it for identifiers, skipping
+ * string literals and comments, and looks each one up in the set of table
+ * names.  A statement none of whose identifiers names a temporalized table
+ * (SET, SHOW, a SELECT 1 validation query, a query of a lookup table) cannot
+ * need a temporal rewrite, and is sent to the driver without building a
+ * tsqlparser Parser.  A column or alias with the name of a temporalized
+ * table only costs a needless parse.  Statements that do not start with one
+ * of a few known keywords (DDL in particular, which the rewriter may change
+ * whatever tables it names) always go to the parser.
+ *
+ * A temporalized table is split (see HistoryTables) when it is listed in
+ * log4jdbc.temporal.split.tables and its history table is in the schema,
+ * with the same columns in the same order.  A <table>_history table alone
+ * does not make a table split: it may well be one of the application's own.
+ *
+ * Instances are immutable and made once per loaded Schema, see
+ * SchemaRegistry.Entry.
+ */
+final class TemporalTables
+{
+  /**
+   * First keywords of the statements that are sent to the driver unchanged
+   * when they name no temporalized table.
+   */
+  private static final String[] SKIPPABLE = {"select", "insert", "update", "delete", "replace",
+    "with", "values", "set", "show", "use", "describe", "desc", "explain", "call", "do",
+    "begin", "start", "commit", "rollback", "savepoint", "release"};
+
+  /**
+   * Lower case names of the temporalized tables.
+   */
+  private final Set<String> tables = new HashSet<String>();
+
+  /**
+   * Lower case names of the split tables.
+   */
+  private final Set<String> split = new HashSet<String>();
+
+  private int shortest = Integer.MAX_VALUE;
+
+  private int longest = 0;
+
+  /**
+   * True unless a temporalized table keeps tstart in a date/time column.
+   */
+  private boolean numericTime = true;
+
+  /**
+   * Find the temporalized tables of a schema.
+   *
+   * @param schema a loaded schema.
+   */
+  TemporalTables(Schema schema)
+  {
+    Vector<SchemaTable> all = schema == null ? null : schema.getTables();
+    if (all == null)
+    {
+      return;
+    }
+    for (Iterator<SchemaTable> i = all.iterator(); i.hasNext();)
+    {
+      SchemaTable table = i.next();
+      if (hasColumn(table, "tstart") && hasColumn(table, "tend"))
+      {
+        String name = RewrittenSql.normalizeTableName(table.getTableName());
+        tables.add(name);
+        shortest = Math.min(shortest, name.length());
+        longest = Math.max(longest, name.length());
+        numericTime &= isNumeric(getColumnType(table, "tstart"));
+      }
+    }
+    for (Iterator<String> i = DriverSpy.TemporalSplitTables.iterator(); i.hasNext();)
+    {
+      String name = i.next();
+      if (tables.contains(name) && tables.contains(name + HistoryTables.SUFFIX))
+      {
+        if (sameColumns(getTable(all, name), getTable(all, name + HistoryTables.SUFFIX)))
+        {
+          split.add(name);
+        }
+        else
+        {
+          DriverSpy.log.debug("not splitting " + name + ": " + name + HistoryTables.SUFFIX +
+            " does not have the same columns");
+        }
+      }
+    }
+  }
+
+  private static SchemaTable getTable(Vector<SchemaTable> all, String name)
+  {
+    for (Iterator<SchemaTable> i = all.iterator(); i.hasNext();)
+    {
+      SchemaTable table = i.next();
+      if (RewrittenSql.normalizeTableName(table.getTableName()).equals(name))
+      {
+        return table;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Determine if two tables have the same column list, so that the sweeps'
+   * INSERT INTO history SELECT * copies each column to itself.
+   */
+  private static boolean sameColumns(SchemaTable current, SchemaTable history)
+  {
+    Vector<String> a = current == null ? null : current.getColumns();
+    Vector<String> b = history == null ? null : history.getColumns();
+    if (a == null || b == null || a.size() != b.size())
+    {
+      return false;
+    }
+    for (int i = 0; i < a.size(); i++)
+    {
+      if (!a.get(i).equalsIgnoreCase(b.get(i)))
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean hasColumn(SchemaTable table, String column)
+  {
+    Vector<String> columns = table.getColumns();
+    if (columns != null)
+    {
+      for (Iterator<String> i = columns.iterator(); i.hasNext();)
+      {
+        if (column.equalsIgnoreCase(i.next()))
+        {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static String getColumnType(SchemaTable table, String column)
+  {
+    Vector<String> columns = table.getColumns();
+    Vector<String> types = table.getColTypes();
+    if (columns != null && types != null)
+    {
+      for (int i = 0; i < columns.size() && i < types.size(); i++)
+      {
+        if (column.equalsIgnoreCase(columns.get(i)))
+        {
+          return types.get(i);
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Determine if a column type holds times as numbers, the way the
+   * DECIMAL(20,6) columns of TemporalizeSchema do.  An unknown type is
+   * taken to be numeric.
+   */
+  private static boolean isNumeric(String type)
+  {
+    if (type == null)
+    {
+      return true;
+    }
+    type = type.toLowerCase();
+    return type.startsWith("decimal") || type.startsWith("numeric") || type.startsWith("double") ||
+      type.startsWith("float") || type.startsWith("real") || type.indexOf("int") >= 0;
+  }
+
+  /**
+   * Determine if the tstart and tend columns hold times as
+   * YYYYMMDDhhmmss.uuuuuu numbers rather than as timestamps, see
+   * SnapshotPredicates.
+   *
+   * @return false if a temporalized table has a date/time tstart column.
+   */
+  boolean isNumericTime()
+  {
+    return numericTime;
+  }
+
+  /**
+   * @param table a normalized table name.
+   * @return true if the table is temporalized.
+   */
+  boolean contains(String table)
+  {
+    return tables.contains(table);
+  }
+
+  /**
+   * @param table a normalized table name.
+   * @return true if the table has a current and a history table.
+   */
+  boolean isSplit(String table)
+  {
+    return split.contains(table);
+  }
+
+  /**
+   * Get the split tables among the tables a statement touches.
+   *
+   * @param touched names of the tables, or null if not known.
+   * @return the normalized names of the split tables, empty if there are
+   *         none or the tables are not known.
+   */
+  List<String> getSplit(Collection<String> touched)
+  {
+    List<String> found = new ArrayList<String>();
+    if (touched != null && !split.isEmpty())
+    {
+      for (Iterator<String> i = touched.iterator(); i.hasNext();)
+      {
+        String table = RewrittenSql.normalizeTableName(i.next());
+        if (split.contains(table) && !found.contains(table))
+        {
+          found.add(table);
+        }
+      }
+    }
+    return found;
+  }
+
+  /**
+   * @return the number of temporalized tables.
+   */
+  int size()
+  {
+    return tables.size();
+  }
+
+  /**
+   * Determine if a SQL statement may touch a temporalized table: if any of
+   * its identifiers (quoted or not, each part of a qualified name on its own)
+   * is the name of one.
+   *
+   * @param sql the SQL of a statement.
+   * @return false if the statement certainly touches no temporalized table.
+   */
+  boolean isTouchedBy(String sql)
+  {
+    int n = sql.length();
+    int i = 0;
+    while (i < n && (Character.isWhitespace(sql.charAt(i)) || sql.charAt(i) == '('))
+    {
+      i++;
+    }
+    int keyword = i;
+    while (keyword < n && Character.isLetter(sql.charAt(keyword)))
+    {
+      keyword++;
+    }
+    if (!isSkippable(sql, i, keyword))
+    {
+      return true;
+    }
+    if (tables.isEmpty())
+    {
+      return false;
+    }
+    while (i < n)
+    {
+      char c = sql.charAt(i);
+      if (c == '\'')
+      {
+        i++;
+        while (i < n)
+        {
+          char q = sql.charAt(i++);
+          if (q == '\\')
+          {
+            i++;
+          }
+          else if (q == '\'')
+          {
+            break;
+          }
+        }
+      }
+      else if (c == '-' && i + 1 < n && sql.charAt(i + 1) == '-')
+      {
+        while (i < n && sql.charAt(i) != '\n')
+        {
+          i++;
+        }
+      }
+      else if (c == '/' && i + 1 < n && sql.charAt(i + 1) == '*')
+      {
+        int end = sql.indexOf("*/", i + 2);
+        i = end < 0 ? n : end + 2;
+      }
+      else if (c == '"' || c == '`' || c == '[')
+      {
+        int end = sql.indexOf(c == '[' ? ']' : c, i + 1);
+        end = end < 0 ? n : end;
+        if (isTable(sql, i + 1, end))
+        {
+          return true;
+        }
+        i = end + 1;
+      }
+      else if (isIdentifierPart(c))
+      {
+        // an identifier, a keyword or a number
+        int start = i;
+        while (i < n && isIdentifierPart(sql.charAt(i)))
+        {
+          i++;
+        }
+        if (isTable(sql, start, i))
+        {
+          return true;
+        }
+      }
+      else
+      {
+        i++;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isSkippable(String sql, int start, int end)
+  {
+    for (int k = 0; k < SKIPPABLE.length; k++)
+    {
+      if (SKIPPABLE[k].length() == end - start && sql.regionMatches(true, start, SKIPPABLE[k], 0, end - start))
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isIdentifierPart(char c)
+  {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+  }
+
+  private boolean isTable(String sql, int start, int end)
+  {
+    int length = end - start;
+    return length >= shortest && length <= longest &&
+      tables.contains(sql.substring(start, end).toLowerCase());
+  }
+}
@@ -6,7 +6,12 @@ import java.io.IOException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
 import java.util.Properties;
 
 public class TemporalizeSchema {
@@ -34,6 +39,17 @@ public class TemporalizeSchema {
       e.printStackTrace();
     }
     String schema=ini.getProperty("schema");
+    /* layout=split keeps closed versions in a <table>_history table, see HistoryTables.
+       The proxy only moves versions to history when it can tell the time a statement
+       closed them at: on PostgreSQL that takes log4jdbc.temporal.clock, without it
+       all the versions stay in the current table. */
+    boolean split="split".equalsIgnoreCase(ini.getProperty("layout"));
+    StringBuffer splitTables=new StringBuffer();
+    /* partition.start=yyyy-MM range partitions the versions on tend, see partitionByEnd */
+    String partitionStart=ini.getProperty("partition.start");
+    int partitionMonths=Integer.parseInt(ini.getProperty("partition.months", "1"));
+    int partitionCount=Integer.parseInt(ini.getProperty("partition.count", "12"));
+    boolean postgres=ini.getProperty("driver").indexOf("postgresql")>=0;
     Connection conn = DriverManager.getConnection(ini.getProperty("conn") + schema, ini.getProperty("user"), ini.getProperty("password"));
  
     Statement st = conn.createStatement();
@@ -46,6 +62,8 @@ public class TemporalizeSchema {
    	while (res.next())
    	{
    		String table=res.getString(1);
+   		if(table.toLowerCase().endsWith(HistoryTables.SUFFIX))
+   			continue;
    		System.out.println("Temporizing table: " + table);
 	    Statement st3=conn.createStatement();
 	    //System.out.println("SELECT k.COLUMN_NAME FROM information_schema.table_constraints t LEFT JOIN information_schema.key_column_usage k USING(constraint_name,table_schema,table_name) " +
@@ -68,15 +86,149 @@ public class TemporalizeSchema {
    	   		System.out.println("Alter table "+table+" add primary key("+pk+"tend)");
    	   		st2.executeUpdate("Alter table "+table+" add primary key("+pk+"tend)");
    		}
+   		/* AS OF lookups: the key, then a range on tend and tstart */
+   		System.out.println("Create index "+table+"_asof on "+table+"("+pk+"tend, tstart)");
+   		st2.executeUpdate("Create index "+table+"_asof on "+table+"("+pk+"tend, tstart)");
+   		if(split)
+   		{
+   			/* PostgreSQL has no CREATE TABLE ... LIKE, only LIKE in the column list */
+   			String history=postgres ? "Create table "+table+HistoryTables.SUFFIX+" (like "+table+" including all)"
+   				: "Create table "+table+HistoryTables.SUFFIX+" like "+table;
+   			System.out.println(history);
+   			st2.executeUpdate(history);
+   			splitTables.append(splitTables.length()>0 ? "," : "").append(table);
+   		}
+   		/* the sweeps, and a transaction changing a row twice, find the versions closed at a time by tend */
+   		System.out.println("Create index "+table+"_closed on "+table+"(tend)");
+   		st2.executeUpdate("Create index "+table+"_closed on "+table+"(tend)");
+   		if(partitionStart!=null)
+   		{
+   			/* with the split layout only history has closed versions to partition */
+   			String versions=split ? table+HistoryTables.SUFFIX : table;
+   			/* on PostgreSQL the rows move to a new table: do it all or nothing */
+   			conn.setAutoCommit(!postgres);
+   			try
+   			{
+   				for (String sql : partitionByEnd(versions, postgres, partitionStart, partitionMonths, partitionCount))
+   				{
+   					System.out.println(sql);
+   					st2.executeUpdate(sql);
+   				}
+   				if(postgres)
+   					conn.commit();
+   			}
+   			catch (SQLException e)
+   			{
+   				if(postgres)
+   					conn.rollback();
+   				throw e;
+   			}
+   			finally
+   			{
+   				conn.setAutoCommit(true);
+   			}
+   		}
    		st3.close();
 	   	/* PostGreSQL */
 	   	//st2.executeUpdate("ALTER TABLE "+table+ " ADD COLUMN tstart TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;");
 	   	//st2.executeUpdate("ALTER TABLE "+table+ " ADD COLUMN tend TIMESTAMP NOT NULL DEFAULT '2037-12-31 23:59:59';");
    	}
+   	if(split)
+   	{
+   		System.out.println("Split tables, for the proxy: log4jdbc.temporal.split.tables="+splitTables);
+   		if(postgres)
+   			System.out.println("On PostgreSQL the split layout also needs log4jdbc.temporal.clock=transaction " +
+   				"(or statement): without it no version is moved to history");
+   	}
    	st.close();
    	st2.close();
    	conn.close();
   }  
+
+  /**
+   * Get the statements that range partition a temporalized table on tend.
+   *
+   * There is a partition for the versions closed before the start month, one
+   * for each interval of months after it, one for the versions closed after
+   * the last interval, and one for the current versions, whose tend is
+   * 20371231235959.000000.  The current versions so never share a partition
+   * with history, and old versions are removed by dropping their partition
+   * (ALTER TABLE ... DROP PARTITION on MySQL, DROP TABLE on PostgreSQL)
+   * instead of by DELETE.
+   *
+   * On PostgreSQL a query with bounds on tend also only reads the partitions
+   * of its interval.  PostgreSQL cannot partition an existing table, so its
+   * rows are moved to a new partitioned table of the same name; the caller
+   * runs the statements in one transaction, so a failure leaves the table as
+   * it was.
+   *
+   * MySQL cannot partition on a DECIMAL column directly, so it partitions on
+   * FLOOR(tend), and does not prune partitions on conditions on tend itself:
+   * there the partitions are for retention only, queries still read them all.
+   * The primary key (..., tend) already holds the column, as MySQL requires.
+   * A partitioned InnoDB table cannot have foreign keys.
+   *
+   * @param table    the table.
+   * @param postgres true for PostgreSQL declarative partitioning, false for MySQL.
+   * @param start    the month (yyyy-MM) the first interval starts at.
+   * @param months   the number of months in each interval.
+   * @param count    the number of intervals.
+   * @return the DDL, in execution order.
+   * @throws Exception if the start month cannot be parsed.
+   */
+  static List<String> partitionByEnd(String table, boolean postgres, String start, int months, int count)
+    throws Exception
+  {
+    SimpleDateFormat bound = new SimpleDateFormat("yyyyMMdd'000000'");
+    SimpleDateFormat name = new SimpleDateFormat("yyyyMM");
+    Calendar c = Calendar.getInstance();
+    c.setTime(new SimpleDateFormat("yyyy-MM").parse(start));
+
+    // partition names and their upper bounds (exclusive)
+    List<String> names = new ArrayList<String>();
+    List<String> bounds = new ArrayList<String>();
+    names.add("p_before");
+    bounds.add(bound.format(c.getTime()));
+    for (int i = 0; i < count; i++)
+    {
+      names.add("p" + name.format(c.getTime()));
+      c.add(Calendar.MONTH, months);
+      bounds.add(bound.format(c.getTime()));
+    }
+    names.add("p_after");
+    bounds.add("20371231235959");
+    names.add("p_current");
+    bounds.add(null);
+
+    List<String> sqls = new ArrayList<String>();
+    if (postgres)
+    {
+      String old = table + "_unpartitioned";
+      sqls.add("ALTER TABLE " + table + " RENAME TO " + old);
+      sqls.add("CREATE TABLE " + table + " (LIKE " + old + " INCLUDING ALL) PARTITION BY RANGE (tend)");
+      String from = "MINVALUE";
+      for (int i = 0; i < names.size(); i++)
+      {
+        String to = bounds.get(i) == null ? "MAXVALUE" : bounds.get(i);
+        sqls.add("CREATE TABLE " + table + "_" + names.get(i) + " PARTITION OF " + table +
+          " FOR VALUES FROM (" + from + ") TO (" + to + ")");
+        from = to;
+      }
+      sqls.add("INSERT INTO " + table + " SELECT * FROM " + old);
+      sqls.add("DROP TABLE " + old);
+    }
+    else
+    {
+      StringBuffer sql = new StringBuffer("ALTER TABLE " + table + " PARTITION BY RANGE (FLOOR(tend)) (");
+      for (int i = 0; i < names.size(); i++)
+      {
+        sql.append(i > 0 ? ", " : "").append("PARTITION ").append(names.get(i)).append(" VALUES LESS THAN (")
+          .append(bounds.get(i) == null ? "MAXVALUE" : bounds.get(i)).append(")");
+      }
+      sqls.add(sql.append(")").toString());
+    }
+    return sqls;
+  }
       
 
 }
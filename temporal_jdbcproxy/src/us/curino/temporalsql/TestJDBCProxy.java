@@ -110,6 +110,34 @@ public class TestJDBCProxy {
     t = ps.executeUpdate();
     System.out.println(t + " rows affected");
     
+    // the same row updated twice in one transaction: with
+    // log4jdbc.temporal.clock=transaction both updates close versions at the
+    // same timestamp (see ConnectionSpy.getRevisitedTables)
+    conn.setAutoCommit(false);
+    ps = conn.prepareStatement("UPDATE warehouse SET w_state=? WHERE w_id=?");
+    ps.setString(1,"NY");
+    ps.setInt(2, 12);
+    t = ps.executeUpdate();
+    System.out.println(t + " rows affected");
+    ps.setString(1,"CA");
+    t = ps.executeUpdate();
+    System.out.println(t + " rows affected");
+    conn.commit();
+    conn.setAutoCommit(true);
+
+    ps = conn.prepareStatement("SELECT w_state FROM warehouse WHERE w_id=?");
+    ps.setInt(1, 12);
+    res = ps.executeQuery();
+    int current = 0;
+    while(res.next())
+    {
+    	current++;
+    	if(!"CA".equals(res.getString(1)))
+    		throw new Exception("w_id 12 has state " + res.getString(1) + " after the transaction, expected CA");
+    }
+    if(current != 1)
+    	throw new Exception("w_id 12 has " + current + " current versions after the transaction, expected 1");
+
     ps = conn.prepareStatement("SELECT id,w_state,tstart,tend FROM warehouse VERSIONS BEFORE SYSTEM TIME 2037-12-31 23:59:58;");
     ResultSet rs = ps.executeQuery();
     while(rs.next()){
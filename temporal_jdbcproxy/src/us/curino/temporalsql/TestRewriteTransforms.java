@@ -0,0 +1,279 @@
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks the transforms the proxy applies to rewritten SQL on its own, with
+ * no database: parameter routing, the now_usec() clock, the set based
+ * form of batches, the sweeps to history and the time comparisons of
+ * temporal queries.  Run it with no
+ * arguments; it prints each failed check and exits with status 1 if any
+ * failed.
+ */
+public class TestRewriteTransforms {
+
+  private static int checks;
+
+  private static int failures;
+
+  public static void main(String[] args) throws Exception {
+
+    testParameterRouting();
+    testToDecimal();
+    testFindCalls();
+    testBatchCollapse();
+    testSnapshotPredicates();
+    testSnapshot();
+    testSweep();
+
+    System.out.println(checks + " checks, " + failures + " failed");
+    if (failures > 0)
+    {
+      System.exit(1);
+    }
+  }
+
+  private static void testParameterRouting() throws Exception {
+
+    // a single statement takes every parameter at its own index
+    ParameterRouting single = new ParameterRouting(
+      Arrays.asList("SELECT * FROM warehouse WHERE w_id=? AND w_state=?"), 1);
+    check("single statement count", single.getParameterCount(), 2);
+    check("single statement routes", routes(single, 2), "0:2");
+
+    // the first statement of a rewrite only takes the parameters after the
+    // non temporal part, the following ones take them all
+    ParameterRouting split = new ParameterRouting(Arrays.asList(
+      "UPDATE warehouse SET tend=now_usec() WHERE w_id=? AND tend=20371231235959.000000",
+      "INSERT INTO warehouse SELECT ?, w_id, now_usec(), 20371231235959.000000 FROM warehouse WHERE w_id=?"), 1);
+    check("split count", split.getParameterCount(), 2);
+    check("split routes 1", routes(split, 1), "1:1");
+    check("split routes 2", routes(split, 2), "0:1 1:2");
+
+    // markers in quoted strings and identifiers are not parameters
+    check("quoted markers", ParameterRouting.countParameters("SELECT '?', \"?\", `?`, 'it\\'s?' FROM t WHERE a=?"), 1);
+
+    // joined statements number their parameters one after the other
+    ParameterRouting joined = split.join();
+    check("joined statements", joined.getStatementCount(), 1);
+    check("joined routes 1", routes(joined, 1), "0:2");
+    check("joined routes 2", routes(joined, 2), "0:1 0:3");
+
+    // markers added in front of the user's ones move them
+    ParameterRouting remapped = split.remap(new int[][] {{0, 2}, {0, 1, 3}}, new int[] {2, 3});
+    check("remapped routes 1", routes(remapped, 1), "1:1");
+    check("remapped routes 2", routes(remapped, 2), "0:2 1:3");
+
+    try
+    {
+      split.first(3);
+      check("index out of range", "no exception", "SQLException");
+    }
+    catch (java.sql.SQLException e)
+    {
+      check("index out of range", "SQLException", "SQLException");
+    }
+  }
+
+  private static void testToDecimal() {
+
+    check("epoch", TransactionClock.toDecimal(0L).toString(), "19700101000000.000000");
+    check("date", TransactionClock.toDecimal(1300115366535897L).toString(), "20110314150926.535897");
+    check("leap day", TransactionClock.toDecimal(951868799999999L).toString(), "20000229235959.999999");
+    check("before epoch", TransactionClock.toDecimal(-999999L).toString(), "19691231235959.000001");
+    check("end of time", TransactionClock.toDecimal(2145916799000000L).toString(), "20371231235959.000000");
+
+    // toMicros reads them back
+    long[] times = {0L, 1300115366535897L, 951868799999999L, -999999L, 2145916799000000L};
+    for (int i = 0; i < times.length; i++)
+    {
+      check("round trip " + times[i], TransactionClock.toMicros(TransactionClock.toDecimal(times[i])), times[i]);
+    }
+    check("now_usec()", TransactionClock.toMicros(new java.math.BigDecimal("20110314150926.535897")), 1300115366535897L);
+  }
+
+  private static void testFindCalls() {
+
+    String sql = "UPDATE t SET tend=now_usec() WHERE tstart < NOW_USEC ( ) AND c='now_usec()'";
+    int[] calls = TransactionClock.findCalls(sql);
+    check("calls found", calls.length, 4);
+    check("first call", sql.substring(calls[0], calls[1]), "now_usec()");
+    check("second call", sql.substring(calls[2], calls[3]), "NOW_USEC ( )");
+    check("identifiers", TransactionClock.findCalls("SELECT my_now_usec(), `now_usec()`, now_usec_x() FROM t").length, 0);
+    check("replaced", TransactionClock.replaceCalls(sql, "?"),
+      "UPDATE t SET tend=? WHERE tstart < ? AND c='now_usec()'");
+  }
+
+  private static void testBatchCollapse() {
+
+    String update = "UPDATE warehouse SET w_state=? WHERE w_id=?";
+    List<String> rewrite = Arrays.asList(
+      "UPDATE warehouse SET tend=@temptime_warehouse:=now_usec() WHERE w_id=? AND tend=20371231235959.000000",
+      "INSERT INTO warehouse SELECT w_id, ?, @temptime_warehouse, 20371231235959.000000 FROM warehouse " +
+      "WHERE tend=@temptime_warehouse AND w_id=?;");
+
+    // now_usec() runs once per row of a set based UPDATE
+    check("server clock", String.valueOf(BatchCollapse.compile(update, rewrite, false)), "null");
+
+    BatchCollapse collapse = BatchCollapse.compile(update, rewrite, true);
+    check("statements", collapse.getStatementCount(), 2);
+    check("update parameters", collapse.getParameterCount(0), 1);
+    check("insert parameters", collapse.getParameterCount(1), 2);
+    check("collapsed update", collapse.getSql(0, 3),
+      "UPDATE warehouse SET tend=@temptime_warehouse:=now_usec() WHERE tend=20371231235959.000000 AND w_id IN (?, ?, ?)");
+    check("collapsed insert select", collapse.getSql(1, 2),
+      "INSERT INTO warehouse SELECT w_id, ?, @temptime_warehouse, 20371231235959.000000 FROM warehouse " +
+      "WHERE tend=@temptime_warehouse AND w_id=? UNION ALL " +
+      "SELECT w_id, ?, @temptime_warehouse, 20371231235959.000000 FROM warehouse " +
+      "WHERE tend=@temptime_warehouse AND w_id=?");
+    check("rows per statement", collapse.getRowsPerStatement(1, 100000), BatchCollapse.MAX_PARAMETERS / 2);
+
+    // a key of several columns becomes a row value IN list, and an INSERT
+    // ... VALUES a multi row INSERT
+    collapse = BatchCollapse.compile("UPDATE stock SET s_quantity=? WHERE s_w_id=? AND s_i_id=?", Arrays.asList(
+      "UPDATE stock SET tend=@temptime_stock:=now_usec() WHERE (s_w_id = ?) AND s_i_id=? AND tend=20371231235959.000000",
+      "INSERT INTO stock (s_w_id, s_i_id, s_quantity, tstart) VALUES (?, ?, ?, @temptime_stock)"), true);
+    check("composite key", collapse.getSql(0, 2),
+      "UPDATE stock SET tend=@temptime_stock:=now_usec() WHERE tend=20371231235959.000000 AND (s_w_id, s_i_id) IN ((?, ?), (?, ?))");
+    check("multi row insert", collapse.getSql(1, 2),
+      "INSERT INTO stock (s_w_id, s_i_id, s_quantity, tstart) VALUES (?, ?, ?, @temptime_stock), (?, ?, ?, @temptime_stock)");
+
+    // shapes that are not collapsed
+    check("assigned key", String.valueOf(BatchCollapse.compile("UPDATE warehouse SET w_id=? WHERE w_id=?", rewrite, true)), "null");
+    check("or condition", String.valueOf(BatchCollapse.compile(update, Arrays.asList(
+      "UPDATE warehouse SET tend=@temptime_warehouse:=now_usec() WHERE w_id=? OR w_name=?", rewrite.get(1)), true)), "null");
+    check("range condition", String.valueOf(BatchCollapse.compile(update, Arrays.asList(
+      "UPDATE warehouse SET tend=@temptime_warehouse:=now_usec() WHERE w_id>?", rewrite.get(1)), true)), "null");
+    check("single statement", String.valueOf(BatchCollapse.compile(update, rewrite.subList(0, 1), true)), "null");
+  }
+
+  private static void testSnapshotPredicates() {
+
+    // BETWEEN of a time and the two columns becomes the half open range
+    check("between", SnapshotPredicates.normalize(
+      "SELECT * FROM warehouse WHERE '2011-03-14 15:09:26' BETWEEN tstart AND tend", true),
+      "SELECT * FROM warehouse WHERE tstart <= 20110314150926.000000 AND tend > 20110314150926.000000");
+    check("between timestamps", SnapshotPredicates.normalize(
+      "SELECT * FROM warehouse w WHERE '2011-03-14' BETWEEN w.tstart AND w.tend", false),
+      "SELECT * FROM warehouse w WHERE w.tstart <= '2011-03-14 00:00:00.000000' AND " +
+      "w.tend > '2011-03-14 00:00:00.000000'");
+
+    // a literal on the left is moved to the right, with the operator flipped
+    check("flip less", SnapshotPredicates.normalize(
+      "SELECT * FROM warehouse WHERE 20110314150926.5 < tend", true),
+      "SELECT * FROM warehouse WHERE tend > 20110314150926.5");
+    check("flip greater or equal", SnapshotPredicates.normalize(
+      "SELECT * FROM warehouse WHERE '2011-03-14T15:09:26.5' >= tstart AND w_id=1", true),
+      "SELECT * FROM warehouse WHERE tstart <= 20110314150926.500000 AND w_id=1");
+    check("flip equal", SnapshotPredicates.normalize(
+      "SELECT * FROM warehouse WHERE '2011-03-14' = tstart", false),
+      "SELECT * FROM warehouse WHERE tstart = '2011-03-14 00:00:00.000000'");
+
+    // comparisons that are not with a time, or are part of arithmetic, are kept
+    String kept = "SELECT * FROM warehouse WHERE tend > 'now' AND 1 + 20110314 < tstart AND tstart < 5 * 2";
+    check("kept", SnapshotPredicates.normalize(kept, true), kept);
+  }
+
+  private static void testSnapshot() throws Exception {
+
+    RewrittenSql query = new RewrittenSql(Arrays.asList(
+      "SELECT * FROM warehouse WHERE w_id=? AND tstart <= 20110314150926.000000 AND " +
+      "tend > 20110314150926.000000 AND w_state=?"), 0, null, true);
+    RewrittenSql snapshot = query.getSnapshot();
+    check("snapshot sql", snapshot.getSqls().get(0),
+      "SELECT * FROM warehouse WHERE w_id=? AND tstart <= ? AND tend > ? AND w_state=?");
+    check("snapshot indexes", Arrays.toString(snapshot.getSnapshotIndexes(0)), "[2, 3]");
+    check("snapshot values", Arrays.toString(snapshot.getSnapshotValues(0)),
+      "[20110314150926.000000, 20110314150926.000000]");
+
+    // the user's parameters move past the times in front of them
+    check("user parameters", snapshot.getParameterRouting().getParameterCount(), 2);
+    check("first user parameter", routes(snapshot.getParameterRouting(), 1), "0:1");
+    check("second user parameter", routes(snapshot.getParameterRouting(), 2), "0:4");
+
+    // a query with no time literals, or a rewrite that is not a query, is kept
+    RewrittenSql plain = new RewrittenSql(Arrays.asList("SELECT * FROM warehouse WHERE w_id=?"), 0, null, true);
+    check("no literals", String.valueOf(plain.getSnapshot() == plain), "true");
+    RewrittenSql update = new RewrittenSql(Arrays.asList(
+      "UPDATE warehouse SET tend=now_usec() WHERE tstart < 20110314150926.000000"), 0, null);
+    check("not a query", String.valueOf(update.getSnapshot() == update), "true");
+  }
+
+  private static void testSweep() {
+
+    List<String> rewrite = Arrays.asList(
+      "UPDATE warehouse SET tend=@temptime_warehouse:=now_usec() WHERE w_id=? AND tend=20371231235959.000000",
+      "INSERT INTO warehouse SELECT w_id, ?, @temptime_warehouse, 20371231235959.000000 FROM warehouse " +
+      "WHERE tend=@temptime_warehouse AND w_id=?");
+
+    // only the versions the rewrite closed move, at the time it closed them
+    List<String> sweep = HistoryTables.sweep(rewrite, Arrays.asList("warehouse"), false);
+    check("sweep insert", sweep.get(0), "INSERT INTO warehouse_history SELECT * FROM warehouse " +
+      "WHERE tend = @temptime_warehouse AND tstart <> @temptime_warehouse");
+    check("sweep delete", sweep.get(1), "DELETE FROM warehouse WHERE tend = @temptime_warehouse");
+    check("proxy clock", HistoryTables.sweep(Arrays.asList("UPDATE stock SET tend=now_usec() WHERE s_i_id=?"),
+      Arrays.asList("stock"), true).get(1), "DELETE FROM stock WHERE tend = now_usec()");
+    check("unknown time", HistoryTables.sweep(Arrays.asList("UPDATE stock SET tend=now_usec() WHERE s_i_id=?"),
+      Arrays.asList("stock"), false).size(), 0);
+
+    check("is sweep", String.valueOf(HistoryTables.isSweep(sweep.get(0)) && HistoryTables.isSweep(sweep.get(1))), "true");
+    check("is not sweep", String.valueOf(HistoryTables.isSweep("DELETE FROM warehouse WHERE tend = 1 AND w_id = 2")),
+      "false");
+
+    // the update count is the rewrite's own, not the sweep's
+    List<String> swept = new java.util.ArrayList<String>(rewrite);
+    swept.addAll(sweep);
+    check("sweep count", new RewrittenSql(swept, 1, null).getSweepCount(), 2);
+    check("joined sweep count", new RewrittenSql(swept, 1, null).getJoined().getSweepCount(), 2);
+    check("no sweep", new RewrittenSql(rewrite, 1, null).getSweepCount(), 0);
+  }
+
+  /**
+   * @return the routes of a parameter, as statement:index pairs.
+   */
+  private static String routes(ParameterRouting routing, int parameterIndex) throws Exception {
+    StringBuffer s = new StringBuffer();
+    for (int r = routing.first(parameterIndex); r < routing.end(parameterIndex); r++)
+    {
+      if (s.length() > 0)
+      {
+        s.append(' ');
+      }
+      s.append(routing.statement(r)).append(':').append(routing.index(r));
+    }
+    return s.toString();
+  }
+
+  private static void check(String what, long actual, long expected) {
+    check(what, String.valueOf(actual), String.valueOf(expected));
+  }
+
+  private static void check(String what, String actual, String expected) {
+    checks++;
+    if (!expected.equals(actual))
+    {
+      failures++;
+      System.out.println("FAILED " + what + ": expected <" + expected + "> but was <" + actual + ">");
+    }
+  }
+}
@@ -0,0 +1,468 @@
+/**
+ *  Copyright 2011 The Temporal JDBC Proxy AUTHORS AND CONTRIBUTORS
+ *
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package us.curino.temporalsql;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A proxy side microsecond clock, standing in for the now_usec() UDF.
+ *
+ * The temporal rewrites of MySQL statements call now_usec() for the tstart
+ * and tend of the versions they write.  The UDF formats the server time as a
+ * string that MySQL then parses back into a DECIMAL(20,6), once per call, and
+ * the statements of one transaction all see a different time.  When
+ * <b>log4jdbc.temporal.clock</b> is set to <code>transaction</code> (or
+ * <code>statement</code>) the proxy takes the time instead: the now_usec()
+ * calls of a prepared statement become parameters, bound to one timestamp per
+ * transaction (or per statement), and those of a plain statement are replaced
+ * by that timestamp.
+ *
+ * The clock is a hybrid logical clock in the format now_usec() returns, the
+ * server's local time as <code>YYYYMMDDhhmmss.uuuuuu</code>.  It follows the
+ * local clock, corrected by the difference with the database clock measured
+ * each time a connection is opened, and never hands out the same or a smaller
+ * timestamp twice: when the local clock stands still or goes back, the clock
+ * ticks on by one microsecond.  There is one clock per database url (without
+ * its parameters), so the timestamps are unique across all the connections of
+ * the process to one database, and two transactions changing the same row in
+ * the same microsecond both keep their version.
+ *
+ * A transaction takes its timestamp before its statements wait for the locks
+ * of their rows, so it can find a row another transaction changed after that
+ * timestamp.  ConnectionSpy.checkClosed fails a statement that closed such a
+ * version, and moves the clock past it for the retry.
+ *
+ * When several processes write to the same database, setting
+ * <b>log4jdbc.temporal.clock.sequence</b> to the name of a one row table
+ * (<code>CREATE TABLE temporal_clock (node BIGINT NOT NULL)</code> holding one
+ * row with 0) makes the timestamps unique across processes too: the first
+ * connection of each process takes the next number from the table, and the
+ * process only hands out timestamps that are equal to that number modulo
+ * <b>log4jdbc.temporal.clock.nodes</b>.  That many processes can write at the
+ * same time, each one taking at most one timestamp per that many
+ * microseconds.  The numbers are never given back, so once that many
+ * processes have started the next one fails to connect rather than share a
+ * number with a process that may still be running; set the row back to 0
+ * while no process is connected to hand them out again.
+ */
+public class TransactionClock
+{
+  private static final ConcurrentHashMap<String, TransactionClock> clocks =
+    new ConcurrentHashMap<String, TransactionClock>();
+
+  private static final long MICROS_PER_DAY = 86400000000L;
+
+  private static final BigInteger MILLION = BigInteger.valueOf(1000000);
+
+  // the local clock: System.currentTimeMillis() at class load, advanced with
+  // System.nanoTime() for microsecond resolution.  The drift from the wall
+  // clock is corrected by the skew measured at each connect.
+  private static final long baseMicros = System.currentTimeMillis() * 1000;
+  private static final long baseNanos = System.nanoTime();
+
+  /**
+   * last timestamp handed out, in microseconds of database wall clock time
+   */
+  private final AtomicLong last = new AtomicLong();
+
+  /**
+   * database wall clock time minus local wall clock time, in microseconds
+   */
+  private volatile long skew;
+
+  /**
+   * the timestamps this clock hands out are equal to node modulo nodes
+   */
+  private volatile int node;
+
+  private volatile int nodes = 1;
+
+  private TransactionClock() {}
+
+  /**
+   * Get the clock for the database a connection is open to, and bring it in
+   * line with the database clock.
+   *
+   * @param conn a real connection.
+   * @return the clock of the database.
+   * @throws SQLException if the database time cannot be read.
+   */
+  public static TransactionClock getClock(Connection conn) throws SQLException
+  {
+    String url = conn.getMetaData().getURL();
+    int parameters = url.indexOf('?');
+    if (parameters > 0)
+    {
+      url = url.substring(0, parameters);
+    }
+    TransactionClock clock = clocks.get(url);
+    if (clock == null)
+    {
+      TransactionClock newClock = new TransactionClock();
+      clock = clocks.putIfAbsent(url, newClock);
+      if (clock == null)
+      {
+        clock = newClock;
+      }
+    }
+    if (DriverSpy.TemporalClockSequence != null)
+    {
+      clock.register(conn);
+    }
+    clock.seed(conn);
+    return clock;
+  }
+
+  /**
+   * Take the node number of this process from the sequence table, the first
+   * time a connection to the database is opened.  This runs on the new
+   * connection, before the application gets it.
+   */
+  private synchronized void register(Connection conn) throws SQLException
+  {
+    if (nodes > 1 || DriverSpy.TemporalClockNodes <= 1)
+    {
+      return;
+    }
+    String table = DriverSpy.TemporalClockSequence;
+    boolean autoCommit = conn.getAutoCommit();
+    conn.setAutoCommit(false);
+    Statement st = conn.createStatement();
+    try
+    {
+      st.executeUpdate("UPDATE " + table + " SET node = node + 1");
+      ResultSet rs = st.executeQuery("SELECT node FROM " + table);
+      if (!rs.next())
+      {
+        throw new SQLException("The clock sequence table " + table + " must hold one row");
+      }
+      long n = rs.getLong(1);
+      rs.close();
+      if (n > DriverSpy.TemporalClockNodes)
+      {
+        throw new SQLException("The " + DriverSpy.TemporalClockNodes + " node numbers of the clock sequence table " +
+          table + " are all taken; set its row back to 0 while no process is connected, or raise " +
+          "log4jdbc.temporal.clock.nodes");
+      }
+      conn.commit();
+      node = (int) (n % DriverSpy.TemporalClockNodes);
+      nodes = DriverSpy.TemporalClockNodes;
+    }
+    catch (SQLException e)
+    {
+      conn.rollback();
+      throw e;
+    }
+    finally
+    {
+      st.close();
+      conn.setAutoCommit(autoCommit);
+    }
+  }
+
+  /**
+   * Measure the difference between the database clock and the local clock.
+   * The clock is also moved up to the database time if it is behind it.
+   *
+   * The time is read from now_usec() itself where the UDF is installed, so
+   * the clock starts from the time the versions already written carry, and
+   * else with microseconds from CURRENT_TIMESTAMP(6).  Plain
+   * CURRENT_TIMESTAMP, only precise to the second on MySQL, is the last
+   * resort.
+   */
+  private void seed(Connection conn) throws SQLException
+  {
+    String[] queries = {"SELECT now_usec()", "SELECT CURRENT_TIMESTAMP(6)", "SELECT CURRENT_TIMESTAMP"};
+    for (int q = 0; q < queries.length; q++)
+    {
+      try
+      {
+        seed(conn, queries[q], q == 0);
+        return;
+      }
+      catch (SQLException e)
+      {
+        if (q == queries.length - 1)
+        {
+          throw e;
+        }
+      }
+    }
+  }
+
+  private void seed(Connection conn, String query, boolean decimal) throws SQLException
+  {
+    Statement st = conn.createStatement();
+    try
+    {
+      long before = localMicros();
+      ResultSet rs = st.executeQuery(query);
+      long after = localMicros();
+      if (rs.next())
+      {
+        long db;
+        if (decimal)
+        {
+          db = toMicros(rs.getBigDecimal(1));
+        }
+        else
+        {
+          Timestamp ts = rs.getTimestamp(1);
+          long millis = ts.getTime();
+          db = (millis - millis % 1000) * 1000 + ts.getNanos() / 1000 +
+            TimeZone.getDefault().getOffset(millis) * 1000L;
+        }
+        skew = db - (before + (after - before) / 2);
+        advance(db);
+      }
+      rs.close();
+    }
+    finally
+    {
+      st.close();
+    }
+  }
+
+  /**
+   * Move the clock up past a time the database holds, so that it never
+   * hands out a timestamp before it again.
+   *
+   * @param timestamp a time in the format of now_usec().
+   */
+  public void advance(BigDecimal timestamp)
+  {
+    advance(toMicros(timestamp));
+  }
+
+  /**
+   * Move the clock up to at least the given time.
+   */
+  private void advance(long micros)
+  {
+    long l = last.get();
+    while (l < micros && !last.compareAndSet(l, micros))
+    {
+      l = last.get();
+    }
+  }
+
+  /**
+   * @return the local wall clock time in microseconds.
+   */
+  private static long localMicros()
+  {
+    long micros = baseMicros + (System.nanoTime() - baseNanos) / 1000;
+    return micros + TimeZone.getDefault().getOffset(micros / 1000) * 1000L;
+  }
+
+  /**
+   * Get a new timestamp, larger than any this clock handed out before.
+   *
+   * @return the timestamp in microseconds of database wall clock time.
+   */
+  public long nextMicros()
+  {
+    long now = localMicros() + skew;
+    int n = nodes;
+    for (;;)
+    {
+      long l = last.get();
+      long t = now > l ? now : l + 1;
+      if (n > 1)
+      {
+        // move up to the next microsecond that belongs to this node
+        t += ((node - t % n) % n + n) % n;
+      }
+      if (last.compareAndSet(l, t))
+      {
+        return t;
+      }
+    }
+  }
+
+  /**
+   * Get a new timestamp, larger than any this clock handed out before.
+   *
+   * @return the timestamp as the DECIMAL(20,6) now_usec() would return.
+   */
+  public BigDecimal nextTimestamp()
+  {
+    return toDecimal(nextMicros());
+  }
+
+  /**
+   * Format a time the way now_usec() does, as YYYYMMDDhhmmss.uuuuuu.
+   *
+   * @param micros wall clock time in microseconds since 1970-01-01 00:00:00.
+   * @return the time as a decimal.
+   */
+  static BigDecimal toDecimal(long micros)
+  {
+    long days = micros / MICROS_PER_DAY;
+    long rem = micros % MICROS_PER_DAY;
+    if (rem < 0)
+    {
+      days--;
+      rem += MICROS_PER_DAY;
+    }
+
+    // civil date from a day number, after Howard Hinnant's days_from_civil
+    long z = days + 719468;
+    long era = (z >= 0 ? z : z - 146096) / 146097;
+    long doe = z - era * 146097;
+    long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+    long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+    long mp = (5 * doy + 2) / 153;
+    long day = doy - (153 * mp + 2) / 5 + 1;
+    long month = mp < 10 ? mp + 3 : mp - 9;
+    long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+
+    long seconds = rem / 1000000;
+    long digits = ((((year * 100 + month) * 100 + day) * 100 + seconds / 3600) * 100 +
+      seconds / 60 % 60) * 100 + seconds % 60;
+    return new BigDecimal(BigInteger.valueOf(digits).multiply(MILLION).add(
+      BigInteger.valueOf(rem % 1000000)), 6);
+  }
+
+  /**
+   * Parse a time in the format of now_usec(), the inverse of toDecimal.
+   *
+   * @param decimal the time as YYYYMMDDhhmmss.uuuuuu.
+   * @return wall clock time in microseconds since 1970-01-01 00:00:00.
+   */
+  static long toMicros(BigDecimal decimal)
+  {
+    BigInteger[] parts = decimal.setScale(6, BigDecimal.ROUND_DOWN).unscaledValue().divideAndRemainder(MILLION);
+    long digits = parts[0].longValue();
+    long seconds = digits % 100 + digits / 100 % 100 * 60 + digits / 10000 % 100 * 3600;
+    long day = digits / 1000000 % 100;
+    long month = digits / 100000000 % 100;
+    long year = digits / 10000000000L;
+
+    // day number of a civil date, after Howard Hinnant's days_from_civil
+    year -= month <= 2 ? 1 : 0;
+    long era = (year >= 0 ? year : year - 399) / 400;
+    long yoe = year - era * 400;
+    long doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+    long days = era * 146097 + doe - 719468;
+    return (days * 86400 + seconds) * 1000000 + parts[1].longValue();
+  }
+
+  /**
+   * Find the now_usec() calls in a SQL statement, outside of quoted strings
+   * and identifiers.
+   *
+   * @param sql a SQL statement.
+   * @return start (inclusive) and end (exclusive) position of each call,
+   *         one after the other.
+   */
+  static int[] findCalls(String sql)
+  {
+    List<Integer> calls = new ArrayList<Integer>();
+    char quote = 0;
+    for (int i = 0, len = sql.length(); i < len; i++)
+    {
+      char c = sql.charAt(i);
+      if (quote != 0)
+      {
+        if (c == '\\' && quote != '`')
+        {
+          i++;
+        }
+        else if (c == quote)
+        {
+          quote = 0;
+        }
+      }
+      else if (c == '\'' || c == '"' || c == '`')
+      {
+        quote = c;
+      }
+      else if ((c == 'n' || c == 'N') && sql.regionMatches(true, i, "now_usec", 0, 8) &&
+               (i == 0 || !Character.isJavaIdentifierPart(sql.charAt(i - 1))))
+      {
+        int j = skipBlanks(sql, i + 8);
+        if (j < len && sql.charAt(j) == '(')
+        {
+          j = skipBlanks(sql, j + 1);
+          if (j < len && sql.charAt(j) == ')')
+          {
+            calls.add(Integer.valueOf(i));
+            calls.add(Integer.valueOf(j + 1));
+            i = j;
+          }
+        }
+      }
+    }
+    int[] result = new int[calls.size()];
+    for (int i = 0; i < result.length; i++)
+    {
+      result[i] = calls.get(i).intValue();
+    }
+    return result;
+  }
+
+  private static int skipBlanks(String sql, int i)
+  {
+    while (i < sql.length() && Character.isWhitespace(sql.charAt(i)))
+    {
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * Replace the now_usec() calls in a SQL statement.
+   *
+   * @param sql         a SQL statement.
+   * @param replacement the text to put in place of each call.
+   * @return the statement with the calls replaced.
+   */
+  static String replaceCalls(String sql, String replacement)
+  {
+    int[] calls = findCalls(sql);
+    if (calls.length == 0)
+    {
+      return sql;
+    }
+    StringBuffer replaced = new StringBuffer(sql.length());
+    int pos = 0;
+    for (int c = 0; c < calls.length; c += 2)
+    {
+      replaced.append(sql.substring(pos, calls[c]));
+      replaced.append(replacement);
+      pos = calls[c + 1];
+    }
+    replaced.append(sql.substring(pos));
+    return replaced.toString();
+  }
+}